@@ -0,0 +1,188 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.common;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Timer backed by a hashed wheel shared by all timers. Timers are kept in doubly linked lists per wheel slot, so
+ * scheduling and stopping a timer takes constant time, and each tick only visits the timers of one slot.
+ *
+ * Unlike the FrameRateTimer, which checks all timers on every frame of the MasterTimer, the cost of a tick does not
+ * grow with the number of pending timers. Timers have the same resolution of 100 ms and run on the thread of the wheel.
+ */
+@Slf4j
+public class HashedWheelTimer implements Timer {
+    public static final long TICK_MS = MasterTimer.FRAME_INTERVAL_MS;
+    private static final int WHEEL_SIZE = 512; // one rotation is 51.2 seconds
+    private static final Wheel WHEEL = new Wheel(TICK_MS, WHEEL_SIZE);
+
+    private Runnable runnable;
+    private long intervalMs;
+    private boolean isPeriodically;
+    private volatile boolean stopped;
+
+    // Position in the wheel, guarded by the wheel
+    private long deadlineTick;
+    private int slot = -1;
+    private HashedWheelTimer previous;
+    private HashedWheelTimer next;
+
+    public HashedWheelTimer() {
+    }
+
+    @Override
+    public Timer runLater(Duration delay, Runnable runnable) {
+        this.intervalMs = delay.toMillis();
+        this.runnable = runnable;
+        WHEEL.schedule(this, intervalMs);
+        return this;
+    }
+
+    @Override
+    public Timer runPeriodically(Duration interval, Runnable runnable) {
+        this.intervalMs = interval.toMillis();
+        this.isPeriodically = true;
+        this.runnable = runnable;
+        WHEEL.schedule(this, intervalMs);
+        return this;
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        WHEEL.cancel(this);
+    }
+
+    public static int getNumScheduled() {
+        return WHEEL.getSize();
+    }
+
+    private void expire() {
+        if (stopped) return;
+        try {
+            runnable.run();
+        } catch (Throwable t) {
+            log.error("exception in HashedWheelTimer", t);
+            stop();
+            return;
+        }
+        if (isPeriodically && !stopped) WHEEL.schedule(this, intervalMs);
+        else stopped = true;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Wheel
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private static class Wheel {
+        private final long tickNanos;
+        private final int mask;
+        private final HashedWheelTimer[] slots;
+        private final long startNanos = System.nanoTime();
+        private long tick; // next tick to process
+        private int size;
+
+        private Wheel(long tickMs, int wheelSize) {
+            if (Integer.bitCount(wheelSize) != 1) throw new IllegalArgumentException("wheelSize must be a power of two");
+            this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+            this.mask = wheelSize - 1;
+            this.slots = new HashedWheelTimer[wheelSize];
+            Thread worker = new Thread(this::run, HashedWheelTimer.class.getSimpleName());
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        private synchronized void schedule(HashedWheelTimer timer, long delayMs) {
+            unlink(timer);
+            long elapsedNanos = System.nanoTime() - startNanos;
+
+            // skip the ticks passed while the wheel was empty
+            if (size == 0) tick = Math.max(tick, elapsedNanos / tickNanos);
+
+            long deadlineNanos = elapsedNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMs));
+            timer.deadlineTick = Math.max(tick, (deadlineNanos + tickNanos - 1) / tickNanos);
+            timer.slot = (int) (timer.deadlineTick & mask);
+            timer.previous = null;
+            timer.next = slots[timer.slot];
+            if (timer.next != null) timer.next.previous = timer;
+            slots[timer.slot] = timer;
+            if (size++ == 0) notifyAll();
+        }
+
+        private synchronized void cancel(HashedWheelTimer timer) {
+            unlink(timer);
+        }
+
+        private synchronized int getSize() {
+            return size;
+        }
+
+        private void unlink(HashedWheelTimer timer) {
+            if (timer.slot < 0) return;
+            if (timer.previous != null) timer.previous.next = timer.next;
+            else slots[timer.slot] = timer.next;
+            if (timer.next != null) timer.next.previous = timer.previous;
+            timer.previous = null;
+            timer.next = null;
+            timer.slot = -1;
+            size--;
+        }
+
+        private void run() {
+            List<HashedWheelTimer> expired = new ArrayList<>();
+            try {
+                while (true) {
+                    synchronized (this) {
+                        while (size == 0) wait();
+                        long waitNanos = startNanos + tick * tickNanos - System.nanoTime();
+                        if (waitNanos > 0) {
+                            TimeUnit.NANOSECONDS.timedWait(this, waitNanos);
+                            continue;
+                        }
+                        collectExpired(expired);
+                        tick++;
+                    }
+
+                    // run outside the lock so timers can be scheduled and stopped from the runnables
+                    for (HashedWheelTimer timer : expired) timer.expire();
+                    expired.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void collectExpired(List<HashedWheelTimer> expired) {
+            HashedWheelTimer timer = slots[(int) (tick & mask)];
+            while (timer != null) {
+                HashedWheelTimer next = timer.next;
+                if (timer.deadlineTick <= tick) {
+                    unlink(timer);
+                    expired.add(timer);
+                }
+                timer = next;
+            }
+        }
+    }
+}
@@ -129,7 +129,7 @@ public class ThreadUtils {
     public static List<Future<?>> awaitTasks(Collection<Runnable> tasks, int maxConcurrency, Long timeoutMs) {
         if (timeoutMs == null) timeoutMs = Long.MAX_VALUE;
         if (tasks.isEmpty()) return new ArrayList<>();
-        ExecutorService executorService = Executors.newFixedThreadPool(tasks.size());
+        ExecutorService executorService = Executors.newFixedThreadPool(Math.min(maxConcurrency, tasks.size()));
         try {
             List<Future<?>> futures = new ArrayList<>();
             for (Runnable task : tasks) futures.add(executorService.submit(task, null));
@@ -93,8 +93,11 @@ public class Config {
     public static final String TOR_STREAM_ISOLATION = "torStreamIsolation";
     public static final String MSG_THROTTLE_PER_SEC = "msgThrottlePerSec";
     public static final String MSG_THROTTLE_PER_10_SEC = "msgThrottlePer10Sec";
+    public static final String SEND_MSG_REFILL_INTERVAL = "sendMsgRefillInterval";
+    // Deprecated and ignored, outbound messages are paced by SEND_MSG_REFILL_INTERVAL
     public static final String SEND_MSG_THROTTLE_TRIGGER = "sendMsgThrottleTrigger";
     public static final String SEND_MSG_THROTTLE_SLEEP = "sendMsgThrottleSleep";
+    public static final String USE_VIRTUAL_THREADS = "useVirtualThreads";
     public static final String IGNORE_LOCAL_XMR_NODE = "ignoreLocalXmrNode";
     public static final String BITCOIN_REGTEST_HOST = "bitcoinRegtestHost";
     public static final String XMR_NODE = "xmrNode";
@@ -102,6 +105,9 @@ public class Config {
     public static final String XMR_NODE_PASSWORD = "xmrNodePassword";
     public static final String XMR_NODES = "xmrNodes";
     public static final String USE_NATIVE_XMR_WALLET = "useNativeXmrWallet";
+    public static final String MAX_CONCURRENT_DAEMON_REQUESTS = "maxConcurrentDaemonRequests";
+    public static final String MAX_CONCURRENT_TRADE_POLLS = "maxConcurrentTradePolls";
+    public static final String MAX_OPEN_TRADE_WALLETS = "maxOpenTradeWallets";
     public static final String SOCKS5_DISCOVER_MODE = "socks5DiscoverMode";
     public static final String USE_ALL_PROVIDED_NODES = "useAllProvidedNodes";
     public static final String USER_AGENT = "userAgent";
@@ -119,11 +125,15 @@ public class Config {
     public static final String PASSWORD_REQUIRED = "passwordRequired";
     public static final String UPDATE_XMR_BINARIES = "updateXmrBinaries";
     public static final String XMR_BLOCKCHAIN_PATH = "xmrBlockchainPath";
+    public static final String REPUBLISH_OFFERS_CONCURRENCY = "republishOffersConcurrency";
 
     // Default values for certain options
     public static final int UNSPECIFIED_PORT = -1;
     public static final String DEFAULT_REGTEST_HOST = "none";
     public static final int DEFAULT_NUM_CONNECTIONS_FOR_BTC = 9; // down from BitcoinJ default of 12
+    public static final int DEFAULT_MAX_CONCURRENT_DAEMON_REQUESTS = 4;
+    public static final int DEFAULT_MAX_CONCURRENT_TRADE_POLLS = 4;
+    public static final int DEFAULT_MAX_OPEN_TRADE_WALLETS = 20;
     static final String DEFAULT_CONFIG_FILE_NAME = "haveno.properties";
 
     // Static fields that provide access to Config properties in locations where injecting
@@ -187,13 +197,18 @@ public class Config {
     public final boolean torStreamIsolation;
     public final int msgThrottlePerSec;
     public final int msgThrottlePer10Sec;
-    public final int sendMsgThrottleTrigger;
-    public final int sendMsgThrottleSleep;
+    public final int sendMsgRefillInterval;
+    public final boolean sendMsgThrottleTriggerOptionSetExplicitly;
+    public final boolean sendMsgThrottleSleepOptionSetExplicitly;
+    public final boolean useVirtualThreads;
     public final String xmrNode;
     public final String xmrNodeUsername;
     public final String xmrNodePassword;
     public final String xmrNodes;
     public final boolean useNativeXmrWallet;
+    public final int maxConcurrentDaemonRequests;
+    public final int maxConcurrentTradePolls;
+    public final int maxOpenTradeWallets;
     public final UseTorForXmr useTorForXmr;
     public final boolean useTorForXmrOptionSetExplicitly;
     public final String socks5DiscoverMode;
@@ -208,6 +223,7 @@ public class Config {
     public final boolean passwordRequired;
     public final boolean updateXmrBinaries;
     public final String xmrBlockchainPath;
+    public final int republishOffersConcurrency;
 
     // Properties derived from options but not exposed as options themselves
     public final File torDir;
@@ -513,17 +529,28 @@ public class Config {
                         // With PERMITTED_MESSAGE_SIZE of 200kb results in bandwidth of 20MB/sec or 2.5 mbit/sec
                         .defaultsTo(1000);
 
-        ArgumentAcceptingOptionSpec<Integer> sendMsgThrottleTriggerOpt =
-                parser.accepts(SEND_MSG_THROTTLE_TRIGGER, "Time in ms when we trigger a sleep if 2 messages are sent")
+        ArgumentAcceptingOptionSpec<Integer> sendMsgRefillIntervalOpt =
+                parser.accepts(SEND_MSG_REFILL_INTERVAL, "Interval in ms in which a connection can send another bulk message after a burst")
                         .withRequiredArg()
                         .ofType(int.class)
-                        .defaultsTo(20); // Time in ms when we trigger a sleep if 2 messages are sent
+                        .defaultsTo(20);
+
+        // Still accepted, so existing configurations do not fail to parse
+        ArgumentAcceptingOptionSpec<Integer> sendMsgThrottleTriggerOpt =
+                parser.accepts(SEND_MSG_THROTTLE_TRIGGER, "Deprecated and ignored, outbound messages are paced by " + SEND_MSG_REFILL_INTERVAL)
+                        .withRequiredArg()
+                        .ofType(int.class);
 
         ArgumentAcceptingOptionSpec<Integer> sendMsgThrottleSleepOpt =
-                parser.accepts(SEND_MSG_THROTTLE_SLEEP, "Pause in ms to sleep if we get too many messages to send")
+                parser.accepts(SEND_MSG_THROTTLE_SLEEP, "Deprecated and ignored, outbound messages are paced by " + SEND_MSG_REFILL_INTERVAL)
                         .withRequiredArg()
-                        .ofType(int.class)
-                        .defaultsTo(50); // Pause in ms to sleep if we get too many messages to send
+                        .ofType(int.class);
+
+        ArgumentAcceptingOptionSpec<Boolean> useVirtualThreadsOpt =
+                parser.accepts(USE_VIRTUAL_THREADS, "Run P2P connection I/O on virtual threads")
+                        .withRequiredArg()
+                        .ofType(boolean.class)
+                        .defaultsTo(false);
 
         ArgumentAcceptingOptionSpec<String> xmrNodeOpt =
                 parser.accepts(XMR_NODE, "URI of custom Monero node to use")
@@ -552,6 +579,24 @@ public class Config {
                         .ofType(boolean.class)
                         .defaultsTo(false);
 
+        ArgumentAcceptingOptionSpec<Integer> maxConcurrentDaemonRequestsOpt =
+                parser.accepts(MAX_CONCURRENT_DAEMON_REQUESTS, "Max number of long requests (e.g. refresh, create txs) running concurrently against a Monero node")
+                        .withRequiredArg()
+                        .ofType(int.class)
+                        .defaultsTo(DEFAULT_MAX_CONCURRENT_DAEMON_REQUESTS);
+
+        ArgumentAcceptingOptionSpec<Integer> maxConcurrentTradePollsOpt =
+                parser.accepts(MAX_CONCURRENT_TRADE_POLLS, "Max number of trade wallets polled concurrently")
+                        .withRequiredArg()
+                        .ofType(int.class)
+                        .defaultsTo(DEFAULT_MAX_CONCURRENT_TRADE_POLLS);
+
+        ArgumentAcceptingOptionSpec<Integer> maxOpenTradeWalletsOpt =
+                parser.accepts(MAX_OPEN_TRADE_WALLETS, "Max number of open trade wallets, beyond which the least recently used idle wallets are closed")
+                        .withRequiredArg()
+                        .ofType(int.class)
+                        .defaultsTo(DEFAULT_MAX_OPEN_TRADE_WALLETS);
+
         //noinspection rawtypes
         ArgumentAcceptingOptionSpec<Enum> useTorForXmrOpt =
                 parser.accepts(USE_TOR_FOR_XMR, "Configure TOR for Monero connections, one of: after_sync, off, or on.")
@@ -639,6 +684,13 @@ public class Config {
                         .ofType(String.class)
                         .defaultsTo("");
 
+        ArgumentAcceptingOptionSpec<Integer> republishOffersConcurrencyOpt =
+                parser.accepts(REPUBLISH_OFFERS_CONCURRENCY,
+                        "Max. number of open offers to republish concurrently")
+                        .withRequiredArg()
+                        .ofType(int.class)
+                        .defaultsTo(4);
+
         try {
             CompositeOptionSet options = new CompositeOptionSet();
 
@@ -731,13 +783,18 @@ public class Config {
             this.socks5ProxyHttpAddress = options.valueOf(socks5ProxyHttpAddressOpt);
             this.msgThrottlePerSec = options.valueOf(msgThrottlePerSecOpt);
             this.msgThrottlePer10Sec = options.valueOf(msgThrottlePer10SecOpt);
-            this.sendMsgThrottleTrigger = options.valueOf(sendMsgThrottleTriggerOpt);
-            this.sendMsgThrottleSleep = options.valueOf(sendMsgThrottleSleepOpt);
+            this.sendMsgRefillInterval = options.valueOf(sendMsgRefillIntervalOpt);
+            this.sendMsgThrottleTriggerOptionSetExplicitly = options.has(sendMsgThrottleTriggerOpt);
+            this.sendMsgThrottleSleepOptionSetExplicitly = options.has(sendMsgThrottleSleepOpt);
+            this.useVirtualThreads = options.valueOf(useVirtualThreadsOpt);
             this.xmrNode = options.valueOf(xmrNodeOpt);
             this.xmrNodeUsername = options.valueOf(xmrNodeUsernameOpt);
             this.xmrNodePassword = options.valueOf(xmrNodePasswordOpt);
             this.xmrNodes = options.valueOf(xmrNodesOpt);
             this.useNativeXmrWallet = options.valueOf(useNativeXmrWalletOpt);
+            this.maxConcurrentDaemonRequests = options.valueOf(maxConcurrentDaemonRequestsOpt);
+            this.maxConcurrentTradePolls = options.valueOf(maxConcurrentTradePollsOpt);
+            this.maxOpenTradeWallets = options.valueOf(maxOpenTradeWalletsOpt);
             this.useTorForXmr = (UseTorForXmr) options.valueOf(useTorForXmrOpt);
             this.useTorForXmrOptionSetExplicitly = options.has(useTorForXmrOpt);
             this.socks5DiscoverMode = options.valueOf(socks5DiscoverModeOpt);
@@ -753,6 +810,7 @@ public class Config {
             this.passwordRequired = options.valueOf(passwordRequiredOpt);
             this.updateXmrBinaries = options.valueOf(updateXmrBinariesOpt);
             this.xmrBlockchainPath = options.valueOf(xmrBlockchainPathOpt);
+            this.republishOffersConcurrency = options.valueOf(republishOffersConcurrencyOpt);
         } catch (OptionException ex) {
             throw new ConfigException("problem parsing option '%s': %s",
                     ex.options().get(0),
@@ -0,0 +1,488 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.common.persistence;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import haveno.common.crypto.CryptoException;
+import haveno.common.crypto.Encryption;
+import haveno.common.crypto.Hash;
+import haveno.common.crypto.KeyRing;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only delta log for persisted stores with a {@link PersistenceManager.Source} which is incremental.
+ *
+ * A store is split into segments: every element of a repeated message field of the store message is a segment and
+ * all other fields together form the header. Instead of rewriting the whole snapshot file on each persist request we
+ * append a record with the removed segment hashes and the inserted segments to a log file next to the snapshot. Once
+ * the log grows beyond half of the snapshot size the caller writes a new snapshot (compaction) which resets the log.
+ *
+ * The first record of the log carries the hash of the snapshot file it is based on, so a log left over from a crash
+ * between writing the snapshot and resetting the log is detected and ignored. A truncated or corrupted record at the
+ * end of the log (e.g. from a crash while appending) ends the replay and gets overwritten at the next append.
+ */
+@Slf4j
+class PersistenceLog {
+    private static final long MIN_COMPACTION_SIZE = 64 * 1024;
+
+    private final File logFile;
+    @Nullable
+    private final KeyRing keyRing;
+
+    // Segment hashes of the state a reader would reconstruct from snapshot and log. Null if unknown, which
+    // enforces a full snapshot at the next write.
+    @Nullable
+    private Segments segments;
+    @Nullable
+    private ByteString snapshotHash;
+    private long snapshotSize;
+    private long logSize;
+    private boolean logInitialized;
+
+    PersistenceLog(File logFile, @Nullable KeyRing keyRing) {
+        this.logFile = logFile;
+        this.keyRing = keyRing;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Applies the records of the log to the snapshot read from disk.
+     *
+     * @param snapshot          The envelope parsed from the snapshot file.
+     * @param snapshotFileBytes The raw bytes of the snapshot file.
+     * @return The envelope with all valid records of the log applied.
+     */
+    synchronized protobuf.PersistableEnvelope replay(protobuf.PersistableEnvelope snapshot, byte[] snapshotFileBytes) {
+        snapshotHash = ByteString.copyFrom(Hash.getSha256Hash(snapshotFileBytes));
+        snapshotSize = snapshotFileBytes.length;
+        logSize = 0;
+        logInitialized = false;
+
+        protobuf.PersistableEnvelope result = snapshot;
+        if (logFile.exists()) {
+            try {
+                result = applyLog(snapshot);
+            } catch (Throwable t) {
+                log.warn("Replaying {} failed, we use the snapshot only. {}", logFile.getName(), t.toString());
+                result = snapshot;
+                logSize = 0;
+                logInitialized = false;
+            }
+        }
+        segments = Segments.from(result);
+        return result;
+    }
+
+    /**
+     * Appends the difference between the last persisted state and the given envelope to the log.
+     *
+     * @return True if the change got appended (or there was no change), false if a full snapshot must be written.
+     */
+    synchronized boolean append(protobuf.PersistableEnvelope serialized) throws IOException, CryptoException {
+        if (segments == null || snapshotHash == null) {
+            return false;
+        }
+
+        Segments newSegments = Segments.from(serialized);
+        if (newSegments == null || newSegments.storeFieldNumber != segments.storeFieldNumber) {
+            return false;
+        }
+
+        protobuf.PersistenceLogRecord record = segments.diff(newSegments);
+        if (record == null) {
+            return false;
+        }
+        if (!record.getHeaderChanged() && record.getFieldDeltasCount() == 0) {
+            return true;
+        }
+
+        byte[] bytes = toRecordBytes(record);
+        long maxLogSize = Math.max(snapshotSize / 2, MIN_COMPACTION_SIZE);
+        if (logSize + bytes.length > maxLogSize) {
+            return false;
+        }
+
+        try {
+            if (!logInitialized) {
+                resetLogFile();
+            } else {
+                truncateToValidLength();
+            }
+            try (FileOutputStream fileOutputStream = new FileOutputStream(logFile, true)) {
+                writeRecord(fileOutputStream, bytes);
+            }
+        } catch (IOException e) {
+            // We don't know what got written, so the next write has to be a full snapshot
+            segments = null;
+            throw e;
+        }
+        logSize += Integer.BYTES + bytes.length;
+        segments = newSegments;
+        return true;
+    }
+
+    /**
+     * Called after a full snapshot got written. Resets the log so that it is based on the new snapshot.
+     */
+    synchronized void onSnapshotWritten(protobuf.PersistableEnvelope serialized, byte[] snapshotFileBytes) {
+        snapshotHash = ByteString.copyFrom(Hash.getSha256Hash(snapshotFileBytes));
+        snapshotSize = snapshotFileBytes.length;
+        segments = Segments.from(serialized);
+        try {
+            resetLogFile();
+        } catch (Throwable t) {
+            log.warn("Resetting {} failed. {}", logFile.getName(), t.toString());
+            logInitialized = false;
+            segments = null;
+        }
+    }
+
+    synchronized void invalidate() {
+        segments = null;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private protobuf.PersistableEnvelope applyLog(protobuf.PersistableEnvelope snapshot) throws IOException {
+        Descriptors.FieldDescriptor storeField = getStoreField(snapshot);
+        if (storeField == null) {
+            return snapshot;
+        }
+        Message store = (Message) snapshot.getField(storeField);
+        Message header = clearSegmentedFields(store);
+        Map<Descriptors.FieldDescriptor, SegmentSequence> sequences = new LinkedHashMap<>();
+        for (Descriptors.FieldDescriptor field : getSegmentedFields(store)) {
+            SegmentSequence sequence = new SegmentSequence();
+            for (int i = 0; i < store.getRepeatedFieldCount(field); i++) {
+                Message element = (Message) store.getRepeatedField(field, i);
+                sequence.append(hash(element.toByteString()), element);
+            }
+            sequences.put(field, sequence);
+        }
+
+        long position = 0;
+        int numRecords = 0;
+        try (DataInputStream inputStream = new DataInputStream(new FileInputStream(logFile))) {
+            long fileLength = logFile.length();
+            while (true) {
+                protobuf.PersistenceLogRecord record;
+                long bytesRead;
+                try {
+                    int length = inputStream.readInt();
+                    if (length < 0 || position + Integer.BYTES + length > fileLength) {
+                        log.warn("Found truncated record in {}, we ignore the rest of the log", logFile.getName());
+                        break;
+                    }
+                    byte[] bytes = new byte[length];
+                    inputStream.readFully(bytes);
+                    bytesRead = position + Integer.BYTES + length;
+                    record = fromRecordBytes(bytes);
+                } catch (EOFException e) {
+                    break;
+                } catch (CryptoException | InvalidProtocolBufferException e) {
+                    log.warn("Found corrupted record in {}, we ignore the rest of the log. {}", logFile.getName(), e.toString());
+                    break;
+                }
+
+                if (numRecords == 0) {
+                    if (!record.getSnapshotHash().equals(snapshotHash)) {
+                        log.info("{} is not based on the current snapshot, we ignore it", logFile.getName());
+                        return snapshot;
+                    }
+                } else {
+                    if (record.getHeaderChanged()) {
+                        header = store.newBuilderForType().mergeFrom(record.getHeader()).build();
+                    }
+                    for (protobuf.PersistenceLogFieldDelta fieldDelta : record.getFieldDeltasList()) {
+                        Descriptors.FieldDescriptor field = store.getDescriptorForType().findFieldByNumber(fieldDelta.getFieldNumber());
+                        SegmentSequence sequence = sequences.get(field);
+                        if (sequence == null) {
+                            throw new IOException("Unknown segmented field " + fieldDelta.getFieldNumber());
+                        }
+                        fieldDelta.getRemovedList().forEach(sequence::remove);
+                        for (protobuf.PersistenceLogInsert insert : fieldDelta.getInsertedList()) {
+                            Message element = store.newBuilderForType().newBuilderForField(field).mergeFrom(insert.getElement()).build();
+                            sequence.insertAfter(insert.getAnchor().isEmpty() ? null : insert.getAnchor(),
+                                    hash(insert.getElement()),
+                                    element);
+                        }
+                    }
+                }
+                numRecords++;
+                position = bytesRead;
+                logSize = position;
+            }
+        }
+
+        logInitialized = numRecords > 0;
+        if (numRecords <= 1) {
+            return snapshot;
+        }
+
+        Message.Builder storeBuilder = header.toBuilder();
+        sequences.forEach((field, sequence) -> sequence.elements().forEach(element -> storeBuilder.addRepeatedField(field, element)));
+        log.info("Applied {} records of {} to snapshot", numRecords - 1, logFile.getName());
+        return protobuf.PersistableEnvelope.newBuilder().setField(storeField, storeBuilder.build()).build();
+    }
+
+    private void resetLogFile() throws IOException, CryptoException {
+        byte[] bytes = toRecordBytes(protobuf.PersistenceLogRecord.newBuilder().setSnapshotHash(snapshotHash).build());
+        try (FileOutputStream fileOutputStream = new FileOutputStream(logFile, false)) {
+            writeRecord(fileOutputStream, bytes);
+        }
+        logSize = Integer.BYTES + bytes.length;
+        logInitialized = true;
+    }
+
+    private void truncateToValidLength() throws IOException {
+        if (logFile.length() > logSize) {
+            try (RandomAccessFile randomAccessFile = new RandomAccessFile(logFile, "rw")) {
+                randomAccessFile.setLength(logSize);
+            }
+        }
+    }
+
+    private static void writeRecord(FileOutputStream fileOutputStream, byte[] bytes) throws IOException {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(Integer.BYTES + bytes.length);
+        DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+        dataOutputStream.writeInt(bytes.length);
+        dataOutputStream.write(bytes);
+        fileOutputStream.write(byteArrayOutputStream.toByteArray());
+        fileOutputStream.flush();
+        fileOutputStream.getFD().sync();
+    }
+
+    private byte[] toRecordBytes(protobuf.PersistenceLogRecord record) throws CryptoException {
+        byte[] bytes = record.toByteArray();
+        return keyRing != null ? Encryption.encryptPayloadWithHmac(bytes, keyRing.getSymmetricKey()) : bytes;
+    }
+
+    private protobuf.PersistenceLogRecord fromRecordBytes(byte[] bytes) throws CryptoException, InvalidProtocolBufferException {
+        byte[] decrypted = keyRing != null ? Encryption.decryptPayloadWithHmac(bytes, keyRing.getSymmetricKey()) : bytes;
+        return protobuf.PersistenceLogRecord.parseFrom(decrypted);
+    }
+
+    @Nullable
+    private static Descriptors.FieldDescriptor getStoreField(protobuf.PersistableEnvelope envelope) {
+        Descriptors.OneofDescriptor oneof = envelope.getDescriptorForType().getOneofs().get(0);
+        return envelope.getOneofFieldDescriptor(oneof);
+    }
+
+    private static List<Descriptors.FieldDescriptor> getSegmentedFields(Message store) {
+        return store.getDescriptorForType().getFields().stream()
+                .filter(field -> field.isRepeated() && field.getJavaType() == Descriptors.FieldDescriptor.JavaType.MESSAGE)
+                .collect(Collectors.toList());
+    }
+
+    private static Message clearSegmentedFields(Message store) {
+        Message.Builder builder = store.toBuilder();
+        getSegmentedFields(store).forEach(builder::clearField);
+        return builder.build();
+    }
+
+    private static ByteString hash(ByteString bytes) {
+        return ByteString.copyFrom(Hash.getSha256Hash(bytes.toByteArray()));
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Segments
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Hashes of the header and of all elements of the segmented fields, in their serialized order.
+     */
+    static class Segments {
+        final int storeFieldNumber;
+        final ByteString header;
+        final Map<Integer, List<ByteString>> fieldHashes;
+        final Map<Integer, List<ByteString>> fieldElements;
+
+        private Segments(int storeFieldNumber,
+                         ByteString header,
+                         Map<Integer, List<ByteString>> fieldHashes,
+                         Map<Integer, List<ByteString>> fieldElements) {
+            this.storeFieldNumber = storeFieldNumber;
+            this.header = header;
+            this.fieldHashes = fieldHashes;
+            this.fieldElements = fieldElements;
+        }
+
+        @Nullable
+        static Segments from(protobuf.PersistableEnvelope envelope) {
+            Descriptors.FieldDescriptor storeField = getStoreField(envelope);
+            if (storeField == null) {
+                return null;
+            }
+            Message store = (Message) envelope.getField(storeField);
+            Map<Integer, List<ByteString>> fieldHashes = new HashMap<>();
+            Map<Integer, List<ByteString>> fieldElements = new HashMap<>();
+            for (Descriptors.FieldDescriptor field : getSegmentedFields(store)) {
+                int count = store.getRepeatedFieldCount(field);
+                List<ByteString> hashes = new ArrayList<>(count);
+                List<ByteString> elements = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    ByteString element = ((Message) store.getRepeatedField(field, i)).toByteString();
+                    elements.add(element);
+                    hashes.add(hash(element));
+                }
+                fieldHashes.put(field.getNumber(), hashes);
+                fieldElements.put(field.getNumber(), elements);
+            }
+            return new Segments(storeField.getNumber(), clearSegmentedFields(store).toByteString(), fieldHashes, fieldElements);
+        }
+
+        /**
+         * @return The record which transforms this state into the given one, or null if the change cannot be
+         * expressed as delta (duplicated elements or reordered retained elements).
+         */
+        @Nullable
+        protobuf.PersistenceLogRecord diff(Segments target) {
+            protobuf.PersistenceLogRecord.Builder builder = protobuf.PersistenceLogRecord.newBuilder();
+            if (!header.equals(target.header)) {
+                builder.setHeaderChanged(true).setHeader(target.header);
+            }
+            for (Map.Entry<Integer, List<ByteString>> entry : target.fieldHashes.entrySet()) {
+                List<ByteString> previous = fieldHashes.getOrDefault(entry.getKey(), List.of());
+                List<ByteString> current = entry.getValue();
+                Set<ByteString> previousSet = new HashSet<>(previous);
+                Set<ByteString> currentSet = new HashSet<>(current);
+                if (previousSet.size() != previous.size() || currentSet.size() != current.size()) {
+                    return null;
+                }
+
+                List<ByteString> retainedPrevious = previous.stream().filter(currentSet::contains).collect(Collectors.toList());
+                List<ByteString> retainedCurrent = current.stream().filter(previousSet::contains).collect(Collectors.toList());
+                if (!retainedPrevious.equals(retainedCurrent)) {
+                    return null;
+                }
+
+                protobuf.PersistenceLogFieldDelta.Builder fieldDelta = protobuf.PersistenceLogFieldDelta.newBuilder()
+                        .setFieldNumber(entry.getKey());
+                previous.stream().filter(hash -> !currentSet.contains(hash)).forEach(fieldDelta::addRemoved);
+                List<ByteString> elements = target.fieldElements.get(entry.getKey());
+                for (int i = 0; i < current.size(); i++) {
+                    if (!previousSet.contains(current.get(i))) {
+                        fieldDelta.addInserted(protobuf.PersistenceLogInsert.newBuilder()
+                                .setAnchor(i == 0 ? ByteString.EMPTY : current.get(i - 1))
+                                .setElement(elements.get(i)));
+                    }
+                }
+                if (fieldDelta.getRemovedCount() > 0 || fieldDelta.getInsertedCount() > 0) {
+                    builder.addFieldDeltas(fieldDelta);
+                }
+            }
+            return builder.build();
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // SegmentSequence
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Doubly linked list of elements addressable by their hash, so removals and insertions after an anchor are O(1).
+     */
+    private static class SegmentSequence {
+        private static class Node {
+            final ByteString hash;
+            final Message element;
+            Node prev;
+            Node next;
+
+            Node(ByteString hash, Message element) {
+                this.hash = hash;
+                this.element = element;
+            }
+        }
+
+        private final Map<ByteString, Node> nodes = new HashMap<>();
+        private Node head;
+        private Node tail;
+
+        void append(ByteString hash, Message element) {
+            insert(tail, hash, element);
+        }
+
+        void insertAfter(@Nullable ByteString anchor, ByteString hash, Message element) {
+            insert(anchor == null ? null : nodes.get(anchor), hash, element);
+        }
+
+        void remove(ByteString hash) {
+            Node node = nodes.remove(hash);
+            if (node == null) {
+                return;
+            }
+            if (node.prev != null) node.prev.next = node.next;
+            else head = node.next;
+            if (node.next != null) node.next.prev = node.prev;
+            else tail = node.prev;
+        }
+
+        List<Message> elements() {
+            List<Message> list = new ArrayList<>(nodes.size());
+            for (Node node = head; node != null; node = node.next) {
+                list.add(node.element);
+            }
+            return list;
+        }
+
+        private void insert(@Nullable Node prev, ByteString hash, Message element) {
+            if (nodes.containsKey(hash)) {
+                remove(hash);
+            }
+            Node node = new Node(hash, element);
+            node.prev = prev;
+            node.next = prev == null ? head : prev.next;
+            if (node.next != null) node.next.prev = node;
+            else tail = node;
+            if (prev != null) prev.next = node;
+            else head = node;
+            nodes.put(hash, node);
+        }
+    }
+}
@@ -36,10 +36,12 @@ import haveno.common.util.GcUtil;
 import static haveno.common.util.Preconditions.checkDir;
 import haveno.common.util.SingleThreadExecutorUtils;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -66,6 +68,9 @@ import lombok.extern.slf4j.Slf4j;
  * previously we wasted a lot of resources as way too many threads have been created without doing actual work as well
  * the write operations got triggered way too often specially for the very frequent changes at SequenceNumberMap
  *
+ * For a {@link Source} which is incremental we do not rewrite the whole file at each write but append only the changed
+ * segments to a delta log (see {@link PersistenceLog}). Once the log has grown large enough we write a new snapshot
+ * and reset the log (compaction), so the written bytes scale with the size of the change and not the size of the store.
  *
  * @param <T>   The type of the {@link PersistableEnvelope} to be written or read from disk
  */
@@ -77,6 +82,7 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     public static final Map<String, PersistenceManager<?>> ALL_PERSISTENCE_MANAGERS = new HashMap<>();
+    public static final String LOG_FILE_SUFFIX = ".deltas";
     private static boolean flushAtShutdownCalled;
     private static final AtomicBoolean allServicesInitialized = new AtomicBoolean(false);
 
@@ -188,13 +194,17 @@ public class PersistenceManager<T extends PersistableEnvelope> {
 
     public enum Source {
         // For data stores we received from the network and which could be rebuilt. We store only for avoiding too much network traffic.
-        NETWORK(1, TimeUnit.MINUTES.toMillis(5), false),
+        NETWORK(1, TimeUnit.MINUTES.toMillis(5), false, true),
 
         // For data stores which are created from private local data. This data could only be rebuilt from backup files.
-        PRIVATE(10, 200, true),
+        PRIVATE(10, 200, true, false),
+
+        // Same as PRIVATE but for large stores which grow over time. Backups are only created when the delta log gets
+        // compacted into a new snapshot.
+        PRIVATE_INCREMENTAL(10, 200, true, true),
 
         // For data stores which are created from private local data. Loss of that data would not have critical consequences.
-        PRIVATE_LOW_PRIO(4, TimeUnit.MINUTES.toMillis(1), false);
+        PRIVATE_LOW_PRIO(4, TimeUnit.MINUTES.toMillis(1), false, true);
 
         @Getter
         private final int numMaxBackupFiles;
@@ -202,11 +212,14 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         private final long delay;
         @Getter
         private final boolean flushAtShutDown;
+        @Getter
+        private final boolean incremental;
 
-        Source(int numMaxBackupFiles, long delay, boolean flushAtShutDown) {
+        Source(int numMaxBackupFiles, long delay, boolean flushAtShutDown, boolean incremental) {
             this.numMaxBackupFiles = numMaxBackupFiles;
             this.delay = delay;
             this.flushAtShutDown = flushAtShutDown;
+            this.incremental = incremental;
         }
     }
 
@@ -229,6 +242,8 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     @Nullable
     private Timer timer;
     private ExecutorService writeToDiskExecutor;
+    @Nullable
+    private PersistenceLog persistenceLog;
     public final AtomicBoolean initCalled = new AtomicBoolean(false);
     public final AtomicBoolean readCalled = new AtomicBoolean(false);
 
@@ -283,6 +298,9 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         this.fileName = fileName;
         this.source = source;
         storageFile = new File(dir, fileName);
+        if (source.isIncremental()) {
+            persistenceLog = new PersistenceLog(new File(dir, fileName + LOG_FILE_SUFFIX), keyRing);
+        }
         ALL_PERSISTENCE_MANAGERS.put(fileName, this);
     }
 
@@ -298,6 +316,18 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         }
     }
 
+    /**
+     * Runs a task writing a file derived from the persisted data on the thread which writes the persisted file.
+     * Tasks submitted after shut down are not run anymore.
+     */
+    public void executeOnWriteToDiskThread(Runnable task) {
+        if (flushAtShutdownCalled) {
+            log.warn("We have started the shut down routine already. We ignore that write task for {}.", fileName);
+            return;
+        }
+        getWriteToDiskExecutor().execute(task);
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Reading file
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -368,8 +398,9 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         long ts = System.currentTimeMillis();
         try (FileInputStream fileInputStream = new FileInputStream(storageFile)) {
             protobuf.PersistableEnvelope proto;
+            byte[] fileBytes = fileInputStream.readAllBytes();
             if (keyRing != null) {
-                byte[] encryptedBytes = fileInputStream.readAllBytes();
+                byte[] encryptedBytes = fileBytes;
                 try {
                     byte[] decryptedBytes = Encryption.decryptPayloadWithHmac(encryptedBytes, keyRing.getSymmetricKey());
                     proto = protobuf.PersistableEnvelope.parseFrom(decryptedBytes);
@@ -379,7 +410,11 @@ public class PersistenceManager<T extends PersistableEnvelope> {
                     proto = protobuf.PersistableEnvelope.parseDelimitedFrom(bs);
                 }
             } else {
-                proto = protobuf.PersistableEnvelope.parseDelimitedFrom(fileInputStream);
+                proto = protobuf.PersistableEnvelope.parseDelimitedFrom(new ByteArrayInputStream(fileBytes));
+            }
+
+            if (persistenceLog != null && fileName.equals(this.fileName)) {
+                proto = persistenceLog.replay(proto, fileBytes);
             }
 
             //noinspection unchecked
@@ -494,6 +529,17 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         FileOutputStream fileOutputStream = null;
 
         try {
+            if (persistenceLog != null && !force) {
+                try {
+                    if (persistenceLog.append(serialized)) {
+                        return;
+                    }
+                } catch (Throwable t) {
+                    log.warn("Appending to delta log of {} failed, we write a new snapshot. {}", fileName, t.toString());
+                }
+            }
+
+
             // Before we write we backup existing file
             FileUtil.rollingBackup(dir, fileName, source.getNumMaxBackupFiles());
 
@@ -508,12 +554,15 @@ public class PersistenceManager<T extends PersistableEnvelope> {
 
             fileOutputStream = new FileOutputStream(tempFile);
 
+            byte[] fileBytes;
             if (keyRing != null) {
-                byte[] encryptedBytes = Encryption.encryptPayloadWithHmac(serialized.toByteArray(), keyRing.getSymmetricKey());
-                fileOutputStream.write(encryptedBytes);
+                fileBytes = Encryption.encryptPayloadWithHmac(serialized.toByteArray(), keyRing.getSymmetricKey());
             } else {
-                serialized.writeDelimitedTo(fileOutputStream);
+                ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+                serialized.writeDelimitedTo(byteArrayOutputStream);
+                fileBytes = byteArrayOutputStream.toByteArray();
             }
+            fileOutputStream.write(fileBytes);
 
             // Attempt to force the bits to hit the disk. In reality the OS or hard disk itself may still decide
             // to not write through to physical media for at least a few seconds, but this is the best we can do.
@@ -526,9 +575,16 @@ public class PersistenceManager<T extends PersistableEnvelope> {
 
             FileUtil.renameFile(tempFile, storageFile);
             usedTempFilePath = tempFile.toPath();
+
+            if (persistenceLog != null) {
+                persistenceLog.onSnapshotWritten(serialized, fileBytes);
+            }
         } catch (Throwable t) {
             // If an error occurred, don't attempt to reuse this path again, in case temp file cleanup fails.
             usedTempFilePath = null;
+            if (persistenceLog != null) {
+                persistenceLog.invalidate();
+            }
             log.error("Error at saveToFile, storageFile={}", fileName, t);
         } finally {
             if (tempFile != null && tempFile.exists()) {
@@ -141,6 +141,14 @@ public class Utilities {
         return executor;
     }
 
+    public static ExecutorService getVirtualThreadExecutorService(String name) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+    }
+
+    public static ListeningExecutorService getVirtualThreadListeningExecutorService(String name) {
+        return MoreExecutors.listeningDecorator(getVirtualThreadExecutorService(name));
+    }
+
     public static void shutdownAndAwaitTermination(ExecutorService executor, long timeout, TimeUnit unit) {
         // noinspection UnstableApiUsage
         MoreExecutors.shutdownAndAwaitTermination(executor, timeout, unit);
@@ -0,0 +1,69 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.common;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HashedWheelTimerTest {
+
+    @Test
+    public void testRunLater() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        long startMs = System.currentTimeMillis();
+        new HashedWheelTimer().runLater(Duration.ofMillis(300), latch::countDown);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - startMs >= 300);
+    }
+
+    @Test
+    public void testStop() throws InterruptedException {
+        AtomicInteger numRuns = new AtomicInteger();
+        Timer timer = new HashedWheelTimer().runLater(Duration.ofMillis(200), numRuns::incrementAndGet);
+        timer.stop();
+        Thread.sleep(500);
+        assertEquals(0, numRuns.get());
+    }
+
+    @Test
+    public void testRunPeriodically() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(3);
+        Timer timer = new HashedWheelTimer().runPeriodically(Duration.ofMillis(100), latch::countDown);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        timer.stop();
+    }
+
+    @Test
+    public void testDelaysBeyondOneRotation() throws InterruptedException {
+        CountDownLatch early = new CountDownLatch(1);
+        CountDownLatch late = new CountDownLatch(1);
+
+        // same slot of the wheel, one rotation later
+        Timer lateTimer = new HashedWheelTimer().runLater(Duration.ofMillis(200 + 51200), late::countDown);
+        new HashedWheelTimer().runLater(Duration.ofMillis(200), early::countDown);
+        assertTrue(early.await(5, TimeUnit.SECONDS));
+        assertEquals(1, late.getCount());
+        lateTimer.stop();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.common;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares scheduling and stopping a timer with the FrameRateTimer and the HashedWheelTimer while many other timers
+ * are pending, as on seed nodes and daemons. The frame benchmark measures the work the MasterTimer does every 100 ms
+ * for the pending FrameRateTimers, which the HashedWheelTimer replaces by visiting one slot of the wheel.
+ * Run with ./gradlew :common:jmh --args="TimerBenchmark".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimerBenchmark {
+    private static final Duration PENDING_DELAY = Duration.ofHours(1);
+    private static final Runnable NO_OP = () -> {};
+
+    @Param({"100", "1000", "10000"})
+    private int numPendingTimers;
+
+    private final List<Timer> pendingTimers = new ArrayList<>();
+    private final List<FrameRateTimer> pendingFrameRateTimers = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < numPendingTimers; i++) {
+            FrameRateTimer frameRateTimer = new FrameRateTimer();
+            frameRateTimer.runLater(PENDING_DELAY, NO_OP);
+            pendingFrameRateTimers.add(frameRateTimer);
+            pendingTimers.add(frameRateTimer);
+            pendingTimers.add(new HashedWheelTimer().runLater(PENDING_DELAY, NO_OP));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pendingTimers.forEach(Timer::stop);
+        pendingTimers.clear();
+        pendingFrameRateTimers.clear();
+    }
+
+    @Benchmark
+    public void scheduleAndStopFrameRateTimer() {
+        new FrameRateTimer().runLater(PENDING_DELAY, NO_OP).stop();
+    }
+
+    @Benchmark
+    public void scheduleAndStopHashedWheelTimer() {
+        new HashedWheelTimer().runLater(PENDING_DELAY, NO_OP).stop();
+    }
+
+    @Benchmark
+    public void frameRateTimerFrame() {
+        pendingFrameRateTimers.forEach(Runnable::run);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TimerBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
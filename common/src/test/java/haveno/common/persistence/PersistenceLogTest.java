@@ -0,0 +1,100 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.common.persistence;
+
+import com.google.protobuf.ByteString;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PersistenceLogTest {
+
+    @TempDir
+    File dir;
+
+    private static protobuf.SequenceNumberEntry entry(int key, int sequenceNr) {
+        return protobuf.SequenceNumberEntry.newBuilder()
+                .setBytes(protobuf.ByteArray.newBuilder().setBytes(ByteString.copyFrom(new byte[]{(byte) key})))
+                .setMapValue(protobuf.MapValue.newBuilder().setSequenceNr(sequenceNr).setTimeStamp(key))
+                .build();
+    }
+
+    private static protobuf.PersistableEnvelope envelope(List<protobuf.SequenceNumberEntry> entries) {
+        return protobuf.PersistableEnvelope.newBuilder()
+                .setSequenceNumberMap(protobuf.SequenceNumberMap.newBuilder().addAllSequenceNumberEntries(entries))
+                .build();
+    }
+
+    @Test
+    public void testReplayReconstructsAppendedChanges() throws Exception {
+        File logFile = new File(dir, "SequenceNumberMap" + PersistenceManager.LOG_FILE_SUFFIX);
+        List<protobuf.SequenceNumberEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            entries.add(entry(i, 1));
+        }
+        protobuf.PersistableEnvelope snapshot = envelope(entries);
+        byte[] snapshotFileBytes = snapshot.toByteArray();
+
+        PersistenceLog persistenceLog = new PersistenceLog(logFile, null);
+        persistenceLog.onSnapshotWritten(snapshot, snapshotFileBytes);
+
+        entries.set(3, entry(3, 2));
+        entries.remove(7);
+        entries.add(0, entry(20, 1));
+        entries.add(entry(21, 1));
+        protobuf.PersistableEnvelope first = envelope(entries);
+        assertTrue(persistenceLog.append(first));
+
+        entries.remove(0);
+        entries.add(5, entry(22, 1));
+        protobuf.PersistableEnvelope second = envelope(entries);
+        assertTrue(persistenceLog.append(second));
+
+        PersistenceLog reopened = new PersistenceLog(logFile, null);
+        assertEquals(second, reopened.replay(snapshot, snapshotFileBytes));
+    }
+
+    @Test
+    public void testLogOfOtherSnapshotIsIgnored() throws Exception {
+        File logFile = new File(dir, "SequenceNumberMap" + PersistenceManager.LOG_FILE_SUFFIX);
+        protobuf.PersistableEnvelope snapshot = envelope(List.of(entry(1, 1), entry(2, 1)));
+        PersistenceLog persistenceLog = new PersistenceLog(logFile, null);
+        persistenceLog.onSnapshotWritten(snapshot, snapshot.toByteArray());
+        assertTrue(persistenceLog.append(envelope(List.of(entry(1, 1), entry(2, 1), entry(3, 1)))));
+
+        protobuf.PersistableEnvelope otherSnapshot = envelope(List.of(entry(5, 1)));
+        PersistenceLog reopened = new PersistenceLog(logFile, null);
+        assertEquals(otherSnapshot, reopened.replay(otherSnapshot, otherSnapshot.toByteArray()));
+    }
+
+    @Test
+    public void testReorderRequiresSnapshot() throws Exception {
+        File logFile = new File(dir, "SequenceNumberMap" + PersistenceManager.LOG_FILE_SUFFIX);
+        protobuf.PersistableEnvelope snapshot = envelope(List.of(entry(1, 1), entry(2, 1), entry(3, 1)));
+        PersistenceLog persistenceLog = new PersistenceLog(logFile, null);
+        persistenceLog.onSnapshotWritten(snapshot, snapshot.toByteArray());
+
+        assertFalse(persistenceLog.append(envelope(List.of(entry(3, 1), entry(1, 1), entry(2, 1)))));
+    }
+}
@@ -37,8 +37,6 @@ import haveno.network.p2p.storage.P2PDataStorage;
 import haveno.network.p2p.storage.persistence.AppendOnlyDataStoreService;
 import java.math.BigInteger;
 import java.security.PublicKey;
-import java.security.SignatureException;
-import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -50,7 +48,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.Stack;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.bitcoinj.core.ECKey;
@@ -61,6 +58,8 @@ public class SignedWitnessService {
     public static final long SIGNER_AGE_DAYS = 30;
     private static final long SIGNER_AGE = SIGNER_AGE_DAYS * ChronoUnit.DAYS.getDuration().toMillis();
     public static final BigInteger MINIMUM_TRADE_AMOUNT_FOR_SIGNING = HavenoUtils.xmrToAtomicUnits(.1);
+    // Prevent DoS attack: an attacker floods the SignedWitness db with a long chain that takes lots of time to verify.
+    private static final int MAX_SIGNER_CHAIN_LENGTH = 1000;
 
     private final KeyRing keyRing;
     private final P2PService p2PService;
@@ -81,10 +80,13 @@ public class SignedWitnessService {
     private final Map<P2PDataStorage.ByteArray, Set<SignedWitness>> signedWitnessSetByOwnerPubKey = new HashMap<>();
 
     // The signature verification calls are rather expensive and called at filtering the offer book many times,
-    // so we cache the results using the hash as key. The hash is created from the accountAgeWitnessHash and the
-    // signature.
-    private final Map<P2PDataStorage.ByteArray, Boolean> verifySignatureWithDSAKeyResultCache = new HashMap<>();
-    private final Map<P2PDataStorage.ByteArray, Boolean> verifySignatureWithECKeyResultCache = new HashMap<>();
+    // so the verifier caches the results using the hash as key. The hash is created from the accountAgeWitnessHash
+    // and the signature.
+    private final SignedWitnessVerifier signedWitnessVerifier;
+
+    // Walking the signer chains is expensive and needed for each offer at filtering the offer book, so we keep the
+    // time from which each owner is allowed to sign in a graph which gets updated when witnesses or filters change.
+    private final SignerGraph signerGraph;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -105,6 +107,8 @@ public class SignedWitnessService {
         this.signedWitnessStorageService = signedWitnessStorageService;
         this.user = user;
         this.filterManager = filterManager;
+        this.signedWitnessVerifier = new SignedWitnessVerifier(arbitratorManager);
+        this.signerGraph = new SignerGraph(SIGNER_AGE, MAX_SIGNER_CHAIN_LENGTH, this::isAcceptedSignedWitness);
 
         // We need to add that early (before onAllServicesInitialized) as it will be used at startup.
         appendOnlyDataStoreService.addService(signedWitnessStorageService);
@@ -122,10 +126,15 @@ public class SignedWitnessService {
         });
 
         // At startup the P2PDataStorage initializes earlier, otherwise we get the listener called.
-        signedWitnessStorageService.getMap().values().forEach(e -> {
-            if (e instanceof SignedWitness)
-                addToMap((SignedWitness) e);
-        });
+        // The witnesses of the initial data are verified in parallel as they are too many to verify one by one.
+        List<SignedWitness> signedWitnesses = signedWitnessStorageService.getMap().values().stream()
+                .filter(e -> e instanceof SignedWitness)
+                .map(e -> (SignedWitness) e)
+                .collect(Collectors.toList());
+        signedWitnessVerifier.verifyAll(signedWitnesses);
+        signedWitnesses.forEach(this::addToMap);
+
+        filterManager.filterProperty().addListener((observable, oldValue, newValue) -> onFilterChanged());
 
         if (p2PService.isBootstrapped()) {
             onBootstrapComplete();
@@ -319,56 +328,11 @@ public class SignedWitnessService {
     }
 
     public boolean verifySignature(SignedWitness signedWitness) {
-        if (signedWitness.isSignedByArbitrator()) {
-            return verifySignatureWithECKey(signedWitness);
-        } else {
-            return verifySignatureWithDSAKey(signedWitness);
-        }
-    }
-
-    private boolean verifySignatureWithECKey(SignedWitness signedWitness) {
-        P2PDataStorage.ByteArray hash = new P2PDataStorage.ByteArray(signedWitness.getHash());
-        if (verifySignatureWithECKeyResultCache.containsKey(hash)) {
-            return verifySignatureWithECKeyResultCache.get(hash);
-        }
-        try {
-            String message = Utilities.encodeToHex(signedWitness.getAccountAgeWitnessHash());
-            String signatureBase64 = new String(signedWitness.getSignature(), Charsets.UTF_8);
-            ECKey key = ECKey.fromPublicOnly(signedWitness.getSignerPubKey());
-            String pubKeyHex = Utilities.encodeToHex(key.getPubKey());
-            if (arbitratorManager.isPublicKeyInList(pubKeyHex)) {
-                key.verifyMessage(message, signatureBase64);
-                verifySignatureWithECKeyResultCache.put(hash, true);
-                return true;
-            } else {
-                log.warn("Provided EC key is not in list of valid arbitrators: " + pubKeyHex);
-                verifySignatureWithECKeyResultCache.put(hash, false);
-                return false;
-            }
-        } catch (SignatureException e) {
-            log.warn("verifySignature signedWitness failed. signedWitness={}", signedWitness);
-            log.warn("Caused by ", e);
-            verifySignatureWithECKeyResultCache.put(hash, false);
-            return false;
-        }
+        return signedWitnessVerifier.verify(signedWitness);
     }
 
-    private boolean verifySignatureWithDSAKey(SignedWitness signedWitness) {
-        P2PDataStorage.ByteArray hash = new P2PDataStorage.ByteArray(signedWitness.getHash());
-        if (verifySignatureWithDSAKeyResultCache.containsKey(hash)) {
-            return verifySignatureWithDSAKeyResultCache.get(hash);
-        }
-        try {
-            PublicKey signaturePubKey = Sig.getPublicKeyFromBytes(signedWitness.getSignerPubKey());
-            Sig.verify(signaturePubKey, signedWitness.getAccountAgeWitnessHash(), signedWitness.getSignature());
-            verifySignatureWithDSAKeyResultCache.put(hash, true);
-            return true;
-        } catch (CryptoException e) {
-            log.warn("verifySignature signedWitness failed. signedWitness={}", signedWitness);
-            log.warn("Caused by ", e);
-            verifySignatureWithDSAKeyResultCache.put(hash, false);
-            return false;
-        }
+    public SignedWitnessVerifier.Metrics getSignatureVerificationMetrics() {
+        return signedWitnessVerifier.getMetrics();
     }
 
     public Set<SignedWitness> getSignedWitnessSet(AccountAgeWitness accountAgeWitness) {
@@ -392,7 +356,7 @@ public class SignedWitnessService {
 
     public Set<SignedWitness> getRootSignedWitnessSet(boolean includeSignedByArbitrator) {
         return getSignedWitnessMapValues().stream()
-                .filter(witness -> getSignedWitnessSetByOwnerPubKey(witness.getSignerPubKey(), new Stack<>()).isEmpty())
+                .filter(witness -> !signedWitnessSetByOwnerPubKey.containsKey(new P2PDataStorage.ByteArray(witness.getSignerPubKey())))
                 .filter(witness -> includeSignedByArbitrator ||
                         witness.getVerificationMethod() != SignedWitness.VerificationMethod.ARBITRATOR)
                 .collect(Collectors.toSet());
@@ -408,21 +372,6 @@ public class SignedWitnessService {
         return new HashSet<>(oldestUnsignedSigners.values());
     }
 
-    // We go one level up by using the signer Key to lookup for SignedWitness objects which contain the signerKey as
-    // witnessOwnerPubKey
-    private Set<SignedWitness> getSignedWitnessSetByOwnerPubKey(byte[] ownerPubKey,
-                                                                Stack<P2PDataStorage.ByteArray> excluded) {
-        P2PDataStorage.ByteArray key = new P2PDataStorage.ByteArray(ownerPubKey);
-        if (signedWitnessSetByOwnerPubKey.containsKey(key)) {
-            return signedWitnessSetByOwnerPubKey.get(key).stream()
-                    .filter(e -> !excluded.contains(new P2PDataStorage.ByteArray(e.getSignerPubKey())))
-                    .collect(Collectors.toSet());
-
-        } else {
-            return new HashSet<>();
-        }
-    }
-
     public boolean isSignedAccountAgeWitness(AccountAgeWitness accountAgeWitness) {
         return isSignerAccountAgeWitness(accountAgeWitness, new Date().getTime() + SIGNER_AGE);
     }
@@ -436,8 +385,7 @@ public class SignedWitnessService {
     }
 
     private boolean verifySigner(SignedWitness signedWitness) {
-        return getSignedWitnessSetByOwnerPubKey(signedWitness.getWitnessOwnerPubKey(), new Stack<>()).stream()
-                .anyMatch(w -> isValidSignerWitnessInternal(w, signedWitness.getDate(), new Stack<>()));
+        return signerGraph.getSignTime(signedWitness.getWitnessOwnerPubKey()) <= signedWitness.getDate();
     }
 
     /**
@@ -449,66 +397,19 @@ public class SignedWitnessService {
      * @return true if accountAgeWitness is allowed to sign at time, false otherwise.
      */
     private boolean isSignerAccountAgeWitness(AccountAgeWitness accountAgeWitness, long time) {
-        Stack<P2PDataStorage.ByteArray> excludedPubKeys = new Stack<>();
-        Set<SignedWitness> signedWitnessSet = getSignedWitnessSet(accountAgeWitness);
-        for (SignedWitness signedWitness : signedWitnessSet) {
-            if (isValidSignerWitnessInternal(signedWitness, time, excludedPubKeys)) {
-                return true;
-            }
-        }
-        // If we have not returned in the loops or they have been empty we have not found a valid signer.
-        return false;
+        return getSignedWitnessSet(accountAgeWitness).stream()
+                .anyMatch(signedWitness -> signerGraph.getSignTime(signedWitness) <= time);
     }
 
-    /**
-     * Helper to isValidAccountAgeWitness(accountAgeWitness)
-     *
-     * @param signedWitness                the signedWitness to validate
-     * @param childSignedWitnessDateMillis the date the child SignedWitness was signed or current time if it is a leaf.
-     * @param excludedPubKeys              stack to prevent recursive loops
-     * @return true if signedWitness is valid, false otherwise.
-     */
-    private boolean isValidSignerWitnessInternal(SignedWitness signedWitness,
-                                                 long childSignedWitnessDateMillis,
-                                                 Stack<P2PDataStorage.ByteArray> excludedPubKeys) {
-        if (filterManager.isWitnessSignerPubKeyBanned(Utils.HEX.encode(signedWitness.getWitnessOwnerPubKey()))) {
-            return false;
-        }
-        if (!verifySignature(signedWitness)) {
-            return false;
-        }
-        if (signedWitness.isSignedByArbitrator()) {
-            // If signed by an arbitrator we don't have to check anything else.
-            return true;
-        } else {
-            if (!verifyDate(signedWitness, childSignedWitnessDateMillis)) {
-                return false;
-            }
-            if (excludedPubKeys.size() >= 2000) {
-                // Prevent DoS attack: an attacker floods the SignedWitness db with a long chain that takes lots of time to verify.
-                return false;
-            }
-            excludedPubKeys.push(new P2PDataStorage.ByteArray(signedWitness.getSignerPubKey()));
-            excludedPubKeys.push(new P2PDataStorage.ByteArray(signedWitness.getWitnessOwnerPubKey()));
-            // Iterate over signedWitness signers
-            Set<SignedWitness> signerSignedWitnessSet = getSignedWitnessSetByOwnerPubKey(signedWitness.getSignerPubKey(), excludedPubKeys);
-            for (SignedWitness signerSignedWitness : signerSignedWitnessSet) {
-                if (isValidSignerWitnessInternal(signerSignedWitness, signedWitness.getDate(), excludedPubKeys)) {
-                    return true;
-                }
-            }
-            excludedPubKeys.pop();
-            excludedPubKeys.pop();
-        }
-        // If we have not returned in the loops or they have been empty we have not found a valid signer.
-        return false;
+    private boolean isAcceptedSignedWitness(SignedWitness signedWitness) {
+        return !filterManager.isWitnessSignerPubKeyBanned(Utils.HEX.encode(signedWitness.getWitnessOwnerPubKey())) &&
+                verifySignature(signedWitness);
     }
 
-    private boolean verifyDate(SignedWitness signedWitness, long childSignedWitnessDateMillis) {
-        long childSignedWitnessDateMinusChargebackPeriodMillis = Instant.ofEpochMilli(
-                childSignedWitnessDateMillis).minus(SIGNER_AGE, ChronoUnit.MILLIS).toEpochMilli();
-        long signedWitnessDateMillis = signedWitness.getDate();
-        return signedWitnessDateMillis <= childSignedWitnessDateMinusChargebackPeriodMillis;
+    @VisibleForTesting
+    void onFilterChanged() {
+        // Banned signers invalidate the chains they are part of
+        signerGraph.invalidate();
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -526,6 +427,8 @@ public class SignedWitnessService {
         P2PDataStorage.ByteArray ownerPubKey = new P2PDataStorage.ByteArray(signedWitness.getWitnessOwnerPubKey());
         signedWitnessSetByOwnerPubKey.putIfAbsent(ownerPubKey, new HashSet<>());
         signedWitnessSetByOwnerPubKey.get(ownerPubKey).add(signedWitness);
+
+        signerGraph.add(signedWitness);
     }
 
     private void publishSignedWitness(SignedWitness signedWitness) {
@@ -563,6 +466,8 @@ public class SignedWitnessService {
                 signedWitnessSetByOwnerPubKey.remove(ownerPubKey);
             }
         }
+
+        signerGraph.remove(signedWitness);
     }
 
     // Remove SignedWitnesses that are signed by TRADE that also have an ARBITRATOR signature
@@ -0,0 +1,170 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.account.sign;
+
+import com.google.common.base.Charsets;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import haveno.common.ThreadUtils;
+import haveno.common.crypto.CryptoException;
+import haveno.common.crypto.Sig;
+import haveno.common.util.Utilities;
+import haveno.core.support.dispute.arbitration.arbitrator.ArbitratorManager;
+import haveno.network.p2p.storage.P2PDataStorage;
+import java.security.PublicKey;
+import java.security.SignatureException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.bitcoinj.core.ECKey;
+
+/**
+ * Verifies the signatures of SignedWitnesses and caches the results by the hash of the witness.
+ *
+ * Large batches, like all witnesses received at startup, are verified in parallel on all cores.
+ */
+@Slf4j
+public class SignedWitnessVerifier {
+
+    // Enough for all witnesses of the network, the cache only bounds memory if the witnesses get flooded
+    private static final int MAX_CACHE_SIZE = 200_000;
+    // Smaller batches are not worth to be distributed over threads
+    private static final int MIN_BATCH_SIZE = 100;
+
+    @Value
+    public static class Metrics {
+        long numVerified;
+        long numCacheHits;
+        long verifyTimeMs;
+
+        public long getVerifiedPerSecond() {
+            return verifyTimeMs == 0 ? 0 : numVerified * 1000 / verifyTimeMs;
+        }
+    }
+
+    private final ArbitratorManager arbitratorManager;
+    private final int maxThreads;
+    private final Cache<P2PDataStorage.ByteArray, Boolean> resultCache = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHE_SIZE)
+            .build();
+    private final AtomicLong numVerified = new AtomicLong();
+    private final AtomicLong numCacheHits = new AtomicLong();
+    // Summed over all threads
+    private final AtomicLong verifyTimeMs = new AtomicLong();
+
+    SignedWitnessVerifier(ArbitratorManager arbitratorManager) {
+        this(arbitratorManager, Runtime.getRuntime().availableProcessors());
+    }
+
+    SignedWitnessVerifier(ArbitratorManager arbitratorManager, int maxThreads) {
+        this.arbitratorManager = arbitratorManager;
+        this.maxThreads = Math.max(1, maxThreads);
+    }
+
+    boolean verify(SignedWitness signedWitness) {
+        P2PDataStorage.ByteArray hash = new P2PDataStorage.ByteArray(signedWitness.getHash());
+        Boolean result = resultCache.getIfPresent(hash);
+        if (result != null) {
+            numCacheHits.incrementAndGet();
+            return result;
+        }
+        long ts = System.currentTimeMillis();
+        result = signedWitness.isSignedByArbitrator() ?
+                verifySignatureWithECKey(signedWitness) :
+                verifySignatureWithDSAKey(signedWitness);
+        resultCache.put(hash, result);
+        numVerified.incrementAndGet();
+        verifyTimeMs.addAndGet(System.currentTimeMillis() - ts);
+        return result;
+    }
+
+    /**
+     * Verifies the signatures of all witnesses which are not in the cache yet, so later calls of verify are cache hits.
+     * Blocks until all signatures are verified.
+     */
+    void verifyAll(Collection<SignedWitness> signedWitnesses) {
+        List<SignedWitness> unverified = new ArrayList<>();
+        for (SignedWitness signedWitness : signedWitnesses) {
+            if (resultCache.getIfPresent(new P2PDataStorage.ByteArray(signedWitness.getHash())) == null) {
+                unverified.add(signedWitness);
+            }
+        }
+        if (unverified.isEmpty()) return;
+
+        long ts = System.currentTimeMillis();
+        int batchSize = Math.max(MIN_BATCH_SIZE, (unverified.size() + maxThreads - 1) / maxThreads);
+        List<List<SignedWitness>> batches = Lists.partition(unverified, batchSize);
+        if (batches.size() == 1) {
+            unverified.forEach(this::verify);
+        } else {
+            List<Runnable> tasks = new ArrayList<>();
+            for (List<SignedWitness> batch : batches) {
+                tasks.add(() -> batch.forEach(this::verify));
+            }
+            ThreadUtils.awaitTasks(tasks, maxThreads);
+        }
+        long duration = System.currentTimeMillis() - ts;
+        log.info("Verified {} signed witnesses in {} batches in {} ms ({} per second)",
+                unverified.size(), batches.size(), duration, duration == 0 ? unverified.size() : unverified.size() * 1000L / duration);
+    }
+
+    Metrics getMetrics() {
+        return new Metrics(numVerified.get(), numCacheHits.get(), verifyTimeMs.get());
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private boolean verifySignatureWithECKey(SignedWitness signedWitness) {
+        try {
+            String message = Utilities.encodeToHex(signedWitness.getAccountAgeWitnessHash());
+            String signatureBase64 = new String(signedWitness.getSignature(), Charsets.UTF_8);
+            ECKey key = ECKey.fromPublicOnly(signedWitness.getSignerPubKey());
+            String pubKeyHex = Utilities.encodeToHex(key.getPubKey());
+            if (arbitratorManager.isPublicKeyInList(pubKeyHex)) {
+                key.verifyMessage(message, signatureBase64);
+                return true;
+            } else {
+                log.warn("Provided EC key is not in list of valid arbitrators: " + pubKeyHex);
+                return false;
+            }
+        } catch (SignatureException e) {
+            log.warn("verifySignature signedWitness failed. signedWitness={}", signedWitness);
+            log.warn("Caused by ", e);
+            return false;
+        }
+    }
+
+    private boolean verifySignatureWithDSAKey(SignedWitness signedWitness) {
+        try {
+            PublicKey signaturePubKey = Sig.getPublicKeyFromBytes(signedWitness.getSignerPubKey());
+            Sig.verify(signaturePubKey, signedWitness.getAccountAgeWitnessHash(), signedWitness.getSignature());
+            return true;
+        } catch (CryptoException e) {
+            log.warn("verifySignature signedWitness failed. signedWitness={}", signedWitness);
+            log.warn("Caused by ", e);
+            return false;
+        }
+    }
+}
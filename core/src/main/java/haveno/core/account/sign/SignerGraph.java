@@ -0,0 +1,184 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.account.sign;
+
+import haveno.network.p2p.storage.P2PDataStorage;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Graph of the signatures between witness owners, which keeps for each owner pub key the earliest time from which the
+ * owner is allowed to sign other accounts.
+ *
+ * A witness signed by an arbitrator allows its owner to sign at any time. A witness signed by a trader allows its owner
+ * to sign SIGNER_AGE after the witness date if the signer was allowed to sign at the witness date. Chains of more than
+ * maxChainLength trader signatures are not followed, so a flood of witnesses cannot make the graph expensive to verify.
+ *
+ * Adding a witness can only make owners signers earlier, so it is propagated incrementally to the witnesses signed by
+ * its owner. Removing a witness or changing the accepted witnesses requires a rebuild, which is done lazily at the
+ * next query.
+ */
+class SignerGraph {
+
+    private static class Signer {
+        private final long signTime;
+        // Number of trader signatures in the chain to an arbitrator
+        private final int chainLength;
+
+        private Signer(long signTime, int chainLength) {
+            this.signTime = signTime;
+            this.chainLength = chainLength;
+        }
+
+        private boolean isBetterThan(Signer other) {
+            return signTime < other.signTime || (signTime == other.signTime && chainLength < other.chainLength);
+        }
+    }
+
+    private final long signerAge;
+    private final int maxChainLength;
+    // Witnesses with a valid signature and a not banned owner
+    private final Predicate<SignedWitness> isAccepted;
+
+    private final Map<P2PDataStorage.ByteArray, Set<SignedWitness>> witnessesBySignerPubKey = new HashMap<>();
+    private final Set<SignedWitness> arbitratorSignedWitnesses = new HashSet<>();
+    private final Map<P2PDataStorage.ByteArray, Signer> signersByOwnerPubKey = new HashMap<>();
+    private boolean isRebuildRequired;
+
+    SignerGraph(long signerAge, int maxChainLength, Predicate<SignedWitness> isAccepted) {
+        this.signerAge = signerAge;
+        this.maxChainLength = maxChainLength;
+        this.isAccepted = isAccepted;
+    }
+
+    synchronized void add(SignedWitness signedWitness) {
+        if (signedWitness.isSignedByArbitrator()) {
+            if (!arbitratorSignedWitnesses.add(signedWitness)) return;
+        } else {
+            Set<SignedWitness> witnesses = witnessesBySignerPubKey.computeIfAbsent(
+                    new P2PDataStorage.ByteArray(signedWitness.getSignerPubKey()), key -> new HashSet<>());
+            if (!witnesses.add(signedWitness)) return;
+        }
+        if (isRebuildRequired) return;
+
+        Queue<P2PDataStorage.ByteArray> improvedOwners = new ArrayDeque<>();
+        update(signedWitness, improvedOwners);
+        propagate(improvedOwners);
+    }
+
+    synchronized void remove(SignedWitness signedWitness) {
+        boolean removed;
+        if (signedWitness.isSignedByArbitrator()) {
+            removed = arbitratorSignedWitnesses.remove(signedWitness);
+        } else {
+            P2PDataStorage.ByteArray signerPubKey = new P2PDataStorage.ByteArray(signedWitness.getSignerPubKey());
+            Set<SignedWitness> witnesses = witnessesBySignerPubKey.get(signerPubKey);
+            removed = witnesses != null && witnesses.remove(signedWitness);
+            if (witnesses != null && witnesses.isEmpty()) {
+                witnessesBySignerPubKey.remove(signerPubKey);
+            }
+        }
+        if (removed) {
+            isRebuildRequired = true;
+        }
+    }
+
+    /**
+     * Called when the accepted witnesses might have changed, e.g. if signers got banned.
+     */
+    synchronized void invalidate() {
+        isRebuildRequired = true;
+    }
+
+    /**
+     * @return the earliest time at which the owner of the witness is allowed to sign, Long.MAX_VALUE if never
+     */
+    synchronized long getSignTime(SignedWitness signedWitness) {
+        maybeRebuild();
+        if (!isAccepted.test(signedWitness)) {
+            return Long.MAX_VALUE;
+        }
+        Signer signer = getSigner(signedWitness);
+        return signer == null ? Long.MAX_VALUE : signer.signTime;
+    }
+
+    /**
+     * @return the earliest time at which the owner of the pub key is allowed to sign, Long.MAX_VALUE if never
+     */
+    synchronized long getSignTime(byte[] ownerPubKey) {
+        maybeRebuild();
+        Signer signer = signersByOwnerPubKey.get(new P2PDataStorage.ByteArray(ownerPubKey));
+        return signer == null ? Long.MAX_VALUE : signer.signTime;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void maybeRebuild() {
+        if (!isRebuildRequired) return;
+        isRebuildRequired = false;
+        signersByOwnerPubKey.clear();
+        Queue<P2PDataStorage.ByteArray> improvedOwners = new ArrayDeque<>();
+        arbitratorSignedWitnesses.forEach(signedWitness -> update(signedWitness, improvedOwners));
+        propagate(improvedOwners);
+    }
+
+    private void propagate(Queue<P2PDataStorage.ByteArray> improvedOwners) {
+        // Sign times strictly increase along the chains, so an owner cannot improve itself through a loop
+        while (!improvedOwners.isEmpty()) {
+            Collection<SignedWitness> signedWitnesses = witnessesBySignerPubKey.get(improvedOwners.poll());
+            if (signedWitnesses != null) {
+                signedWitnesses.forEach(signedWitness -> update(signedWitness, improvedOwners));
+            }
+        }
+    }
+
+    // Adds the owner of the witness to improvedOwners if the witness allows the owner to sign earlier
+    private void update(SignedWitness signedWitness, Queue<P2PDataStorage.ByteArray> improvedOwners) {
+        P2PDataStorage.ByteArray ownerPubKey = new P2PDataStorage.ByteArray(signedWitness.getWitnessOwnerPubKey());
+        Signer candidate = getSigner(signedWitness);
+        if (candidate == null) return;
+        Signer current = signersByOwnerPubKey.get(ownerPubKey);
+        if (current != null && !candidate.isBetterThan(current)) return;
+
+        // Verify only witnesses which would change the graph as signature verification is expensive
+        if (!isAccepted.test(signedWitness)) return;
+        signersByOwnerPubKey.put(ownerPubKey, candidate);
+        improvedOwners.add(ownerPubKey);
+    }
+
+    // Not checking whether the witness is accepted
+    private Signer getSigner(SignedWitness signedWitness) {
+        if (signedWitness.isSignedByArbitrator()) {
+            return new Signer(Long.MIN_VALUE, 0);
+        }
+        Signer signer = signersByOwnerPubKey.get(new P2PDataStorage.ByteArray(signedWitness.getSignerPubKey()));
+        if (signer == null || signer.signTime > signedWitness.getDate() || signer.chainLength >= maxChainLength) {
+            return null;
+        }
+        return new Signer(signedWitness.getDate() + signerAge, signer.chainLength + 1);
+    }
+}
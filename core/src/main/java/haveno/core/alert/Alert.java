@@ -23,6 +23,7 @@ import haveno.common.crypto.Sig;
 import haveno.common.util.CollectionUtils;
 import haveno.common.util.ExtraDataMapValidator;
 import haveno.core.user.Preferences;
+import haveno.network.p2p.storage.P2PDataStorage;
 import haveno.network.p2p.storage.payload.ExpirablePayload;
 import haveno.network.p2p.storage.payload.ProtectedStoragePayload;
 import lombok.EqualsAndHashCode;
@@ -144,6 +145,7 @@ public final class Alert implements ProtectedStoragePayload, ExpirablePayload {
         this.ownerPubKey = ownerPubKey;
 
         ownerPubKeyBytes = Sig.getPublicKeyBytes(ownerPubKey);
+        P2PDataStorage.invalidate32ByteHash(this);
     }
 
     public boolean isNewVersion(Preferences preferences) {
@@ -53,6 +53,7 @@ import haveno.core.monetary.Price;
 import haveno.core.offer.Offer;
 import haveno.core.offer.OfferDirection;
 import haveno.core.offer.OpenOffer;
+import haveno.core.offer.RepublishOffersProgress;
 import haveno.core.payment.PaymentAccount;
 import haveno.core.payment.payload.PaymentMethod;
 import haveno.core.support.dispute.Attachment;
@@ -61,6 +62,7 @@ import haveno.core.support.dispute.DisputeResult;
 import haveno.core.support.messages.ChatMessage;
 import haveno.core.trade.Trade;
 import haveno.core.trade.statistics.TradeStatistics3;
+import haveno.core.trade.statistics.TradeStatisticsIndex;
 import haveno.core.trade.statistics.TradeStatisticsManager;
 import haveno.core.xmr.XmrNodeSettings;
 import haveno.proto.grpc.NotificationMessage;
@@ -339,6 +341,14 @@ public class CoreApi {
         return new ArrayList<>(tradeStatisticsManager.getObservableTradeStatisticsSet());
     }
 
+    public List<TradeStatisticsIndex.Candle> getTradeStatisticsCandles(String currencyCode, long startDate, long endDate, long interval) {
+        return tradeStatisticsManager.getCandles(currencyCode.toUpperCase(), startDate, endDate, interval);
+    }
+
+    public long getTradeStatisticsLastPrice(String currencyCode) {
+        return tradeStatisticsManager.getTradeStatisticsIndex().getLastPrice(currencyCode.toUpperCase());
+    }
+
     public int getNumConfirmationsForMostRecentTransaction(String addressString) {
         return walletsService.getNumConfirmationsForMostRecentTransaction(addressString);
     }
@@ -480,6 +490,26 @@ public class CoreApi {
         coreOffersService.cancelOffer(id, resultHandler, errorMessageHandler);
     }
 
+    public RepublishOffersProgress getRepublishOffersProgress() {
+        return coreOffersService.getRepublishOffersProgress();
+    }
+
+    public UpdateLog.Subscription streamOffers(String direction,
+                                               String currencyCode,
+                                               String fromLogId,
+                                               long fromSequenceNumber,
+                                               UpdateLog.Listener<Offer> listener) {
+        return coreOffersService.streamOffers(direction, currencyCode, fromLogId, fromSequenceNumber, listener);
+    }
+
+    public UpdateLog.Subscription streamMyOffers(String direction,
+                                                 String currencyCode,
+                                                 String fromLogId,
+                                                 long fromSequenceNumber,
+                                                 UpdateLog.Listener<OpenOffer> listener) {
+        return coreOffersService.streamMyOffers(direction, currencyCode, fromLogId, fromSequenceNumber, listener);
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // PaymentAccounts
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -581,6 +611,18 @@ public class CoreApi {
         return coreTradesService.getTrades();
     }
 
+    public List<Trade> getTrades(int offset, int limit) {
+        return coreTradesService.getTrades(offset, limit);
+    }
+
+    public int getNumTrades() {
+        return coreTradesService.getNumTrades();
+    }
+
+    public UpdateLog.Subscription streamTrades(String fromLogId, long fromSequenceNumber, UpdateLog.Listener<Trade> listener) {
+        return coreTradesService.streamTrades(fromLogId, fromSequenceNumber, listener);
+    }
+
     public List<ChatMessage> getChatMessages(String tradeId) {
         return coreTradesService.getChatMessages(tradeId);
     }
@@ -57,6 +57,7 @@ import haveno.core.offer.OfferFilterService.Result;
 import haveno.core.offer.OfferUtil;
 import haveno.core.offer.OpenOffer;
 import haveno.core.offer.OpenOfferManager;
+import haveno.core.offer.RepublishOffersProgress;
 import haveno.core.payment.PaymentAccount;
 import static haveno.core.payment.PaymentAccountUtil.isPaymentAccountValidForOffer;
 import haveno.core.user.User;
@@ -64,13 +65,17 @@ import haveno.core.util.PriceUtil;
 import static java.lang.String.format;
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.util.ArrayList;
 import java.util.Comparator;
 import static java.util.Comparator.comparing;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import javafx.beans.value.ChangeListener;
+import javafx.collections.ListChangeListener;
 import lombok.extern.slf4j.Slf4j;
 import org.bitcoinj.core.Transaction;
 
@@ -94,6 +99,16 @@ public class CoreOffersService {
     private final OpenOfferManager openOfferManager;
     private final User user;
 
+    // Streamed offers, initialized on the first subscription
+    private final UpdateLog<Offer> offerUpdates = new UpdateLog<>();
+    private final UpdateLog<OpenOffer> myOfferUpdates = new UpdateLog<>();
+    private final Object offerUpdatesLock = new Object();
+    private final Object myOfferUpdatesLock = new Object();
+    // Keyed by instance as an edited offer replaces the open offer with the same id
+    private final Map<OpenOffer, ChangeListener<OpenOffer.State>> myOfferStateListeners = new IdentityHashMap<>();
+    private boolean isOfferUpdatesInitialized;
+    private boolean isMyOfferUpdatesInitialized;
+
     @Inject
     public CoreOffersService(CoreContext coreContext,
                              KeyRing keyRing,
@@ -116,12 +131,8 @@ public class CoreOffersService {
 
     // excludes my offers
     List<Offer> getOffers() {
-        List<Offer> offers = new ArrayList<>(offerBookService.getOffers()).stream()
-                .filter(o -> !o.isMyOffer(keyRing))
-                .filter(o -> {
-                    Result result = offerFilter.canTakeOffer(o, coreContext.isApiUser());
-                    return result.isValid() || result == Result.HAS_NO_PAYMENT_ACCOUNT_VALID_FOR_OFFER;
-                })
+        List<Offer> offers = offerBookService.getOffers().stream()
+                .filter(this::isTakeableOffer)
                 .collect(Collectors.toList());
         return offers;
     }
@@ -134,9 +145,9 @@ public class CoreOffersService {
     }
 
     Offer getOffer(String id) {
-        return getOffers().stream()
-                .filter(o -> o.getId().equals(id))
-                .findAny().orElseThrow(() ->
+        return Optional.ofNullable(offerBookService.getOffer(id))
+                .filter(this::isTakeableOffer)
+                .orElseThrow(() ->
                         new IllegalStateException(format("offer with id '%s' not found", id)));
     }
 
@@ -318,8 +329,104 @@ public class CoreOffersService {
         openOfferManager.removeOffer(offer, resultHandler, errorMessageHandler);
     }
 
+    RepublishOffersProgress getRepublishOffersProgress() {
+        return openOfferManager.getRepublishOffersProgress();
+    }
+
+    // excludes my offers
+    UpdateLog.Subscription streamOffers(String direction,
+                                        String currencyCode,
+                                        String fromLogId,
+                                        long fromSequenceNumber,
+                                        UpdateLog.Listener<Offer> listener) {
+        maybeInitOfferUpdates();
+        return offerUpdates.addListener(fromLogId,
+                fromSequenceNumber,
+                offer -> offerMatchesDirectionAndCurrency(offer, direction, currencyCode),
+                priceComparator(direction),
+                listener);
+    }
+
+    UpdateLog.Subscription streamMyOffers(String direction,
+                                          String currencyCode,
+                                          String fromLogId,
+                                          long fromSequenceNumber,
+                                          UpdateLog.Listener<OpenOffer> listener) {
+        maybeInitMyOfferUpdates();
+        return myOfferUpdates.addListener(fromLogId,
+                fromSequenceNumber,
+                openOffer -> offerMatchesDirectionAndCurrency(openOffer.getOffer(), direction, currencyCode),
+                openOfferPriceComparator(direction, CurrencyUtil.isTraditionalCurrency(currencyCode)),
+                listener);
+    }
+
     // -------------------------- PRIVATE HELPERS -----------------------------
 
+    private void maybeInitOfferUpdates() {
+        synchronized (offerUpdatesLock) {
+            if (isOfferUpdatesInitialized) return;
+            isOfferUpdatesInitialized = true;
+
+            // changes of the offer book are applied under the lock, so after the initial offers
+            offerBookService.addOfferBookChangedListener(new OfferBookService.OfferBookChangedListener() {
+                @Override
+                public void onAdded(Offer offer) {
+                    synchronized (offerUpdatesLock) {
+                        if (isTakeableOffer(offer)) offerUpdates.put(offer.getId(), offer);
+                        else offerUpdates.remove(offer.getId());
+                    }
+                }
+
+                @Override
+                public void onRemoved(Offer offer) {
+                    synchronized (offerUpdatesLock) {
+                        offerUpdates.remove(offer.getId());
+                    }
+                }
+            });
+            getOffers().forEach(offer -> offerUpdates.put(offer.getId(), offer));
+        }
+    }
+
+    private void maybeInitMyOfferUpdates() {
+        synchronized (myOfferUpdatesLock) {
+            if (isMyOfferUpdatesInitialized) return;
+            isMyOfferUpdatesInitialized = true;
+            openOfferManager.getObservableList().addListener((ListChangeListener<OpenOffer>) c -> {
+                while (c.next()) {
+                    if (c.wasRemoved()) c.getRemoved().forEach(this::onMyOfferRemoved);
+                    if (c.wasAdded()) c.getAddedSubList().forEach(this::onMyOfferAdded);
+                }
+            });
+            getMyOffers().forEach(this::onMyOfferAdded);
+        }
+    }
+
+    private void onMyOfferAdded(OpenOffer openOffer) {
+        if (!openOffer.getOffer().isMyOffer(keyRing)) return;
+        synchronized (myOfferUpdatesLock) {
+            if (!myOfferStateListeners.containsKey(openOffer)) {
+                ChangeListener<OpenOffer.State> stateListener = (observable, oldValue, newValue) -> {
+                    synchronized (myOfferUpdatesLock) {
+                        if (myOfferStateListeners.containsKey(openOffer)) myOfferUpdates.put(openOffer.getId(), openOffer);
+                    }
+                };
+                myOfferStateListeners.put(openOffer, stateListener);
+                openOffer.stateProperty().addListener(stateListener);
+            }
+            myOfferUpdates.put(openOffer.getId(), openOffer);
+        }
+    }
+
+    private void onMyOfferRemoved(OpenOffer openOffer) {
+        synchronized (myOfferUpdatesLock) {
+            ChangeListener<OpenOffer.State> stateListener = myOfferStateListeners.remove(openOffer);
+            if (stateListener == null) return;
+            openOffer.stateProperty().removeListener(stateListener);
+            myOfferUpdates.remove(openOffer.getId());
+        }
+    }
+
     private void verifyPaymentAccountIsValidForNewOffer(Offer offer, PaymentAccount paymentAccount) {
         if (!isPaymentAccountValidForOffer(offer, paymentAccount)) {
             String error = format("cannot create %s offer with payment account %s",
@@ -347,6 +454,13 @@ public class CoreOffersService {
                 errorMessageHandler);
     }
 
+    // The results of the filter are cached per offer, so this is cheap to call for every offer of the book
+    private boolean isTakeableOffer(Offer offer) {
+        if (offer.isMyOffer(keyRing)) return false;
+        Result result = offerFilter.canTakeOffer(offer, coreContext.isApiUser());
+        return result.isValid() || result == Result.HAS_NO_PAYMENT_ACCOUNT_VALID_FOR_OFFER;
+    }
+
     private boolean offerMatchesDirectionAndCurrency(Offer offer,
                                                      String direction,
                                                      String currencyCode) {
@@ -41,13 +41,10 @@ import haveno.core.api.model.MarketDepthInfo;
 import haveno.core.api.model.MarketPriceInfo;
 import haveno.core.locale.CurrencyUtil;
 import haveno.core.monetary.Price;
-import haveno.core.offer.Offer;
 import haveno.core.offer.OfferBookService;
-import haveno.core.offer.OfferDirection;
+import haveno.core.offer.OrderBook;
 import haveno.core.provider.price.PriceFeedService;
 import haveno.core.trade.HavenoUtils;
-import java.util.Comparator;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
@@ -95,67 +92,41 @@ class CorePriceService {
      * @return Data for market depth chart
      */
      public MarketDepthInfo getMarketDepth(String currencyCode) throws ExecutionException, InterruptedException, TimeoutException, IllegalArgumentException  {
-        if (priceFeedService.requestAllPrices().get(currencyCode.toUpperCase()) == null) throw new IllegalArgumentException("Currency not found: " + currencyCode) ;
-
-        // Offer price can be null (if price feed unavailable), thus a null-tolerant comparator is used.
-        Comparator<Offer> offerPriceComparator = Comparator.comparing(Offer::getPrice, Comparator.nullsLast(Comparator.naturalOrder()));
-
-        // Trading xmr-traditional is considered as buying/selling XMR, but trading xmr-crypto is
-        // considered as buying/selling crypto. Because of this, when viewing a xmr-crypto pair,
-        // the buy column is actually the sell column and vice versa. To maintain the expected
-        // ordering, we have to reverse the price comparator.
-        boolean isCrypto = CurrencyUtil.isCryptoCurrency(currencyCode);
-        if (isCrypto) offerPriceComparator = offerPriceComparator.reversed();
-
-        // Offer amounts are used for the secondary sort. They are sorted from high to low.
-        Comparator<Offer> offerAmountComparator = Comparator.comparing(Offer::getAmount).reversed();
-
-        var buyOfferSortComparator =
-                offerPriceComparator.reversed() // Buy offers, as opposed to sell offers, are primarily sorted from high price to low.
-                        .thenComparing(offerAmountComparator);
-        var sellOfferSortComparator =
-                offerPriceComparator
-                        .thenComparing(offerAmountComparator);
-        List<Offer> buyOffers = offerBookService.getOffersByCurrency(OfferDirection.BUY.name(), currencyCode).stream().sorted(buyOfferSortComparator).collect(Collectors.toList());
-        List<Offer> sellOffers = offerBookService.getOffersByCurrency(OfferDirection.SELL.name(), currencyCode).stream().sorted(sellOfferSortComparator).collect(Collectors.toList());
-
-        // Create buyer hashmap {key:price, value:count}, uses LinkedHashMap to maintain insertion order
-        double accumulatedAmount = 0;
-        LinkedHashMap<Double,Double> buyTM = new LinkedHashMap<Double,Double>();
-        for(Offer offer: buyOffers) {
-            Price price = offer.getPrice();
-            if (price != null) {
-                double amount = (double) offer.getAmount().longValueExact() / LongMath.pow(10, HavenoUtils.XMR_SMALLEST_UNIT_EXPONENT);
-                accumulatedAmount += amount;
-                double priceAsDouble = (double) price.getValue() / LongMath.pow(10, price.smallestUnitExponent());
-                buyTM.put(mapPriceFeedServicePrice(priceAsDouble, currencyCode), accumulatedAmount);
-            }
-        };
-
-        // Create buyer hashmap {key:price, value:count}, uses TreeMap to sort by key (asc)
-        accumulatedAmount = 0;
-        LinkedHashMap<Double,Double> sellTM = new LinkedHashMap<Double,Double>();
-        for(Offer offer: sellOffers){
-            Price price = offer.getPrice();
-            if (price != null) {
-                double amount = (double) offer.getAmount().longValueExact() / LongMath.pow(10, HavenoUtils.XMR_SMALLEST_UNIT_EXPONENT);
-                accumulatedAmount += amount;
-                double priceAsDouble = (double) price.getValue() / LongMath.pow(10, price.smallestUnitExponent());
-                sellTM.put(mapPriceFeedServicePrice(priceAsDouble, currencyCode), accumulatedAmount);
-            }
-        };
+        if (priceFeedService.getMarketPrice(currencyCode) == null && priceFeedService.requestAllPrices().get(currencyCode.toUpperCase()) == null) throw new IllegalArgumentException("Currency not found: " + currencyCode) ;
+
+        // The order book keeps the offers sorted and aggregated by price, so we only convert its cached levels
+        OrderBook.Depth depth = offerBookService.getOrderBookDepth(currencyCode);
+        List<OrderBook.PriceLevel> buyLevels = depth.getBuyLevels();
+        List<OrderBook.PriceLevel> sellLevels = depth.getSellLevels();
 
         // Make array of buyPrices and buyDepth
-        Double[] buyDepth = buyTM.values().toArray(new Double[buyTM.size()]);
-        Double[] buyPrices = buyTM.keySet().toArray(new Double[buyTM.size()]);
+        Double[] buyPrices = new Double[buyLevels.size()];
+        Double[] buyDepth = new Double[buyLevels.size()];
+        for (int i = 0; i < buyLevels.size(); i++) {
+            buyPrices[i] = toMappedPrice(buyLevels.get(i).getPrice(), currencyCode);
+            buyDepth[i] = toXmr(buyLevels.get(i).getAmount());
+        }
 
         // Make array of sellPrices and sellDepth
-        Double[] sellDepth = sellTM.values().toArray(new Double[sellTM.size()]);
-        Double[] sellPrices = sellTM.keySet().toArray(new Double[sellTM.size()]);
+        Double[] sellPrices = new Double[sellLevels.size()];
+        Double[] sellDepth = new Double[sellLevels.size()];
+        for (int i = 0; i < sellLevels.size(); i++) {
+            sellPrices[i] = toMappedPrice(sellLevels.get(i).getPrice(), currencyCode);
+            sellDepth[i] = toXmr(sellLevels.get(i).getAmount());
+        }
 
         return new MarketDepthInfo(currencyCode, buyPrices, buyDepth, sellPrices, sellDepth);
     }
 
+    private double toMappedPrice(Price price, String currencyCode) {
+        double priceAsDouble = (double) price.getValue() / LongMath.pow(10, price.smallestUnitExponent());
+        return mapPriceFeedServicePrice(priceAsDouble, currencyCode);
+    }
+
+    private static double toXmr(long amount) {
+        return (double) amount / LongMath.pow(10, HavenoUtils.XMR_SMALLEST_UNIT_EXPONENT);
+    }
+
     /**
      * PriceProvider returns different values for crypto and traditional,
      * e.g. 1 XMR = X USD
@@ -47,6 +47,7 @@ import haveno.core.support.messages.ChatMessage;
 import haveno.core.support.traderchat.TradeChatSession;
 import haveno.core.support.traderchat.TraderChatManager;
 import haveno.core.trade.ClosedTradableManager;
+import haveno.core.trade.Tradable;
 import haveno.core.trade.Trade;
 import haveno.core.trade.TradeManager;
 import haveno.core.trade.TradeUtil;
@@ -58,9 +59,13 @@ import haveno.core.xmr.wallet.BtcWalletService;
 import static java.lang.String.format;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Consumer;
+import javafx.beans.value.ChangeListener;
+import javafx.collections.ListChangeListener;
 import lombok.extern.slf4j.Slf4j;
 
 import org.apache.commons.lang3.exception.ExceptionUtils;
@@ -82,6 +87,12 @@ class CoreTradesService {
     private final OfferUtil offerUtil;
     private final User user;
 
+    // Streamed open and closed trades, initialized on the first subscription
+    private final UpdateLog<Trade> tradeUpdates = new UpdateLog<>();
+    private final Object tradeUpdatesLock = new Object();
+    private final Map<Trade, ChangeListener<Object>> tradeStateListeners = new IdentityHashMap<>();
+    private boolean isTradeUpdatesInitialized;
+
     @Inject
     public CoreTradesService(CoreContext coreContext,
                              CoreWalletsService coreWalletsService,
@@ -227,6 +238,32 @@ class CoreTradesService {
         return trades;
     }
 
+    // Page of the open trades followed by the closed trades ordered by date
+    List<Trade> getTrades(int offset, int limit) {
+        if (offset < 0) throw new IllegalArgumentException("offset must not be negative");
+        if (limit <= 0) throw new IllegalArgumentException("limit must be positive");
+        coreWalletsService.verifyWalletsAreAvailable();
+        coreWalletsService.verifyEncryptedWalletIsUnlocked();
+        List<Trade> openTrades = tradeManager.getOpenTrades();
+        List<Trade> trades = new ArrayList<>(openTrades.subList(Math.min(offset, openTrades.size()),
+                (int) Math.min((long) offset + limit, openTrades.size())));
+        if (trades.size() < limit) {
+            trades.addAll(closedTradableManager.getClosedTrades(Math.max(0, offset - openTrades.size()), limit - trades.size()));
+        }
+        return trades;
+    }
+
+    int getNumTrades() {
+        return tradeManager.getOpenTrades().size() + closedTradableManager.getNumClosedTrades();
+    }
+
+    UpdateLog.Subscription streamTrades(String fromLogId, long fromSequenceNumber, UpdateLog.Listener<Trade> listener) {
+        coreWalletsService.verifyWalletsAreAvailable();
+        coreWalletsService.verifyEncryptedWalletIsUnlocked();
+        maybeInitTradeUpdates();
+        return tradeUpdates.addListener(fromLogId, fromSequenceNumber, listener);
+    }
+
     List<ChatMessage> getChatMessages(String tradeId) {
         Trade trade;
         var tradeOptional = tradeManager.getOpenTrade(tradeId);
@@ -264,4 +301,59 @@ class CoreTradesService {
         if (getClosedTrade(tradeId).isPresent())
             throw new IllegalArgumentException(format("trade '%s' is already closed", tradeId));
     }
+
+    private void maybeInitTradeUpdates() {
+        synchronized (tradeUpdatesLock) {
+            if (isTradeUpdatesInitialized) return;
+            isTradeUpdatesInitialized = true;
+
+            // a completed trade is added to the closed trades before it is removed from the open trades
+            tradeManager.getObservableList().addListener((ListChangeListener<Trade>) c -> {
+                while (c.next()) {
+                    if (c.wasRemoved()) c.getRemoved().forEach(this::onTradeRemoved);
+                    if (c.wasAdded()) c.getAddedSubList().forEach(this::onTradeAdded);
+                }
+            });
+            closedTradableManager.getObservableList().addListener((ListChangeListener<Tradable>) c -> {
+                while (c.next()) {
+                    if (c.wasRemoved()) c.getRemoved().stream().filter(Trade.class::isInstance).map(Trade.class::cast).forEach(this::onTradeRemoved);
+                    if (c.wasAdded()) c.getAddedSubList().stream().filter(Trade.class::isInstance).map(Trade.class::cast).forEach(this::onTradeAdded);
+                }
+            });
+            tradeManager.getOpenTrades().forEach(this::onTradeAdded);
+            closedTradableManager.getClosedTrades().forEach(this::onTradeAdded);
+        }
+    }
+
+    private void onTradeAdded(Trade trade) {
+        synchronized (tradeUpdatesLock) {
+            if (!tradeStateListeners.containsKey(trade)) {
+                ChangeListener<Object> stateListener = (observable, oldValue, newValue) -> {
+                    synchronized (tradeUpdatesLock) {
+                        if (tradeStateListeners.containsKey(trade)) tradeUpdates.put(trade.getId(), trade);
+                    }
+                };
+                tradeStateListeners.put(trade, stateListener);
+                trade.stateProperty().addListener(stateListener);
+                trade.payoutStateProperty().addListener(stateListener);
+                trade.disputeStateProperty().addListener(stateListener);
+            }
+            tradeUpdates.put(trade.getId(), trade);
+        }
+    }
+
+    private void onTradeRemoved(Trade trade) {
+        synchronized (tradeUpdatesLock) {
+            if (tradeManager.getObservableList().contains(trade) || closedTradableManager.getObservableList().contains(trade)) {
+                tradeUpdates.put(trade.getId(), trade);
+                return;
+            }
+            ChangeListener<Object> stateListener = tradeStateListeners.remove(trade);
+            if (stateListener == null) return;
+            trade.stateProperty().removeListener(stateListener);
+            trade.payoutStateProperty().removeListener(stateListener);
+            trade.disputeStateProperty().removeListener(stateListener);
+            tradeUpdates.remove(trade.getId());
+        }
+    }
 }
@@ -0,0 +1,242 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.api;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Set of items by id which numbers every change of the set, so API clients can stream the changes after an initial
+ * snapshot.
+ *
+ * The most recent changes are retained, so a client which reconnects with the log id and the sequence number of the
+ * last change it received gets the missed changes only. If the log id does not match, e.g. after a restart, or the
+ * changes are not retained anymore, the client gets a new snapshot.
+ *
+ * Listeners are called in order of the changes, but not while holding the lock of the log. A change is delivered by
+ * the thread which made it, unless another thread is delivering, which then delivers it as well.
+ */
+@Slf4j
+public class UpdateLog<T> {
+
+    public static final int DEFAULT_MAX_RETAINED_CHANGES = 10_000;
+
+    public enum ChangeType {
+        ADDED,
+        UPDATED,
+        REMOVED
+    }
+
+    @Value
+    public static class Change<T> {
+        long sequenceNumber;
+        ChangeType type;
+        String id;
+        // The removed item for REMOVED changes
+        T item;
+    }
+
+    public interface Listener<T> {
+
+        // Items of the set when the listener is added, with the log id and sequence number to resume from
+        void onSnapshot(List<T> items, String logId, long sequenceNumber);
+
+        void onChange(Change<T> change);
+    }
+
+    public interface Subscription {
+        void cancel();
+    }
+
+    private class Subscriber {
+        private final Predicate<T> filter;
+        private final Listener<T> listener;
+        private volatile boolean isCancelled;
+
+        private Subscriber(Predicate<T> filter, Listener<T> listener) {
+            this.filter = filter;
+            this.listener = listener;
+        }
+
+        private void onChange(Change<T> change) {
+            if (isCancelled) return;
+            try {
+                if (filter.test(change.getItem())) listener.onChange(change);
+            } catch (RuntimeException e) {
+                log.warn("Failed to send change to listener {}: {}", listener, e.getMessage());
+                cancel(this);
+            }
+        }
+    }
+
+    private final String logId = UUID.randomUUID().toString();
+    private final int maxRetainedChanges;
+    private final Map<String, T> itemsById = new LinkedHashMap<>();
+    private final Deque<Change<T>> retainedChanges = new ArrayDeque<>();
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private final Deque<Runnable> pendingDeliveries = new ArrayDeque<>();
+    private boolean isDelivering;
+    private long sequenceNumber;
+
+    public UpdateLog() {
+        this(DEFAULT_MAX_RETAINED_CHANGES);
+    }
+
+    public UpdateLog(int maxRetainedChanges) {
+        checkArgument(maxRetainedChanges > 0, "maxRetainedChanges must be positive");
+        this.maxRetainedChanges = maxRetainedChanges;
+    }
+
+    /**
+     * Adds the item or updates it if an item with the same id exists.
+     */
+    public void put(@NonNull String id, @NonNull T item) {
+        synchronized (this) {
+            ChangeType type = itemsById.put(id, item) == null ? ChangeType.ADDED : ChangeType.UPDATED;
+            addChange(new Change<>(++sequenceNumber, type, id, item));
+        }
+        deliverPending();
+    }
+
+    public void remove(@NonNull String id) {
+        synchronized (this) {
+            T item = itemsById.remove(id);
+            if (item == null) return;
+            addChange(new Change<>(++sequenceNumber, ChangeType.REMOVED, id, item));
+        }
+        deliverPending();
+    }
+
+    public synchronized boolean contains(String id) {
+        return itemsById.containsKey(id);
+    }
+
+    public Subscription addListener(@Nullable String fromLogId, long fromSequenceNumber, @NonNull Listener<T> listener) {
+        return addListener(fromLogId, fromSequenceNumber, item -> true, null, listener);
+    }
+
+    /**
+     * Adds the listener and sends it the changes after the given sequence number, or a snapshot if the log id does
+     * not match or these changes are not retained anymore.
+     *
+     * @param fromLogId - id of the log the listener received the last change from, null for a snapshot
+     * @param fromSequenceNumber - sequence number of the last change the listener received, 0 for a snapshot
+     * @param filter - items to send to the listener
+     * @param snapshotOrder - order of the snapshot items, null for the order they were added
+     * @param listener - listener to add
+     * @return the subscription to cancel when the listener is not needed anymore
+     */
+    public Subscription addListener(@Nullable String fromLogId,
+                                    long fromSequenceNumber,
+                                    @NonNull Predicate<T> filter,
+                                    @Nullable Comparator<T> snapshotOrder,
+                                    @NonNull Listener<T> listener) {
+        Subscriber subscriber = new Subscriber(filter, listener);
+        synchronized (this) {
+            if (logId.equals(fromLogId) && canResume(fromSequenceNumber)) {
+                List<Change<T>> missedChanges = retainedChanges.stream()
+                        .filter(change -> change.getSequenceNumber() > fromSequenceNumber)
+                        .collect(Collectors.toList());
+                pendingDeliveries.addLast(() -> missedChanges.forEach(subscriber::onChange));
+            } else {
+                List<T> items = itemsById.values().stream().filter(filter).collect(Collectors.toList());
+                if (snapshotOrder != null) items.sort(snapshotOrder);
+                long snapshotSequenceNumber = sequenceNumber;
+                pendingDeliveries.addLast(() -> {
+                    try {
+                        listener.onSnapshot(items, logId, snapshotSequenceNumber);
+                    } catch (RuntimeException e) {
+                        log.warn("Failed to send snapshot to listener {}: {}", listener, e.getMessage());
+                        cancel(subscriber);
+                    }
+                });
+            }
+            subscribers.add(subscriber);
+        }
+        deliverPending();
+        return () -> cancel(subscriber);
+    }
+
+    public String getLogId() {
+        return logId;
+    }
+
+    public synchronized long getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private synchronized void cancel(Subscriber subscriber) {
+        subscriber.isCancelled = true;
+        subscribers.remove(subscriber);
+    }
+
+    private boolean canResume(long fromSequenceNumber) {
+        if (fromSequenceNumber <= 0 || fromSequenceNumber > sequenceNumber) return false;
+        if (fromSequenceNumber == sequenceNumber) return true;
+        return !retainedChanges.isEmpty() && retainedChanges.peekFirst().getSequenceNumber() <= fromSequenceNumber + 1;
+    }
+
+    private void addChange(Change<T> change) {
+        retainedChanges.addLast(change);
+        if (retainedChanges.size() > maxRetainedChanges) {
+            retainedChanges.removeFirst();
+        }
+
+        // sent to the listeners added before the change
+        if (subscribers.isEmpty()) return;
+        List<Subscriber> recipients = new ArrayList<>(subscribers);
+        pendingDeliveries.addLast(() -> recipients.forEach(subscriber -> subscriber.onChange(change)));
+    }
+
+    private void deliverPending() {
+        synchronized (this) {
+            if (isDelivering) return;
+            isDelivering = true;
+        }
+        while (true) {
+            Runnable delivery;
+            synchronized (this) {
+                delivery = pendingDeliveries.pollFirst();
+                if (delivery == null) {
+                    isDelivering = false;
+                    return;
+                }
+            }
+            delivery.run();
+        }
+    }
+}
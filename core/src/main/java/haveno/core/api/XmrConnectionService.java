@@ -845,6 +845,10 @@ public final class XmrConnectionService {
                     return;
                 }
 
+                // key images polled before a new block or spent in the tx pool are due for polling
+                getKeyImagePoller().setChainHeight(lastInfo.getHeight());
+                getKeyImagePoller().refreshTxPool();
+
                 // update properties on user thread
                 UserThread.execute(() -> {
 
@@ -87,7 +87,8 @@ public class OfferBookService {
     private final FilterManager filterManager;
     private final JsonFileManager jsonFileManager;
     private final XmrConnectionService xmrConnectionService;
-    private final List<Offer> validOffers = new ArrayList<Offer>();
+    private final OfferIndex validOffers = new OfferIndex();
+    private final OrderBook orderBook = new OrderBook();
     private final List<Offer> invalidOffers = new ArrayList<Offer>();
     private final Map<String, Timer> invalidOfferTimers = new HashMap<>();
 
@@ -189,6 +190,9 @@ public class OfferBookService {
             });
         }
 
+        // reprice offers with market based price in order book
+        priceFeedService.updateCounterProperty().addListener((observable, oldValue, newValue) -> orderBook.onMarketPricesChanged());
+
         // listen for changes to key images
         xmrConnectionService.getKeyImagePoller().addListener(new XmrKeyImageListener() {
             @Override
@@ -223,7 +227,7 @@ public class OfferBookService {
         }
     }
 
-    public void refreshTTL(OfferPayload offerPayload,
+    public void refreshTTL(List<OfferPayload> offerPayloads,
                            ResultHandler resultHandler,
                            ErrorMessageHandler errorMessageHandler) {
         if (filterManager.requireUpdateToNewVersionForTrading()) {
@@ -231,7 +235,7 @@ public class OfferBookService {
             return;
         }
 
-        boolean result = p2PService.refreshTTL(offerPayload);
+        boolean result = p2PService.refreshTTL(offerPayloads);
         if (result) {
             resultHandler.handleResult();
         } else {
@@ -265,14 +269,25 @@ public class OfferBookService {
 
     public List<Offer> getOffers() {
         synchronized (validOffers) {
-            return new ArrayList<>(validOffers);
+            return validOffers.getOffers();
+        }
+    }
+
+    @Nullable
+    public Offer getOffer(String offerId) {
+        synchronized (validOffers) {
+            return validOffers.get(offerId);
         }
     }
 
     public List<Offer> getOffersByCurrency(String direction, String currencyCode) {
-        return getOffers().stream()
-                .filter(o -> o.getOfferPayload().getBaseCurrencyCode().equalsIgnoreCase(currencyCode) && o.getDirection().name() == direction)
-                .collect(Collectors.toList());
+        synchronized (validOffers) {
+            return validOffers.getOffers(currencyCode, direction);
+        }
+    }
+
+    public OrderBook.Depth getOrderBookDepth(String currencyCode) {
+        return orderBook.getDepth(currencyCode);
     }
 
     public void removeOfferAtShutDown(OfferPayload offerPayload) {
@@ -315,18 +330,15 @@ public class OfferBookService {
     }
 
     private boolean hasValidOffer(String offerId) {
-        for (Offer offer : getOffers()) {
-            if (offer.getId().equals(offerId)) {
-                return true;
-            }
+        synchronized (validOffers) {
+            return validOffers.contains(offerId);
         }
-        return false;
     }
     
     private void replaceValidOffer(Offer offer) {
         synchronized (validOffers) {
-            removeValidOffer(offer.getId());
-            validOffers.add(offer);
+            validOffers.put(offer);
+            orderBook.add(offer);
         }
     }
 
@@ -349,7 +361,8 @@ public class OfferBookService {
 
     private void removeValidOffer(String offerId) {
         synchronized (validOffers) {
-            validOffers.removeIf(offer -> offer.getId().equals(offerId));
+            validOffers.remove(offerId);
+            orderBook.remove(offerId);
         }
     }
 
@@ -379,10 +392,11 @@ public class OfferBookService {
             throw new IllegalArgumentException("Offer with non-V3 node address is not allowed with offerId=" + offerPayload.getId());
         }
 
-        // validate against existing offers
+        // validate against existing offers. Only offers sharing key images with the new offer can conflict.
         synchronized (validOffers) {
             int numOffersWithSharedKeyImages = 0;
-            for (Offer offer : validOffers) {
+            List<String> reserveTxKeyImages = offerPayload.getReserveTxKeyImages() == null ? Collections.emptyList() : offerPayload.getReserveTxKeyImages();
+            for (Offer offer : validOffers.getOffersWithSharedKeyImages(reserveTxKeyImages)) {
 
                 // validate that no offer has overlapping but different key images
                 if (!offer.getOfferPayload().getReserveTxKeyImages().equals(offerPayload.getReserveTxKeyImages()) && 
@@ -409,26 +423,29 @@ public class OfferBookService {
     }
 
     private void removeKeyImages(Offer offer) {
-        Set<String> unsharedKeyImages = new HashSet<>(offer.getOfferPayload().getReserveTxKeyImages());
+        Set<String> unsharedKeyImages = new HashSet<>();
         synchronized (validOffers) {
-            for (Offer validOffer : validOffers) {
-                if (validOffer.getId().equals(offer.getId())) continue;
-                unsharedKeyImages.removeAll(validOffer.getOfferPayload().getReserveTxKeyImages());
+            for (String keyImage : OfferIndex.getKeyImages(offer)) {
+                if (validOffers.getOffersWithKeyImage(keyImage).stream().allMatch(validOffer -> validOffer.getId().equals(offer.getId()))) {
+                    unsharedKeyImages.add(keyImage);
+                }
             }
         }
         xmrConnectionService.getKeyImagePoller().removeKeyImages(unsharedKeyImages, OfferBookService.class.getSimpleName());
     }
     
     private void updateAffectedOffers(String keyImage) {
-        for (Offer offer : getOffers()) {
-            if (offer.getOfferPayload().getReserveTxKeyImages().contains(keyImage)) {
-                updateReservedFundsSpentStatus(offer);
-                synchronized (offerBookChangedListeners) {
-                    offerBookChangedListeners.forEach(listener -> {
-                        listener.onRemoved(offer);
-                        listener.onAdded(offer);
-                    });
-                }
+        List<Offer> affectedOffers;
+        synchronized (validOffers) {
+            affectedOffers = validOffers.getOffersWithKeyImage(keyImage);
+        }
+        for (Offer offer : affectedOffers) {
+            updateReservedFundsSpentStatus(offer);
+            synchronized (offerBookChangedListeners) {
+                offerBookChangedListeners.forEach(listener -> {
+                    listener.onRemoved(offer);
+                    listener.onAdded(offer);
+                });
             }
         }
     }
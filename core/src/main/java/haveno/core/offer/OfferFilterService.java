@@ -29,10 +29,11 @@ import haveno.core.trade.HavenoUtils;
 import haveno.core.user.Preferences;
 import haveno.core.user.User;
 import haveno.network.p2p.P2PService;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import javafx.collections.SetChangeListener;
+import javax.annotation.Nullable;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.bitcoinj.core.Coin;
@@ -45,15 +46,38 @@ public class OfferFilterService {
     private final Preferences preferences;
     private final FilterManager filterManager;
     private final AccountAgeWitnessService accountAgeWitnessService;
-    private final Map<String, Boolean> insufficientCounterpartyTradeLimitCache = new HashMap<>();
-    private final Map<String, Boolean> myInsufficientTradeLimitCache = new HashMap<>();
+    private final Map<String, Boolean> insufficientCounterpartyTradeLimitCache = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> myInsufficientTradeLimitCache = new ConcurrentHashMap<>();
+
+    // Results of the expensive checks of canTakeOffer by offer id. Entries are removed if the offer gets added or
+    // removed and all entries are cleared if the filter or our payment accounts change. The results do not depend on
+    // the price of the offer.
+    private final Map<String, CachedChecks> cachedChecksByOfferId = new ConcurrentHashMap<>();
+
+    private static class CachedChecks {
+        private final Offer offer;
+        // First failed result of the checks depending on the filter and the trade limits, VALID if all passed
+        private final Result result;
+        // Guarded by the instance
+        @Nullable
+        private Arbitrator signatureArbitrator;
+        private boolean isSignatureValid;
+        @Nullable
+        private volatile Boolean isAnyPaymentAccountValidForOffer;
+
+        private CachedChecks(Offer offer, Result result) {
+            this.offer = offer;
+            this.result = result;
+        }
+    }
 
     @Inject
     public OfferFilterService(User user,
                        P2PService p2PService,
                        Preferences preferences,
                        FilterManager filterManager,
-                       AccountAgeWitnessService accountAgeWitnessService) {
+                       AccountAgeWitnessService accountAgeWitnessService,
+                       OfferBookService offerBookService) {
         this.user = user;
         this.p2PService = p2PService;
         this.preferences = preferences;
@@ -62,8 +86,32 @@ public class OfferFilterService {
 
         if (user != null && user.getPaymentAccountsAsObservable() != null) {
             // If our accounts have changed we reset our myInsufficientTradeLimitCache as it depends on account data
-            user.getPaymentAccountsAsObservable().addListener((SetChangeListener<PaymentAccount>) c ->
-                    myInsufficientTradeLimitCache.clear());
+            user.getPaymentAccountsAsObservable().addListener((SetChangeListener<PaymentAccount>) c -> {
+                myInsufficientTradeLimitCache.clear();
+                cachedChecksByOfferId.clear();
+            });
+        }
+
+        if (filterManager != null && filterManager.filterProperty() != null) {
+            // Banned offers, currencies, payment methods, nodes and signers are all defined by the filter
+            filterManager.filterProperty().addListener((observable, oldValue, newValue) -> {
+                insufficientCounterpartyTradeLimitCache.clear();
+                cachedChecksByOfferId.clear();
+            });
+        }
+
+        if (offerBookService != null) {
+            offerBookService.addOfferBookChangedListener(new OfferBookService.OfferBookChangedListener() {
+                @Override
+                public void onAdded(Offer offer) {
+                    invalidate(offer.getId());
+                }
+
+                @Override
+                public void onRemoved(Offer offer) {
+                    invalidate(offer.getId());
+                }
+            });
         }
     }
 
@@ -106,37 +154,21 @@ public class OfferFilterService {
         if (isIgnored(offer)) {
             return Result.IS_IGNORED;
         }
-        if (isOfferBanned(offer)) {
-            return Result.IS_OFFER_BANNED;
-        }
-        if (isCurrencyBanned(offer)) {
-            return Result.IS_CURRENCY_BANNED;
-        }
-        if (isPaymentMethodBanned(offer)) {
-            return Result.IS_PAYMENT_METHOD_BANNED;
-        }
-        if (isNodeAddressBanned(offer)) {
-            return Result.IS_NODE_ADDRESS_BANNED;
-        }
-        if (requireUpdateToNewVersion()) {
-            return Result.REQUIRE_UPDATE_TO_NEW_VERSION;
-        }
-        if (isInsufficientCounterpartyTradeLimit(offer)) {
-            return Result.IS_INSUFFICIENT_COUNTERPARTY_TRADE_LIMIT;
-        }
-        if (isMyInsufficientTradeLimit(offer)) {
-            return Result.IS_MY_INSUFFICIENT_TRADE_LIMIT;
+        CachedChecks cachedChecks = getCachedChecks(offer);
+        if (!cachedChecks.result.isValid()) {
+            return cachedChecks.result;
         }
-        if (!hasValidArbitrator(offer)) {
+        Arbitrator arbitrator = getArbitrator(offer);
+        if (arbitrator == null) {
             return Result.ARBITRATOR_NOT_VALIDATED;
         }
-        if (!hasValidSignature(offer)) {
+        if (!hasValidSignature(cachedChecks, arbitrator)) {
             return Result.SIGNATURE_NOT_VALIDATED;
         }
         if (isReservedFundsSpent(offer)) {
             return Result.RESERVE_FUNDS_SPENT;
         }
-        if (!isAnyPaymentAccountValidForOffer(offer)) {
+        if (!isAnyPaymentAccountValidForOffer(cachedChecks)) {
             return Result.HAS_NO_PAYMENT_ACCOUNT_VALID_FOR_OFFER;
         }
 
@@ -218,11 +250,6 @@ public class OfferFilterService {
         return result;
     }
 
-    private boolean hasValidArbitrator(Offer offer) {
-        Arbitrator arbitrator = getArbitrator(offer);
-        return arbitrator != null;
-    }
-
     private Arbitrator getArbitrator(Offer offer) {
         
         // get arbitrator by address
@@ -237,13 +264,68 @@ public class OfferFilterService {
         return null;
     }
 
-    private boolean hasValidSignature(Offer offer) {
-        Arbitrator arbitrator = getArbitrator(offer);
-        if (arbitrator == null) return false;
-        return HavenoUtils.isArbitratorSignatureValid(offer.getOfferPayload(), arbitrator);
-    }
-
     public boolean isReservedFundsSpent(Offer offer) {
         return offer.isReservedFundsSpent();
     }
+
+    private CachedChecks getCachedChecks(Offer offer) {
+        CachedChecks cachedChecks = cachedChecksByOfferId.get(offer.getId());
+        if (cachedChecks != null && cachedChecks.offer == offer) {
+            return cachedChecks;
+        }
+        cachedChecks = new CachedChecks(offer, getUncachedResult(offer));
+        cachedChecksByOfferId.put(offer.getId(), cachedChecks);
+        return cachedChecks;
+    }
+
+    private Result getUncachedResult(Offer offer) {
+        if (isOfferBanned(offer)) {
+            return Result.IS_OFFER_BANNED;
+        }
+        if (isCurrencyBanned(offer)) {
+            return Result.IS_CURRENCY_BANNED;
+        }
+        if (isPaymentMethodBanned(offer)) {
+            return Result.IS_PAYMENT_METHOD_BANNED;
+        }
+        if (isNodeAddressBanned(offer)) {
+            return Result.IS_NODE_ADDRESS_BANNED;
+        }
+        if (requireUpdateToNewVersion()) {
+            return Result.REQUIRE_UPDATE_TO_NEW_VERSION;
+        }
+        if (isInsufficientCounterpartyTradeLimit(offer)) {
+            return Result.IS_INSUFFICIENT_COUNTERPARTY_TRADE_LIMIT;
+        }
+        if (isMyInsufficientTradeLimit(offer)) {
+            return Result.IS_MY_INSUFFICIENT_TRADE_LIMIT;
+        }
+        return Result.VALID;
+    }
+
+    // The accepted arbitrators are not observable, so we only cache the result for the arbitrator it was checked with
+    private boolean hasValidSignature(CachedChecks cachedChecks, Arbitrator arbitrator) {
+        synchronized (cachedChecks) {
+            if (arbitrator != cachedChecks.signatureArbitrator && !arbitrator.equals(cachedChecks.signatureArbitrator)) {
+                cachedChecks.isSignatureValid = HavenoUtils.isArbitratorSignatureValid(cachedChecks.offer.getOfferPayload(), arbitrator);
+                cachedChecks.signatureArbitrator = arbitrator;
+            }
+            return cachedChecks.isSignatureValid;
+        }
+    }
+
+    private boolean isAnyPaymentAccountValidForOffer(CachedChecks cachedChecks) {
+        Boolean isValid = cachedChecks.isAnyPaymentAccountValidForOffer;
+        if (isValid == null) {
+            isValid = isAnyPaymentAccountValidForOffer(cachedChecks.offer);
+            cachedChecks.isAnyPaymentAccountValidForOffer = isValid;
+        }
+        return isValid;
+    }
+
+    private void invalidate(String offerId) {
+        cachedChecksByOfferId.remove(offerId);
+        insufficientCounterpartyTradeLimitCache.remove(offerId);
+        myInsufficientTradeLimitCache.remove(offerId);
+    }
 }
@@ -0,0 +1,149 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.offer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * Offers of the offer book indexed by offer id, reserve tx key image and market (base currency and direction), so
+ * validation, removal and spent status updates do not need to scan all offers.
+ *
+ * Offers keep the order in which they were added. Not thread safe, the caller has to synchronize.
+ */
+class OfferIndex {
+    private final Map<String, Offer> offersById = new LinkedHashMap<>();
+    // Key images at the time the offer was added, so the index stays consistent if the payload gets changed
+    private final Map<String, List<String>> keyImagesByOfferId = new HashMap<>();
+    private final Map<String, Set<String>> offerIdsByKeyImage = new HashMap<>();
+    // Offers without reserve tx key images share the same (empty) list of key images
+    private final Set<String> offerIdsWithoutKeyImages = new LinkedHashSet<>();
+    private final Map<String, Set<String>> offerIdsByMarket = new HashMap<>();
+
+    /**
+     * Adds the offer, replacing an offer with the same id. The offer is added at the end of the order.
+     */
+    void put(Offer offer) {
+        remove(offer.getId());
+        offersById.put(offer.getId(), offer);
+        List<String> keyImages = List.copyOf(getKeyImages(offer));
+        keyImagesByOfferId.put(offer.getId(), keyImages);
+        if (keyImages.isEmpty()) {
+            offerIdsWithoutKeyImages.add(offer.getId());
+        }
+        for (String keyImage : keyImages) {
+            offerIdsByKeyImage.computeIfAbsent(keyImage, k -> new LinkedHashSet<>()).add(offer.getId());
+        }
+        offerIdsByMarket.computeIfAbsent(getMarketKey(offer), k -> new LinkedHashSet<>()).add(offer.getId());
+    }
+
+    @Nullable
+    Offer remove(String offerId) {
+        Offer offer = offersById.remove(offerId);
+        if (offer == null) {
+            return null;
+        }
+        offerIdsWithoutKeyImages.remove(offerId);
+        for (String keyImage : keyImagesByOfferId.remove(offerId)) {
+            removeFromIndex(offerIdsByKeyImage, keyImage, offerId);
+        }
+        removeFromIndex(offerIdsByMarket, getMarketKey(offer), offerId);
+        return offer;
+    }
+
+    boolean contains(String offerId) {
+        return offersById.containsKey(offerId);
+    }
+
+    @Nullable
+    Offer get(String offerId) {
+        return offersById.get(offerId);
+    }
+
+    List<Offer> getOffers() {
+        return new ArrayList<>(offersById.values());
+    }
+
+    List<Offer> getOffers(String baseCurrencyCode, String direction) {
+        return getOffers(offerIdsByMarket.getOrDefault(getMarketKey(baseCurrencyCode, direction), Collections.emptySet()));
+    }
+
+    List<Offer> getOffersWithKeyImage(String keyImage) {
+        return getOffers(offerIdsByKeyImage.getOrDefault(keyImage, Collections.emptySet()));
+    }
+
+    /**
+     * @return The offers sharing at least one key image with the given key images. If the given key images are
+     * empty, the offers without key images.
+     */
+    List<Offer> getOffersWithSharedKeyImages(Collection<String> keyImages) {
+        if (keyImages.isEmpty()) {
+            return getOffers(offerIdsWithoutKeyImages);
+        }
+        Set<String> offerIds = new LinkedHashSet<>();
+        for (String keyImage : keyImages) {
+            offerIds.addAll(offerIdsByKeyImage.getOrDefault(keyImage, Collections.emptySet()));
+        }
+        return getOffers(offerIds);
+    }
+
+    static List<String> getKeyImages(Offer offer) {
+        List<String> keyImages = offer.getOfferPayload().getReserveTxKeyImages();
+        return keyImages == null ? Collections.emptyList() : keyImages;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private List<Offer> getOffers(Collection<String> offerIds) {
+        List<Offer> offers = new ArrayList<>(offerIds.size());
+        for (String offerId : offerIds) {
+            offers.add(offersById.get(offerId));
+        }
+        return offers;
+    }
+
+    private static String getMarketKey(Offer offer) {
+        return getMarketKey(offer.getOfferPayload().getBaseCurrencyCode(), offer.getDirection().name());
+    }
+
+    private static String getMarketKey(String baseCurrencyCode, String direction) {
+        return baseCurrencyCode.toUpperCase(Locale.ROOT) + "/" + direction;
+    }
+
+    private static void removeFromIndex(Map<String, Set<String>> index, String key, String offerId) {
+        Set<String> offerIds = index.get(key);
+        if (offerIds != null) {
+            offerIds.remove(offerId);
+            if (offerIds.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+}
@@ -22,6 +22,8 @@ import haveno.common.app.AppModule;
 import haveno.common.config.Config;
 import lombok.extern.slf4j.Slf4j;
 
+import static com.google.inject.name.Names.named;
+
 @Slf4j
 public class OfferModule extends AppModule {
 
@@ -33,5 +35,6 @@ public class OfferModule extends AppModule {
     protected final void configure() {
         bind(OpenOfferManager.class).in(Singleton.class);
         bind(OfferBookService.class).in(Singleton.class);
+        bindConstant().annotatedWith(named(Config.REPUBLISH_OFFERS_CONCURRENCY)).to(config.republishOffersConcurrency);
     }
 }
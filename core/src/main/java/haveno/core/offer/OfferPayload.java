@@ -31,12 +31,12 @@ import haveno.common.util.Utilities;
 import haveno.core.trade.HavenoUtils;
 import haveno.core.xmr.wallet.Restrictions;
 import haveno.network.p2p.NodeAddress;
+import haveno.network.p2p.storage.P2PDataStorage;
 import haveno.network.p2p.storage.payload.ExpirablePayload;
 import haveno.network.p2p.storage.payload.ProtectedStoragePayload;
 import haveno.network.p2p.storage.payload.RequiresOwnerIsOnlinePayload;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
-import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.annotation.Nullable;
@@ -81,13 +81,11 @@ public final class OfferPayload implements ProtectedStoragePayload, ExpirablePay
     protected final Map<String, String> extraDataMap;
 
     // address and signature of signing arbitrator
-    @Setter
+    // Mutable properties. Setting them resets the cached hashes, as they change the payload hash!
     @Nullable
     protected NodeAddress arbitratorSigner;
-    @Setter
     @Nullable
     protected byte[] arbitratorSignature;
-    @Setter
     @Nullable
     protected List<String> reserveTxKeyImages;
 
@@ -253,6 +251,26 @@ public final class OfferPayload implements ProtectedStoragePayload, ExpirablePay
         return this.hash;
     }
 
+    public void setArbitratorSigner(@Nullable NodeAddress arbitratorSigner) {
+        this.arbitratorSigner = arbitratorSigner;
+        onHashChanged();
+    }
+
+    public void setArbitratorSignature(@Nullable byte[] arbitratorSignature) {
+        this.arbitratorSignature = arbitratorSignature;
+        onHashChanged();
+    }
+
+    public void setReserveTxKeyImages(@Nullable List<String> reserveTxKeyImages) {
+        this.reserveTxKeyImages = reserveTxKeyImages;
+        onHashChanged();
+    }
+
+    private void onHashChanged() {
+        this.hash = null;
+        P2PDataStorage.invalidate32ByteHash(this);
+    }
+
     public byte[] getSignatureHash() {
 
         // create copy with ignored fields standardized
@@ -38,12 +38,14 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.collect.ImmutableList;
 import com.google.inject.Inject;
+import com.google.inject.name.Named;
 import haveno.common.ThreadUtils;
 import haveno.common.Timer;
 import haveno.common.UserThread;
 import haveno.common.app.Capabilities;
 import haveno.common.app.Capability;
 import haveno.common.app.Version;
+import haveno.common.config.Config;
 import haveno.common.crypto.KeyRing;
 import haveno.common.crypto.PubKeyRing;
 import haveno.common.handlers.ErrorMessageHandler;
@@ -85,6 +87,7 @@ import haveno.core.xmr.wallet.Restrictions;
 import haveno.core.xmr.wallet.XmrKeyImageListener;
 import haveno.core.xmr.wallet.XmrKeyImagePoller;
 import haveno.core.xmr.wallet.TradeWalletService;
+import haveno.core.xmr.wallet.XmrRequestScheduler;
 import haveno.core.xmr.wallet.XmrWalletService;
 import haveno.network.p2p.AckMessage;
 import haveno.network.p2p.AckMessageSourceType;
@@ -109,6 +112,7 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -132,6 +136,7 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
     private static final Logger log = LoggerFactory.getLogger(OpenOfferManager.class);
 
     private static final String THREAD_ID = OpenOfferManager.class.getSimpleName();
+    private static final String REPUBLISH_THREAD_ID = THREAD_ID + "_republish";
     private static final long RETRY_REPUBLISH_DELAY_SEC = 10;
     private static final long REPUBLISH_AGAIN_AT_STARTUP_DELAY_SEC = 30;
     private static final long REPUBLISH_INTERVAL_MS = TimeUnit.MINUTES.toMillis(30);
@@ -166,6 +171,9 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
     private final SignedOfferList signedOffers = new SignedOfferList();
     private final PersistenceManager<SignedOfferList> signedOfferPersistenceManager;
     private final Map<String, PlaceOfferProtocol> placeOfferProtocols = new HashMap<String, PlaceOfferProtocol>();
+    private final int republishOffersConcurrency;
+    @Getter
+    private volatile RepublishOffersProgress republishOffersProgress = new RepublishOffersProgress(0, 0, 0, 0, false);
     private boolean stopped;
     private Timer periodicRepublishOffersTimer, periodicRefreshOffersTimer, retryRepublishOffersTimer;
     @Getter
@@ -200,7 +208,8 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
                             Broadcaster broadcaster,
                             PersistenceManager<TradableList<OpenOffer>> persistenceManager,
                             PersistenceManager<SignedOfferList> signedOfferPersistenceManager,
-                            AccountAgeWitnessService accountAgeWitnessService) {
+                            AccountAgeWitnessService accountAgeWitnessService,
+                            @Named(Config.REPUBLISH_OFFERS_CONCURRENCY) int republishOffersConcurrency) {
         this.coreContext = coreContext;
         this.keyRing = keyRing;
         this.user = user;
@@ -221,6 +230,7 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
         this.persistenceManager = persistenceManager;
         this.signedOfferPersistenceManager = signedOfferPersistenceManager;
         this.accountAgeWitnessService = accountAgeWitnessService;
+        this.republishOffersConcurrency = Math.max(1, republishOffersConcurrency);
         HavenoUtils.openOfferManager = this;
 
         this.persistenceManager.initialize(openOffers, "OpenOffers", PersistenceManager.Source.PRIVATE);
@@ -328,6 +338,7 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
 
     private void shutDownThreadPool() {
         try {
+            ThreadUtils.shutDown(REPUBLISH_THREAD_ID, SHUTDOWN_TIMEOUT_MS);
             ThreadUtils.shutDown(THREAD_ID, SHUTDOWN_TIMEOUT_MS);
         } catch (Exception e) {
             log.error("Error shutting down OpenOfferManager thread pool", e);
@@ -1329,7 +1340,7 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
         MoneroTxWallet splitOutputTx = null;
         synchronized (HavenoUtils.xmrWalletService.getWalletLock()) {
             XmrAddressEntry entry = xmrWalletService.getOrCreateAddressEntry(openOffer.getId(), XmrAddressEntry.Context.OFFER_FUNDING);
-            synchronized (HavenoUtils.getWalletFunctionLock()) {
+            try (XmrRequestScheduler.Permit permit = HavenoUtils.acquireDaemonPermit(XmrRequestScheduler.Priority.DEPOSIT)) {
                 long startTime = System.currentTimeMillis();
                 for (int i = 0; i < TradeProtocol.MAX_ATTEMPTS; i++) {
                     MoneroRpcConnection sourceConnection = xmrConnectionService.getConnection();
@@ -2064,91 +2075,160 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
 
         stopPeriodicRefreshOffersTimer();
 
+        // republish offers concurrently off the offer thread, so other offer operations are not blocked meanwhile
         ThreadUtils.execute(() -> {
-            processListForRepublishOffers(new ArrayList<>(getOpenOffers())); // list will be modified
-        }, THREAD_ID);
+            List<OpenOffer> openOffersList = new ArrayList<>(getOpenOffers());
+            RepublishOffersTracker tracker = new RepublishOffersTracker(openOffersList.size());
+            List<Runnable> tasks = new ArrayList<Runnable>();
+            for (OpenOffer openOffer : openOffersList) tasks.add(() -> republishOfferAndWait(openOffer, tracker));
+            try {
+                ThreadUtils.awaitTasks(tasks, republishOffersConcurrency);
+            } catch (Exception e) {
+                if (!stopped) log.warn("Error republishing offers: {}", e.getMessage());
+            }
+            tracker.complete();
+        }, REPUBLISH_THREAD_ID);
     }
 
-    // modifies the given list
-    private void processListForRepublishOffers(List<OpenOffer> list) {
-        if (list.isEmpty()) {
-            return;
-        }
-
-        OpenOffer openOffer = list.remove(0);
+    // waits until the offer is republished, so each worker republishes one offer at a time
+    private void republishOfferAndWait(OpenOffer openOffer, RepublishOffersTracker tracker) {
         boolean contained = false;
         synchronized (openOffers.getList()) {
             contained = openOffers.contains(openOffer);
         }
-        if (contained) {
-            // TODO It is not clear yet if it is better for the node and the network to send out all add offer
-            //  messages in one go or to spread it over a delay. With power users who have 100-200 offers that can have
-            //  some significant impact to user experience and the network
-            maybeRepublishOffer(openOffer, () -> processListForRepublishOffers(list));
+        if (!contained || stopped) {
 
-            /* republishOffer(openOffer,
-                    () -> UserThread.runAfter(() -> processListForRepublishOffers(list),
-                            30, TimeUnit.MILLISECONDS));*/
-        } else {
-            // If the offer was removed in the meantime or if its deactivated we skip and call
-            // processListForRepublishOffers again with the list where we removed the offer already.
-            processListForRepublishOffers(list);
+            // the offer was removed in the meantime
+            tracker.onRepublished(RepublishResult.SKIPPED);
+            return;
         }
+
+        CountDownLatch latch = new CountDownLatch(1);
+        doRepublishOffer(openOffer, result -> {
+            tracker.onRepublished(result);
+            latch.countDown();
+        });
+        HavenoUtils.awaitLatch(latch);
     }
 
     private void maybeRepublishOffer(OpenOffer openOffer, @Nullable Runnable completeHandler) {
         ThreadUtils.execute(() -> {
+            doRepublishOffer(openOffer, result -> {
+                if (completeHandler != null) completeHandler.run();
+            });
+        }, THREAD_ID);
+    }
 
-            // skip if prevented from publishing
+    private void doRepublishOffer(OpenOffer openOffer, Consumer<RepublishResult> completeHandler) {
+
+        // skip if prevented from publishing
+        if (preventedFromPublishing(openOffer)) {
+            completeHandler.accept(RepublishResult.SKIPPED);
+            return;
+        }
+
+        // publish a signed and reserved offer without the lock, checking it does not touch the wallet
+        if (isSignedStateValid(openOffer)) {
+            publishOffer(openOffer, completeHandler);
+            return;
+        }
+
+        // otherwise reprocess the offer under the lock until done, so no other offer is signed or funded meanwhile
+        synchronized (processOffersLock) {
             if (preventedFromPublishing(openOffer)) {
-                if (completeHandler != null) completeHandler.run();
+                completeHandler.accept(RepublishResult.SKIPPED);
                 return;
             }
+            CountDownLatch latch = new CountDownLatch(1);
+            processOffer(getOpenOffers(), openOffer, (transaction) -> {
+                requestPersistence();
+                latch.countDown();
+                publishOffer(openOffer, completeHandler);
+            }, (errorMessage) -> {
+                log.warn("Error republishing offer {}: {}", openOffer.getId(), errorMessage);
+                latch.countDown();
+                completeHandler.accept(RepublishResult.FAILED);
+            });
+            HavenoUtils.awaitLatch(latch);
+        }
+    }
 
-            // reprocess offer then publish
-            synchronized (processOffersLock) {
-                CountDownLatch latch = new CountDownLatch(1);
-                processOffer(getOpenOffers(), openOffer, (transaction) -> {
-                    requestPersistence();
-                    latch.countDown();
+    // checks the signature and reserve tx of an offer which was processed before
+    private boolean isSignedStateValid(OpenOffer openOffer) {
+        if (openOffer.isPending() || openOffer.isProcessing()) return false;
+        try {
+            ValidateOffer.validateOffer(openOffer.getOffer(), accountAgeWitnessService, user);
+            validateSignedState(openOffer);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
 
-                    // skip if prevented from publishing
-                    if (preventedFromPublishing(openOffer)) {
-                        if (completeHandler != null) completeHandler.run();
-                        return;
+    private void publishOffer(OpenOffer openOffer, Consumer<RepublishResult> completeHandler) {
+
+        // skip if prevented from publishing
+        if (preventedFromPublishing(openOffer)) {
+            completeHandler.accept(RepublishResult.SKIPPED);
+            return;
+        }
+
+        // publish offer to books
+        offerBookService.addOffer(openOffer.getOffer(),
+                () -> {
+                    if (!stopped) {
+
+                        // refresh means we send only the data needed to refresh the TTL (hash, signature and sequence no.)
+                        if (periodicRefreshOffersTimer == null) {
+                            startPeriodicRefreshOffersTimer();
+                        }
                     }
-                    
-                    // publish offer to books
-                    offerBookService.addOffer(openOffer.getOffer(),
-                            () -> {
-                                if (!stopped) {
-
-                                    // refresh means we send only the data needed to refresh the TTL (hash, signature and sequence no.)
-                                    if (periodicRefreshOffersTimer == null) {
-                                        startPeriodicRefreshOffersTimer();
-                                    }
-                                    if (completeHandler != null) {
-                                        completeHandler.run();
-                                    }
-                                }
-                            },
-                            errorMessage -> {
-                                if (!stopped) {
-                                    log.error("Adding offer to P2P network failed. " + errorMessage);
-                                    stopRetryRepublishOffersTimer();
-                                    retryRepublishOffersTimer = UserThread.runAfter(OpenOfferManager.this::republishOffers,
-                                            RETRY_REPUBLISH_DELAY_SEC);
-                                    if (completeHandler != null) completeHandler.run();
-                                }
-                            });
-                }, (errorMessage) -> {
-                    log.warn("Error republishing offer {}: {}", openOffer.getId(), errorMessage);
-                    latch.countDown();
-                    if (completeHandler != null) completeHandler.run();
+                    completeHandler.accept(RepublishResult.PUBLISHED);
+                },
+                errorMessage -> {
+                    if (!stopped) {
+                        log.error("Adding offer to P2P network failed. " + errorMessage);
+                        stopRetryRepublishOffersTimer();
+                        retryRepublishOffersTimer = UserThread.runAfter(OpenOfferManager.this::republishOffers,
+                                RETRY_REPUBLISH_DELAY_SEC);
+                    }
+                    completeHandler.accept(RepublishResult.FAILED);
                 });
-                HavenoUtils.awaitLatch(latch);
+    }
+
+    private enum RepublishResult {
+        PUBLISHED,
+        SKIPPED,
+        FAILED
+    }
+
+    // counts the results of republishing offers and publishes the progress
+    private class RepublishOffersTracker {
+        private final int numOffers;
+        private int numPublished;
+        private int numSkipped;
+        private int numFailed;
+        private boolean completed;
+
+        private RepublishOffersTracker(int numOffers) {
+            this.numOffers = numOffers;
+            republishOffersProgress = new RepublishOffersProgress(numOffers, 0, 0, 0, true);
+        }
+
+        private synchronized void onRepublished(RepublishResult result) {
+            switch (result) {
+                case PUBLISHED -> numPublished++;
+                case SKIPPED -> numSkipped++;
+                case FAILED -> numFailed++;
             }
-        }, THREAD_ID);
+            if (!completed) republishOffersProgress = new RepublishOffersProgress(numOffers, numPublished, numSkipped, numFailed, true);
+        }
+
+        private synchronized void complete() {
+            completed = true;
+            republishOffersProgress = new RepublishOffersProgress(numOffers, numPublished, numSkipped, numFailed, false);
+            log.info("Done republishing offers, published={}, skipped={}, failed={}", numPublished, numSkipped, numFailed);
+        }
     }
 
     private boolean preventedFromPublishing(OpenOffer openOffer) {
@@ -2178,28 +2258,11 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
         if (periodicRefreshOffersTimer == null)
             periodicRefreshOffersTimer = UserThread.runPeriodically(() -> {
                         if (!stopped) {
+                            List<OpenOffer> openOffersList;
                             synchronized (openOffers.getList()) {
-                                int size = openOffers.size();
-                                //we clone our list as openOffers might change during our delayed call
-                                final ArrayList<OpenOffer> openOffersList = new ArrayList<>(openOffers.getList());
-                                for (int i = 0; i < size; i++) {
-                                    // we delay to avoid reaching throttle limits
-                                    // roughly 4 offers per second
-    
-                                    long delay = 300;
-                                    final long minDelay = (i + 1) * delay;
-                                    final long maxDelay = (i + 2) * delay;
-                                    final OpenOffer openOffer = openOffersList.get(i);
-                                    UserThread.runAfterRandomDelay(() -> {
-                                        // we need to check if in the meantime the offer has been removed
-                                        boolean contained = false;
-                                        synchronized (openOffers.getList()) {
-                                            contained = openOffers.contains(openOffer);
-                                        }
-                                        if (contained) maybeRefreshOffer(openOffer, 0, 1);
-                                    }, minDelay, maxDelay, TimeUnit.MILLISECONDS);
-                                }
+                                openOffersList = new ArrayList<>(openOffers.getList());
                             }
+                            maybeRefreshOffers(openOffersList);
                         } else {
                             log.debug("We have stopped already. We ignore that periodicRefreshOffersTimer.run call.");
                         }
@@ -2210,16 +2273,16 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
             log.trace("periodicRefreshOffersTimer already stated");
     }
 
-    private void maybeRefreshOffer(OpenOffer openOffer, int numAttempts, int maxAttempts) {
-        if (preventedFromPublishing(openOffer)) return;
-        offerBookService.refreshTTL(openOffer.getOffer().getOfferPayload(),
-                () -> log.debug("Successful refreshed TTL for offer"),
-                (errorMessage) -> {
-                    log.warn(errorMessage);
-                    if (numAttempts + 1 < maxAttempts) {
-                        UserThread.runAfter(() -> maybeRefreshOffer(openOffer, numAttempts + 1, maxAttempts), 10);
-                    }
-                });
+    // offers are refreshed in bulk, so we do not need to delay them to avoid reaching throttle limits
+    private void maybeRefreshOffers(List<OpenOffer> openOffersList) {
+        List<OfferPayload> offerPayloads = openOffersList.stream()
+                .filter(openOffer -> !preventedFromPublishing(openOffer))
+                .map(openOffer -> openOffer.getOffer().getOfferPayload())
+                .collect(Collectors.toList());
+        if (offerPayloads.isEmpty()) return;
+        offerBookService.refreshTTL(offerPayloads,
+                () -> log.debug("Successful refreshed TTL for {} offers", offerPayloads.size()),
+                log::warn);
     }
 
     private void restart() {
@@ -0,0 +1,222 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.offer;
+
+import haveno.core.locale.CurrencyUtil;
+import haveno.core.monetary.Price;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import javax.annotation.Nullable;
+import lombok.Value;
+
+/**
+ * Price levels of the valid offers per currency, maintained incrementally as offers get added or removed.
+ *
+ * Offers with a market based price are repriced lazily: a change of the market prices only marks the books as stale
+ * and a book reprices its market based offers when its depth is requested the next time. The depth of a currency is
+ * cached until the book of the currency changes.
+ */
+public class OrderBook {
+
+    /**
+     * Offered amount at a price. In a {@link Depth} the amount is accumulated over the preceding levels.
+     */
+    @Value
+    public static class PriceLevel {
+        Price price;
+        long amount;
+    }
+
+    /**
+     * Price levels of both sides of a currency, sorted for the depth chart: buy offers from the best to the worst
+     * price and sell offers from the best to the worst price, where crypto offers are sorted inversely because
+     * trading XMR-crypto is considered as buying or selling the crypto.
+     */
+    @Value
+    public static class Depth {
+        List<PriceLevel> buyLevels;
+        List<PriceLevel> sellLevels;
+    }
+
+    private static final Depth EMPTY_DEPTH = new Depth(Collections.emptyList(), Collections.emptyList());
+
+    private static class Side {
+        // Total amount by price value
+        private final NavigableMap<Long, Long> amountByPrice = new TreeMap<>();
+        private final Map<String, Long> priceByOfferId = new HashMap<>();
+        private final Map<String, Offer> marketBasedOffers = new HashMap<>();
+
+        private void add(Offer offer, @Nullable Price price) {
+            if (offer.isUseMarketBasedPrice()) {
+                marketBasedOffers.put(offer.getId(), offer);
+            }
+            if (price != null) {
+                priceByOfferId.put(offer.getId(), price.getValue());
+                amountByPrice.merge(price.getValue(), offer.getOfferPayload().getAmount(), Long::sum);
+            }
+        }
+
+        private void remove(Offer offer) {
+            marketBasedOffers.remove(offer.getId());
+            removeLevelAmount(offer);
+        }
+
+        // @return true if the price of an offer changed
+        private boolean reprice() {
+            boolean changed = false;
+            for (Offer offer : marketBasedOffers.values()) {
+                Price price = offer.getPrice();
+                Long previousPrice = priceByOfferId.get(offer.getId());
+                Long newPrice = price == null ? null : price.getValue();
+                if (previousPrice == null ? newPrice == null : previousPrice.equals(newPrice)) {
+                    continue;
+                }
+                removeLevelAmount(offer);
+                add(offer, price);
+                changed = true;
+            }
+            return changed;
+        }
+
+        private void removeLevelAmount(Offer offer) {
+            Long price = priceByOfferId.remove(offer.getId());
+            if (price != null) {
+                amountByPrice.computeIfPresent(price, (p, amount) -> {
+                    long remaining = amount - offer.getOfferPayload().getAmount();
+                    return remaining > 0 ? remaining : null;
+                });
+            }
+        }
+
+        private List<PriceLevel> getAccumulatedLevels(String currencyCode, boolean descending) {
+            List<PriceLevel> levels = new ArrayList<>(amountByPrice.size());
+            long accumulatedAmount = 0;
+            for (Map.Entry<Long, Long> entry : (descending ? amountByPrice.descendingMap() : amountByPrice).entrySet()) {
+                accumulatedAmount += entry.getValue();
+                levels.add(new PriceLevel(Price.valueOf(currencyCode, entry.getKey()), accumulatedAmount));
+            }
+            return levels;
+        }
+    }
+
+    private static class Book {
+        private final String currencyCode;
+        private final Side buySide = new Side();
+        private final Side sellSide = new Side();
+        private long repricedAtPricesVersion;
+        @Nullable
+        private Depth depth;
+
+        private Book(String currencyCode, long pricesVersion) {
+            this.currencyCode = currencyCode;
+            this.repricedAtPricesVersion = pricesVersion;
+        }
+
+        private Side getSide(Offer offer) {
+            return offer.getDirection() == OfferDirection.BUY ? buySide : sellSide;
+        }
+
+        private boolean isEmpty() {
+            return buySide.marketBasedOffers.isEmpty() && buySide.priceByOfferId.isEmpty() &&
+                    sellSide.marketBasedOffers.isEmpty() && sellSide.priceByOfferId.isEmpty();
+        }
+
+        private Depth getDepth(long pricesVersion) {
+            if (repricedAtPricesVersion != pricesVersion) {
+                repricedAtPricesVersion = pricesVersion;
+                // Both sides have to be repriced
+                boolean buySideChanged = buySide.reprice();
+                boolean sellSideChanged = sellSide.reprice();
+                if (buySideChanged || sellSideChanged) {
+                    depth = null;
+                }
+            }
+            if (depth == null) {
+                boolean isCrypto = CurrencyUtil.isCryptoCurrency(currencyCode);
+                depth = new Depth(buySide.getAccumulatedLevels(currencyCode, !isCrypto),
+                        sellSide.getAccumulatedLevels(currencyCode, isCrypto));
+            }
+            return depth;
+        }
+    }
+
+    private final Map<String, Book> booksByCurrencyCode = new HashMap<>();
+    private final Map<String, Offer> offersById = new HashMap<>();
+    private long pricesVersion;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Adds the offer, replacing an offer with the same id.
+     */
+    public synchronized void add(Offer offer) {
+        remove(offer.getId());
+        offersById.put(offer.getId(), offer);
+        Book book = booksByCurrencyCode.computeIfAbsent(getKey(offer.getCurrencyCode()), key -> new Book(offer.getCurrencyCode(), pricesVersion));
+        // Use the market prices the book was repriced with, the next depth request reprices the offer otherwise
+        book.getSide(offer).add(offer, book.repricedAtPricesVersion == pricesVersion || !offer.isUseMarketBasedPrice() ? offer.getPrice() : null);
+        book.depth = null;
+    }
+
+    public synchronized void remove(String offerId) {
+        Offer offer = offersById.remove(offerId);
+        if (offer == null) {
+            return;
+        }
+        String key = getKey(offer.getCurrencyCode());
+        Book book = booksByCurrencyCode.get(key);
+        book.getSide(offer).remove(offer);
+        book.depth = null;
+        if (book.isEmpty()) {
+            booksByCurrencyCode.remove(key);
+        }
+    }
+
+    /**
+     * Called when the market prices changed, so the prices of offers with a market based price have to be updated.
+     */
+    public synchronized void onMarketPricesChanged() {
+        pricesVersion++;
+    }
+
+    /**
+     * @return The price levels of the offers in the given currency, ignoring offers without a price.
+     */
+    public synchronized Depth getDepth(String currencyCode) {
+        Book book = booksByCurrencyCode.get(getKey(currencyCode));
+        return book == null ? EMPTY_DEPTH : book.getDepth(pricesVersion);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private static String getKey(String currencyCode) {
+        return currencyCode.toUpperCase(Locale.ROOT);
+    }
+}
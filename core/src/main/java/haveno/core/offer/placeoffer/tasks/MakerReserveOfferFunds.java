@@ -89,28 +89,26 @@ public class MakerReserveOfferFunds extends Task<PlaceOfferModel> {
                 // attempt creating reserve tx
                 MoneroTxWallet reserveTx = null;
                 try {
-                    synchronized (HavenoUtils.getWalletFunctionLock()) {
-                        for (int i = 0; i < TradeProtocol.MAX_ATTEMPTS; i++) {
-                            MoneroRpcConnection sourceConnection = model.getXmrWalletService().getXmrConnectionService().getConnection();
-                            try {
-                                //if (true) throw new RuntimeException("Pretend error");
-                                reserveTx = model.getXmrWalletService().createReserveTx(penaltyFee, makerFee, sendAmount, securityDeposit, returnAddress, openOffer.isReserveExactAmount(), preferredSubaddressIndex);
-                            } catch (IllegalStateException e) {
-                                log.warn("Illegal state creating reserve tx, offerId={}, error={}", openOffer.getShortId(), i + 1, e.getMessage());
-                                throw e;
-                            } catch (Exception e) {
-                                log.warn("Error creating reserve tx, offerId={}, attempt={}/{}, error={}", openOffer.getShortId(), i + 1, TradeProtocol.MAX_ATTEMPTS, e.getMessage());
-                                model.getXmrWalletService().handleWalletError(e, sourceConnection);
-                                verifyPending();
-                                if (i == TradeProtocol.MAX_ATTEMPTS - 1) throw e;
-                                model.getProtocol().startTimeoutTimer(); // reset protocol timeout
-                                HavenoUtils.waitFor(TradeProtocol.REPROCESS_DELAY_MS); // wait before retrying
-                            }
-        
-                            // verify still open
+                    for (int i = 0; i < TradeProtocol.MAX_ATTEMPTS; i++) {
+                        MoneroRpcConnection sourceConnection = model.getXmrWalletService().getXmrConnectionService().getConnection();
+                        try {
+                            //if (true) throw new RuntimeException("Pretend error");
+                            reserveTx = model.getXmrWalletService().createReserveTx(penaltyFee, makerFee, sendAmount, securityDeposit, returnAddress, openOffer.isReserveExactAmount(), preferredSubaddressIndex);
+                        } catch (IllegalStateException e) {
+                            log.warn("Illegal state creating reserve tx, offerId={}, error={}", openOffer.getShortId(), i + 1, e.getMessage());
+                            throw e;
+                        } catch (Exception e) {
+                            log.warn("Error creating reserve tx, offerId={}, attempt={}/{}, error={}", openOffer.getShortId(), i + 1, TradeProtocol.MAX_ATTEMPTS, e.getMessage());
+                            model.getXmrWalletService().handleWalletError(e, sourceConnection);
                             verifyPending();
-                            if (reserveTx != null) break;
+                            if (i == TradeProtocol.MAX_ATTEMPTS - 1) throw e;
+                            model.getProtocol().startTimeoutTimer(); // reset protocol timeout
+                            HavenoUtils.waitFor(TradeProtocol.REPROCESS_DELAY_MS); // wait before retrying
                         }
+        
+                        // verify still open
+                        verifyPending();
+                        if (reserveTx != null) break;
                     }
                 } catch (Exception e) {
 
@@ -67,6 +67,7 @@ import haveno.network.p2p.peers.peerexchange.messages.GetPeersResponse;
 import haveno.network.p2p.storage.messages.AddDataMessage;
 import haveno.network.p2p.storage.messages.AddPersistableNetworkPayloadMessage;
 import haveno.network.p2p.storage.messages.RefreshOfferMessage;
+import haveno.network.p2p.storage.messages.RefreshOffersMessage;
 import haveno.network.p2p.storage.messages.RemoveDataMessage;
 import haveno.network.p2p.storage.messages.RemoveMailboxDataMessage;
 import haveno.network.p2p.storage.payload.MailboxStoragePayload;
@@ -116,6 +117,8 @@ public class CoreNetworkProtoResolver extends CoreProtoResolver implements Netwo
                     return OfferAvailabilityResponse.fromProto(proto.getOfferAvailabilityResponse(), messageVersion);
                 case REFRESH_OFFER_MESSAGE:
                     return RefreshOfferMessage.fromProto(proto.getRefreshOfferMessage(), messageVersion);
+                case REFRESH_OFFERS_MESSAGE:
+                    return RefreshOffersMessage.fromProto(proto.getRefreshOffersMessage(), messageVersion);
 
                 case ADD_DATA_MESSAGE:
                     return AddDataMessage.fromProto(proto.getAddDataMessage(), this, messageVersion);
@@ -28,15 +28,22 @@ import haveno.core.provider.price.PriceFeedService;
 import haveno.core.trade.statistics.TradeStatisticsManager;
 import haveno.core.user.Preferences;
 import haveno.network.p2p.NodeAddress;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import lombok.extern.slf4j.Slf4j;
 
 import java.math.BigInteger;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -49,6 +56,9 @@ import static haveno.core.trade.ClosedTradableUtil.isOpenOffer;
  * Manages closed trades or offers.
  * BsqSwap trades are once confirmed moved in the closed trades domain as well.
  * We do not manage the persistence of BsqSwap trades here but in BsqSwapTradeManager.
+ *
+ * The closed tradables are indexed by id and the closed trades by date, so lookups and pages of the trade history do
+ * not scan all closed tradables. The indexes are updated on every change of the list.
  */
 @Slf4j
 public class ClosedTradableManager implements PersistedDataHost {
@@ -61,6 +71,12 @@ public class ClosedTradableManager implements PersistedDataHost {
 
     private final TradableList<Tradable> closedTradables = new TradableList<>();
 
+    // Guarded by the list of closedTradables
+    private final Map<String, Tradable> tradablesById = new HashMap<>();
+    private final Map<String, Trade> tradesById = new HashMap<>();
+    private final NavigableSet<Trade> tradesByDate = new TreeSet<>(Comparator.comparing(Trade::getDate).thenComparing(Trade::getId));
+    private List<Trade> closedTrades; // null if the list changed
+
     @Inject
     public ClosedTradableManager(KeyRing keyRing,
                                  PriceFeedService priceFeedService,
@@ -75,7 +91,16 @@ public class ClosedTradableManager implements PersistedDataHost {
         this.cleanupMailboxMessagesService = cleanupMailboxMessagesService;
         this.persistenceManager = persistenceManager;
 
-        this.persistenceManager.initialize(closedTradables, "ClosedTrades", PersistenceManager.Source.PRIVATE);
+        this.persistenceManager.initialize(closedTradables, "ClosedTrades", PersistenceManager.Source.PRIVATE_INCREMENTAL);
+        this.closedTradables.getObservableList().addListener((ListChangeListener<Tradable>) c -> {
+            synchronized (closedTradables.getList()) {
+                while (c.next()) {
+                    if (c.wasRemoved()) c.getRemoved().forEach(this::removeFromIndexes);
+                    if (c.wasAdded()) c.getAddedSubList().forEach(this::addToIndexes);
+                }
+                closedTrades = null;
+            }
+        });
     }
 
     @Override
@@ -130,9 +155,32 @@ public class ClosedTradableManager implements PersistedDataHost {
 
     public List<Trade> getClosedTrades() {
         synchronized (closedTradables.getList()) {
-            return ImmutableList.copyOf(getObservableList().stream()
-                    .filter(e -> e instanceof Trade)
-                    .map(e -> (Trade) e)
+            if (closedTrades == null) {
+                closedTrades = ImmutableList.copyOf(getObservableList().stream()
+                        .filter(e -> e instanceof Trade)
+                        .map(e -> (Trade) e)
+                        .collect(Collectors.toList()));
+            }
+            return closedTrades;
+        }
+    }
+
+    public int getNumClosedTrades() {
+        synchronized (closedTradables.getList()) {
+            return tradesByDate.size();
+        }
+    }
+
+    /**
+     * @param offset - number of closed trades to skip, ordered by date
+     * @param limit - maximum number of closed trades to return
+     * @return the page of closed trades ordered by date
+     */
+    public List<Trade> getClosedTrades(int offset, int limit) {
+        synchronized (closedTradables.getList()) {
+            return ImmutableList.copyOf(tradesByDate.stream()
+                    .skip(offset)
+                    .limit(limit)
                     .collect(Collectors.toList()));
         }
     }
@@ -148,23 +196,24 @@ public class ClosedTradableManager implements PersistedDataHost {
 
     public Optional<Tradable> getTradableById(String id) {
         synchronized (closedTradables.getList()) {
-            return closedTradables.stream().filter(e -> e.getId().equals(id)).findFirst();
+            return Optional.ofNullable(tradablesById.get(id));
         }
     }
 
     public Optional<Trade> getTradeById(String id) {
         synchronized (closedTradables.getList()) {
-            return getClosedTrades().stream().filter(e -> e.getId().equals(id)).findFirst();
+            return Optional.ofNullable(tradesById.get(id));
         }
     }
 
     public void maybeClearSensitiveData() {
         synchronized (closedTradables.getList()) {
             log.info("checking closed trades eligibility for having sensitive data cleared");
-            closedTradables.stream()
-                .filter(e -> e instanceof Trade)
-                .map(e -> (Trade) e)
-                .filter(e -> canTradeHaveSensitiveDataCleared(e.getId()))
+
+            // trades are ordered by date, so all trades before the safe date are at the head
+            Date safeDate = Date.from(getSafeDateForSensitiveDataClearing());
+            tradesByDate.stream()
+                .takeWhile(e -> e.getDate().before(safeDate))
                 .forEach(Trade::maybeClearSensitiveData);
             requestPersistence();
         }
@@ -173,10 +222,8 @@ public class ClosedTradableManager implements PersistedDataHost {
     public boolean canTradeHaveSensitiveDataCleared(String tradeId) {
         Instant safeDate = getSafeDateForSensitiveDataClearing();
         synchronized (closedTradables.getList()) {
-            return closedTradables.stream()
-                    .filter(e -> e.getId().equals(tradeId))
-                    .filter(e -> e.getDate().toInstant().isBefore(safeDate))
-                    .count() > 0;
+            Tradable tradable = tradesById.containsKey(tradeId) ? tradesById.get(tradeId) : tradablesById.get(tradeId);
+            return tradable != null && tradable.getDate().toInstant().isBefore(safeDate);
         }
     }
 
@@ -232,6 +279,33 @@ public class ClosedTradableManager implements PersistedDataHost {
         persistenceManager.requestPersistence();
     }
 
+    private void addToIndexes(Tradable tradable) {
+        tradablesById.putIfAbsent(tradable.getId(), tradable);
+        if (tradable instanceof Trade) {
+            Trade trade = (Trade) tradable;
+            tradesById.putIfAbsent(trade.getId(), trade);
+            tradesByDate.add(trade);
+        }
+    }
+
+    // Another tradable with the same id takes over the index entry, as lookups return the first match of the list
+    private void removeFromIndexes(Tradable tradable) {
+        String id = tradable.getId();
+        if (tradablesById.get(id) == tradable) {
+            tradablesById.remove(id);
+            closedTradables.stream().filter(e -> e.getId().equals(id)).findFirst().ifPresent(e -> tradablesById.put(id, e));
+        }
+        if (tradable instanceof Trade) {
+            if (tradesById.get(id) == tradable) {
+                tradesById.remove(id);
+                closedTradables.stream().filter(e -> e instanceof Trade && e.getId().equals(id)).findFirst().ifPresent(e -> tradesById.put(id, (Trade) e));
+            }
+            tradesByDate.remove(tradable);
+            Trade remaining = tradesById.get(id);
+            if (remaining != null) tradesByDate.add(remaining);
+        }
+    }
+
     public void removeTrade(Trade trade) {
         synchronized (closedTradables.getList()) {
             if (closedTradables.remove(trade)) {
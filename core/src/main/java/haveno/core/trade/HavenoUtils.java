@@ -19,6 +19,7 @@ package haveno.core.trade;
 
 import com.google.common.base.CaseFormat;
 import com.google.common.base.Charsets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import common.utils.GenUtils;
 import haveno.common.config.Config;
@@ -41,6 +42,7 @@ import haveno.core.trade.messages.PaymentReceivedMessage;
 import haveno.core.trade.messages.PaymentSentMessage;
 import haveno.core.user.Preferences;
 import haveno.core.util.JsonUtil;
+import haveno.core.xmr.wallet.XmrRequestScheduler;
 import haveno.core.xmr.wallet.XmrWalletService;
 import haveno.network.p2p.NodeAddress;
 
@@ -62,7 +64,12 @@ import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import javax.annotation.Nullable;
 import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
@@ -103,15 +110,58 @@ public class HavenoUtils {
     public static final long LOG_DAEMON_NOT_SYNCED_WARN_PERIOD_MS = 1000 * 30; // log warnings when daemon not synced once every 30s
     public static final int PRIVATE_OFFER_PASSPHRASE_NUM_WORDS = 8; // number of words in a private offer passphrase
 
-    // synchronize requests to the daemon
-    private static boolean SYNC_DAEMON_REQUESTS = false; // sync long requests to daemon (e.g. refresh, update pool) // TODO: performance suffers by syncing daemon requests, but otherwise we sometimes get sporadic errors?
-    private static boolean SYNC_WALLET_REQUESTS = false; // additionally sync wallet functions to daemon (e.g. create txs)
-    private static Object DAEMON_LOCK = new Object();
-    public static Object getDaemonLock() {
-        return SYNC_DAEMON_REQUESTS ? DAEMON_LOCK : new Object();
-    }
-    public static Object getWalletFunctionLock() {
-        return SYNC_WALLET_REQUESTS ? getDaemonLock() : new Object();
+    // schedule long requests to the daemon (e.g. refresh, update pool, create txs) by priority
+    private static final XmrRequestScheduler DAEMON_REQUEST_SCHEDULER = new XmrRequestScheduler(Config.DEFAULT_MAX_CONCURRENT_DAEMON_REQUESTS);
+    public static void setMaxConcurrentDaemonRequests(int maxConcurrentDaemonRequests) {
+        DAEMON_REQUEST_SCHEDULER.setMaxConcurrentRequests(maxConcurrentDaemonRequests);
+    }
+    public static XmrRequestScheduler.Permit acquireDaemonPermit(XmrRequestScheduler.Priority priority) {
+        return DAEMON_REQUEST_SCHEDULER.acquire(getDaemonUri(), priority);
+    }
+    public static XmrRequestScheduler.Metrics getDaemonRequestMetrics() {
+        return DAEMON_REQUEST_SCHEDULER.getMetrics(getDaemonUri());
+    }
+
+    // cap the number of open trade wallets by closing idle wallets, each of which runs a monero-wallet-rpc process
+    private static final long MIN_TRADE_WALLET_IDLE_MS = 5 * 60 * 1000;
+    private static final long TRADE_WALLET_EVICTION_PERIOD_MS = 60 * 1000;
+    private static final ScheduledExecutorService TRADE_WALLET_POOL_EXECUTOR = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat(TradeWalletPool.class.getSimpleName())
+            .setDaemon(true)
+            .build());
+    private static final TradeWalletPool TRADE_WALLET_POOL = new TradeWalletPool(Config.DEFAULT_MAX_OPEN_TRADE_WALLETS,
+            MIN_TRADE_WALLET_IDLE_MS,
+            TRADE_WALLET_POOL_EXECUTOR);
+    static {
+        TRADE_WALLET_POOL_EXECUTOR.scheduleWithFixedDelay(TRADE_WALLET_POOL::maybeEvict, TRADE_WALLET_EVICTION_PERIOD_MS, TRADE_WALLET_EVICTION_PERIOD_MS, TimeUnit.MILLISECONDS);
+    }
+    public static void setMaxOpenTradeWallets(int maxOpenTradeWallets) {
+        TRADE_WALLET_POOL.setMaxOpen(maxOpenTradeWallets);
+    }
+    public static TradeWalletPool getTradeWalletPool() {
+        return TRADE_WALLET_POOL;
+    }
+
+    // poll trade wallets from one scheduler, woken by new blocks and poll deadlines, on threads of their own
+    private static final double TRADE_POLL_PERIOD_JITTER = 0.1;
+    private static final long MAX_TRADE_POLL_DELAY_AFTER_BLOCK_MS = 5000;
+    private static final long TRADE_POLL_COALESCE_WINDOW_MS = 1000;
+    private static final long MAX_TRADE_POLL_MS = 1000 * 60 * 2;
+    private static final ExecutorService TRADE_POLL_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+            .setNameFormat("TradePoll-%d")
+            .setDaemon(true)
+            .build());
+    private static final TradePollScheduler TRADE_POLL_SCHEDULER = new TradePollScheduler(Config.DEFAULT_MAX_CONCURRENT_TRADE_POLLS,
+            TRADE_POLL_PERIOD_JITTER,
+            MAX_TRADE_POLL_DELAY_AFTER_BLOCK_MS,
+            TRADE_POLL_COALESCE_WINDOW_MS,
+            MAX_TRADE_POLL_MS,
+            TRADE_POLL_EXECUTOR);
+    public static void setMaxConcurrentTradePolls(int maxConcurrentTradePolls) {
+        TRADE_POLL_SCHEDULER.setMaxConcurrentPolls(maxConcurrentTradePolls);
+    }
+    public static TradePollScheduler getTradePollScheduler() {
+        return TRADE_POLL_SCHEDULER;
     }
 
     // non-configurable
@@ -537,6 +587,17 @@ public class HavenoUtils {
         }
     }
 
+    /**
+     * @return true if the latch counted down, false if the timeout elapsed before
+     */
+    public static boolean awaitLatch(CountDownLatch latch, long timeoutMs) {
+        try {
+            return latch.await(Math.max(0, timeoutMs), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     public static String toCamelCase(String underscore) {
         return CaseFormat.UPPER_UNDERSCORE.to(CaseFormat.LOWER_CAMEL, underscore);
     }
@@ -596,6 +657,13 @@ public class HavenoUtils {
         return e instanceof IllegalArgumentException || e instanceof IllegalStateException;
     }
     
+    @Nullable
+    private static String getDaemonUri() {
+        if (xmrConnectionService == null) return null;
+        MoneroRpcConnection connection = xmrConnectionService.connectionProperty().get();
+        return connection == null ? null : connection.getUri();
+    }
+
     public static void playChimeSound() {
         playAudioFile("chime.wav");
     }
@@ -68,6 +68,7 @@ import haveno.core.trade.protocol.TradeProtocol;
 import haveno.core.trade.statistics.TradeStatistics3;
 import haveno.core.util.VolumeUtil;
 import haveno.core.xmr.model.XmrAddressEntry;
+import haveno.core.xmr.wallet.XmrRequestScheduler;
 import haveno.core.xmr.wallet.XmrWalletBase;
 import haveno.core.xmr.wallet.XmrWalletService;
 import haveno.network.p2p.AckMessage;
@@ -92,7 +93,6 @@ import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import monero.common.MoneroError;
 import monero.common.MoneroRpcConnection;
-import monero.common.TaskLooper;
 import monero.daemon.MoneroDaemon;
 import monero.daemon.model.MoneroKeyImage;
 import monero.daemon.model.MoneroTx;
@@ -133,7 +133,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * stored in the task model.
  */
 @Slf4j
-public abstract class Trade extends XmrWalletBase implements Tradable, Model {
+public abstract class Trade extends XmrWalletBase implements Tradable, Model, TradeWalletPool.PooledWallet, TradePollScheduler.PolledWallet {
 
     @Getter
     public final Object lock = new Object();
@@ -426,7 +426,6 @@ public abstract class Trade extends XmrWalletBase implements Tradable, Model {
     transient private Subscription tradePhaseSubscription;
     transient private Subscription payoutStateSubscription;
     transient private Subscription disputeStateSubscription;
-    transient private TaskLooper pollLooper;
     transient private Long pollPeriodMs;
     transient private Long pollNormalStartTimeMs;
 
@@ -855,16 +854,31 @@ public abstract class Trade extends XmrWalletBase implements Tradable, Model {
             long time = System.currentTimeMillis();
             wallet = xmrWalletService.createWallet(getWalletName());
             log.info("{} {} created multisig wallet in {} ms", getClass().getSimpleName(), getId(), System.currentTimeMillis() - time);
+            HavenoUtils.getTradeWalletPool().onOpened(this, System.currentTimeMillis() - time);
             return wallet;
         }
     }
 
     public MoneroWallet getWallet() {
         synchronized (walletLock) {
-            if (wallet != null) return wallet;
+            if (wallet != null) {
+                HavenoUtils.getTradeWalletPool().onUsed(this);
+                return wallet;
+            }
             if (!walletExists()) return null;
             if (isShutDownStarted) throw new RuntimeException("Cannot open wallet for " + getClass().getSimpleName() + " " + getId() + " because shut down is started");
-            else wallet = xmrWalletService.openWallet(getWalletName(), xmrWalletService.isProxyApplied(wasWalletSynced));
+            long time = System.currentTimeMillis();
+            wallet = xmrWalletService.openWallet(getWalletName(), xmrWalletService.isProxyApplied(wasWalletSynced));
+            HavenoUtils.getTradeWalletPool().onOpened(this, System.currentTimeMillis() - time);
+            return wallet;
+        }
+    }
+
+    // Opens the wallet again if the wallet pool closed it while idling, so wallet operations never use a closed wallet
+    private MoneroWallet ensureWalletOpen() {
+        synchronized (walletLock) {
+            MoneroWallet wallet = getWallet();
+            if (wallet == null) throw new IllegalStateException("Trade wallet does not exist for " + getClass().getSimpleName() + " " + getShortId());
             return wallet;
         }
     }
@@ -944,10 +958,10 @@ public abstract class Trade extends XmrWalletBase implements Tradable, Model {
     @Override
     public void requestSaveWallet() {
 
-        // save wallet off main thread
+        // save wallet off main thread, skip if closed by the wallet pool which saves on closing
         ThreadUtils.execute(() -> {
             synchronized (walletLock) {
-                if (walletExists()) saveWallet();
+                if (walletExists() && isWalletOpen()) saveWallet();
             }
          }, getId());
     }
@@ -959,7 +973,7 @@ public abstract class Trade extends XmrWalletBase implements Tradable, Model {
                 log.warn("Cannot save wallet for {} {} because it does not exist", getClass().getSimpleName(), getShortId());
                 return;
             }
-            if (wallet == null) throw new RuntimeException("Trade wallet is not open for trade " + getShortId());
+            if (wallet == null) return; // saved when the wallet pool closed it
             xmrWalletService.saveWallet(wallet);
             maybeBackupWallet();
         }
@@ -984,6 +998,24 @@ public abstract class Trade extends XmrWalletBase implements Tradable, Model {
             maybeBackupWallet();
             wallet = null;
             pollPeriodMs = null;
+            HavenoUtils.getTradeWalletPool().onClosed(this);
+        }
+    }
+
+    // Closes the wallet of an idling trade between polls, polling opens it again
+    @Override
+    public boolean closeIdleWallet() {
+        synchronized (walletLock) {
+            if (wallet == null || isShutDownStarted || !isIdling()) return false;
+            synchronized (pollLock) {
+                if (pollInProgress) return false;
+            }
+            log.info("Closing idle wallet for {} {}", getClass().getSimpleName(), getId());
+            xmrWalletService.closeWallet(wallet, true);
+            maybeBackupWallet();
+            wallet = null;
+            HavenoUtils.getTradeWalletPool().onClosed(this);
+            return true;
         }
     }
 
@@ -996,6 +1028,7 @@ public abstract class Trade extends XmrWalletBase implements Tradable, Model {
             }
             stopPolling();
             wallet = null;
+            HavenoUtils.getTradeWalletPool().onClosed(this);
         }
     }
 
@@ -1093,8 +1126,8 @@ public abstract class Trade extends XmrWalletBase implements Tradable, Model {
 
     public MoneroTxWallet createTx(MoneroTxConfig txConfig) {
         synchronized (walletLock) {
-            synchronized (HavenoUtils.getWalletFunctionLock()) {
-                MoneroTxWallet tx = wallet.createTx(txConfig);
+            try (XmrRequestScheduler.Permit permit = HavenoUtils.acquireDaemonPermit(XmrRequestScheduler.Priority.PAYOUT)) {
+                MoneroTxWallet tx = ensureWalletOpen().createTx(txConfig);
                 exportMultisigHex();
                 saveWallet();
                 return tx;
@@ -1104,14 +1137,14 @@ public abstract class Trade extends XmrWalletBase implements Tradable, Model {
 
     public void exportMultisigHex() {
         synchronized (walletLock) {
-            getSelf().setUpdatedMultisigHex(wallet.exportMultisigHex());
+            getSelf().setUpdatedMultisigHex(ensureWalletOpen().exportMultisigHex());
             requestPersistence();
         }
     }
 
     public void importMultisigHexIfNeeded() {
         synchronized (walletLock) {
-            if (wallet.isMultisigImportNeeded()) {
+            if (ensureWalletOpen().isMultisigImportNeeded()) {
                 importMultisigHex();
             }
         }
@@ -1139,7 +1172,7 @@ public abstract class Trade extends XmrWalletBase implements Tradable, Model {
 
     public void importMultisigHex() {
         synchronized (walletLock) {
-            synchronized (HavenoUtils.getDaemonLock()) { // lock on daemon because import calls full refresh
+            try (XmrRequestScheduler.Permit permit = HavenoUtils.acquireDaemonPermit(XmrRequestScheduler.Priority.PAYOUT)) { // schedule on daemon because import calls full refresh
                 synchronized (importMultisigLock) {
                     for (int i = 0; i < TradeProtocol.MAX_ATTEMPTS; i++) {
                         MoneroRpcConnection sourceConnection = xmrConnectionService.getConnection();
@@ -1172,6 +1205,7 @@ public abstract class Trade extends XmrWalletBase implements Tradable, Model {
         for (TradePeer peer : getOtherPeers()) if (peer.getUpdatedMultisigHex() != null) multisigHexes.add(peer.getUpdatedMultisigHex());
 
         // import multisig hex
+        MoneroWallet wallet = ensureWalletOpen();
         log.info("Importing multisig hexes for {} {}, count={}", getClass().getSimpleName(), getShortId(), multisigHexes.size());
         long startTime = System.currentTimeMillis();
         if (!multisigHexes.isEmpty()) {
@@ -1260,7 +1294,7 @@ public abstract class Trade extends XmrWalletBase implements Tradable, Model {
 
         // create payout tx
         synchronized (walletLock) {
-            synchronized (HavenoUtils.getWalletFunctionLock()) {
+            try (XmrRequestScheduler.Permit permit = HavenoUtils.acquireDaemonPermit(XmrRequestScheduler.Priority.PAYOUT)) {
 
                 // import multisig hex if needed
                 importMultisigHexIfNeeded();
@@ -1289,7 +1323,7 @@ public abstract class Trade extends XmrWalletBase implements Tradable, Model {
     private MoneroTxWallet doCreatePayoutTx() {
 
         // check if multisig import needed
-        if (wallet.isMultisigImportNeeded()) throw new IllegalStateException("Cannot create payout tx because multisig import is needed for " + getClass().getSimpleName() + " " + getShortId());
+        if (ensureWalletOpen().isMultisigImportNeeded()) throw new IllegalStateException("Cannot create payout tx because multisig import is needed for " + getClass().getSimpleName() + " " + getShortId());
 
         // recover if missing wallet data
         recoverIfMissingWalletData();
@@ -1325,11 +1359,11 @@ public abstract class Trade extends XmrWalletBase implements Tradable, Model {
 
     public MoneroTxWallet createDisputePayoutTx(MoneroTxConfig txConfig) {
         synchronized (walletLock) {
-            synchronized (HavenoUtils.getWalletFunctionLock()) {
+            try (XmrRequestScheduler.Permit permit = HavenoUtils.acquireDaemonPermit(XmrRequestScheduler.Priority.PAYOUT)) {
                 for (int i = 0; i < TradeProtocol.MAX_ATTEMPTS; i++) {
                     MoneroRpcConnection sourceConnection = xmrConnectionService.getConnection();
                     try {
-                        if (wallet.isMultisigImportNeeded()) throw new IllegalStateException("Cannot create dispute payout tx because multisig import is needed for " + getClass().getSimpleName() + " " + getShortId());
+                        if (ensureWalletOpen().isMultisigImportNeeded()) throw new IllegalStateException("Cannot create dispute payout tx because multisig import is needed for " + getClass().getSimpleName() + " " + getShortId());
                         return createTx(txConfig);
                     } catch (IllegalArgumentException | IllegalStateException e) {
                         throw e;
@@ -1357,7 +1391,7 @@ public abstract class Trade extends XmrWalletBase implements Tradable, Model {
      */
     public void processPayoutTx(String payoutTxHex, boolean sign, boolean publish) {
         synchronized (walletLock) {
-            synchronized (HavenoUtils.getWalletFunctionLock()) {
+            try (XmrRequestScheduler.Permit permit = HavenoUtils.acquireDaemonPermit(XmrRequestScheduler.Priority.PAYOUT)) {
                 for (int i = 0; i < TradeProtocol.MAX_ATTEMPTS; i++) {
                     MoneroRpcConnection sourceConnection = xmrConnectionService.getConnection();
                     try {
@@ -1388,7 +1422,7 @@ public abstract class Trade extends XmrWalletBase implements Tradable, Model {
         recoverIfMissingWalletData();
 
         // gather relevant info
-        MoneroWallet wallet = getWallet();
+        MoneroWallet wallet = ensureWalletOpen();
         Contract contract = getContract();
         BigInteger sellerDepositAmount = getSeller().getDepositTx().getIncomingAmount();
         BigInteger buyerDepositAmount = hasBuyerAsTakerWithoutDeposit() ? BigInteger.ZERO : getBuyer().getDepositTx().getIncomingAmount();
@@ -2509,7 +2543,10 @@ public abstract class Trade extends XmrWalletBase implements Tradable, Model {
         if (isShutDownStarted) return;
 
         // set known deposit txs
-        List<MoneroTxWallet> depositTxs = wallet.getTxs(new MoneroTxQuery().setIncludeOutputs(true).setInTxPool(false));
+        List<MoneroTxWallet> depositTxs;
+        synchronized (walletLock) {
+            depositTxs = ensureWalletOpen().getTxs(new MoneroTxQuery().setIncludeOutputs(true).setInTxPool(false));
+        }
         setDepositTxs(depositTxs);
 
         // start polling
@@ -2578,13 +2615,17 @@ public abstract class Trade extends XmrWalletBase implements Tradable, Model {
             if (this.isShutDownStarted) return;
             if (this.pollPeriodMs != null && this.pollPeriodMs == pollPeriodMs) return;
             this.pollPeriodMs = pollPeriodMs;
-            if (isPolling()) {
-                stopPolling();
-                startPolling();
-            }
+            HavenoUtils.getTradePollScheduler().setPeriod(this, pollPeriodMs);
         }
     }
 
+    // New blocks are relevant while awaiting confirmations, other changes are seen by polling within the poll period
+    @Override
+    public boolean isAwaitingBlocks() {
+        if (isIdling()) return false;
+        return (isDepositsPublished() && !isDepositsUnlocked()) || (isPayoutPublished() && !isPayoutUnlocked());
+    }
+
     private long getPollPeriod() {
         if (isIdling()) return IDLE_SYNC_PERIOD_MS;
         return xmrConnectionService.getRefreshPeriodMs();
@@ -2595,27 +2636,24 @@ public abstract class Trade extends XmrWalletBase implements Tradable, Model {
             if (isShutDownStarted || isPolling()) return;
             updatePollPeriod();
             log.info("Starting to poll wallet for {} {}", getClass().getSimpleName(), getId());
-            pollLooper = new TaskLooper(() -> pollWallet());
-            pollLooper.start(pollPeriodMs);
+            HavenoUtils.getTradePollScheduler().register(this, pollPeriodMs);
         }
     }
 
     private void stopPolling() {
         synchronized (pollLock) {
-            if (isPolling()) {
-                pollLooper.stop();
-                pollLooper = null;
-            }
+            HavenoUtils.getTradePollScheduler().unregister(this);
         }
     }
     
     private boolean isPolling() {
         synchronized (pollLock) {
-            return pollLooper != null;
+            return HavenoUtils.getTradePollScheduler().isRegistered(this);
         }
     }
 
-    private void pollWallet() {
+    @Override
+    public void pollWallet() {
         synchronized (pollLock) {
             if (pollInProgress) return;
         }
@@ -2646,6 +2684,13 @@ public abstract class Trade extends XmrWalletBase implements Tradable, Model {
             // skip if daemon not synced
             if (xmrConnectionService.getTargetHeight() == null || !xmrConnectionService.isSyncedWithinTolerance()) return;
 
+            // open wallet if closed by the wallet pool
+            if (!isWalletOpen()) {
+                synchronized (walletLock) {
+                    if (getWallet() == null) return;
+                }
+            }
+
             // sync if wallet too far behind daemon
             if (walletHeight.get() < xmrConnectionService.getTargetHeight() - SYNC_EVERY_NUM_BLOCKS) syncWallet(false);
 
@@ -2663,7 +2708,7 @@ public abstract class Trade extends XmrWalletBase implements Tradable, Model {
                 if (!updatePool) txs = wallet.getTxs(query);
                 else {
                     synchronized (walletLock) {
-                        synchronized (HavenoUtils.getDaemonLock()) {
+                        try (XmrRequestScheduler.Permit permit = HavenoUtils.acquireDaemonPermit(XmrRequestScheduler.Priority.POLL)) {
                             txs = wallet.getTxs(query);
                         }
                     }
@@ -2717,7 +2762,7 @@ public abstract class Trade extends XmrWalletBase implements Tradable, Model {
                 if (!updatePool) txs = wallet.getTxs(query);
                 else {
                     synchronized (walletLock) {
-                        synchronized (HavenoUtils.getDaemonLock()) {
+                        try (XmrRequestScheduler.Permit permit = HavenoUtils.acquireDaemonPermit(XmrRequestScheduler.Priority.POLL)) {
                             txs = wallet.getTxs(query);
                         }
                     }
@@ -2781,6 +2826,7 @@ public abstract class Trade extends XmrWalletBase implements Tradable, Model {
     private void syncWalletIfBehind() {
         synchronized (walletLock) {
             if (isWalletBehind()) {
+                MoneroWallet wallet = ensureWalletOpen();
 
                 // TODO: local tests have timing failures unless sync called directly
                 if (xmrConnectionService.getTargetHeight() - walletHeight.get() < XmrWalletBase.DIRECT_SYNC_WITHIN_BLOCKS) {
@@ -2817,30 +2863,29 @@ public abstract class Trade extends XmrWalletBase implements Tradable, Model {
                 // skip if payout published in the meantime
                 if (isPayoutPublished()) return;
 
-                // rescan blockchain with global daemon lock
-                synchronized (HavenoUtils.getDaemonLock()) {
-                    Long timeout = null;
-                    try {
+                // rescan blockchain without a daemon permit, as it can take long
+                MoneroWallet wallet = ensureWalletOpen();
+                Long timeout = null;
+                try {
 
-                        // extend rpc timeout for rescan
-                        if (wallet instanceof MoneroWalletRpc) {
-                            timeout = ((MoneroWalletRpc) wallet).getRpcConnection().getTimeout();
-                            ((MoneroWalletRpc) wallet).getRpcConnection().setTimeout(EXTENDED_RPC_TIMEOUT);
-                        }
+                    // extend rpc timeout for rescan
+                    if (wallet instanceof MoneroWalletRpc) {
+                        timeout = ((MoneroWalletRpc) wallet).getRpcConnection().getTimeout();
+                        ((MoneroWalletRpc) wallet).getRpcConnection().setTimeout(EXTENDED_RPC_TIMEOUT);
+                    }
 
-                        // rescan blockchain
-                        log.warn("Rescanning blockchain for {} {}", getClass().getSimpleName(), getShortId());
-                        wallet.rescanBlockchain();
-                    } catch (Exception e) {
-                        log.warn("Error rescanning blockchain for {} {}, errorMessage={}", getClass().getSimpleName(), getShortId(), e.getMessage());
-                        if (HavenoUtils.isUnresponsive(e)) forceRestartTradeWallet(); // wallet can be stuck a while
-                        throw e;
-                    } finally {
+                    // rescan blockchain
+                    log.warn("Rescanning blockchain for {} {}", getClass().getSimpleName(), getShortId());
+                    wallet.rescanBlockchain();
+                } catch (Exception e) {
+                    log.warn("Error rescanning blockchain for {} {}, errorMessage={}", getClass().getSimpleName(), getShortId(), e.getMessage());
+                    if (HavenoUtils.isUnresponsive(e)) forceRestartTradeWallet(); // wallet can be stuck a while
+                    throw e;
+                } finally {
 
-                        // restore rpc timeout
-                        if (wallet instanceof MoneroWalletRpc) {
-                            ((MoneroWalletRpc) wallet).getRpcConnection().setTimeout(timeout);
-                        }
+                    // restore rpc timeout
+                    if (wallet instanceof MoneroWalletRpc) {
+                        ((MoneroWalletRpc) wallet).getRpcConnection().setTimeout(timeout);
                     }
                 }
 
@@ -2868,7 +2913,7 @@ public abstract class Trade extends XmrWalletBase implements Tradable, Model {
                 log.warn("Missing taker deposit tx for {} {}", getClass().getSimpleName(), getId());
                 return true;
             }
-            if (wallet.getBalance().equals(BigInteger.ZERO)) {
+            if (ensureWalletOpen().getBalance().equals(BigInteger.ZERO)) {
                 doPollWallet(); // poll once more to be sure
                 if (isPayoutPublished()) return false; // payout can become published while checking balance
                 log.warn("Wallet balance is zero for {} {}", getClass().getSimpleName(), getId());
@@ -352,6 +352,11 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
                 // handled in XmrWalletService
             }
         });
+
+        // wake trade wallets awaiting blocks
+        xmrWalletService.getXmrConnectionService().chainHeightProperty().addListener((observable, oldValue, newValue) -> {
+            if (oldValue.longValue() != 0 && newValue.longValue() > oldValue.longValue()) HavenoUtils.getTradePollScheduler().onNewBlock();
+        });
     }
 
     public void onShutDownStarted() {
@@ -0,0 +1,324 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.trade;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.annotation.Nullable;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Schedules the polls of all trade wallets from one thread instead of running a poll loop per trade.
+ *
+ * A trade wallet is polled when its poll period elapses, which is the deadline for changes that are only seen by
+ * polling, e.g. transactions entering the pool. A new block pulls the next poll of the trades awaiting blocks forward.
+ * Polls falling due within a short window are dispatched together, due times are jittered so trades don't poll in
+ * lockstep, and the number of concurrent polls is limited by a global budget. A poll exceeding the maximum poll time
+ * releases its share of the budget, so a hanging wallet cannot stall the polls of the other trades.
+ */
+@Slf4j
+public class TradePollScheduler {
+
+    public interface PolledWallet {
+        String getId();
+
+        void pollWallet();
+
+        /**
+         * @return true if a new block can change the state of the trade, e.g. while awaiting confirmations
+         */
+        boolean isAwaitingBlocks();
+    }
+
+    @Value
+    public static class Metrics {
+        long numPolls;
+        long numBlockPolls;
+        long lastPollMs;
+        long maxPollMs;
+        long totalPollMs;
+        long totalDelayMs;
+
+        public long getAveragePollMs() {
+            return numPolls == 0 ? 0 : totalPollMs / numPolls;
+        }
+
+        // Time from a poll falling due until it starts
+        public long getAverageDelayMs() {
+            return numPolls == 0 ? 0 : totalDelayMs / numPolls;
+        }
+    }
+
+    private static class Entry {
+        private final PolledWallet wallet;
+        private long periodMs;
+        private long nextPollMs;
+        private boolean isBlockPoll;
+        private boolean isPollInProgress;
+        private long pollStartMs;
+        private boolean isPollOverdue;
+
+        // metrics
+        private long numPolls;
+        private long numBlockPolls;
+        private long lastPollMs;
+        private long maxPollMs;
+        private long totalPollMs;
+        private long totalDelayMs;
+
+        private Entry(PolledWallet wallet, long periodMs) {
+            this.wallet = wallet;
+            this.periodMs = periodMs;
+        }
+    }
+
+    private int maxConcurrentPolls;
+    private final double periodJitter;
+    private final long maxBlockDelayMs;
+    private final long coalesceWindowMs;
+    private final long maxPollMs;
+    private final Executor pollExecutor;
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private int numPollsInProgress;
+    private Thread schedulerThread;
+
+    /**
+     * @param maxConcurrentPolls - maximum number of trade wallets polled at once
+     * @param periodJitter - fraction of the poll period by which the due times are randomly shifted
+     * @param maxBlockDelayMs - maximum random delay of the polls after a new block
+     * @param coalesceWindowMs - polls falling due within this time are dispatched together
+     * @param maxPollMs - maximum time a poll counts against the budget
+     * @param pollExecutor - executes the polls
+     */
+    public TradePollScheduler(int maxConcurrentPolls, double periodJitter, long maxBlockDelayMs, long coalesceWindowMs, long maxPollMs, Executor pollExecutor) {
+        checkArgument(maxConcurrentPolls > 0, "maxConcurrentPolls must be positive");
+        checkArgument(periodJitter >= 0 && periodJitter < 1, "periodJitter must be in [0, 1)");
+        checkArgument(maxPollMs > 0, "maxPollMs must be positive");
+        this.maxConcurrentPolls = maxConcurrentPolls;
+        this.periodJitter = periodJitter;
+        this.maxBlockDelayMs = maxBlockDelayMs;
+        this.coalesceWindowMs = coalesceWindowMs;
+        this.maxPollMs = maxPollMs;
+        this.pollExecutor = pollExecutor;
+    }
+
+    public synchronized void setMaxConcurrentPolls(int maxConcurrentPolls) {
+        checkArgument(maxConcurrentPolls > 0, "maxConcurrentPolls must be positive");
+        this.maxConcurrentPolls = maxConcurrentPolls;
+        notifyAll();
+    }
+
+    /**
+     * Starts polling the wallet with the given period. The first poll is due within the jitter of the period.
+     */
+    public synchronized void register(PolledWallet wallet, long periodMs) {
+        if (entries.containsKey(wallet.getId())) {
+            setPeriod(wallet, periodMs);
+            return;
+        }
+        Entry entry = new Entry(wallet, periodMs);
+        entry.nextPollMs = System.currentTimeMillis() + randomDelay((long) (periodMs * periodJitter));
+        entries.put(wallet.getId(), entry);
+        startOrNotify();
+    }
+
+    public synchronized void unregister(PolledWallet wallet) {
+        entries.remove(wallet.getId());
+    }
+
+    public synchronized boolean isRegistered(PolledWallet wallet) {
+        return entries.containsKey(wallet.getId());
+    }
+
+    /**
+     * Changes the poll period of the wallet. A shorter period pulls the next poll forward.
+     */
+    public synchronized void setPeriod(PolledWallet wallet, long periodMs) {
+        Entry entry = entries.get(wallet.getId());
+        if (entry == null || entry.periodMs == periodMs) return;
+        entry.periodMs = periodMs;
+        long nextPollMs = System.currentTimeMillis() + jitteredPeriod(periodMs);
+        if (nextPollMs < entry.nextPollMs) {
+            entry.nextPollMs = nextPollMs;
+            startOrNotify();
+        }
+    }
+
+    /**
+     * Pulls the next poll of all wallets awaiting blocks forward. Polls already due or in progress are not repeated.
+     */
+    public void onNewBlock() {
+        List<Entry> candidates;
+        synchronized (this) {
+            candidates = new ArrayList<>(entries.values());
+        }
+
+        // check outside the lock as trades check their state under their own locks
+        List<Entry> awaitingBlocks = new ArrayList<>();
+        for (Entry entry : candidates) {
+            try {
+                if (entry.wallet.isAwaitingBlocks()) awaitingBlocks.add(entry);
+            } catch (Exception e) {
+                log.warn("Error checking if trade {} awaits blocks: {}", entry.wallet.getId(), e.getMessage());
+            }
+        }
+
+        synchronized (this) {
+            long nowMs = System.currentTimeMillis();
+            for (Entry entry : awaitingBlocks) {
+                if (entries.get(entry.wallet.getId()) != entry) continue; // unregistered
+                long nextPollMs = nowMs + randomDelay(maxBlockDelayMs);
+                if (nextPollMs < entry.nextPollMs) {
+                    entry.nextPollMs = nextPollMs;
+                    entry.isBlockPoll = true;
+                }
+            }
+            if (!awaitingBlocks.isEmpty()) startOrNotify();
+        }
+    }
+
+    @Nullable
+    public synchronized Metrics getMetrics(String tradeId) {
+        Entry entry = entries.get(tradeId);
+        if (entry == null) return null;
+        return new Metrics(entry.numPolls, entry.numBlockPolls, entry.lastPollMs, entry.maxPollMs, entry.totalPollMs, entry.totalDelayMs);
+    }
+
+    public synchronized int getNumPollsInProgress() {
+        return numPollsInProgress;
+    }
+
+    /**
+     * Dispatches the polls falling due until the end of the coalesce window, as far as the budget allows.
+     * Polls exceeding the maximum poll time release their share of the budget but are not repeated until they complete.
+     *
+     * @return the time in ms until the next poll falls due or exceeds the maximum poll time, or 0 to wait until a poll
+     * completes or is scheduled
+     */
+    synchronized long dispatchDuePolls(long nowMs) {
+        long dispatchUntilMs = nowMs + coalesceWindowMs;
+        List<Entry> due = new ArrayList<>();
+        long nextDueMs = Long.MAX_VALUE;
+        for (Entry entry : entries.values()) {
+            if (entry.isPollInProgress) {
+                if (entry.isPollOverdue) continue;
+                long overdueMs = entry.pollStartMs + maxPollMs;
+                if (overdueMs <= nowMs) {
+                    log.warn("Polling trade wallet {} exceeded {} ms, releasing its share of the poll budget", entry.wallet.getId(), maxPollMs);
+                    entry.isPollOverdue = true;
+                    numPollsInProgress--;
+                } else {
+                    nextDueMs = Math.min(nextDueMs, overdueMs);
+                }
+                continue;
+            }
+            if (entry.nextPollMs <= dispatchUntilMs) due.add(entry);
+            else nextDueMs = Math.min(nextDueMs, entry.nextPollMs);
+        }
+
+        // most overdue first
+        due.sort((entry1, entry2) -> Long.compare(entry1.nextPollMs, entry2.nextPollMs));
+        for (Entry entry : due) {
+            if (numPollsInProgress >= maxConcurrentPolls) break;
+            entry.isPollInProgress = true;
+            entry.pollStartMs = nowMs;
+            numPollsInProgress++;
+            nextDueMs = Math.min(nextDueMs, nowMs + maxPollMs);
+            long dueMs = entry.nextPollMs;
+            boolean isBlockPoll = entry.isBlockPoll;
+            pollExecutor.execute(() -> poll(entry, dueMs, isBlockPoll));
+        }
+        return nextDueMs == Long.MAX_VALUE ? 0 : Math.max(1, nextDueMs - nowMs);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void poll(Entry entry, long dueMs, boolean isBlockPoll) {
+        long startMs = System.currentTimeMillis();
+        try {
+            entry.wallet.pollWallet();
+        } catch (Exception e) {
+            log.warn("Error polling trade wallet {}: {}", entry.wallet.getId(), e.getMessage());
+        } finally {
+            long endMs = System.currentTimeMillis();
+            synchronized (this) {
+                long pollMs = endMs - startMs;
+                entry.numPolls++;
+                if (isBlockPoll) entry.numBlockPolls++;
+                entry.lastPollMs = pollMs;
+                entry.maxPollMs = Math.max(entry.maxPollMs, pollMs);
+                entry.totalPollMs += pollMs;
+                entry.totalDelayMs += Math.max(0, startMs - dueMs);
+
+                // schedule the next poll unless pulled forward during the poll
+                entry.isPollInProgress = false;
+                if (entry.nextPollMs == dueMs) {
+                    entry.nextPollMs = endMs + jitteredPeriod(entry.periodMs);
+                    entry.isBlockPoll = false;
+                }
+                if (entry.isPollOverdue) entry.isPollOverdue = false; // budget already released
+                else numPollsInProgress--;
+                notifyAll();
+            }
+        }
+    }
+
+    private void startOrNotify() {
+        if (schedulerThread == null) {
+            schedulerThread = new Thread(this::runScheduler, getClass().getSimpleName());
+            schedulerThread.setDaemon(true);
+            schedulerThread.start();
+        } else {
+            notifyAll();
+        }
+    }
+
+    private synchronized void runScheduler() {
+        while (true) {
+            try {
+                wait(dispatchDuePolls(System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("Error dispatching trade wallet polls: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private long jitteredPeriod(long periodMs) {
+        long jitterMs = (long) (periodMs * periodJitter);
+        if (jitterMs == 0) return periodMs;
+        return periodMs + ThreadLocalRandom.current().nextLong(-jitterMs, jitterMs + 1);
+    }
+
+    private static long randomDelay(long maxDelayMs) {
+        return maxDelayMs <= 0 ? 0 : ThreadLocalRandom.current().nextLong(maxDelayMs + 1);
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.trade;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Keeps track of the open trade wallets, each of which runs in its own monero-wallet-rpc process, and caps their number
+ * by closing the least recently used idle wallets. Closed wallets are opened again on demand.
+ *
+ * Wallets which are in use or were used recently cannot be closed, so the number of open wallets can exceed the maximum
+ * temporarily. The pool is checked when a wallet is opened and periodically by {@link #maybeEvict()}, which closes the
+ * excess wallets once they became idle.
+ */
+@Slf4j
+public class TradeWalletPool {
+
+    public interface PooledWallet {
+        String getId();
+
+        /**
+         * Saves and closes the wallet unless it is in use.
+         *
+         * @return true if the wallet was closed
+         */
+        boolean closeIdleWallet();
+    }
+
+    @Value
+    public static class Metrics {
+        int numOpen;
+        int maxOpen;
+        int peakOpen;
+        long numOpened;
+        long numEvicted;
+        long totalOpenTimeMs;
+        long maxOpenTimeMs;
+
+        public long getAverageOpenTimeMs() {
+            return numOpened == 0 ? 0 : totalOpenTimeMs / numOpened;
+        }
+    }
+
+    private static class Entry {
+        private final PooledWallet wallet;
+        private long lastUsedMs;
+
+        private Entry(PooledWallet wallet, long lastUsedMs) {
+            this.wallet = wallet;
+            this.lastUsedMs = lastUsedMs;
+        }
+    }
+
+    private int maxOpen;
+    private final long minIdleMs;
+    private final Executor evictionExecutor;
+
+    // In order of last use, least recently used first
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private boolean isEvictionScheduled;
+
+    // metrics
+    private int peakOpen;
+    private long numOpened;
+    private long numEvicted;
+    private long totalOpenTimeMs;
+    private long maxOpenTimeMs;
+
+    /**
+     * @param maxOpen - maximum number of open wallets
+     * @param minIdleMs - minimum time since the last use before a wallet can be closed
+     * @param evictionExecutor - executes the closing of wallets, must not run on the thread opening a wallet
+     */
+    public TradeWalletPool(int maxOpen, long minIdleMs, Executor evictionExecutor) {
+        checkArgument(maxOpen > 0, "maxOpen must be positive");
+        this.maxOpen = maxOpen;
+        this.minIdleMs = minIdleMs;
+        this.evictionExecutor = evictionExecutor;
+    }
+
+    public void setMaxOpen(int maxOpen) {
+        checkArgument(maxOpen > 0, "maxOpen must be positive");
+        synchronized (this) {
+            this.maxOpen = maxOpen;
+        }
+        maybeEvict();
+    }
+
+    public void onOpened(PooledWallet wallet, long openTimeMs) {
+        synchronized (this) {
+            entries.put(wallet.getId(), new Entry(wallet, System.currentTimeMillis()));
+            numOpened++;
+            totalOpenTimeMs += openTimeMs;
+            maxOpenTimeMs = Math.max(maxOpenTimeMs, openTimeMs);
+            peakOpen = Math.max(peakOpen, entries.size());
+        }
+        maybeEvict();
+    }
+
+    public synchronized void onUsed(PooledWallet wallet) {
+        Entry entry = entries.get(wallet.getId());
+        if (entry != null) entry.lastUsedMs = System.currentTimeMillis();
+    }
+
+    public synchronized void onClosed(PooledWallet wallet) {
+        entries.remove(wallet.getId());
+    }
+
+    /**
+     * Closes the least recently used idle wallets if more wallets are open than the maximum. Called periodically, as
+     * wallets which could not be closed when opening another wallet become idle later.
+     */
+    public void maybeEvict() {
+        synchronized (this) {
+            if (entries.size() <= maxOpen || isEvictionScheduled) return;
+            isEvictionScheduled = true;
+        }
+        evictionExecutor.execute(this::evict);
+    }
+
+    public synchronized Metrics getMetrics() {
+        return new Metrics(entries.size(), maxOpen, peakOpen, numOpened, numEvicted, totalOpenTimeMs, maxOpenTimeMs);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // Wallets are closed without holding the lock of the pool, as closing waits for the wallet's lock
+    private void evict() {
+        int numToEvict;
+        List<PooledWallet> candidates = new ArrayList<>();
+        synchronized (this) {
+            isEvictionScheduled = false;
+            numToEvict = entries.size() - maxOpen;
+            long idleSinceMs = System.currentTimeMillis() - minIdleMs;
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                if (entry.getValue().lastUsedMs <= idleSinceMs) candidates.add(entry.getValue().wallet);
+            }
+        }
+
+        int numClosed = 0;
+        for (PooledWallet candidate : candidates) {
+            if (numClosed >= numToEvict) break;
+            try {
+                if (candidate.closeIdleWallet()) numClosed++;
+            } catch (Exception e) {
+                log.warn("Error closing idle trade wallet {}: {}", candidate.getId(), e.getMessage());
+            }
+        }
+
+        synchronized (this) {
+            numEvicted += numClosed;
+            if (numClosed < numToEvict) {
+                log.info("{} trade wallets are open, which exceeds the maximum of {} because wallets are in use or were used recently", entries.size(), maxOpen);
+            }
+        }
+    }
+}
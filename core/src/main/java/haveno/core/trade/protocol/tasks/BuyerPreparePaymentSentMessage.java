@@ -38,6 +38,7 @@ import com.google.common.base.Preconditions;
 import haveno.common.taskrunner.TaskRunner;
 import haveno.core.trade.HavenoUtils;
 import haveno.core.trade.Trade;
+import haveno.core.xmr.wallet.XmrRequestScheduler;
 import lombok.extern.slf4j.Slf4j;
 import monero.wallet.MoneroWallet;
 import monero.wallet.model.MoneroAccount;
@@ -82,7 +83,7 @@ public class BuyerPreparePaymentSentMessage extends TradeTask {
 
                 // synchronize on lock for wallet operations
                 synchronized (trade.getWalletLock()) {
-                    synchronized (HavenoUtils.getWalletFunctionLock()) {
+                    try (XmrRequestScheduler.Permit permit = HavenoUtils.acquireDaemonPermit(XmrRequestScheduler.Priority.PAYOUT)) {
 
                         // import multisig hex
                         trade.importMultisigHex();
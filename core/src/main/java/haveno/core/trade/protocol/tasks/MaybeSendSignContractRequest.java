@@ -106,23 +106,21 @@ public class MaybeSendSignContractRequest extends TradeTask {
                 // attempt creating deposit tx
                 if (!trade.isBuyerAsTakerWithoutDeposit()) {
                     try {
-                        synchronized (HavenoUtils.getWalletFunctionLock()) {
-                            for (int i = 0; i < TradeProtocol.MAX_ATTEMPTS; i++) {
-                                MoneroRpcConnection sourceConnection = trade.getXmrConnectionService().getConnection();
-                                try {
-                                    depositTx = trade.getXmrWalletService().createDepositTx(trade, reserveExactAmount, subaddressIndex);
-                                } catch (Exception e) {
-                                    log.warn("Error creating deposit tx, tradeId={}, attempt={}/{}, error={}", trade.getShortId(), i + 1, TradeProtocol.MAX_ATTEMPTS, e.getMessage());
-                                    trade.getXmrWalletService().handleWalletError(e, sourceConnection);
-                                    if (isTimedOut()) throw new RuntimeException("Trade protocol has timed out while creating deposit tx, tradeId=" + trade.getShortId());
-                                    if (i == TradeProtocol.MAX_ATTEMPTS - 1) throw e;
-                                    HavenoUtils.waitFor(TradeProtocol.REPROCESS_DELAY_MS); // wait before retrying
-                                }
-                
-                                // check for timeout
+                        for (int i = 0; i < TradeProtocol.MAX_ATTEMPTS; i++) {
+                            MoneroRpcConnection sourceConnection = trade.getXmrConnectionService().getConnection();
+                            try {
+                                depositTx = trade.getXmrWalletService().createDepositTx(trade, reserveExactAmount, subaddressIndex);
+                            } catch (Exception e) {
+                                log.warn("Error creating deposit tx, tradeId={}, attempt={}/{}, error={}", trade.getShortId(), i + 1, TradeProtocol.MAX_ATTEMPTS, e.getMessage());
+                                trade.getXmrWalletService().handleWalletError(e, sourceConnection);
                                 if (isTimedOut()) throw new RuntimeException("Trade protocol has timed out while creating deposit tx, tradeId=" + trade.getShortId());
-                                if (depositTx != null) break;
+                                if (i == TradeProtocol.MAX_ATTEMPTS - 1) throw e;
+                                HavenoUtils.waitFor(TradeProtocol.REPROCESS_DELAY_MS); // wait before retrying
                             }
+                
+                            // check for timeout
+                            if (isTimedOut()) throw new RuntimeException("Trade protocol has timed out while creating deposit tx, tradeId=" + trade.getShortId());
+                            if (depositTx != null) break;
                         }
                     } catch (Exception e) {
     
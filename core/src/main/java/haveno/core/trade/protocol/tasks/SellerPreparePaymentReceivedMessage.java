@@ -21,6 +21,7 @@ import haveno.common.taskrunner.TaskRunner;
 import haveno.core.support.dispute.Dispute;
 import haveno.core.trade.HavenoUtils;
 import haveno.core.trade.Trade;
+import haveno.core.xmr.wallet.XmrRequestScheduler;
 import lombok.extern.slf4j.Slf4j;
 import monero.wallet.model.MoneroTxWallet;
 
@@ -45,7 +46,7 @@ public class SellerPreparePaymentReceivedMessage extends TradeTask {
 
                 // synchronize on lock for wallet operations
                 synchronized (trade.getWalletLock()) {
-                    synchronized (HavenoUtils.getWalletFunctionLock()) {
+                    try (XmrRequestScheduler.Permit permit = HavenoUtils.acquireDaemonPermit(XmrRequestScheduler.Priority.PAYOUT)) {
 
                         // import multisig hex unless already signed
                         if (trade.getPayoutTxHex() == null) {
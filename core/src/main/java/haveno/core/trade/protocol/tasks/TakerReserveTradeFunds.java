@@ -65,26 +65,24 @@ public class TakerReserveTradeFunds extends TradeTask {
 
                     // attempt creating reserve tx
                     try {
-                        synchronized (HavenoUtils.getWalletFunctionLock()) {
-                            for (int i = 0; i < TradeProtocol.MAX_ATTEMPTS; i++) {
-                                MoneroRpcConnection sourceConnection = trade.getXmrConnectionService().getConnection();
-                                try {
-                                    reserveTx = model.getXmrWalletService().createReserveTx(penaltyFee, takerFee, sendAmount, securityDeposit, returnAddress, false, null);
-                                } catch (IllegalStateException e) {
-                                    log.warn("Illegal state creating reserve tx, offerId={}, error={}", trade.getShortId(), i + 1, e.getMessage());
-                                    throw e;
-                                } catch (Exception e) {
-                                    log.warn("Error creating reserve tx, tradeId={}, attempt={}/{}, error={}", trade.getShortId(), i + 1, TradeProtocol.MAX_ATTEMPTS, e.getMessage());
-                                    trade.getXmrWalletService().handleWalletError(e, sourceConnection);
-                                    if (isTimedOut()) throw new RuntimeException("Trade protocol has timed out while creating reserve tx, tradeId=" + trade.getShortId());
-                                    if (i == TradeProtocol.MAX_ATTEMPTS - 1) throw e;
-                                    HavenoUtils.waitFor(TradeProtocol.REPROCESS_DELAY_MS); // wait before retrying
-                                }
-                
-                                // check for timeout
+                        for (int i = 0; i < TradeProtocol.MAX_ATTEMPTS; i++) {
+                            MoneroRpcConnection sourceConnection = trade.getXmrConnectionService().getConnection();
+                            try {
+                                reserveTx = model.getXmrWalletService().createReserveTx(penaltyFee, takerFee, sendAmount, securityDeposit, returnAddress, false, null);
+                            } catch (IllegalStateException e) {
+                                log.warn("Illegal state creating reserve tx, offerId={}, error={}", trade.getShortId(), i + 1, e.getMessage());
+                                throw e;
+                            } catch (Exception e) {
+                                log.warn("Error creating reserve tx, tradeId={}, attempt={}/{}, error={}", trade.getShortId(), i + 1, TradeProtocol.MAX_ATTEMPTS, e.getMessage());
+                                trade.getXmrWalletService().handleWalletError(e, sourceConnection);
                                 if (isTimedOut()) throw new RuntimeException("Trade protocol has timed out while creating reserve tx, tradeId=" + trade.getShortId());
-                                if (reserveTx != null) break;
+                                if (i == TradeProtocol.MAX_ATTEMPTS - 1) throw e;
+                                HavenoUtils.waitFor(TradeProtocol.REPROCESS_DELAY_MS); // wait before retrying
                             }
+                
+                            // check for timeout
+                            if (isTimedOut()) throw new RuntimeException("Trade protocol has timed out while creating reserve tx, tradeId=" + trade.getShortId());
+                            if (reserveTx != null) break;
                         }
                     } catch (Exception e) {
 
@@ -22,6 +22,7 @@ import com.google.inject.Singleton;
 import com.google.inject.name.Named;
 import haveno.common.config.Config;
 import haveno.common.persistence.PersistenceManager;
+import haveno.common.proto.persistable.PersistenceProtoResolver;
 import haveno.network.p2p.storage.payload.PersistableNetworkPayload;
 import haveno.network.p2p.storage.persistence.HistoricalDataStoreService;
 import java.io.File;
@@ -39,8 +40,9 @@ public class TradeStatistics3StorageService extends HistoricalDataStoreService<T
 
     @Inject
     public TradeStatistics3StorageService(@Named(Config.STORAGE_DIR) File storageDir,
-                                          PersistenceManager<TradeStatistics3Store> persistenceManager) {
-        super(storageDir, persistenceManager);
+                                          PersistenceManager<TradeStatistics3Store> persistenceManager,
+                                          PersistenceProtoResolver persistenceProtoResolver) {
+        super(storageDir, persistenceManager, persistenceProtoResolver);
     }
 
 
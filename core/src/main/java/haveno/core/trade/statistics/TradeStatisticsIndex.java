@@ -0,0 +1,348 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.trade.statistics;
+
+import haveno.common.util.MathUtils;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import lombok.Value;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Trade statistics partitioned by currency and stored in columns of primitive arrays ordered by date, so ranges of
+ * trades are found by binary search without scanning all statistics.
+ *
+ * Each currency keeps OHLCV aggregates per bucket of {@link #BUCKET_MS}, which are updated when a trade is added, so
+ * candles of any larger interval are merged from buckets instead of trades. Buckets are aligned to the epoch, so they
+ * also align to the 10 minute, hour and day boundaries of time zones whose offset is a multiple of 5 minutes.
+ */
+public class TradeStatisticsIndex {
+    public static final long BUCKET_MS = TimeUnit.MINUTES.toMillis(5);
+
+    @Value
+    public static class Candle {
+        long startDate;
+        long endDate;
+        long open;
+        long high;
+        long low;
+        long close;
+        long amount;
+        long volume;
+        int numTrades;
+    }
+
+    private final Map<String, Series> seriesByCurrency = new HashMap<>();
+    private int size;
+
+    /**
+     * @return true if the trade statistics is the latest of its currency
+     */
+    public synchronized boolean add(TradeStatistics3 tradeStatistics) {
+        size++;
+        return seriesByCurrency.computeIfAbsent(tradeStatistics.getCurrency(), currency -> new Series())
+                .add(tradeStatistics);
+    }
+
+    // Adding in order of date appends to the columns
+    public synchronized void addAll(Collection<TradeStatistics3> tradeStatistics) {
+        List<TradeStatistics3> sorted = new ArrayList<>(tradeStatistics);
+        sorted.sort(Comparator.comparingLong(TradeStatistics3::getDateAsLong));
+        for (TradeStatistics3 item : sorted) add(item);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized Set<String> getCurrencies() {
+        return new TreeSet<>(seriesByCurrency.keySet());
+    }
+
+    @Nullable
+    public synchronized TradeStatistics3 getLatest(String currency) {
+        Series series = seriesByCurrency.get(currency);
+        return series == null ? null : series.items[series.size - 1];
+    }
+
+    /**
+     * @return the price of the latest trade of the currency or 0 if there is none
+     */
+    public synchronized long getLastPrice(String currency) {
+        Series series = seriesByCurrency.get(currency);
+        return series == null ? 0 : series.prices[series.size - 1];
+    }
+
+    /**
+     * @return the trade statistics of the currency in order of date
+     */
+    public synchronized List<TradeStatistics3> getTradeStatistics(String currency) {
+        return getTradeStatistics(currency, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * @return the trade statistics of the currency from the start date (inclusive) to the end date (exclusive)
+     */
+    public synchronized List<TradeStatistics3> getTradeStatistics(String currency, long startDate, long endDate) {
+        Series series = seriesByCurrency.get(currency);
+        if (series == null) return new ArrayList<>();
+        int from = lowerBound(series.dates, series.size, startDate);
+        int to = lowerBound(series.dates, series.size, endDate);
+        return from >= to ? new ArrayList<>() : new ArrayList<>(Arrays.asList(series.items).subList(from, to));
+    }
+
+    public synchronized List<Candle> getCandles(String currency, long[] boundaries) {
+        return getCandles(List.of(currency), boundaries);
+    }
+
+    /**
+     * Merges the buckets of the currencies into one candle per interval between consecutive boundaries. Boundaries
+     * are rounded down to buckets and intervals without trades are omitted.
+     *
+     * @param boundaries - ascending start dates of the intervals, the last one is the end of the last interval
+     */
+    public synchronized List<Candle> getCandles(Collection<String> currencies, long[] boundaries) {
+        List<Series> selected = getSeries(currencies);
+        List<Candle> candles = new ArrayList<>();
+        for (int i = 0; i + 1 < boundaries.length; i++) {
+            checkArgument(boundaries[i] <= boundaries[i + 1], "boundaries must be ascending");
+            Aggregate aggregate = new Aggregate();
+            for (Series series : selected) series.aggregate(boundaries[i], boundaries[i + 1], aggregate);
+            if (aggregate.numTrades > 0) candles.add(aggregate.toCandle(boundaries[i], boundaries[i + 1]));
+        }
+        return candles;
+    }
+
+    /**
+     * The median cannot be merged from buckets, so it is computed from the prices of the trades in the buckets
+     * of {@link #getCandles(Collection, long[])} between the start date and the end date.
+     *
+     * @return the median price of the currencies' trades or 0 if there is none
+     */
+    public synchronized long getMedianPrice(Collection<String> currencies, long startDate, long endDate) {
+        long startBucket = floorToBucket(startDate);
+        long endBucket = floorToBucket(endDate);
+        List<Long> prices = new ArrayList<>();
+        for (Series series : getSeries(currencies)) {
+            int from = lowerBound(series.dates, series.size, startBucket);
+            int to = lowerBound(series.dates, series.size, endBucket);
+            for (int i = from; i < to; i++) prices.add(series.prices[i]);
+        }
+        Long[] sorted = prices.toArray(new Long[0]);
+        Arrays.sort(sorted);
+        return MathUtils.getMedian(sorted);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private List<Series> getSeries(Collection<String> currencies) {
+        return currencies.stream()
+                .map(seriesByCurrency::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private static long floorToBucket(long date) {
+        return Math.floorDiv(date, BUCKET_MS) * BUCKET_MS;
+    }
+
+    private static class Series {
+        private static final int INITIAL_CAPACITY = 16;
+
+        // trades by date
+        private int size;
+        private long[] dates = new long[INITIAL_CAPACITY];
+        private long[] prices = new long[INITIAL_CAPACITY];
+        private TradeStatistics3[] items = new TradeStatistics3[INITIAL_CAPACITY];
+
+        // buckets by start date
+        private int numBuckets;
+        private long[] bucketStarts = new long[INITIAL_CAPACITY];
+        private long[] openDates = new long[INITIAL_CAPACITY];
+        private long[] closeDates = new long[INITIAL_CAPACITY];
+        private long[] opens = new long[INITIAL_CAPACITY];
+        private long[] highs = new long[INITIAL_CAPACITY];
+        private long[] lows = new long[INITIAL_CAPACITY];
+        private long[] closes = new long[INITIAL_CAPACITY];
+        private long[] amounts = new long[INITIAL_CAPACITY];
+        private long[] volumes = new long[INITIAL_CAPACITY];
+        private int[] counts = new int[INITIAL_CAPACITY];
+
+        private boolean add(TradeStatistics3 tradeStatistics) {
+            long date = tradeStatistics.getDateAsLong();
+            long price = tradeStatistics.getPrice();
+
+            // insert after trades of the same date
+            int index = upperBound(dates, size, date);
+            if (size == dates.length) {
+                dates = Arrays.copyOf(dates, size * 2);
+                prices = Arrays.copyOf(prices, size * 2);
+                items = Arrays.copyOf(items, size * 2);
+            }
+            System.arraycopy(dates, index, dates, index + 1, size - index);
+            System.arraycopy(prices, index, prices, index + 1, size - index);
+            System.arraycopy(items, index, items, index + 1, size - index);
+            dates[index] = date;
+            prices[index] = price;
+            items[index] = tradeStatistics;
+            size++;
+
+            // update bucket, trades of the same date close the bucket in the order they are added
+            long bucketStart = floorToBucket(date);
+            int bucket = lowerBound(bucketStarts, numBuckets, bucketStart);
+            if (bucket == numBuckets || bucketStarts[bucket] != bucketStart) {
+                insertBucket(bucket, bucketStart, date, price);
+            } else {
+                if (date < openDates[bucket]) {
+                    openDates[bucket] = date;
+                    opens[bucket] = price;
+                }
+                if (date >= closeDates[bucket]) {
+                    closeDates[bucket] = date;
+                    closes[bucket] = price;
+                }
+                highs[bucket] = Math.max(highs[bucket], price);
+                lows[bucket] = Math.min(lows[bucket], price);
+            }
+            amounts[bucket] += tradeStatistics.getAmount();
+            volumes[bucket] += tradeStatistics.getTradeVolume().getValue();
+            counts[bucket]++;
+            return index == size - 1;
+        }
+
+        private void insertBucket(int bucket, long bucketStart, long date, long price) {
+            if (numBuckets == bucketStarts.length) {
+                int capacity = numBuckets * 2;
+                bucketStarts = Arrays.copyOf(bucketStarts, capacity);
+                openDates = Arrays.copyOf(openDates, capacity);
+                closeDates = Arrays.copyOf(closeDates, capacity);
+                opens = Arrays.copyOf(opens, capacity);
+                highs = Arrays.copyOf(highs, capacity);
+                lows = Arrays.copyOf(lows, capacity);
+                closes = Arrays.copyOf(closes, capacity);
+                amounts = Arrays.copyOf(amounts, capacity);
+                volumes = Arrays.copyOf(volumes, capacity);
+                counts = Arrays.copyOf(counts, capacity);
+            }
+            int numMoved = numBuckets - bucket;
+            System.arraycopy(bucketStarts, bucket, bucketStarts, bucket + 1, numMoved);
+            System.arraycopy(openDates, bucket, openDates, bucket + 1, numMoved);
+            System.arraycopy(closeDates, bucket, closeDates, bucket + 1, numMoved);
+            System.arraycopy(opens, bucket, opens, bucket + 1, numMoved);
+            System.arraycopy(highs, bucket, highs, bucket + 1, numMoved);
+            System.arraycopy(lows, bucket, lows, bucket + 1, numMoved);
+            System.arraycopy(closes, bucket, closes, bucket + 1, numMoved);
+            System.arraycopy(amounts, bucket, amounts, bucket + 1, numMoved);
+            System.arraycopy(volumes, bucket, volumes, bucket + 1, numMoved);
+            System.arraycopy(counts, bucket, counts, bucket + 1, numMoved);
+            bucketStarts[bucket] = bucketStart;
+            openDates[bucket] = date;
+            closeDates[bucket] = date;
+            opens[bucket] = price;
+            highs[bucket] = price;
+            lows[bucket] = price;
+            closes[bucket] = price;
+            amounts[bucket] = 0;
+            volumes[bucket] = 0;
+            counts[bucket] = 0;
+            numBuckets++;
+        }
+
+        private void aggregate(long startDate, long endDate, Aggregate aggregate) {
+            int from = lowerBound(bucketStarts, numBuckets, floorToBucket(startDate));
+            int to = lowerBound(bucketStarts, numBuckets, floorToBucket(endDate));
+            for (int bucket = from; bucket < to; bucket++) {
+                aggregate.add(openDates[bucket], opens[bucket], highs[bucket], lows[bucket], closeDates[bucket],
+                        closes[bucket], amounts[bucket], volumes[bucket], counts[bucket]);
+            }
+        }
+    }
+
+    // OHLCV of buckets merged in any order
+    private static class Aggregate {
+        private long openDate = Long.MAX_VALUE;
+        private long open;
+        private long high = Long.MIN_VALUE;
+        private long low = Long.MAX_VALUE;
+        private long closeDate = Long.MIN_VALUE;
+        private long close;
+        private long amount;
+        private long volume;
+        private int numTrades;
+
+        private void add(long openDate, long open, long high, long low, long closeDate, long close,
+                         long amount, long volume, int numTrades) {
+            if (openDate < this.openDate) {
+                this.openDate = openDate;
+                this.open = open;
+            }
+            if (closeDate >= this.closeDate) {
+                this.closeDate = closeDate;
+                this.close = close;
+            }
+            this.high = Math.max(this.high, high);
+            this.low = Math.min(this.low, low);
+            this.amount += amount;
+            this.volume += volume;
+            this.numTrades += numTrades;
+        }
+
+        private Candle toCandle(long startDate, long endDate) {
+            return new Candle(startDate, endDate, open, high, low, close, amount, volume, numTrades);
+        }
+    }
+
+    // Index of the first element not less than the key
+    private static int lowerBound(long[] values, int size, long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    // Index of the first element greater than the key
+    private static int upperBound(long[] values, int size, long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] <= key) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+}
@@ -17,6 +17,7 @@
 
 package haveno.core.trade.statistics;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.name.Named;
@@ -33,7 +34,11 @@ import haveno.network.p2p.storage.P2PDataStorage;
 import haveno.network.p2p.storage.persistence.AppendOnlyDataStoreService;
 import java.io.File;
 import java.time.Instant;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -44,15 +49,20 @@ import javafx.collections.ObservableSet;
 import javax.annotation.Nullable;
 import lombok.extern.slf4j.Slf4j;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 @Singleton
 @Slf4j
 public class TradeStatisticsManager {
+    private static final int MAX_CANDLES = 1000;
+
     private final P2PService p2PService;
     private final PriceFeedService priceFeedService;
     private final TradeStatistics3StorageService tradeStatistics3StorageService;
     private final File storageDir;
     private final boolean dumpStatistics;
     private final ObservableSet<TradeStatistics3> observableTradeStatisticsSet = FXCollections.observableSet();
+    private final TradeStatisticsIndex tradeStatisticsIndex = new TradeStatisticsIndex();
     private JsonFileManager jsonFileManager;
 
     @Inject
@@ -86,8 +96,8 @@ public class TradeStatisticsManager {
                     return;
                 }
                 synchronized (observableTradeStatisticsSet) {
-                    observableTradeStatisticsSet.add(tradeStatistics);
-                    priceFeedService.applyLatestHavenoMarketPrice(observableTradeStatisticsSet);
+                    if (!observableTradeStatisticsSet.add(tradeStatistics)) return;
+                    if (tradeStatisticsIndex.add(tradeStatistics)) priceFeedService.applyLatestHavenoMarketPrice(tradeStatistics);
                 }
                 maybeDumpStatistics();
             }
@@ -105,7 +115,8 @@ public class TradeStatisticsManager {
 
         synchronized (observableTradeStatisticsSet) {
             observableTradeStatisticsSet.addAll(set);
-            priceFeedService.applyLatestHavenoMarketPrice(observableTradeStatisticsSet);
+            tradeStatisticsIndex.addAll(set);
+            priceFeedService.applyLatestHavenoMarketPrice(tradeStatisticsIndex);
         }
         maybeDumpStatistics();
     }
@@ -117,24 +128,35 @@ public class TradeStatisticsManager {
                 .filter(e -> e.getDate().toInstant().isBefore(Instant.parse("2024-08-07T00:00:00Z")))
                 .collect(Collectors.toSet());
 
-        // collect duplicated trades
-        Set<TradeStatistics3> duplicates = new HashSet<TradeStatistics3>();
-        Set<TradeStatistics3> deduplicates = new HashSet<TradeStatistics3>();
-        for (TradeStatistics3 tradeStatistic : earlyTrades) {
-            TradeStatistics3 fuzzyDuplicate = findFuzzyDuplicate(tradeStatistic, deduplicates);
-            if (fuzzyDuplicate == null) deduplicates.add(tradeStatistic);
-            else duplicates.add(tradeStatistic);
-        }
-
         // remove duplicated trades
-        tradeStats.removeAll(duplicates);
+        tradeStats.removeAll(findFuzzyDuplicates(earlyTrades));
     }
 
-    private TradeStatistics3 findFuzzyDuplicate(TradeStatistics3 tradeStatistics, Set<TradeStatistics3> set) {
-        return set.stream().filter(e -> isFuzzyDuplicate(tradeStatistics, e)).findFirst().orElse(null);
+    // sorted by payment method, currency, price and date, so each trade is only compared to the trades kept within the fuzzed hours
+    @VisibleForTesting
+    static Set<TradeStatistics3> findFuzzyDuplicates(Collection<TradeStatistics3> tradeStats) {
+        List<TradeStatistics3> sorted = new ArrayList<>(tradeStats);
+        sorted.sort(Comparator.comparing(TradeStatistics3::getPaymentMethodId)
+                .thenComparing(TradeStatistics3::getCurrency)
+                .thenComparingLong(TradeStatistics3::getPrice)
+                .thenComparingLong(TradeStatistics3::getDateAsLong));
+
+        Set<TradeStatistics3> duplicates = new HashSet<TradeStatistics3>();
+        Deque<TradeStatistics3> deduplicates = new ArrayDeque<TradeStatistics3>();
+        for (TradeStatistics3 tradeStatistic : sorted) {
+            TradeStatistics3 first = deduplicates.peekFirst();
+            if (first != null && (!first.getPaymentMethodId().equals(tradeStatistic.getPaymentMethodId()) || !first.getCurrency().equals(tradeStatistic.getCurrency()) || first.getPrice() != tradeStatistic.getPrice())) {
+                deduplicates.clear();
+            }
+            long minDate = tradeStatistic.getDateAsLong() - TimeUnit.HOURS.toMillis(FUZZ_DATE_HOURS);
+            while (!deduplicates.isEmpty() && deduplicates.peekFirst().getDateAsLong() < minDate) deduplicates.removeFirst();
+            if (deduplicates.stream().anyMatch(e -> isFuzzyDuplicate(tradeStatistic, e))) duplicates.add(tradeStatistic);
+            else deduplicates.addLast(tradeStatistic);
+        }
+        return duplicates;
     }
 
-    private boolean isFuzzyDuplicate(TradeStatistics3 tradeStatistics1, TradeStatistics3 tradeStatistics2) {
+    private static boolean isFuzzyDuplicate(TradeStatistics3 tradeStatistics1, TradeStatistics3 tradeStatistics2) {
         if (!tradeStatistics1.getPaymentMethodId().equals(tradeStatistics2.getPaymentMethodId())) return false;
         if (!tradeStatistics1.getCurrency().equals(tradeStatistics2.getCurrency())) return false;
         if (tradeStatistics1.getPrice() != tradeStatistics2.getPrice()) return false;
@@ -142,7 +164,7 @@ public class TradeStatisticsManager {
     }
 
     // bug caused all peers to publish same trade with similar timestamps
-    private boolean isFuzzyDuplicateV1(TradeStatistics3 tradeStatistics1, TradeStatistics3 tradeStatistics2) {
+    private static boolean isFuzzyDuplicateV1(TradeStatistics3 tradeStatistics1, TradeStatistics3 tradeStatistics2) {
         boolean isWithin2Minutes = Math.abs(tradeStatistics1.getDate().getTime() - tradeStatistics2.getDate().getTime()) <= TimeUnit.MINUTES.toMillis(2);
         return isWithin2Minutes;
     }
@@ -150,7 +172,7 @@ public class TradeStatisticsManager {
     // bug caused sellers to re-publish their trades with randomized amounts
     private static final double FUZZ_AMOUNT_PCT = 0.05;
     private static final int FUZZ_DATE_HOURS = 24;
-    private boolean isFuzzyDuplicateV2(TradeStatistics3 tradeStatistics1, TradeStatistics3 tradeStatistics2) {
+    private static boolean isFuzzyDuplicateV2(TradeStatistics3 tradeStatistics1, TradeStatistics3 tradeStatistics2) {
         boolean isWithinFuzzedHours = Math.abs(tradeStatistics1.getDate().getTime() - tradeStatistics2.getDate().getTime()) <= TimeUnit.HOURS.toMillis(FUZZ_DATE_HOURS);
         boolean isWithinFuzzedAmount = Math.abs(tradeStatistics1.getAmount() - tradeStatistics2.getAmount()) <= FUZZ_AMOUNT_PCT * tradeStatistics1.getAmount();
         return isWithinFuzzedHours && isWithinFuzzedAmount;
@@ -160,6 +182,25 @@ public class TradeStatisticsManager {
         return observableTradeStatisticsSet;
     }
 
+    public TradeStatisticsIndex getTradeStatisticsIndex() {
+        return tradeStatisticsIndex;
+    }
+
+    /**
+     * @return the candles of the currency's trades from the start date (inclusive) to the end date (exclusive)
+     */
+    public List<TradeStatisticsIndex.Candle> getCandles(String currencyCode, long startDate, long endDate, long interval) {
+        checkArgument(interval > 0 && interval % TradeStatisticsIndex.BUCKET_MS == 0,
+                "interval must be a positive multiple of " + TradeStatisticsIndex.BUCKET_MS + " ms");
+        checkArgument(startDate >= 0 && startDate <= endDate, "start date must not be after end date");
+        long numCandles = Math.ceilDiv(endDate - startDate, interval);
+        checkArgument(numCandles <= MAX_CANDLES, "cannot get more than " + MAX_CANDLES + " candles");
+        long[] boundaries = new long[(int) numCandles + 1];
+        for (int i = 0; i < numCandles; i++) boundaries[i] = startDate + i * interval;
+        boundaries[(int) numCandles] = endDate;
+        return tradeStatisticsIndex.getCandles(currencyCode, boundaries);
+    }
+
     private void maybeDumpStatistics() {
         if (!dumpStatistics) {
             return;
@@ -41,6 +41,7 @@ import haveno.common.config.Config;
 import haveno.core.provider.ProvidersRepository;
 import haveno.core.provider.fee.FeeProvider;
 import haveno.core.provider.price.PriceFeedService;
+import haveno.core.trade.HavenoUtils;
 import haveno.core.xmr.model.AddressEntryList;
 import haveno.core.xmr.model.EncryptedConnectionList;
 import haveno.core.xmr.model.XmrAddressEntryList;
@@ -85,6 +86,10 @@ public class XmrModule extends AppModule {
             bind(RegTestHost.class).toInstance(RegTestHost.REMOTE_HOST);
         }
 
+        HavenoUtils.setMaxConcurrentDaemonRequests(config.maxConcurrentDaemonRequests);
+        HavenoUtils.setMaxConcurrentTradePolls(config.maxConcurrentTradePolls);
+        HavenoUtils.setMaxOpenTradeWallets(config.maxOpenTradeWallets);
+
         bind(File.class).annotatedWith(named(WALLET_DIR)).toInstance(config.walletDir);
         bind(int.class).annotatedWith(named(WALLET_RPC_BIND_PORT)).toInstance(config.walletRpcBindPort);
 
@@ -17,6 +17,7 @@
 
 package haveno.core.xmr.wallet;
 
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import monero.common.MoneroError;
 import monero.common.TaskLooper;
@@ -28,7 +29,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -37,6 +38,11 @@ import haveno.core.trade.HavenoUtils;
 
 /**
  * Poll for changes to the spent status of key images.
+ *
+ * Key images are shared by all groups, so each key image is polled once however many offers, trades or wallets
+ * listen to it. A key image is due for polling if it was not polled since the last block, or if it is spent in the
+ * tx pool and the tx pool was refreshed with {@link #refreshTxPool()}. Due key images are polled in batches which are
+ * sized to the measured latency of the daemon.
  */
 @Slf4j
 public class XmrKeyImagePoller {
@@ -44,14 +50,45 @@ public class XmrKeyImagePoller {
     private MoneroDaemon daemon;
     private long refreshPeriodMs;
     private Object lock = new Object();
+    private Object pollLock = new Object();
     private Map<String, Set<String>> keyImageGroups = new HashMap<String, Set<String>>();
-    private LinkedHashSet<String> keyImagePollQueue = new LinkedHashSet<>();
+    private LinkedHashMap<String, KeyImageState> keyImageStates = new LinkedHashMap<>(); // ordered by last poll
     private Set<XmrKeyImageListener> listeners = new HashSet<XmrKeyImageListener>();
     private TaskLooper looper;
-    private Map<String, MoneroKeyImageSpentStatus> lastStatuses = new HashMap<String, MoneroKeyImageSpentStatus>();
     private boolean isPolling = false;
     private Long lastLogPollErrorTimestamp;
-    private static final int MAX_POLL_SIZE = 200;
+    private long chainHeight = -1;
+    private int batchSize = INITIAL_POLL_SIZE;
+    private Double msPerKeyImage;
+
+    // metrics
+    private long numHits;
+    private long numMisses;
+    private long numRequests;
+    private long lastRequestMs;
+
+    private static final int INITIAL_POLL_SIZE = 200;
+    private static final int MIN_POLL_SIZE = 50;
+    private static final int MAX_POLL_SIZE = 2000;
+    private static final long TARGET_REQUEST_MS = 2000; // size batches to take about this long
+    private static final double LATENCY_SMOOTHING_FACTOR = 0.3;
+
+    private static class KeyImageState {
+        private int numGroups;
+        private MoneroKeyImageSpentStatus status;
+        private long polledHeight = -1;
+        private boolean refreshRequested;
+    }
+
+    @Value
+    public static class Metrics {
+        int numKeyImages;
+        int batchSize;
+        long numHits; // key images which were not polled because their status was still valid
+        long numMisses; // key images which were polled
+        long numRequests;
+        long lastRequestMs;
+    }
 
     /**
      * Construct the listener.
@@ -98,12 +135,19 @@ public class XmrKeyImagePoller {
     }
 
     /**
-     * Set the Monero daemon to fetch key images from.
+     * Set the Monero daemon to fetch key images from. All key images are due for polling if the daemon changes.
      *
      * @param daemon - the daemon to fetch key images from
      */
     public void setDaemon(MoneroDaemon daemon) {
-        this.daemon = daemon;
+        synchronized (lock) {
+            if (this.daemon != daemon) {
+                for (KeyImageState state : keyImageStates.values()) state.polledHeight = -1;
+                msPerKeyImage = null;
+                batchSize = INITIAL_POLL_SIZE;
+            }
+            this.daemon = daemon;
+        }
     }
 
     /**
@@ -133,6 +177,29 @@ public class XmrKeyImagePoller {
         return refreshPeriodMs;
     }
 
+    /**
+     * Set the height of the daemon's chain. Key images polled before a new block are due for polling.
+     *
+     * @param chainHeight - the chain height
+     */
+    public void setChainHeight(long chainHeight) {
+        synchronized (lock) {
+            this.chainHeight = chainHeight;
+        }
+    }
+
+    /**
+     * Key images spent in the tx pool are due for polling after the tx pool changed, because their txs can be
+     * dropped from the pool without a new block.
+     */
+    public void refreshTxPool() {
+        synchronized (lock) {
+            for (KeyImageState state : keyImageStates.values()) {
+                if (state.status == MoneroKeyImageSpentStatus.TX_POOL) state.refreshRequested = true;
+            }
+        }
+    }
+
     /**
      * Add a key image to listen to.
      *
@@ -151,8 +218,9 @@ public class XmrKeyImagePoller {
         synchronized (lock) {
             if (!keyImageGroups.containsKey(groupId)) keyImageGroups.put(groupId, new HashSet<String>());
             Set<String> keyImagesGroup = keyImageGroups.get(groupId);
-            keyImagesGroup.addAll(keyImages);
-            keyImagePollQueue.addAll(keyImages);
+            for (String keyImage : keyImages) {
+                if (keyImagesGroup.add(keyImage)) keyImageStates.computeIfAbsent(keyImage, k -> new KeyImageState()).numGroups++;
+            }
             refreshPolling();
         }
     }
@@ -166,31 +234,19 @@ public class XmrKeyImagePoller {
         synchronized (lock) {
             Set<String> keyImagesGroup = keyImageGroups.get(groupId);
             if (keyImagesGroup == null) return;
-            keyImagesGroup.removeAll(keyImages);
-            if (keyImagesGroup.isEmpty()) keyImageGroups.remove(groupId);
-            Set<String> allKeyImages = getKeyImages();
             for (String keyImage : keyImages) {
-                if (!allKeyImages.contains(keyImage)) {
-                    keyImagePollQueue.remove(keyImage);
-                    lastStatuses.remove(keyImage);
-                }
+                if (keyImagesGroup.remove(keyImage)) releaseKeyImage(keyImage);
             }
+            if (keyImagesGroup.isEmpty()) keyImageGroups.remove(groupId);
             refreshPolling();
         }
     }
 
     public void removeKeyImages(String groupId) {
         synchronized (lock) {
-            Set<String> keyImagesGroup = keyImageGroups.get(groupId);
+            Set<String> keyImagesGroup = keyImageGroups.remove(groupId);
             if (keyImagesGroup == null) return;
-            keyImageGroups.remove(groupId);
-            Set<String> allKeyImages = getKeyImages();
-            for (String keyImage : keyImagesGroup) {
-                if (!allKeyImages.contains(keyImage)) {
-                    keyImagePollQueue.remove(keyImage);
-                    lastStatuses.remove(keyImage);
-                }
-            }
+            for (String keyImage : keyImagesGroup) releaseKeyImage(keyImage);
             refreshPolling();
         }
     }
@@ -201,8 +257,7 @@ public class XmrKeyImagePoller {
     public void clearKeyImages() {
         synchronized (lock) {
             keyImageGroups.clear();
-            keyImagePollQueue.clear();
-            lastStatuses.clear();
+            keyImageStates.clear();
             refreshPolling();
         }
     }
@@ -215,8 +270,9 @@ public class XmrKeyImagePoller {
      */
     public Boolean isSpent(String keyImage) {
         synchronized (lock) {
-            if (!lastStatuses.containsKey(keyImage)) return null;
-            return XmrKeyImagePoller.isSpent(lastStatuses.get(keyImage));
+            MoneroKeyImageSpentStatus status = getLastSpentStatus(keyImage);
+            if (status == null) return null;
+            return XmrKeyImagePoller.isSpent(status);
         }
     }
 
@@ -238,19 +294,49 @@ public class XmrKeyImagePoller {
      */
     public MoneroKeyImageSpentStatus getLastSpentStatus(String keyImage) {
         synchronized (lock) {
-            return lastStatuses.get(keyImage);
+            KeyImageState state = keyImageStates.get(keyImage);
+            return state == null ? null : state.status;
         }
     }
 
+    public Metrics getMetrics() {
+        synchronized (lock) {
+            return new Metrics(keyImageStates.size(), batchSize, numHits, numMisses, numRequests, lastRequestMs);
+        }
+    }
+
+    /**
+     * Poll the key images which are due, in batches until none are due or half of the refresh period is used.
+     */
     public void poll() {
         if (daemon == null) {
             log.warn("Cannot poll key images because daemon is null");
             return;
         }
+        synchronized (pollLock) {
+            long startTime = System.currentTimeMillis();
+            long pollDeadline = startTime + refreshPeriodMs / 2;
+            List<String> dueKeyImages = getDueKeyImages();
+            int index = 0;
+            do {
+                List<String> keyImages = new ArrayList<String>(dueKeyImages.subList(index, Math.min(dueKeyImages.size(), index + getBatchSize())));
+                index += keyImages.size();
+                Long requestMs = pollBatch(keyImages);
+                if (requestMs == null || index >= dueKeyImages.size()) break;
+
+                // leave the daemon idle at least as long as the last request took
+                if (System.currentTimeMillis() + requestMs >= pollDeadline) break;
+                HavenoUtils.waitFor(requestMs);
+            } while (true);
+        }
+    }
+
+    // @return the duration of the request in ms or null if the request failed
+    private Long pollBatch(List<String> keyImages) {
 
         // fetch spent statuses
         List<MoneroKeyImageSpentStatus> spentStatuses = null;
-        List<String> keyImages = new ArrayList<String>(getNextKeyImageBatch());
+        long requestStartTime = System.currentTimeMillis();
         try {
             spentStatuses = keyImages.isEmpty() ? new ArrayList<MoneroKeyImageSpentStatus>() : daemon.getKeyImageSpentStatuses(keyImages); // TODO monero-java: if order of getKeyImageSpentStatuses is guaranteed, then it should take list parameter
         } catch (Exception e) {
@@ -260,25 +346,28 @@ public class XmrKeyImagePoller {
                 log.warn("Error polling spent status of key images: " + e.getMessage());
                 lastLogPollErrorTimestamp = System.currentTimeMillis();
             }
-            return;
+            return null;
         }
+        long requestMs = System.currentTimeMillis() - requestStartTime;
 
         // process spent statuses
         Map<String, MoneroKeyImageSpentStatus> changedStatuses = new HashMap<String, MoneroKeyImageSpentStatus>();
         synchronized (lock) {
-            Set<String> allKeyImages = getKeyImages();
+            if (!keyImages.isEmpty()) updateLatency(keyImages.size(), requestMs);
             for (int i = 0; i < keyImages.size(); i++) {
 
                 // skip if key image is removed
-                if (!allKeyImages.contains(keyImages.get(i))) continue;
+                KeyImageState state = keyImageStates.remove(keyImages.get(i));
+                if (state == null) continue;
 
                 // move key image to the end of the queue
-                keyImagePollQueue.remove(keyImages.get(i));
-                keyImagePollQueue.add(keyImages.get(i));
+                keyImageStates.put(keyImages.get(i), state);
+                state.polledHeight = chainHeight;
+                state.refreshRequested = false;
 
                 // update spent status
-                if (spentStatuses.get(i) != lastStatuses.get(keyImages.get(i))) {
-                    lastStatuses.put(keyImages.get(i), spentStatuses.get(i));
+                if (spentStatuses.get(i) != state.status) {
+                    state.status = spentStatuses.get(i);
                     changedStatuses.put(keyImages.get(i), spentStatuses.get(i));
                 }
             }
@@ -294,11 +383,12 @@ public class XmrKeyImagePoller {
                 listener.onSpentStatusChanged(changedStatuses);
             }
         }
+        return requestMs;
     }
 
     private void refreshPolling() {
         synchronized (lock) {
-            setIsPolling(!getKeyImages().isEmpty() && listeners.size() > 0);
+            setIsPolling(!keyImageStates.isEmpty() && listeners.size() > 0);
         }
     }
 
@@ -314,26 +404,40 @@ public class XmrKeyImagePoller {
         }
     }
 
-    private Set<String> getKeyImages() {
-        Set<String> allKeyImages = new HashSet<String>();
+    private void releaseKeyImage(String keyImage) {
+        KeyImageState state = keyImageStates.get(keyImage);
+        if (state != null && --state.numGroups <= 0) keyImageStates.remove(keyImage);
+    }
+
+    private List<String> getDueKeyImages() {
         synchronized (lock) {
-            for (Set<String> keyImagesGroup : keyImageGroups.values()) {
-                allKeyImages.addAll(keyImagesGroup);
+            List<String> dueKeyImages = new ArrayList<>();
+            for (Map.Entry<String, KeyImageState> entry : keyImageStates.entrySet()) {
+                if (isDue(entry.getValue())) dueKeyImages.add(entry.getKey());
             }
+            numMisses += dueKeyImages.size();
+            numHits += keyImageStates.size() - dueKeyImages.size();
+            return dueKeyImages;
         }
-        return allKeyImages;
     }
 
-    private List<String> getNextKeyImageBatch() {
+    // spent statuses only change with new blocks, except for txs entering or leaving the tx pool
+    private boolean isDue(KeyImageState state) {
+        if (state.status == null || chainHeight < 0 || state.polledHeight != chainHeight) return true;
+        return state.refreshRequested;
+    }
+
+    private int getBatchSize() {
         synchronized (lock) {
-            List<String> keyImageBatch = new ArrayList<>();
-            int count = 0;
-            for (String keyImage : keyImagePollQueue) {
-                if (count >= MAX_POLL_SIZE) break;
-                keyImageBatch.add(keyImage);
-                count++;
-            }
-            return keyImageBatch;
+            return batchSize;
         }
     }
+
+    private void updateLatency(int numKeyImages, long requestMs) {
+        numRequests++;
+        lastRequestMs = requestMs;
+        double sample = (double) Math.max(1, requestMs) / numKeyImages;
+        msPerKeyImage = msPerKeyImage == null ? sample : msPerKeyImage + LATENCY_SMOOTHING_FACTOR * (sample - msPerKeyImage);
+        batchSize = (int) Math.max(MIN_POLL_SIZE, Math.min(MAX_POLL_SIZE, TARGET_REQUEST_MS / msPerKeyImage));
+    }
 }
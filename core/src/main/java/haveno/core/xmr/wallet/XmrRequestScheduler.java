@@ -0,0 +1,229 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.xmr.wallet;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import javax.annotation.Nullable;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Limits the number of concurrent requests to each Monero daemon. Requests waiting for a daemon are served by
+ * priority, then in the order they arrived. Polling requests cannot take the last permits of a daemon, which are
+ * kept for payout and deposit requests.
+ *
+ * A thread which already holds a permit for a daemon gets further permits for the same daemon immediately, so nested
+ * requests cannot deadlock.
+ *
+ * Permits are acquired inside the wallet lock of the wallet making the requests, and a thread holding a permit never
+ * waits for a wallet lock. Otherwise the poller of a wallet could hold its lock while waiting for a permit which is
+ * held by threads waiting for that lock.
+ */
+@Slf4j
+public class XmrRequestScheduler {
+
+    private static final long LOG_WAIT_THRESHOLD_MS = 10000;
+    private static final int NUM_URGENT_PERMITS = 1; // permits only payout and deposit requests can take
+
+    // Ordered from highest to lowest priority
+    public enum Priority {
+        PAYOUT,
+        DEPOSIT,
+        POLL
+    }
+
+    @Value
+    public static class Metrics {
+        int numRunning;
+        int queueDepth;
+        int maxQueueDepth;
+        long numRequests;
+        long totalWaitMs;
+        long maxWaitMs;
+
+        public long getAverageWaitMs() {
+            return numRequests == 0 ? 0 : totalWaitMs / numRequests;
+        }
+    }
+
+    /**
+     * Permit to run requests against a daemon. Has to be closed after the requests completed.
+     */
+    public static class Permit implements AutoCloseable {
+        private final Lane lane;
+        private final Thread thread;
+        private boolean isClosed;
+
+        private Permit(Lane lane, Thread thread) {
+            this.lane = lane;
+            this.thread = thread;
+        }
+
+        @Override
+        public void close() {
+            synchronized (lane) {
+                if (isClosed) return;
+                isClosed = true;
+                lane.release(thread);
+            }
+        }
+    }
+
+    private static class Waiter {
+        private final Priority priority;
+        private final long sequenceNumber;
+
+        private Waiter(Priority priority, long sequenceNumber) {
+            this.priority = priority;
+            this.sequenceNumber = sequenceNumber;
+        }
+    }
+
+    private static class Lane {
+        private final String daemonUri;
+        private int maxConcurrentRequests;
+        private final PriorityQueue<Waiter> waiters = new PriorityQueue<>(Comparator
+                .<Waiter, Priority>comparing(waiter -> waiter.priority)
+                .thenComparingLong(waiter -> waiter.sequenceNumber));
+        private final Map<Thread, Integer> holdCounts = new HashMap<>();
+        private int numRunning;
+        private long nextSequenceNumber;
+
+        // metrics
+        private int maxQueueDepth;
+        private long numRequests;
+        private long totalWaitMs;
+        private long maxWaitMs;
+
+        private Lane(String daemonUri, int maxConcurrentRequests) {
+            this.daemonUri = daemonUri;
+            this.maxConcurrentRequests = maxConcurrentRequests;
+        }
+
+        private synchronized Permit acquire(Priority priority) {
+            Thread thread = Thread.currentThread();
+            Integer holdCount = holdCounts.get(thread);
+            if (holdCount != null) {
+                holdCounts.put(thread, holdCount + 1);
+                return new Permit(this, thread);
+            }
+
+            long startTime = System.currentTimeMillis();
+            Waiter waiter = new Waiter(priority, nextSequenceNumber++);
+            waiters.add(waiter);
+            maxQueueDepth = Math.max(maxQueueDepth, waiters.size());
+            try {
+                while (numRunning >= getMaxConcurrentRequests(priority) || waiters.peek() != waiter) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                waiters.remove(waiter);
+                notifyAll();
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for request to daemon " + daemonUri, e);
+            }
+            waiters.poll();
+            numRunning++;
+            holdCounts.put(thread, 1);
+
+            // the next waiter might get a permit too
+            notifyAll();
+
+            long waitMs = System.currentTimeMillis() - startTime;
+            numRequests++;
+            totalWaitMs += waitMs;
+            maxWaitMs = Math.max(maxWaitMs, waitMs);
+            if (waitMs > LOG_WAIT_THRESHOLD_MS) {
+                log.info("{} request waited {} ms for daemon {}, {} requests running, {} waiting",
+                        priority, waitMs, daemonUri, numRunning, waiters.size());
+            }
+            return new Permit(this, thread);
+        }
+
+        // Called while synchronized on the lane
+        private void release(Thread thread) {
+            int holdCount = holdCounts.get(thread);
+            if (holdCount > 1) {
+                holdCounts.put(thread, holdCount - 1);
+                return;
+            }
+            holdCounts.remove(thread);
+            numRunning--;
+            notifyAll();
+        }
+
+        private int getMaxConcurrentRequests(Priority priority) {
+            if (priority != Priority.POLL) return maxConcurrentRequests;
+            return Math.max(1, maxConcurrentRequests - NUM_URGENT_PERMITS);
+        }
+
+        private synchronized void setMaxConcurrentRequests(int maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+            notifyAll();
+        }
+
+        private synchronized Metrics getMetrics() {
+            return new Metrics(numRunning, waiters.size(), maxQueueDepth, numRequests, totalWaitMs, maxWaitMs);
+        }
+    }
+
+    private int maxConcurrentRequests;
+    private final Map<String, Lane> lanes = new HashMap<>();
+
+    /**
+     * @param maxConcurrentRequests - maximum number of requests running concurrently against each daemon
+     */
+    public XmrRequestScheduler(int maxConcurrentRequests) {
+        setMaxConcurrentRequests(maxConcurrentRequests);
+    }
+
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        checkArgument(maxConcurrentRequests > 0, "maxConcurrentRequests must be positive");
+        synchronized (lanes) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+            lanes.values().forEach(lane -> lane.setMaxConcurrentRequests(maxConcurrentRequests));
+        }
+    }
+
+    /**
+     * Wait for a permit to run requests against the given daemon.
+     *
+     * @param daemonUri - uri of the daemon, null if not connected
+     * @param priority - priority of the requests
+     * @return the permit to close after the requests completed
+     */
+    public Permit acquire(@Nullable String daemonUri, Priority priority) {
+        return getLane(daemonUri).acquire(priority);
+    }
+
+    public Metrics getMetrics(@Nullable String daemonUri) {
+        return getLane(daemonUri).getMetrics();
+    }
+
+    private Lane getLane(@Nullable String daemonUri) {
+        String key = daemonUri == null ? "" : daemonUri;
+        synchronized (lanes) {
+            return lanes.computeIfAbsent(key, uri -> new Lane(uri, maxConcurrentRequests));
+        }
+    }
+}
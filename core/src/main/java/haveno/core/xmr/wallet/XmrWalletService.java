@@ -363,16 +363,14 @@ public class XmrWalletService extends XmrWalletBase {
      * Sync the given wallet in a thread pool with other wallets.
      */
     public MoneroSyncResult syncWallet(MoneroWallet wallet) {
-        synchronized (HavenoUtils.getDaemonLock()) { // TODO: lock defeats purpose of thread pool
-            Callable<MoneroSyncResult> task = () -> {
-                return wallet.sync();
-            };
-            Future<MoneroSyncResult> future = syncWalletThreadPool.submit(task);
-            try {
-                return future.get();
-            } catch (Exception e) {
-                throw new MoneroError(e.getMessage());
-            }
+        Callable<MoneroSyncResult> task = () -> {
+            return wallet.sync();
+        };
+        Future<MoneroSyncResult> future = syncWalletThreadPool.submit(task);
+        try {
+            return future.get();
+        } catch (Exception e) {
+            throw new MoneroError(e.getMessage());
         }
     }
 
@@ -443,7 +441,7 @@ public class XmrWalletService extends XmrWalletBase {
 
     public MoneroTxWallet createTx(MoneroTxConfig txConfig) {
         synchronized (walletLock) {
-            synchronized (HavenoUtils.getWalletFunctionLock()) {
+            try (XmrRequestScheduler.Permit permit = HavenoUtils.acquireDaemonPermit(XmrRequestScheduler.Priority.DEPOSIT)) {
                 MoneroTxWallet tx = wallet.createTx(txConfig);
                 if (Boolean.TRUE.equals(txConfig.getRelay())) {
                     cachedTxs.addFirst(tx);
@@ -613,7 +611,7 @@ public class XmrWalletService extends XmrWalletBase {
      */
     public MoneroTxWallet createReserveTx(BigInteger penaltyFee, BigInteger tradeFee, BigInteger sendTradeAmount, BigInteger securityDeposit, String returnAddress, boolean reserveExactAmount, Integer preferredSubaddressIndex) {
         synchronized (walletLock) {
-            synchronized (HavenoUtils.getWalletFunctionLock()) {
+            try (XmrRequestScheduler.Permit permit = HavenoUtils.acquireDaemonPermit(XmrRequestScheduler.Priority.DEPOSIT)) {
                 log.info("Creating reserve tx with preferred subaddress index={}, return address={}", preferredSubaddressIndex, returnAddress);
                 long time = System.currentTimeMillis();
                 BigInteger sendAmount = sendTradeAmount.add(securityDeposit).add(tradeFee).subtract(penaltyFee);
@@ -634,7 +632,7 @@ public class XmrWalletService extends XmrWalletBase {
      */
     public MoneroTxWallet createDepositTx(Trade trade, boolean reserveExactAmount, Integer preferredSubaddressIndex) {
         synchronized (walletLock) {
-            synchronized (HavenoUtils.getWalletFunctionLock()) {
+            try (XmrRequestScheduler.Permit permit = HavenoUtils.acquireDaemonPermit(XmrRequestScheduler.Priority.DEPOSIT)) {
                 BigInteger feeAmount = trade instanceof MakerTrade ? trade.getMakerFee() : trade.getTakerFee();
                 String feeAddress = trade.getProcessModel().getTradeFeeAddress();
                 BigInteger sendTradeAmount = trade instanceof BuyerTrade ? BigInteger.ZERO : trade.getAmount();
@@ -2027,7 +2025,7 @@ public class XmrWalletService extends XmrWalletBase {
             // TODO: ideally wallet should sync every poll and then avoid updating from pool on fetching txs?
             if (updateTxs) {
                 synchronized (walletLock) { // avoid long fetch from blocking other operations
-                    synchronized (HavenoUtils.getDaemonLock()) {
+                    try (XmrRequestScheduler.Permit permit = HavenoUtils.acquireDaemonPermit(XmrRequestScheduler.Priority.POLL)) {
                         MoneroRpcConnection sourceConnection = xmrConnectionService.getConnection();
                         try {
                             cachedTxs = wallet.getTxs(new MoneroTxQuery().setIncludeOutputs(true));
@@ -236,6 +236,29 @@ public class SignedWitnessServiceTest {
         assertFalse(signedWitnessService.isSignerAccountAgeWitness(aew3));
     }
 
+    @Test
+    public void testIsValidAccountAgeWitnessAddedOutOfOrderAndRemoved() {
+        SignedWitness sw1 = new SignedWitness(ARBITRATOR, account1DataHash, signature1, signer1PubKey, witnessOwner1PubKey, date1, tradeAmount1);
+        SignedWitness sw2 = new SignedWitness(TRADE, account2DataHash, signature2, signer2PubKey, witnessOwner2PubKey, date2, tradeAmount2);
+        SignedWitness sw3 = new SignedWitness(TRADE, account3DataHash, signature3, signer3PubKey, witnessOwner3PubKey, date3, tradeAmount3);
+
+        signedWitnessService.addToMap(sw3);
+        signedWitnessService.addToMap(sw2);
+        assertFalse(signedWitnessService.isSignerAccountAgeWitness(aew2));
+        assertFalse(signedWitnessService.isSignerAccountAgeWitness(aew3));
+
+        // The root of the chain arrives last
+        signedWitnessService.addToMap(sw1);
+        assertTrue(signedWitnessService.isSignerAccountAgeWitness(aew1));
+        assertTrue(signedWitnessService.isSignerAccountAgeWitness(aew2));
+        assertTrue(signedWitnessService.isSignerAccountAgeWitness(aew3));
+
+        signedWitnessService.removeSignedWitness(sw1);
+        assertFalse(signedWitnessService.isSignerAccountAgeWitness(aew1));
+        assertFalse(signedWitnessService.isSignerAccountAgeWitness(aew2));
+        assertFalse(signedWitnessService.isSignerAccountAgeWitness(aew3));
+    }
+
     @Test
     public void testIsValidAccountAgeWitnessDateTooLateProblem() {
         date3 = getTodayMinusNDays(3);
@@ -397,6 +420,7 @@ public class SignedWitnessServiceTest {
 
         // Second account is banned, first account is still a signer but the other two are no longer signers
         when(filterManager.isWitnessSignerPubKeyBanned(Utilities.bytesAsHexString(witnessOwner2PubKey))).thenReturn(true);
+        signedWitnessService.onFilterChanged();
         assertTrue(signedWitnessService.isSignerAccountAgeWitness(aew1));
         assertFalse(signedWitnessService.isSignerAccountAgeWitness(aew2));
         assertFalse(signedWitnessService.isSignerAccountAgeWitness(aew3));
@@ -404,6 +428,7 @@ public class SignedWitnessServiceTest {
         // First account is banned, no accounts in the tree below it are signers
         when(filterManager.isWitnessSignerPubKeyBanned(Utilities.bytesAsHexString(witnessOwner1PubKey))).thenReturn(true);
         when(filterManager.isWitnessSignerPubKeyBanned(Utilities.bytesAsHexString(witnessOwner2PubKey))).thenReturn(false);
+        signedWitnessService.onFilterChanged();
         assertFalse(signedWitnessService.isSignerAccountAgeWitness(aew1));
         assertFalse(signedWitnessService.isSignerAccountAgeWitness(aew2));
         assertFalse(signedWitnessService.isSignerAccountAgeWitness(aew3));
@@ -434,6 +459,7 @@ public class SignedWitnessServiceTest {
 
         // Only second account is banned, first account is still a signer but the other two are no longer signers
         when(filterManager.isWitnessSignerPubKeyBanned(Utilities.bytesAsHexString(witnessOwner2PubKey))).thenReturn(true);
+        signedWitnessService.onFilterChanged();
         assertTrue(signedWitnessService.isSignerAccountAgeWitness(aew1));
         assertFalse(signedWitnessService.isSignerAccountAgeWitness(aew2));
         assertFalse(signedWitnessService.isSignerAccountAgeWitness(aew3));
@@ -441,6 +467,7 @@ public class SignedWitnessServiceTest {
         // Only first account is banned, account2 and account3 are still signers
         when(filterManager.isWitnessSignerPubKeyBanned(Utilities.bytesAsHexString(witnessOwner1PubKey))).thenReturn(true);
         when(filterManager.isWitnessSignerPubKeyBanned(Utilities.bytesAsHexString(witnessOwner2PubKey))).thenReturn(false);
+        signedWitnessService.onFilterChanged();
         assertFalse(signedWitnessService.isSignerAccountAgeWitness(aew1));
         assertTrue(signedWitnessService.isSignerAccountAgeWitness(aew2));
         assertTrue(signedWitnessService.isSignerAccountAgeWitness(aew3));
@@ -484,6 +511,7 @@ public class SignedWitnessServiceTest {
 
         // First account is banned, the other two are still signers
         when(filterManager.isWitnessSignerPubKeyBanned(Utilities.bytesAsHexString(witnessOwner1PubKey))).thenReturn(true);
+        signedWitnessService.onFilterChanged();
         assertFalse(signedWitnessService.isSignerAccountAgeWitness(aew1));
         assertTrue(signedWitnessService.isSignerAccountAgeWitness(aew2));
         assertTrue(signedWitnessService.isSignerAccountAgeWitness(aew3));
@@ -491,6 +519,7 @@ public class SignedWitnessServiceTest {
         // Second account is banned, the other two are still signers
         when(filterManager.isWitnessSignerPubKeyBanned(Utilities.bytesAsHexString(witnessOwner1PubKey))).thenReturn(false);
         when(filterManager.isWitnessSignerPubKeyBanned(Utilities.bytesAsHexString(witnessOwner2PubKey))).thenReturn(true);
+        signedWitnessService.onFilterChanged();
         assertTrue(signedWitnessService.isSignerAccountAgeWitness(aew1));
         assertFalse(signedWitnessService.isSignerAccountAgeWitness(aew2));
         assertTrue(signedWitnessService.isSignerAccountAgeWitness(aew3));
@@ -498,6 +527,7 @@ public class SignedWitnessServiceTest {
         // First and second account is banned, the third is no longer a signer
         when(filterManager.isWitnessSignerPubKeyBanned(Utilities.bytesAsHexString(witnessOwner1PubKey))).thenReturn(true);
         when(filterManager.isWitnessSignerPubKeyBanned(Utilities.bytesAsHexString(witnessOwner2PubKey))).thenReturn(true);
+        signedWitnessService.onFilterChanged();
         assertFalse(signedWitnessService.isSignerAccountAgeWitness(aew1));
         assertFalse(signedWitnessService.isSignerAccountAgeWitness(aew2));
         assertFalse(signedWitnessService.isSignerAccountAgeWitness(aew3));
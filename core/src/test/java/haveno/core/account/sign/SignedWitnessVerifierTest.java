@@ -0,0 +1,87 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.account.sign;
+
+import com.google.common.base.Charsets;
+import haveno.common.crypto.Sig;
+import haveno.common.util.Utilities;
+import haveno.core.support.dispute.arbitration.arbitrator.ArbitratorManager;
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.List;
+import org.bitcoinj.core.ECKey;
+import org.junit.jupiter.api.Test;
+
+import static haveno.core.account.sign.SignedWitness.VerificationMethod.ARBITRATOR;
+import static haveno.core.account.sign.SignedWitness.VerificationMethod.TRADE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SignedWitnessVerifierTest {
+
+    @Test
+    public void testVerifyAllInParallel() throws Exception {
+        ArbitratorManager arbitratorManager = mock(ArbitratorManager.class);
+        SignedWitnessVerifier verifier = new SignedWitnessVerifier(arbitratorManager, 4);
+        KeyPair signerKeyPair = Sig.generateKeyPair();
+        byte[] signerPubKey = Sig.getPublicKeyBytes(signerKeyPair.getPublic());
+        byte[] ownerPubKey = Sig.getPublicKeyBytes(Sig.generateKeyPair().getPublic());
+
+        List<SignedWitness> signedWitnesses = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            byte[] accountAgeWitnessHash = org.bitcoinj.core.Utils.sha256hash160(String.valueOf(i).getBytes(Charsets.UTF_8));
+            // Every tenth signature is malformed
+            byte[] signature = i % 10 == 0 ? new byte[]{1, 2, 3} : Sig.sign(signerKeyPair.getPrivate(), accountAgeWitnessHash);
+            signedWitnesses.add(new SignedWitness(TRADE, accountAgeWitnessHash, signature, signerPubKey, ownerPubKey, i, 1000));
+        }
+
+        verifier.verifyAll(signedWitnesses);
+        assertEquals(500, verifier.getMetrics().getNumVerified());
+        assertEquals(0, verifier.getMetrics().getNumCacheHits());
+
+        for (int i = 0; i < signedWitnesses.size(); i++) {
+            assertEquals(i % 10 != 0, verifier.verify(signedWitnesses.get(i)));
+        }
+        assertEquals(500, verifier.getMetrics().getNumVerified());
+        assertEquals(500, verifier.getMetrics().getNumCacheHits());
+
+        // Already verified witnesses are skipped
+        verifier.verifyAll(signedWitnesses);
+        assertEquals(500, verifier.getMetrics().getNumVerified());
+    }
+
+    @Test
+    public void testVerifyArbitratorSignature() {
+        ArbitratorManager arbitratorManager = mock(ArbitratorManager.class);
+        ECKey arbitratorKey = new ECKey();
+        byte[] accountAgeWitnessHash = org.bitcoinj.core.Utils.sha256hash160(new byte[]{1});
+        byte[] signature = arbitratorKey.signMessage(Utilities.encodeToHex(accountAgeWitnessHash)).getBytes(Charsets.UTF_8);
+        byte[] ownerPubKey = Sig.getPublicKeyBytes(Sig.generateKeyPair().getPublic());
+        SignedWitness signedWitness = new SignedWitness(ARBITRATOR, accountAgeWitnessHash, signature,
+                arbitratorKey.getPubKey(), ownerPubKey, 1, 1000);
+
+        when(arbitratorManager.isPublicKeyInList(any())).thenReturn(false);
+        assertFalse(new SignedWitnessVerifier(arbitratorManager, 1).verify(signedWitness));
+        when(arbitratorManager.isPublicKeyInList(any())).thenReturn(true);
+        assertTrue(new SignedWitnessVerifier(arbitratorManager, 1).verify(signedWitness));
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.api;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class UpdateLogTest {
+
+    private static class RecordingListener implements UpdateLog.Listener<String> {
+        private List<String> snapshot;
+        private String snapshotLogId;
+        private long snapshotSequenceNumber;
+        private final List<UpdateLog.Change<String>> changes = new ArrayList<>();
+
+        @Override
+        public void onSnapshot(List<String> items, String logId, long sequenceNumber) {
+            snapshot = items;
+            snapshotLogId = logId;
+            snapshotSequenceNumber = sequenceNumber;
+        }
+
+        @Override
+        public void onChange(UpdateLog.Change<String> change) {
+            changes.add(change);
+        }
+    }
+
+    @Test
+    public void testSnapshotThenChanges() {
+        UpdateLog<String> updateLog = new UpdateLog<>();
+        updateLog.put("1", "a");
+        updateLog.put("2", "b");
+
+        RecordingListener listener = new RecordingListener();
+        UpdateLog.Subscription subscription = updateLog.addListener(null, 0, listener);
+        assertEquals(List.of("a", "b"), listener.snapshot);
+        assertEquals(updateLog.getLogId(), listener.snapshotLogId);
+        assertEquals(2, listener.snapshotSequenceNumber);
+
+        updateLog.put("1", "c");
+        updateLog.remove("2");
+        updateLog.remove("3");
+        assertEquals(2, listener.changes.size());
+        assertEquals(new UpdateLog.Change<>(3, UpdateLog.ChangeType.UPDATED, "1", "c"), listener.changes.get(0));
+        assertEquals(new UpdateLog.Change<>(4, UpdateLog.ChangeType.REMOVED, "2", "b"), listener.changes.get(1));
+
+        subscription.cancel();
+        updateLog.put("3", "d");
+        assertEquals(2, listener.changes.size());
+    }
+
+    @Test
+    public void testResume() {
+        UpdateLog<String> updateLog = new UpdateLog<>(3);
+        for (int i = 1; i <= 5; i++) updateLog.put(String.valueOf(i), "item" + i);
+
+        // the changes after 2 are retained
+        RecordingListener resumed = new RecordingListener();
+        updateLog.addListener(updateLog.getLogId(), 2, resumed);
+        assertNull(resumed.snapshot);
+        assertEquals(List.of(3L, 4L, 5L), resumed.changes.stream().map(UpdateLog.Change::getSequenceNumber).toList());
+
+        // up to date
+        RecordingListener upToDate = new RecordingListener();
+        updateLog.addListener(updateLog.getLogId(), 5, upToDate);
+        assertNull(upToDate.snapshot);
+        assertEquals(0, upToDate.changes.size());
+
+        // the change after 1 is not retained anymore
+        RecordingListener tooOld = new RecordingListener();
+        updateLog.addListener(updateLog.getLogId(), 1, tooOld);
+        assertEquals(5, tooOld.snapshot.size());
+        assertEquals(5, tooOld.snapshotSequenceNumber);
+
+        // unknown sequence number, e.g. after a restart
+        RecordingListener unknown = new RecordingListener();
+        updateLog.addListener(updateLog.getLogId(), 100, unknown);
+        assertEquals(5, unknown.snapshot.size());
+
+        // sequence number of another log, e.g. before a restart
+        RecordingListener otherLog = new RecordingListener();
+        updateLog.addListener(new UpdateLog<String>().getLogId(), 4, otherLog);
+        assertEquals(5, otherLog.snapshot.size());
+        assertEquals(0, otherLog.changes.size());
+    }
+
+    @Test
+    public void testFilterAndOrder() {
+        UpdateLog<String> updateLog = new UpdateLog<>();
+        updateLog.put("1", "b1");
+        updateLog.put("2", "a1");
+        updateLog.put("3", "a2");
+
+        RecordingListener listener = new RecordingListener();
+        updateLog.addListener(null, 0, item -> item.startsWith("a"), Comparator.reverseOrder(), listener);
+        assertEquals(List.of("a2", "a1"), listener.snapshot);
+
+        updateLog.put("4", "b2");
+        updateLog.remove("2");
+        assertEquals(1, listener.changes.size());
+        assertEquals(UpdateLog.ChangeType.REMOVED, listener.changes.get(0).getType());
+        assertEquals(5, listener.changes.get(0).getSequenceNumber());
+    }
+
+    @Test
+    public void testListenersCalledOutsideLockInOrder() {
+        UpdateLog<String> updateLog = new UpdateLog<>();
+        List<Long> sequenceNumbers = new ArrayList<>();
+        updateLog.addListener(null, 0, new UpdateLog.Listener<>() {
+            @Override
+            public void onSnapshot(List<String> items, String logId, long sequenceNumber) {
+                assertFalse(Thread.holdsLock(updateLog));
+            }
+
+            @Override
+            public void onChange(UpdateLog.Change<String> change) {
+                assertFalse(Thread.holdsLock(updateLog));
+                sequenceNumbers.add(change.getSequenceNumber());
+
+                // changes made by a listener are delivered after the current change
+                if (change.getSequenceNumber() == 1) updateLog.put("2", "b");
+            }
+        });
+
+        updateLog.put("1", "a");
+        updateLog.put("3", "c");
+        assertEquals(List.of(1L, 2L, 3L), sequenceNumbers);
+    }
+
+    @Test
+    public void testFailingListenerIsRemoved() {
+        UpdateLog<String> updateLog = new UpdateLog<>();
+        RecordingListener listener = new RecordingListener();
+        updateLog.addListener(null, 0, listener);
+        List<Long> failed = new ArrayList<>();
+        updateLog.addListener(null, 0, new UpdateLog.Listener<>() {
+            @Override
+            public void onSnapshot(List<String> items, String logId, long sequenceNumber) {}
+
+            @Override
+            public void onChange(UpdateLog.Change<String> change) {
+                failed.add(change.getSequenceNumber());
+                throw new IllegalStateException("client is gone");
+            }
+        });
+
+        updateLog.put("1", "a");
+        updateLog.put("2", "b");
+        assertEquals(List.of(1L), failed);
+        assertEquals(2, listener.changes.size());
+    }
+}
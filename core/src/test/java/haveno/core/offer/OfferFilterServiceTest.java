@@ -0,0 +1,102 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.offer;
+
+import haveno.common.app.Version;
+import haveno.core.account.witness.AccountAgeWitnessService;
+import haveno.core.filter.Filter;
+import haveno.core.filter.FilterManager;
+import haveno.core.user.Preferences;
+import haveno.core.user.User;
+import javafx.beans.property.SimpleObjectProperty;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static com.natpryce.makeiteasy.MakeItEasy.make;
+import static com.natpryce.makeiteasy.MakeItEasy.with;
+import static haveno.core.offer.OfferMaker.btcUsdOffer;
+import static haveno.core.offer.OfferMaker.id;
+import static haveno.core.offer.OfferMaker.protocolVersion;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class OfferFilterServiceTest {
+    private FilterManager filterManager;
+    private SimpleObjectProperty<Filter> filterProperty;
+    private OfferBookService.OfferBookChangedListener offerBookChangedListener;
+    private OfferFilterService offerFilterService;
+
+    @BeforeEach
+    public void setUp() {
+        filterManager = mock(FilterManager.class);
+        filterProperty = new SimpleObjectProperty<>();
+        when(filterManager.filterProperty()).thenReturn(filterProperty);
+        AccountAgeWitnessService accountAgeWitnessService = mock(AccountAgeWitnessService.class);
+        when(accountAgeWitnessService.verifyPeersTradeAmount(any(), any(), any())).thenReturn(true);
+        OfferBookService offerBookService = mock(OfferBookService.class);
+        offerFilterService = new OfferFilterService(mock(User.class), null, mock(Preferences.class), filterManager,
+                accountAgeWitnessService, offerBookService);
+
+        ArgumentCaptor<OfferBookService.OfferBookChangedListener> captor = ArgumentCaptor.forClass(OfferBookService.OfferBookChangedListener.class);
+        verify(offerBookService).addOfferBookChangedListener(captor.capture());
+        offerBookChangedListener = captor.getValue();
+    }
+
+    private static Offer offer(String offerId) {
+        return make(btcUsdOffer.but(with(id, offerId), with(protocolVersion, Version.TRADE_PROTOCOL_VERSION)));
+    }
+
+    @Test
+    public void testResultIsCachedUntilFilterChanges() {
+        Offer offer = offer("1");
+        when(filterManager.isCurrencyBanned("USD")).thenReturn(true);
+        assertEquals(OfferFilterService.Result.IS_CURRENCY_BANNED, offerFilterService.canTakeOffer(offer, false));
+
+        when(filterManager.isCurrencyBanned("USD")).thenReturn(false);
+        assertEquals(OfferFilterService.Result.IS_CURRENCY_BANNED, offerFilterService.canTakeOffer(offer, false));
+        verify(filterManager, times(1)).isCurrencyBanned(anyString());
+
+        filterProperty.set(mock(Filter.class));
+        assertEquals(OfferFilterService.Result.ARBITRATOR_NOT_VALIDATED, offerFilterService.canTakeOffer(offer, false));
+    }
+
+    @Test
+    public void testResultIsInvalidatedByOfferChanges() {
+        Offer offer = offer("1");
+        when(filterManager.isOfferIdBanned("1")).thenReturn(true);
+        assertEquals(OfferFilterService.Result.IS_OFFER_BANNED, offerFilterService.canTakeOffer(offer, false));
+
+        // Other offers are not affected
+        when(filterManager.isOfferIdBanned("1")).thenReturn(false);
+        offerBookChangedListener.onRemoved(offer("2"));
+        assertEquals(OfferFilterService.Result.IS_OFFER_BANNED, offerFilterService.canTakeOffer(offer, false));
+
+        offerBookChangedListener.onRemoved(offer);
+        assertEquals(OfferFilterService.Result.ARBITRATOR_NOT_VALIDATED, offerFilterService.canTakeOffer(offer, false));
+
+        // A new instance of the offer is checked again
+        when(filterManager.isOfferIdBanned("1")).thenReturn(true);
+        assertEquals(OfferFilterService.Result.IS_OFFER_BANNED, offerFilterService.canTakeOffer(offer("1"), false));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.offer;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static com.natpryce.makeiteasy.MakeItEasy.make;
+import static com.natpryce.makeiteasy.MakeItEasy.with;
+import static haveno.core.offer.OfferMaker.baseCurrencyCode;
+import static haveno.core.offer.OfferMaker.btcUsdOffer;
+import static haveno.core.offer.OfferMaker.direction;
+import static haveno.core.offer.OfferMaker.id;
+import static haveno.core.offer.OfferMaker.reserveTxKeyImages;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OfferIndexTest {
+
+    @Test
+    public void testLookupByKeyImage() {
+        OfferIndex index = new OfferIndex();
+        Offer offer1 = make(btcUsdOffer.but(with(id, "1"), with(reserveTxKeyImages, List.of("a", "b"))));
+        Offer offer2 = make(btcUsdOffer.but(with(id, "2"), with(reserveTxKeyImages, List.of("b", "c"))));
+        Offer offer3 = make(btcUsdOffer.but(with(id, "3"), with(reserveTxKeyImages, List.of("d"))));
+        Offer offer4 = make(btcUsdOffer.but(with(id, "4")));
+        index.put(offer1);
+        index.put(offer2);
+        index.put(offer3);
+        index.put(offer4);
+
+        assertEquals(List.of(offer1, offer2), index.getOffersWithKeyImage("b"));
+        assertEquals(List.of(offer2), index.getOffersWithKeyImage("c"));
+        assertTrue(index.getOffersWithKeyImage("e").isEmpty());
+        assertEquals(List.of(offer1, offer2, offer3), index.getOffersWithSharedKeyImages(List.of("a", "c", "d")));
+        assertEquals(List.of(offer4), index.getOffersWithSharedKeyImages(List.of()));
+
+        assertEquals(offer1, index.remove("1"));
+        assertNull(index.remove("1"));
+        assertFalse(index.contains("1"));
+        assertTrue(index.getOffersWithKeyImage("a").isEmpty());
+        assertEquals(List.of(offer2), index.getOffersWithKeyImage("b"));
+        assertEquals(List.of(offer2, offer3, offer4), index.getOffers());
+    }
+
+    @Test
+    public void testReplaceOffer() {
+        OfferIndex index = new OfferIndex();
+        Offer offer = make(btcUsdOffer.but(with(id, "1"), with(reserveTxKeyImages, List.of("a"))));
+        Offer replacement = make(btcUsdOffer.but(with(id, "1"), with(reserveTxKeyImages, List.of("b"))));
+        index.put(offer);
+        index.put(replacement);
+
+        assertEquals(List.of(replacement), index.getOffers());
+        assertTrue(index.getOffersWithKeyImage("a").isEmpty());
+        assertEquals(List.of(replacement), index.getOffersWithKeyImage("b"));
+    }
+
+    @Test
+    public void testLookupByMarket() {
+        OfferIndex index = new OfferIndex();
+        Offer buyOffer = make(btcUsdOffer.but(with(id, "1"), with(direction, OfferDirection.BUY)));
+        Offer sellOffer = make(btcUsdOffer.but(with(id, "2"), with(direction, OfferDirection.SELL)));
+        Offer otherOffer = make(btcUsdOffer.but(with(id, "3"), with(baseCurrencyCode, "BTC")));
+        index.put(buyOffer);
+        index.put(sellOffer);
+        index.put(otherOffer);
+
+        assertEquals(List.of(buyOffer), index.getOffers("xmr", OfferDirection.BUY.name()));
+        assertEquals(List.of(sellOffer), index.getOffers("XMR", OfferDirection.SELL.name()));
+        assertEquals(List.of(otherOffer), index.getOffers("BTC", OfferDirection.BUY.name()));
+        assertTrue(index.getOffers("ETH", OfferDirection.BUY.name()).isEmpty());
+    }
+}
@@ -20,6 +20,9 @@ package haveno.core.offer;
 import com.natpryce.makeiteasy.Instantiator;
 import com.natpryce.makeiteasy.Maker;
 import com.natpryce.makeiteasy.Property;
+import haveno.common.crypto.PubKeyRing;
+
+import java.util.List;
 
 import static com.natpryce.makeiteasy.MakeItEasy.a;
 
@@ -34,12 +37,15 @@ public class OfferMaker {
     public static final Property<Offer, Boolean> useMarketBasedPrice = new Property<>();
     public static final Property<Offer, Double> marketPriceMargin = new Property<>();
     public static final Property<Offer, String> id = new Property<>();
+    public static final Property<Offer, List<String>> reserveTxKeyImages = new Property<>();
+    public static final Property<Offer, Integer> protocolVersion = new Property<>();
+    public static final Property<Offer, PubKeyRing> pubKeyRing = new Property<>();
 
     public static final Instantiator<Offer> Offer = lookup -> new Offer(
             new OfferPayload(lookup.valueOf(id, "1234"),
                     0L,
                     null,
-                    null,
+                    lookup.valueOf(pubKeyRing, (PubKeyRing) null),
                     lookup.valueOf(direction, OfferDirection.BUY),
                     lookup.valueOf(price, 100000L),
                     lookup.valueOf(marketPriceMargin, 0.0),
@@ -70,10 +76,10 @@ public class OfferMaker {
                     false,
                     null,
                     null,
-                    0,
-                    null,
+                    lookup.valueOf(protocolVersion, 0),
                     null,
                     null,
+                    lookup.valueOf(reserveTxKeyImages, (List<String>) null),
                     "My extra info"));
 
     public static final Maker<Offer> btcUsdOffer = a(Offer);
@@ -0,0 +1,59 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.offer;
+
+import haveno.common.crypto.Encryption;
+import haveno.common.crypto.Hash;
+import haveno.common.crypto.PubKeyRing;
+import haveno.common.crypto.Sig;
+import haveno.network.p2p.NodeAddress;
+import haveno.network.p2p.storage.P2PDataStorage;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static com.natpryce.makeiteasy.MakeItEasy.make;
+import static com.natpryce.makeiteasy.MakeItEasy.with;
+import static haveno.core.offer.OfferMaker.btcUsdOffer;
+import static haveno.core.offer.OfferMaker.pubKeyRing;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public class OfferPayloadTest {
+
+    @Test
+    public void testHashAfterChangeInPlace() {
+        PubKeyRing keyRing = new PubKeyRing(Sig.generateKeyPair().getPublic(), Encryption.generateKeyPair().getPublic());
+        OfferPayload payload = make(btcUsdOffer.but(with(pubKeyRing, keyRing))).getOfferPayload();
+
+        // hash gets cached as when the payload is added to the map of P2PDataStorage
+        P2PDataStorage.cache32ByteHash(payload, P2PDataStorage.get32ByteHashAsByteArray(payload));
+        payload.getHash();
+
+        payload.setArbitratorSigner(new NodeAddress("arbitrator.onion", 9999));
+        assertHashOfContent(payload);
+        payload.setArbitratorSignature(new byte[]{1, 2, 3});
+        assertHashOfContent(payload);
+        payload.setReserveTxKeyImages(List.of("keyImage1", "keyImage2"));
+        assertHashOfContent(payload);
+    }
+
+    private static void assertHashOfContent(OfferPayload payload) {
+        byte[] expected = Hash.getSha256Hash(payload.toProtoMessage().toByteArray());
+        assertArrayEquals(expected, P2PDataStorage.get32ByteHash(payload));
+        assertArrayEquals(expected, payload.getHash());
+    }
+}
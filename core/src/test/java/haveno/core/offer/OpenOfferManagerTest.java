@@ -76,7 +76,8 @@ public class OpenOfferManagerTest {
                 null,
                 persistenceManager,
                 signedOfferPersistenceManager,
-                null);
+                null,
+                1);
 
         AtomicBoolean startEditOfferSuccessful = new AtomicBoolean(false);
 
@@ -124,7 +125,8 @@ public class OpenOfferManagerTest {
                 null,
                 persistenceManager,
                 signedOfferPersistenceManager,
-                null);
+                null,
+                1);
 
         AtomicBoolean startEditOfferSuccessful = new AtomicBoolean(false);
 
@@ -166,7 +168,8 @@ public class OpenOfferManagerTest {
                 null,
                 persistenceManager,
                 signedOfferPersistenceManager,
-                null);
+                null,
+                1);
 
         AtomicBoolean startEditOfferSuccessful = new AtomicBoolean(false);
 
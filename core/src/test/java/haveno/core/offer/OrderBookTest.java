@@ -0,0 +1,114 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.offer;
+
+import haveno.core.provider.price.MarketPrice;
+import haveno.core.provider.price.PriceFeedService;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+import static com.natpryce.makeiteasy.MakeItEasy.make;
+import static com.natpryce.makeiteasy.MakeItEasy.with;
+import static haveno.core.offer.OfferMaker.amount;
+import static haveno.core.offer.OfferMaker.btcUsdOffer;
+import static haveno.core.offer.OfferMaker.direction;
+import static haveno.core.offer.OfferMaker.id;
+import static haveno.core.offer.OfferMaker.marketPriceMargin;
+import static haveno.core.offer.OfferMaker.price;
+import static haveno.core.offer.OfferMaker.useMarketBasedPrice;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class OrderBookTest {
+
+    private static Offer offer(String offerId, OfferDirection offerDirection, long offerPrice, long offerAmount) {
+        return make(btcUsdOffer.but(with(id, offerId),
+                with(direction, offerDirection),
+                with(price, offerPrice),
+                with(amount, offerAmount)));
+    }
+
+    private static List<Long> getPrices(List<OrderBook.PriceLevel> levels) {
+        return levels.stream().map(level -> level.getPrice().getValue()).collect(Collectors.toList());
+    }
+
+    private static List<Long> getAmounts(List<OrderBook.PriceLevel> levels) {
+        return levels.stream().map(OrderBook.PriceLevel::getAmount).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testAggregatedDepth() {
+        OrderBook orderBook = new OrderBook();
+        orderBook.add(offer("1", OfferDirection.BUY, 100, 10));
+        orderBook.add(offer("2", OfferDirection.BUY, 120, 20));
+        orderBook.add(offer("3", OfferDirection.BUY, 100, 30));
+        orderBook.add(offer("4", OfferDirection.SELL, 130, 5));
+        orderBook.add(offer("5", OfferDirection.SELL, 140, 7));
+
+        OrderBook.Depth depth = orderBook.getDepth("usd");
+        assertEquals(List.of(120L, 100L), getPrices(depth.getBuyLevels()));
+        assertEquals(List.of(20L, 60L), getAmounts(depth.getBuyLevels()));
+        assertEquals(List.of(130L, 140L), getPrices(depth.getSellLevels()));
+        assertEquals(List.of(5L, 12L), getAmounts(depth.getSellLevels()));
+        assertSame(depth, orderBook.getDepth("USD"));
+
+        orderBook.remove("3");
+        orderBook.add(offer("4", OfferDirection.SELL, 150, 5));
+        depth = orderBook.getDepth("USD");
+        assertEquals(List.of(20L, 30L), getAmounts(depth.getBuyLevels()));
+        assertEquals(List.of(140L, 150L), getPrices(depth.getSellLevels()));
+
+        orderBook.remove("1");
+        orderBook.remove("2");
+        orderBook.remove("4");
+        orderBook.remove("5");
+        assertTrue(orderBook.getDepth("USD").getBuyLevels().isEmpty());
+        assertTrue(orderBook.getDepth("USD").getSellLevels().isEmpty());
+    }
+
+    @Test
+    public void testRepriceOnMarketPriceChange() {
+        PriceFeedService priceFeedService = mock(PriceFeedService.class);
+        when(priceFeedService.getMarketPrice("USD"))
+                .thenReturn(new MarketPrice("USD", 100, Instant.now().getEpochSecond(), true));
+        Offer offer = make(btcUsdOffer.but(with(id, "1"),
+                with(direction, OfferDirection.SELL),
+                with(useMarketBasedPrice, true),
+                with(marketPriceMargin, 0.1)));
+        offer.setPriceFeedService(priceFeedService);
+
+        OrderBook orderBook = new OrderBook();
+        orderBook.add(offer);
+        assertEquals(List.of(11000000000L), getPrices(orderBook.getDepth("USD").getSellLevels()));
+
+        when(priceFeedService.getMarketPrice("USD"))
+                .thenReturn(new MarketPrice("USD", 200, Instant.now().getEpochSecond(), true));
+        assertEquals(List.of(11000000000L), getPrices(orderBook.getDepth("USD").getSellLevels()));
+        orderBook.onMarketPricesChanged();
+        assertEquals(List.of(22000000000L), getPrices(orderBook.getDepth("USD").getSellLevels()));
+
+        when(priceFeedService.getMarketPrice("USD")).thenReturn(null);
+        orderBook.onMarketPricesChanged();
+        assertTrue(orderBook.getDepth("USD").getSellLevels().isEmpty());
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.trade;
+
+import haveno.common.crypto.KeyRing;
+import haveno.common.persistence.PersistenceManager;
+import haveno.core.provider.price.PriceFeedService;
+import haveno.core.trade.statistics.TradeStatisticsManager;
+import haveno.core.user.Preferences;
+import java.util.Date;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ClosedTradableManagerTest {
+    private ClosedTradableManager closedTradableManager;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        closedTradableManager = new ClosedTradableManager(mock(KeyRing.class),
+                mock(PriceFeedService.class),
+                mock(Preferences.class),
+                mock(TradeStatisticsManager.class),
+                mock(PersistenceManager.class),
+                mock(CleanupMailboxMessagesService.class));
+    }
+
+    @Test
+    public void testTradesByIdAndDate() {
+        Trade trade3 = mockTrade("3", 3000);
+        Trade trade1 = mockTrade("1", 1000);
+        Trade trade2 = mockTrade("2", 2000);
+        closedTradableManager.add(trade3);
+        closedTradableManager.add(trade1);
+        closedTradableManager.add(trade2);
+
+        assertSame(trade1, closedTradableManager.getTradeById("1").orElseThrow());
+        assertSame(trade2, closedTradableManager.getTradableById("2").orElseThrow());
+        assertFalse(closedTradableManager.getTradeById("4").isPresent());
+
+        // insertion order for all closed trades, date order for pages
+        assertEquals(List.of(trade3, trade1, trade2), closedTradableManager.getClosedTrades());
+        assertEquals(List.of(trade1, trade2), closedTradableManager.getClosedTrades(0, 2));
+        assertEquals(List.of(trade3), closedTradableManager.getClosedTrades(2, 2));
+        assertEquals(3, closedTradableManager.getNumClosedTrades());
+
+        closedTradableManager.remove(trade1);
+        assertFalse(closedTradableManager.getTradeById("1").isPresent());
+        assertEquals(List.of(trade3, trade2), closedTradableManager.getClosedTrades());
+        assertEquals(List.of(trade2, trade3), closedTradableManager.getClosedTrades(0, 10));
+    }
+
+    @Test
+    public void testCanTradeHaveSensitiveDataCleared() {
+        closedTradableManager.add(mockTrade("1", 1000));
+        assertTrue(closedTradableManager.canTradeHaveSensitiveDataCleared("1"));
+        assertFalse(closedTradableManager.canTradeHaveSensitiveDataCleared("2"));
+    }
+
+    private static Trade mockTrade(String id, long date) {
+        Trade trade = mock(Trade.class);
+        when(trade.getId()).thenReturn(id);
+        when(trade.getDate()).thenReturn(new Date(date));
+        return trade;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.trade;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class TradePollSchedulerTest {
+
+    private static final long PERIOD_MS = 60000;
+    private static final long MAX_POLL_MS = 30000;
+
+    private static class TestWallet implements TradePollScheduler.PolledWallet {
+        private final String id;
+        private final boolean isAwaitingBlocks;
+        private final List<String> polled;
+
+        private TestWallet(String id, boolean isAwaitingBlocks, List<String> polled) {
+            this.id = id;
+            this.isAwaitingBlocks = isAwaitingBlocks;
+            this.polled = polled;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public void pollWallet() {
+            synchronized (polled) {
+                polled.add(id);
+            }
+        }
+
+        @Override
+        public boolean isAwaitingBlocks() {
+            return isAwaitingBlocks;
+        }
+    }
+
+    // polls are queued and run by the test, so the scheduler thread only dispatches
+    private final ConcurrentLinkedQueue<Runnable> queuedPolls = new ConcurrentLinkedQueue<>();
+    private final List<String> polled = new ArrayList<>();
+
+    @Test
+    public void testConcurrencyBudget() {
+        TradePollScheduler scheduler = new TradePollScheduler(2, 0, 0, 1000, MAX_POLL_MS, queuedPolls::add);
+        scheduler.register(new TestWallet("1", false, polled), PERIOD_MS);
+        scheduler.register(new TestWallet("2", false, polled), PERIOD_MS);
+        scheduler.register(new TestWallet("3", false, polled), PERIOD_MS);
+
+        assertEquals(MAX_POLL_MS, scheduler.dispatchDuePolls(System.currentTimeMillis())); // waiting for budget or overdue polls
+        assertEquals(2, queuedPolls.size());
+        assertEquals(2, scheduler.getNumPollsInProgress());
+
+        runQueuedPolls();
+        scheduler.dispatchDuePolls(System.currentTimeMillis());
+        runQueuedPolls();
+        assertEquals(List.of("1", "2", "3"), polled.stream().sorted().toList());
+
+        // next polls due after the period
+        long delayMs = scheduler.dispatchDuePolls(System.currentTimeMillis());
+        assertEquals(0, queuedPolls.size());
+        assertEquals(PERIOD_MS, delayMs, 1000);
+        assertEquals(1, scheduler.getMetrics("1").getNumPolls());
+    }
+
+    @Test
+    public void testNewBlockWakesWalletsAwaitingBlocks() {
+        TradePollScheduler scheduler = new TradePollScheduler(10, 0, 0, 0, MAX_POLL_MS, queuedPolls::add);
+        TestWallet awaitingBlocks = new TestWallet("1", true, polled);
+        TestWallet notAwaitingBlocks = new TestWallet("2", false, polled);
+        scheduler.register(awaitingBlocks, PERIOD_MS);
+        scheduler.register(notAwaitingBlocks, PERIOD_MS);
+        scheduler.dispatchDuePolls(System.currentTimeMillis());
+        runQueuedPolls();
+        polled.clear();
+
+        scheduler.onNewBlock();
+        scheduler.onNewBlock(); // coalesced with the first block
+        scheduler.dispatchDuePolls(System.currentTimeMillis());
+        runQueuedPolls();
+        assertEquals(List.of("1"), polled);
+
+        TradePollScheduler.Metrics metrics = scheduler.getMetrics("1");
+        assertEquals(2, metrics.getNumPolls());
+        assertEquals(1, metrics.getNumBlockPolls());
+        assertEquals(0, scheduler.getMetrics("2").getNumBlockPolls());
+    }
+
+    @Test
+    public void testSetPeriodAndUnregister() {
+        TradePollScheduler scheduler = new TradePollScheduler(10, 0, 0, 0, MAX_POLL_MS, queuedPolls::add);
+        TestWallet wallet = new TestWallet("1", false, polled);
+        scheduler.register(wallet, PERIOD_MS);
+        scheduler.dispatchDuePolls(System.currentTimeMillis());
+        runQueuedPolls();
+
+        // shorter period pulls the next poll forward
+        scheduler.setPeriod(wallet, 1000);
+        scheduler.dispatchDuePolls(System.currentTimeMillis() + 1000);
+        runQueuedPolls();
+        assertEquals(List.of("1", "1"), polled);
+
+        scheduler.unregister(wallet);
+        assertNull(scheduler.getMetrics("1"));
+        scheduler.dispatchDuePolls(System.currentTimeMillis() + PERIOD_MS);
+        assertEquals(0, queuedPolls.size());
+    }
+
+    @Test
+    public void testOverduePollReleasesBudget() {
+        TradePollScheduler scheduler = new TradePollScheduler(1, 0, 0, 0, MAX_POLL_MS, queuedPolls::add);
+        scheduler.register(new TestWallet("1", false, polled), PERIOD_MS);
+        scheduler.register(new TestWallet("2", false, polled), PERIOD_MS);
+        long nowMs = System.currentTimeMillis();
+        scheduler.dispatchDuePolls(nowMs);
+        assertEquals(1, queuedPolls.size());
+        Runnable hangingPoll = queuedPolls.poll();
+
+        // the other wallet is polled once the first poll is overdue
+        assertEquals(1, scheduler.dispatchDuePolls(nowMs + MAX_POLL_MS - 1));
+        assertEquals(0, queuedPolls.size());
+        scheduler.dispatchDuePolls(nowMs + MAX_POLL_MS);
+        assertEquals(1, queuedPolls.size());
+        assertEquals(1, scheduler.getNumPollsInProgress());
+
+        // the overdue poll is not repeated and does not release the budget again
+        runQueuedPolls();
+        hangingPoll.run();
+        assertEquals(0, scheduler.getNumPollsInProgress());
+        assertEquals(2, polled.size());
+    }
+
+    @Test
+    public void testSetMaxConcurrentPolls() {
+        TradePollScheduler scheduler = new TradePollScheduler(1, 0, 0, 0, MAX_POLL_MS, queuedPolls::add);
+        scheduler.register(new TestWallet("1", false, polled), PERIOD_MS);
+        scheduler.register(new TestWallet("2", false, polled), PERIOD_MS);
+        scheduler.register(new TestWallet("3", false, polled), PERIOD_MS);
+        scheduler.dispatchDuePolls(System.currentTimeMillis());
+        assertEquals(1, queuedPolls.size());
+
+        scheduler.setMaxConcurrentPolls(3);
+        scheduler.dispatchDuePolls(System.currentTimeMillis());
+        assertEquals(3, queuedPolls.size());
+        assertEquals(3, scheduler.getNumPollsInProgress());
+    }
+
+    private void runQueuedPolls() {
+        Runnable poll;
+        while ((poll = queuedPolls.poll()) != null) poll.run();
+    }
+}
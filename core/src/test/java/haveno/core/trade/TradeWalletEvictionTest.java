@@ -0,0 +1,147 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.trade;
+
+import haveno.common.crypto.PubKeyRing;
+import haveno.core.api.XmrConnectionService;
+import haveno.core.offer.Offer;
+import haveno.core.offer.OfferDirection;
+import haveno.core.trade.protocol.ProcessModel;
+import haveno.core.xmr.wallet.XmrWalletService;
+import java.math.BigInteger;
+import java.util.List;
+import monero.wallet.MoneroWallet;
+import monero.wallet.model.MoneroDestination;
+import monero.wallet.model.MoneroIncomingTransfer;
+import monero.wallet.model.MoneroOutgoingTransfer;
+import monero.wallet.model.MoneroTxConfig;
+import monero.wallet.model.MoneroTxWallet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+public class TradeWalletEvictionTest {
+    private static final String BUYER_ADDRESS = "buyerAddress";
+    private static final String SELLER_ADDRESS = "sellerAddress";
+
+    private XmrWalletService xmrWalletService;
+    private Trade trade;
+
+    @BeforeEach
+    public void setUp() {
+        xmrWalletService = mock(XmrWalletService.class);
+        when(xmrWalletService.getXmrConnectionService()).thenReturn(mock(XmrConnectionService.class));
+        when(xmrWalletService.walletExists(anyString())).thenReturn(true);
+
+        Offer offer = mock(Offer.class);
+        when(offer.getId()).thenReturn("offerId");
+        when(offer.getShortId()).thenReturn("offerId");
+        when(offer.getDirection()).thenReturn(OfferDirection.BUY);
+
+        ProcessModel processModel = new ProcessModel("offerId", "accountId", mock(PubKeyRing.class));
+        trade = spy(new BuyerAsMakerTrade(offer, BigInteger.valueOf(100), 1, xmrWalletService, processModel, "uid", null, null, null, null));
+        doReturn(true).when(trade).isIdling();
+    }
+
+    @Test
+    public void testWalletOperationsReopenEvictedWallet() {
+
+        // open and evict wallet
+        MoneroWallet evictedWallet = openAndEvictWallet();
+
+        // export multisig hex
+        MoneroWallet wallet = expectOpenWallet();
+        when(wallet.exportMultisigHex()).thenReturn("makerHex");
+        trade.exportMultisigHex();
+        assertEquals("makerHex", trade.getSelf().getUpdatedMultisigHex());
+        assertTrue(trade.closeIdleWallet());
+
+        // import multisig hex
+        wallet = expectOpenWallet();
+        doReturn(true).when(trade).isDepositsConfirmed();
+        trade.getTaker().setUpdatedMultisigHex("takerHex");
+        trade.getArbitrator().setUpdatedMultisigHex("arbitratorHex");
+        trade.importMultisigHex();
+        verify(wallet).importMultisigHex(new String[] { "takerHex", "arbitratorHex" });
+        assertTrue(trade.closeIdleWallet());
+
+        // create payout tx
+        wallet = expectOpenWallet();
+        trade.getBuyer().setPayoutAddressString(BUYER_ADDRESS);
+        trade.getBuyer().setDepositTx(newDepositTx(50));
+        trade.getSeller().setPayoutAddressString(SELLER_ADDRESS);
+        trade.getSeller().setDepositTx(newDepositTx(150));
+        MoneroTxWallet payoutTx = newPayoutTx(150, 48);
+        when(wallet.createTx(any(MoneroTxConfig.class))).thenReturn(payoutTx);
+        assertSame(payoutTx, trade.createPayoutTx());
+        assertEquals(BigInteger.valueOf(150), trade.getBuyer().getPayoutAmount());
+        assertEquals(BigInteger.valueOf(48), trade.getSeller().getPayoutAmount());
+
+        // evicted wallet is not used anymore
+        verifyNoMoreInteractions(evictedWallet);
+    }
+
+    @Test
+    public void testOpenWalletIsNotReopened() {
+        MoneroWallet wallet = expectOpenWallet();
+        assertSame(wallet, trade.getWallet());
+        trade.exportMultisigHex();
+        verify(wallet).exportMultisigHex();
+        verify(xmrWalletService).openWallet(anyString(), anyBoolean());
+        verify(xmrWalletService, never()).closeWallet(any(MoneroWallet.class), anyBoolean());
+    }
+
+    private MoneroWallet openAndEvictWallet() {
+        MoneroWallet wallet = expectOpenWallet();
+        assertSame(wallet, trade.getWallet());
+        assertTrue(trade.closeIdleWallet());
+        verify(xmrWalletService).closeWallet(wallet, true);
+        return wallet;
+    }
+
+    private MoneroWallet expectOpenWallet() {
+        MoneroWallet wallet = mock(MoneroWallet.class);
+        when(xmrWalletService.openWallet(anyString(), anyBoolean())).thenReturn(wallet);
+        return wallet;
+    }
+
+    private static MoneroTxWallet newDepositTx(long amount) {
+        return new MoneroTxWallet().setIncomingTransfers(List.of(new MoneroIncomingTransfer().setAmount(BigInteger.valueOf(amount))));
+    }
+
+    private static MoneroTxWallet newPayoutTx(long buyerAmount, long sellerAmount) {
+        MoneroTxWallet payoutTx = new MoneroTxWallet().setFee(BigInteger.valueOf(2));
+        payoutTx.setOutgoingTransfer(new MoneroOutgoingTransfer().setDestinations(List.of(
+                new MoneroDestination(BUYER_ADDRESS, BigInteger.valueOf(buyerAmount)),
+                new MoneroDestination(SELLER_ADDRESS, BigInteger.valueOf(sellerAmount)))));
+        return payoutTx;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.trade;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TradeWalletPoolTest {
+
+    private static class TestWallet implements TradeWalletPool.PooledWallet {
+        private final String id;
+        private final TradeWalletPool pool;
+        private final List<String> closed;
+        private boolean isInUse;
+
+        private TestWallet(String id, TradeWalletPool pool, List<String> closed) {
+            this.id = id;
+            this.pool = pool;
+            this.closed = closed;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public boolean closeIdleWallet() {
+            if (isInUse) return false;
+            closed.add(id);
+            pool.onClosed(this);
+            return true;
+        }
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() {
+        TradeWalletPool pool = new TradeWalletPool(2, 0, Runnable::run);
+        List<String> closed = new ArrayList<>();
+        TestWallet wallet1 = new TestWallet("1", pool, closed);
+        TestWallet wallet2 = new TestWallet("2", pool, closed);
+        TestWallet wallet3 = new TestWallet("3", pool, closed);
+
+        pool.onOpened(wallet1, 100);
+        pool.onOpened(wallet2, 300);
+        pool.onUsed(wallet1);
+        pool.onOpened(wallet3, 200);
+        assertEquals(List.of("2"), closed);
+
+        // reopened on demand
+        pool.onOpened(wallet2, 200);
+        assertEquals(List.of("2", "1"), closed);
+
+        TradeWalletPool.Metrics metrics = pool.getMetrics();
+        assertEquals(2, metrics.getNumOpen());
+        assertEquals(3, metrics.getPeakOpen());
+        assertEquals(4, metrics.getNumOpened());
+        assertEquals(2, metrics.getNumEvicted());
+        assertEquals(200, metrics.getAverageOpenTimeMs());
+        assertEquals(300, metrics.getMaxOpenTimeMs());
+    }
+
+    @Test
+    public void testSkipWalletsInUse() {
+        TradeWalletPool pool = new TradeWalletPool(1, 0, Runnable::run);
+        List<String> closed = new ArrayList<>();
+        TestWallet wallet1 = new TestWallet("1", pool, closed);
+        TestWallet wallet2 = new TestWallet("2", pool, closed);
+        TestWallet wallet3 = new TestWallet("3", pool, closed);
+        wallet1.isInUse = true;
+        wallet2.isInUse = true;
+
+        pool.onOpened(wallet1, 0);
+        pool.onOpened(wallet2, 0);
+        assertEquals(2, pool.getMetrics().getNumOpen());
+
+        pool.onOpened(wallet3, 0);
+        assertEquals(List.of("3"), closed);
+        assertEquals(2, pool.getMetrics().getNumOpen());
+    }
+
+    @Test
+    public void testKeepRecentlyUsedWallets() {
+        TradeWalletPool pool = new TradeWalletPool(1, 60000, Runnable::run);
+        List<String> closed = new ArrayList<>();
+        pool.onOpened(new TestWallet("1", pool, closed), 0);
+        pool.onOpened(new TestWallet("2", pool, closed), 0);
+        assertEquals(List.of(), closed);
+        assertEquals(2, pool.getMetrics().getNumOpen());
+    }
+
+    @Test
+    public void testEvictWalletsWhichBecameIdle() {
+        TradeWalletPool pool = new TradeWalletPool(1, 0, Runnable::run);
+        List<String> closed = new ArrayList<>();
+        TestWallet wallet1 = new TestWallet("1", pool, closed);
+        TestWallet wallet2 = new TestWallet("2", pool, closed);
+        wallet1.isInUse = true;
+        wallet2.isInUse = true;
+        pool.onOpened(wallet1, 0);
+        pool.onOpened(wallet2, 0);
+        assertEquals(2, pool.getMetrics().getNumOpen());
+
+        // checked periodically
+        wallet1.isInUse = false;
+        pool.maybeEvict();
+        assertEquals(List.of("1"), closed);
+        assertEquals(1, pool.getMetrics().getNumOpen());
+    }
+
+    @Test
+    public void testSetMaxOpen() {
+        TradeWalletPool pool = new TradeWalletPool(3, 0, Runnable::run);
+        List<String> closed = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) pool.onOpened(new TestWallet(String.valueOf(i), pool, closed), 0);
+        assertEquals(List.of(), closed);
+
+        pool.setMaxOpen(1);
+        assertEquals(List.of("1", "2"), closed);
+        assertEquals(1, pool.getMetrics().getMaxOpen());
+    }
+}
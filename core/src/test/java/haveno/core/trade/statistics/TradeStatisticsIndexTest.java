@@ -0,0 +1,136 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.trade.statistics;
+
+import haveno.core.payment.payload.PaymentMethod;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TradeStatisticsIndexTest {
+
+    private static final long AMOUNT = 1000000000000L; // 1 XMR
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    @Test
+    public void testPartitionByCurrencyAndDate() {
+        TradeStatisticsIndex index = new TradeStatisticsIndex();
+        TradeStatistics3 usd2 = tradeStatistics("USD", 1500000, AMOUNT, 2 * HOUR);
+        TradeStatistics3 usd1 = tradeStatistics("USD", 1400000, AMOUNT, HOUR);
+        TradeStatistics3 eur1 = tradeStatistics("EUR", 1300000, AMOUNT, HOUR);
+
+        assertTrue(index.add(usd2));
+        assertFalse(index.add(usd1)); // not latest
+        assertTrue(index.add(eur1));
+
+        assertEquals(3, index.size());
+        assertEquals(Set.of("EUR", "USD"), index.getCurrencies());
+        assertSame(usd2, index.getLatest("USD"));
+        assertNull(index.getLatest("CAD"));
+        assertEquals(List.of(usd1, usd2), index.getTradeStatistics("USD"));
+        assertEquals(List.of(usd1), index.getTradeStatistics("USD", HOUR, 2 * HOUR));
+        assertEquals(List.of(), index.getTradeStatistics("USD", 0, HOUR));
+    }
+
+    @Test
+    public void testCandles() {
+        TradeStatisticsIndex index = new TradeStatisticsIndex();
+        long bucket = TradeStatisticsIndex.BUCKET_MS;
+        index.add(tradeStatistics("USD", 1500000, AMOUNT, HOUR + 2 * bucket));
+        index.add(tradeStatistics("USD", 1400000, AMOUNT, HOUR));
+        index.add(tradeStatistics("USD", 1700000, 2 * AMOUNT, HOUR + bucket - 1));
+        index.add(tradeStatistics("USD", 1200000, AMOUNT, HOUR + 1));
+        index.add(tradeStatistics("USD", 1600000, AMOUNT, 2 * HOUR));
+        index.add(tradeStatistics("EUR", 1000000, AMOUNT, HOUR + bucket));
+
+        // trades are merged from buckets, empty intervals are omitted
+        List<TradeStatisticsIndex.Candle> candles = index.getCandles("USD", new long[]{0, HOUR, HOUR + 3 * bucket, 2 * HOUR, 3 * HOUR});
+        assertEquals(2, candles.size());
+        TradeStatisticsIndex.Candle candle = candles.get(0);
+        assertEquals(HOUR, candle.getStartDate());
+        assertEquals(HOUR + 3 * bucket, candle.getEndDate());
+        assertEquals(1400000, candle.getOpen());
+        assertEquals(1700000, candle.getHigh());
+        assertEquals(1200000, candle.getLow());
+        assertEquals(1500000, candle.getClose());
+        assertEquals(5 * AMOUNT, candle.getAmount());
+        assertEquals(4, candle.getNumTrades());
+        assertEquals(tradeStatistics("USD", 1400000, AMOUNT, HOUR).getTradeVolume().getValue() +
+                tradeStatistics("USD", 1700000, 2 * AMOUNT, HOUR).getTradeVolume().getValue() +
+                tradeStatistics("USD", 1200000, AMOUNT, HOUR).getTradeVolume().getValue() +
+                tradeStatistics("USD", 1500000, AMOUNT, HOUR).getTradeVolume().getValue(), candle.getVolume());
+        assertEquals(1, candles.get(1).getNumTrades());
+        assertEquals(1600000, candles.get(1).getOpen());
+
+        // boundaries are rounded down to buckets
+        candles = index.getCandles("USD", new long[]{HOUR + 1, HOUR + bucket + 1});
+        assertEquals(1, candles.size());
+        assertEquals(3, candles.get(0).getNumTrades());
+        assertEquals(1700000, candles.get(0).getClose());
+
+        // currencies are merged by date
+        candles = index.getCandles(List.of("USD", "EUR"), new long[]{HOUR, HOUR + 2 * bucket});
+        assertEquals(4, candles.get(0).getNumTrades());
+        assertEquals(1400000, candles.get(0).getOpen());
+        assertEquals(1000000, candles.get(0).getClose());
+        assertEquals(1000000, candles.get(0).getLow());
+        assertTrue(index.getCandles("CAD", new long[]{0, 3 * HOUR}).isEmpty());
+    }
+
+    @Test
+    public void testLastAndMedianPrice() {
+        TradeStatisticsIndex index = new TradeStatisticsIndex();
+        assertEquals(0, index.getLastPrice("USD"));
+        index.add(tradeStatistics("USD", 1500000, AMOUNT, 2 * HOUR));
+        index.add(tradeStatistics("USD", 1400000, AMOUNT, HOUR));
+        index.add(tradeStatistics("USD", 1200000, AMOUNT, HOUR));
+        assertEquals(1500000, index.getLastPrice("USD"));
+        index.add(tradeStatistics("USD", 1300000, AMOUNT, 2 * HOUR));
+        assertEquals(1300000, index.getLastPrice("USD")); // latest of the same date
+
+        assertEquals(1350000, index.getMedianPrice(List.of("USD"), 0, 3 * HOUR));
+        assertEquals(1300000, index.getMedianPrice(List.of("USD"), 0, HOUR + TradeStatisticsIndex.BUCKET_MS));
+        assertEquals(1400000, index.getMedianPrice(List.of("USD"), 2 * HOUR, 3 * HOUR));
+        assertEquals(0, index.getMedianPrice(List.of("EUR"), 0, 3 * HOUR));
+    }
+
+    @Test
+    public void testFindFuzzyDuplicates() {
+        long minute = TimeUnit.MINUTES.toMillis(1);
+        TradeStatistics3 trade = tradeStatistics("USD", 1500000, AMOUNT, 100 * minute);
+        TradeStatistics3 republished = tradeStatistics("USD", 1500000, AMOUNT + 1, 101 * minute); // within 2 minutes
+        TradeStatistics3 fuzzed = tradeStatistics("USD", 1500000, AMOUNT * 102 / 100, 600 * minute); // within 24 hours and 5%
+        TradeStatistics3 otherAmount = tradeStatistics("USD", 1500000, AMOUNT * 2, 600 * minute);
+        TradeStatistics3 otherPrice = tradeStatistics("USD", 1500001, AMOUNT, 100 * minute);
+        TradeStatistics3 later = tradeStatistics("USD", 1500000, AMOUNT, 3000 * minute);
+
+        Set<TradeStatistics3> duplicates = TradeStatisticsManager.findFuzzyDuplicates(List.of(later, otherPrice, otherAmount, fuzzed, republished, trade));
+        assertEquals(Set.of(republished, fuzzed), duplicates);
+    }
+
+    private static TradeStatistics3 tradeStatistics(String currency, long price, long amount, long date) {
+        return new TradeStatistics3(currency, price, amount, PaymentMethod.BLOCK_CHAINS_ID, date, null, null, null);
+    }
+}
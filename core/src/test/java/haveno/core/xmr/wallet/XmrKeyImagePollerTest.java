@@ -0,0 +1,127 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.xmr.wallet;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import monero.daemon.MoneroDaemon;
+import monero.daemon.model.MoneroKeyImageSpentStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class XmrKeyImagePollerTest {
+    private MoneroDaemon daemon;
+    private XmrKeyImagePoller poller;
+
+    @BeforeEach
+    public void setUp() {
+        daemon = mock(MoneroDaemon.class);
+        when(daemon.getKeyImageSpentStatuses(any())).thenAnswer(invocation -> {
+            Collection<String> keyImages = invocation.getArgument(0);
+            return keyImages.stream()
+                    .map(keyImage -> keyImage.equals("spent") ? MoneroKeyImageSpentStatus.CONFIRMED : MoneroKeyImageSpentStatus.NOT_SPENT)
+                    .collect(Collectors.toList());
+        });
+        poller = new XmrKeyImagePoller(daemon, 60000);
+        poller.setChainHeight(100);
+    }
+
+    @Test
+    public void testKeyImagesSharedByGroupsArePolledOnce() {
+        poller.addKeyImages(List.of("unspent", "spent"), "offer");
+        poller.addKeyImage("spent", "trade");
+        poller.poll();
+
+        verify(daemon).getKeyImageSpentStatuses(List.of("unspent", "spent"));
+        assertFalse(poller.isSpent("unspent"));
+        assertTrue(poller.isSpent("spent"));
+        assertEquals(1, poller.getMetrics().getNumRequests());
+        assertEquals(2, poller.getMetrics().getNumMisses());
+
+        poller.removeKeyImages("offer");
+        assertNull(poller.getLastSpentStatus("unspent"));
+        assertEquals(MoneroKeyImageSpentStatus.CONFIRMED, poller.getLastSpentStatus("spent"));
+        assertEquals(1, poller.getMetrics().getNumKeyImages());
+    }
+
+    @Test
+    public void testStatusesAreValidUntilNextBlock() {
+        poller.addKeyImages(List.of("unspent", "spent"), "offer");
+        poller.poll();
+        clearInvocations(daemon);
+
+        poller.poll();
+        verify(daemon, never()).getKeyImageSpentStatuses(any());
+        assertEquals(2, poller.getMetrics().getNumHits());
+
+        poller.setChainHeight(101);
+        poller.poll();
+        verify(daemon).getKeyImageSpentStatuses(List.of("unspent", "spent"));
+    }
+
+    @Test
+    public void testUnspentStatusesAreNotRepolledWithoutNewBlock() throws InterruptedException {
+        poller.setRefreshPeriodMs(1);
+        poller.addKeyImages(List.of("unspent", "spent"), "offer");
+        poller.poll();
+        clearInvocations(daemon);
+
+        // unchanged statuses do not expire with the refresh period
+        Thread.sleep(10);
+        poller.refreshTxPool();
+        poller.poll();
+        verify(daemon, never()).getKeyImageSpentStatuses(any());
+    }
+
+    @Test
+    public void testTxPoolStatusesAreRefreshedWithTxPool() {
+        when(daemon.getKeyImageSpentStatuses(any())).thenAnswer(invocation -> {
+            Collection<String> keyImages = invocation.getArgument(0);
+            return keyImages.stream()
+                    .map(keyImage -> keyImage.equals("pool") ? MoneroKeyImageSpentStatus.TX_POOL : MoneroKeyImageSpentStatus.NOT_SPENT)
+                    .collect(Collectors.toList());
+        });
+        poller.addKeyImages(List.of("unspent", "pool"), "offer");
+        poller.poll();
+        assertTrue(poller.isSpent("pool"));
+        clearInvocations(daemon);
+
+        poller.poll();
+        verify(daemon, never()).getKeyImageSpentStatuses(any());
+
+        // only key images spent in the tx pool are polled again
+        poller.refreshTxPool();
+        poller.poll();
+        verify(daemon).getKeyImageSpentStatuses(List.of("pool"));
+        clearInvocations(daemon);
+        poller.poll();
+        verify(daemon, never()).getKeyImageSpentStatuses(any());
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.xmr.wallet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class XmrRequestSchedulerTest {
+    private static final String DAEMON_URI = "http://127.0.0.1:38081";
+
+    @Test
+    public void testPriorityOrder() throws Exception {
+        XmrRequestScheduler scheduler = new XmrRequestScheduler(1);
+        List<XmrRequestScheduler.Priority> order = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+
+        XmrRequestScheduler.Permit permit = scheduler.acquire(DAEMON_URI, XmrRequestScheduler.Priority.POLL);
+        for (XmrRequestScheduler.Priority priority : List.of(XmrRequestScheduler.Priority.POLL,
+                XmrRequestScheduler.Priority.DEPOSIT,
+                XmrRequestScheduler.Priority.PAYOUT)) {
+            Thread thread = new Thread(() -> {
+                try (XmrRequestScheduler.Permit ignored = scheduler.acquire(DAEMON_URI, priority)) {
+                    order.add(priority);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+            awaitQueueDepth(scheduler, threads.size());
+        }
+        assertEquals(3, scheduler.getMetrics(DAEMON_URI).getQueueDepth());
+        permit.close();
+        for (Thread thread : threads) thread.join();
+
+        assertEquals(List.of(XmrRequestScheduler.Priority.PAYOUT,
+                XmrRequestScheduler.Priority.DEPOSIT,
+                XmrRequestScheduler.Priority.POLL), order);
+        XmrRequestScheduler.Metrics metrics = scheduler.getMetrics(DAEMON_URI);
+        assertEquals(0, metrics.getNumRunning());
+        assertEquals(0, metrics.getQueueDepth());
+        assertEquals(3, metrics.getMaxQueueDepth());
+        assertEquals(4, metrics.getNumRequests());
+    }
+
+    @Test
+    public void testConcurrencyLimitPerDaemon() throws Exception {
+        XmrRequestScheduler scheduler = new XmrRequestScheduler(2);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> holders = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Thread holder = new Thread(() -> {
+                try (XmrRequestScheduler.Permit ignored = scheduler.acquire(DAEMON_URI, XmrRequestScheduler.Priority.DEPOSIT)) {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            holder.start();
+            holders.add(holder);
+        }
+        long deadline = System.currentTimeMillis() + 10000;
+        while (scheduler.getMetrics(DAEMON_URI).getNumRunning() < 2) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timeout waiting for running requests");
+            Thread.sleep(5);
+        }
+
+        // other daemons are not affected
+        scheduler.acquire("http://127.0.0.1:18081", XmrRequestScheduler.Priority.POLL).close();
+
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            try (XmrRequestScheduler.Permit ignored = scheduler.acquire(DAEMON_URI, XmrRequestScheduler.Priority.PAYOUT)) {
+                acquired.countDown();
+            }
+        });
+        thread.start();
+        awaitQueueDepth(scheduler, 1);
+        assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+
+        release.countDown();
+        assertTrue(acquired.await(10, TimeUnit.SECONDS));
+        thread.join();
+        for (Thread holder : holders) holder.join();
+        assertEquals(0, scheduler.getMetrics(DAEMON_URI).getNumRunning());
+    }
+
+    @Test
+    public void testPollCannotTakeUrgentPermit() throws Exception {
+        XmrRequestScheduler scheduler = new XmrRequestScheduler(2);
+        XmrRequestScheduler.Permit poll = scheduler.acquire(DAEMON_URI, XmrRequestScheduler.Priority.POLL);
+
+        CountDownLatch polled = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            try (XmrRequestScheduler.Permit ignored = scheduler.acquire(DAEMON_URI, XmrRequestScheduler.Priority.POLL)) {
+                polled.countDown();
+            }
+        });
+        thread.start();
+        awaitQueueDepth(scheduler, 1);
+        assertFalse(polled.await(100, TimeUnit.MILLISECONDS));
+
+        // the last permit is kept for payout and deposit requests
+        CompletableFuture<Integer> numRunning = CompletableFuture.supplyAsync(() -> {
+            try (XmrRequestScheduler.Permit ignored = scheduler.acquire(DAEMON_URI, XmrRequestScheduler.Priority.PAYOUT)) {
+                return scheduler.getMetrics(DAEMON_URI).getNumRunning();
+            }
+        });
+        assertEquals(2, numRunning.get(10, TimeUnit.SECONDS));
+        assertFalse(polled.await(100, TimeUnit.MILLISECONDS));
+
+        poll.close();
+        assertTrue(polled.await(10, TimeUnit.SECONDS));
+        thread.join();
+    }
+
+    @Test
+    public void testSetMaxConcurrentRequests() throws Exception {
+        XmrRequestScheduler scheduler = new XmrRequestScheduler(1);
+        XmrRequestScheduler.Permit permit = scheduler.acquire(DAEMON_URI, XmrRequestScheduler.Priority.POLL);
+
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            try (XmrRequestScheduler.Permit ignored = scheduler.acquire(DAEMON_URI, XmrRequestScheduler.Priority.POLL)) {
+                acquired.countDown();
+            }
+        });
+        thread.start();
+        awaitQueueDepth(scheduler, 1);
+        assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+
+        scheduler.setMaxConcurrentRequests(3);
+        assertTrue(acquired.await(10, TimeUnit.SECONDS));
+        thread.join();
+        permit.close();
+    }
+
+    @Test
+    public void testCloseTwice() {
+        XmrRequestScheduler scheduler = new XmrRequestScheduler(1);
+        XmrRequestScheduler.Permit permit = scheduler.acquire(DAEMON_URI, XmrRequestScheduler.Priority.POLL);
+        permit.close();
+        permit.close();
+        assertEquals(0, scheduler.getMetrics(DAEMON_URI).getNumRunning());
+    }
+
+    @Test
+    public void testNestedPermits() {
+        XmrRequestScheduler scheduler = new XmrRequestScheduler(1);
+        try (XmrRequestScheduler.Permit outer = scheduler.acquire(DAEMON_URI, XmrRequestScheduler.Priority.PAYOUT)) {
+            try (XmrRequestScheduler.Permit inner = scheduler.acquire(DAEMON_URI, XmrRequestScheduler.Priority.POLL)) {
+                assertEquals(1, scheduler.getMetrics(DAEMON_URI).getNumRunning());
+            }
+            assertEquals(1, scheduler.getMetrics(DAEMON_URI).getNumRunning());
+        }
+        assertEquals(0, scheduler.getMetrics(DAEMON_URI).getNumRunning());
+    }
+
+    @Test
+    public void testReserveAndPollUnderWalletLock() throws Exception {
+        XmrRequestScheduler scheduler = new XmrRequestScheduler(4);
+        Object walletLock = new Object();
+        int numReserveThreads = 6;
+        int numTradeThreads = 4;
+        CountDownLatch done = new CountDownLatch(numReserveThreads + numTradeThreads + 1);
+        List<Thread> threads = new ArrayList<>();
+
+        // protocol tasks take the wallet lock, then create the reserve tx which takes a permit inside the wallet lock
+        for (int i = 0; i < numReserveThreads; i++) {
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 50; j++) {
+                    synchronized (walletLock) {
+                        synchronized (walletLock) {
+                            try (XmrRequestScheduler.Permit ignored = scheduler.acquire(DAEMON_URI, XmrRequestScheduler.Priority.DEPOSIT)) {
+                                Thread.yield();
+                            }
+                        }
+                    }
+                }
+                done.countDown();
+            }));
+        }
+
+        // trade wallets hold permits under their own locks
+        for (int i = 0; i < numTradeThreads; i++) {
+            Object tradeWalletLock = new Object();
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 50; j++) {
+                    synchronized (tradeWalletLock) {
+                        try (XmrRequestScheduler.Permit ignored = scheduler.acquire(DAEMON_URI, XmrRequestScheduler.Priority.PAYOUT)) {
+                            Thread.sleep(1);
+                        } catch (InterruptedException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                }
+                done.countDown();
+            }));
+        }
+
+        // the main wallet's poller waits for a permit while holding the wallet lock
+        threads.add(new Thread(() -> {
+            for (int j = 0; j < 50; j++) {
+                synchronized (walletLock) {
+                    try (XmrRequestScheduler.Permit ignored = scheduler.acquire(DAEMON_URI, XmrRequestScheduler.Priority.POLL)) {
+                        Thread.yield();
+                    }
+                }
+            }
+            done.countDown();
+        }));
+
+        threads.forEach(thread -> {
+            thread.setDaemon(true);
+            thread.start();
+        });
+        assertTrue(done.await(30, TimeUnit.SECONDS), "Deadlock between wallet lock and daemon permits");
+        for (Thread thread : threads) thread.join();
+        assertEquals(0, scheduler.getMetrics(DAEMON_URI).getNumRunning());
+    }
+
+    private static void awaitQueueDepth(XmrRequestScheduler scheduler, int queueDepth) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (scheduler.getMetrics(DAEMON_URI).getQueueDepth() < queueDepth) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timeout waiting for queue depth " + queueDepth);
+            Thread.sleep(5);
+        }
+    }
+}
@@ -3,13 +3,18 @@ package haveno.daemon.grpc;
 import com.google.inject.Inject;
 import haveno.core.api.CoreApi;
 import haveno.core.trade.statistics.TradeStatistics3;
+import haveno.core.trade.statistics.TradeStatisticsIndex;
 import haveno.daemon.grpc.interceptor.CallRateMeteringInterceptor;
 import haveno.daemon.grpc.interceptor.GrpcCallRateMeter;
 import static haveno.daemon.grpc.interceptor.GrpcServiceRateMeteringConfig.getCustomRateMeteringInterceptor;
 import static haveno.proto.grpc.GetTradeStatisticsGrpc.GetTradeStatisticsImplBase;
+import static haveno.proto.grpc.GetTradeStatisticsGrpc.getGetTradeStatisticsCandlesMethod;
 import static haveno.proto.grpc.GetTradeStatisticsGrpc.getGetTradeStatisticsMethod;
+import haveno.proto.grpc.GetTradeStatisticsCandlesReply;
+import haveno.proto.grpc.GetTradeStatisticsCandlesRequest;
 import haveno.proto.grpc.GetTradeStatisticsReply;
 import haveno.proto.grpc.GetTradeStatisticsRequest;
+import haveno.proto.grpc.TradeStatisticsCandle;
 import io.grpc.ServerInterceptor;
 import io.grpc.stub.StreamObserver;
 import java.util.HashMap;
@@ -46,6 +51,39 @@ class GrpcGetTradeStatisticsService extends GetTradeStatisticsImplBase {
         }
     }
 
+    @Override
+    public void getTradeStatisticsCandles(GetTradeStatisticsCandlesRequest req,
+                                          StreamObserver<GetTradeStatisticsCandlesReply> responseObserver) {
+        try {
+            var candles = coreApi.getTradeStatisticsCandles(req.getCurrencyCode(), req.getStartDate(), req.getEndDate(), req.getInterval()).stream()
+                    .map(GrpcGetTradeStatisticsService::toProtoCandle)
+                    .collect(Collectors.toList());
+
+            var reply = GetTradeStatisticsCandlesReply.newBuilder()
+                    .addAllCandles(candles)
+                    .setLastPrice(coreApi.getTradeStatisticsLastPrice(req.getCurrencyCode()))
+                    .build();
+            responseObserver.onNext(reply);
+            responseObserver.onCompleted();
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
+    private static TradeStatisticsCandle toProtoCandle(TradeStatisticsIndex.Candle candle) {
+        return TradeStatisticsCandle.newBuilder()
+                .setStartDate(candle.getStartDate())
+                .setEndDate(candle.getEndDate())
+                .setOpen(candle.getOpen())
+                .setHigh(candle.getHigh())
+                .setLow(candle.getLow())
+                .setClose(candle.getClose())
+                .setAmount(candle.getAmount())
+                .setVolume(candle.getVolume())
+                .setNumTrades(candle.getNumTrades())
+                .build();
+    }
+
     final ServerInterceptor[] interceptors() {
         Optional<ServerInterceptor> rateMeteringInterceptor = rateMeteringInterceptor();
         return rateMeteringInterceptor.map(serverInterceptor ->
@@ -57,6 +95,7 @@ class GrpcGetTradeStatisticsService extends GetTradeStatisticsImplBase {
                 .or(() -> Optional.of(CallRateMeteringInterceptor.valueOf(
                         new HashMap<>() {{
                             put(getGetTradeStatisticsMethod().getFullMethodName(), new GrpcCallRateMeter(1, SECONDS));
+                            put(getGetTradeStatisticsCandlesMethod().getFullMethodName(), new GrpcCallRateMeter(10, SECONDS));
                         }}
                 )));
     }
@@ -20,9 +20,11 @@ package haveno.daemon.grpc;
 import com.google.inject.Inject;
 import haveno.common.config.Config;
 import haveno.core.api.CoreApi;
+import haveno.core.api.UpdateLog;
 import haveno.core.api.model.OfferInfo;
 import haveno.core.offer.Offer;
 import haveno.core.offer.OpenOffer;
+import haveno.core.offer.RepublishOffersProgress;
 import haveno.daemon.grpc.interceptor.CallRateMeteringInterceptor;
 import haveno.daemon.grpc.interceptor.GrpcCallRateMeter;
 import static haveno.daemon.grpc.interceptor.GrpcServiceRateMeteringConfig.getCustomRateMeteringInterceptor;
@@ -36,15 +38,24 @@ import haveno.proto.grpc.GetOfferReply;
 import haveno.proto.grpc.GetOfferRequest;
 import haveno.proto.grpc.GetOffersReply;
 import haveno.proto.grpc.GetOffersRequest;
+import haveno.proto.grpc.GetRepublishOffersProgressReply;
+import haveno.proto.grpc.GetRepublishOffersProgressRequest;
 import static haveno.proto.grpc.OffersGrpc.OffersImplBase;
 import static haveno.proto.grpc.OffersGrpc.getCancelOfferMethod;
 import static haveno.proto.grpc.OffersGrpc.getGetMyOfferMethod;
 import static haveno.proto.grpc.OffersGrpc.getGetMyOffersMethod;
 import static haveno.proto.grpc.OffersGrpc.getGetOfferMethod;
 import static haveno.proto.grpc.OffersGrpc.getGetOffersMethod;
+import static haveno.proto.grpc.OffersGrpc.getGetRepublishOffersProgressMethod;
 import static haveno.proto.grpc.OffersGrpc.getPostOfferMethod;
+import static haveno.proto.grpc.OffersGrpc.getStreamMyOffersMethod;
+import static haveno.proto.grpc.OffersGrpc.getStreamOffersMethod;
+import haveno.proto.grpc.OffersUpdate;
 import haveno.proto.grpc.PostOfferReply;
 import haveno.proto.grpc.PostOfferRequest;
+import haveno.proto.grpc.StreamMyOffersRequest;
+import haveno.proto.grpc.StreamOffersRequest;
+import io.grpc.Context;
 import io.grpc.ServerInterceptor;
 import io.grpc.stub.StreamObserver;
 import java.util.ArrayList;
@@ -194,6 +205,75 @@ class GrpcOffersService extends OffersImplBase {
         }
     }
 
+    @Override
+    public void getRepublishOffersProgress(GetRepublishOffersProgressRequest req,
+                                           StreamObserver<GetRepublishOffersProgressReply> responseObserver) {
+        try {
+            RepublishOffersProgress progress = coreApi.getRepublishOffersProgress();
+            var reply = GetRepublishOffersProgressReply.newBuilder()
+                    .setNumOffers(progress.getNumOffers())
+                    .setNumPublished(progress.getNumPublished())
+                    .setNumSkipped(progress.getNumSkipped())
+                    .setNumFailed(progress.getNumFailed())
+                    .setIsRunning(progress.isRunning())
+                    .build();
+            responseObserver.onNext(reply);
+            responseObserver.onCompleted();
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
+    @Override
+    public void streamOffers(StreamOffersRequest req,
+                             StreamObserver<OffersUpdate> responseObserver) {
+        Context ctx = Context.current().fork(); // context is independent for long-lived request
+        ctx.run(() -> {
+            try {
+                GrpcUpdateStream.<Offer, OffersUpdate>start(responseObserver,
+                        listener -> coreApi.streamOffers(req.getDirection(), req.getCurrencyCode(), req.getFromLogId(), req.getFromSequenceNumber(), listener),
+                        (offers, logId, sequenceNumber) -> toOffersSnapshot(offers.stream().map(OfferInfo::toOfferInfo).collect(Collectors.toList()), logId, sequenceNumber),
+                        change -> toOffersUpdate(change, OfferInfo.toOfferInfo(change.getItem())));
+            } catch (Throwable cause) {
+                exceptionHandler.handleException(log, cause, responseObserver);
+            }
+        });
+    }
+
+    @Override
+    public void streamMyOffers(StreamMyOffersRequest req,
+                               StreamObserver<OffersUpdate> responseObserver) {
+        Context ctx = Context.current().fork(); // context is independent for long-lived request
+        ctx.run(() -> {
+            try {
+                GrpcUpdateStream.<OpenOffer, OffersUpdate>start(responseObserver,
+                        listener -> coreApi.streamMyOffers(req.getDirection(), req.getCurrencyCode(), req.getFromLogId(), req.getFromSequenceNumber(), listener),
+                        (openOffers, logId, sequenceNumber) -> toOffersSnapshot(openOffers.stream().map(OfferInfo::toMyOfferInfo).collect(Collectors.toList()), logId, sequenceNumber),
+                        change -> toOffersUpdate(change, OfferInfo.toMyOfferInfo(change.getItem())));
+            } catch (Throwable cause) {
+                exceptionHandler.handleException(log, cause, responseObserver);
+            }
+        });
+    }
+
+    private static OffersUpdate toOffersSnapshot(List<OfferInfo> offers, String logId, long sequenceNumber) {
+        return OffersUpdate.newBuilder()
+                .setType(OffersUpdate.UpdateType.SNAPSHOT)
+                .setLogId(logId)
+                .setSequenceNumber(sequenceNumber)
+                .addAllOffers(offers.stream().map(OfferInfo::toProtoMessage).collect(Collectors.toList()))
+                .build();
+    }
+
+    private static OffersUpdate toOffersUpdate(UpdateLog.Change<?> change, OfferInfo offer) {
+        return OffersUpdate.newBuilder()
+                .setType(OffersUpdate.UpdateType.valueOf(change.getType().name()))
+                .setSequenceNumber(change.getSequenceNumber())
+                .addOffers(offer.toProtoMessage())
+                .setOfferId(change.getId())
+                .build();
+    }
+
     final ServerInterceptor[] interceptors() {
         Optional<ServerInterceptor> rateMeteringInterceptor = rateMeteringInterceptor();
         return rateMeteringInterceptor.map(serverInterceptor ->
@@ -210,6 +290,9 @@ class GrpcOffersService extends OffersImplBase {
                             put(getGetMyOffersMethod().getFullMethodName(), new GrpcCallRateMeter(Config.baseCurrencyNetwork().isTestnet() ? 75 : 3, Config.baseCurrencyNetwork().isTestnet() ? SECONDS : MINUTES));
                             put(getPostOfferMethod().getFullMethodName(), new GrpcCallRateMeter(Config.baseCurrencyNetwork().isTestnet() ? 75 : 3, Config.baseCurrencyNetwork().isTestnet() ? SECONDS : MINUTES));
                             put(getCancelOfferMethod().getFullMethodName(), new GrpcCallRateMeter(Config.baseCurrencyNetwork().isTestnet() ? 75 : 3, Config.baseCurrencyNetwork().isTestnet() ? SECONDS : MINUTES));
+                            put(getGetRepublishOffersProgressMethod().getFullMethodName(), new GrpcCallRateMeter(Config.baseCurrencyNetwork().isTestnet() ? 75 : 3, SECONDS));
+                            put(getStreamOffersMethod().getFullMethodName(), new GrpcCallRateMeter(10, SECONDS));
+                            put(getStreamMyOffersMethod().getFullMethodName(), new GrpcCallRateMeter(10, SECONDS));
                         }}
                 )));
     }
@@ -37,6 +37,7 @@ package haveno.daemon.grpc;
 import com.google.inject.Inject;
 import haveno.common.config.Config;
 import haveno.core.api.CoreApi;
+import haveno.core.api.UpdateLog;
 import haveno.core.api.model.TradeInfo;
 import static haveno.core.api.model.TradeInfo.toTradeInfo;
 import haveno.core.trade.Trade;
@@ -57,9 +58,11 @@ import haveno.proto.grpc.GetTradesReply;
 import haveno.proto.grpc.GetTradesRequest;
 import haveno.proto.grpc.SendChatMessageReply;
 import haveno.proto.grpc.SendChatMessageRequest;
+import haveno.proto.grpc.StreamTradesRequest;
 import haveno.proto.grpc.TakeOfferReply;
 import haveno.proto.grpc.TakeOfferRequest;
 import haveno.proto.grpc.TradesGrpc.TradesImplBase;
+import haveno.proto.grpc.TradesUpdate;
 import static haveno.proto.grpc.TradesGrpc.getCompleteTradeMethod;
 import static haveno.proto.grpc.TradesGrpc.getConfirmPaymentReceivedMethod;
 import static haveno.proto.grpc.TradesGrpc.getConfirmPaymentSentMethod;
@@ -67,8 +70,10 @@ import static haveno.proto.grpc.TradesGrpc.getGetChatMessagesMethod;
 import static haveno.proto.grpc.TradesGrpc.getGetTradeMethod;
 import static haveno.proto.grpc.TradesGrpc.getGetTradesMethod;
 import static haveno.proto.grpc.TradesGrpc.getSendChatMessageMethod;
+import static haveno.proto.grpc.TradesGrpc.getStreamTradesMethod;
 import static haveno.proto.grpc.TradesGrpc.getTakeOfferMethod;
 import static haveno.proto.grpc.TradesGrpc.getWithdrawFundsMethod;
+import io.grpc.Context;
 import io.grpc.ServerInterceptor;
 import io.grpc.stub.StreamObserver;
 import java.util.HashMap;
@@ -115,15 +120,15 @@ class GrpcTradesService extends TradesImplBase {
     public void getTrades(GetTradesRequest req,
                          StreamObserver<GetTradesReply> responseObserver) {
         try {
-            List<TradeInfo> trades = coreApi.getTrades()
+            List<TradeInfo> trades = (req.getLimit() == 0 ? coreApi.getTrades() : coreApi.getTrades(req.getOffset(), req.getLimit()))
                     .stream().map(TradeInfo::toTradeInfo)
                     .collect(Collectors.toList());
             var reply = GetTradesReply.newBuilder()
                     .addAllTrades(trades.stream()
                             .map(TradeInfo::toProtoMessage)
-                            .collect(Collectors.toList()))
-                    .build();
-            responseObserver.onNext(reply);
+                            .collect(Collectors.toList()));
+            if (req.getLimit() != 0) reply.setTotalCount(coreApi.getNumTrades());
+            responseObserver.onNext(reply.build());
             responseObserver.onCompleted();
         } catch (Throwable cause) {
             exceptionHandler.handleException(log, cause, responseObserver);
@@ -241,6 +246,42 @@ class GrpcTradesService extends TradesImplBase {
         }
     }
 
+    @Override
+    public void streamTrades(StreamTradesRequest req,
+                             StreamObserver<TradesUpdate> responseObserver) {
+        Context ctx = Context.current().fork(); // context is independent for long-lived request
+        ctx.run(() -> {
+            try {
+                GrpcUpdateStream.<Trade, TradesUpdate>start(responseObserver,
+                        listener -> coreApi.streamTrades(req.getFromLogId(), req.getFromSequenceNumber(), listener),
+                        this::toTradesSnapshot,
+                        this::toTradesUpdate);
+            } catch (Throwable cause) {
+                exceptionHandler.handleException(log, cause, responseObserver);
+            }
+        });
+    }
+
+    private TradesUpdate toTradesSnapshot(List<Trade> trades, String logId, long sequenceNumber) {
+        return TradesUpdate.newBuilder()
+                .setType(TradesUpdate.UpdateType.SNAPSHOT)
+                .setLogId(logId)
+                .setSequenceNumber(sequenceNumber)
+                .addAllTrades(trades.stream()
+                        .map(trade -> toTradeInfo(trade).toProtoMessage())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    private TradesUpdate toTradesUpdate(UpdateLog.Change<Trade> change) {
+        return TradesUpdate.newBuilder()
+                .setType(TradesUpdate.UpdateType.valueOf(change.getType().name()))
+                .setSequenceNumber(change.getSequenceNumber())
+                .addTrades(toTradeInfo(change.getItem()).toProtoMessage())
+                .setTradeId(change.getId())
+                .build();
+    }
+
     final ServerInterceptor[] interceptors() {
         Optional<ServerInterceptor> rateMeteringInterceptor = rateMeteringInterceptor();
         return rateMeteringInterceptor.map(serverInterceptor ->
@@ -260,6 +301,7 @@ class GrpcTradesService extends TradesImplBase {
                             put(getWithdrawFundsMethod().getFullMethodName(), new GrpcCallRateMeter(3, MINUTES));
                             put(getGetChatMessagesMethod().getFullMethodName(), new GrpcCallRateMeter(Config.baseCurrencyNetwork().isTestnet() ? 75 : 4, Config.baseCurrencyNetwork().isTestnet() ? SECONDS : MINUTES));
                             put(getSendChatMessageMethod().getFullMethodName(), new GrpcCallRateMeter(Config.baseCurrencyNetwork().isTestnet() ? 75 : 4, Config.baseCurrencyNetwork().isTestnet() ? SECONDS : MINUTES));
+                            put(getStreamTradesMethod().getFullMethodName(), new GrpcCallRateMeter(10, SECONDS));
                         }}
                 )));
     }
@@ -0,0 +1,121 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.daemon.grpc;
+
+import haveno.core.api.UpdateLog;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+
+import static io.grpc.Status.RESOURCE_EXHAUSTED;
+
+/**
+ * Streams the changes of an UpdateLog to a gRPC client until the client cancels the call.
+ *
+ * Replies are queued while the client is not ready to receive them. If the client does not keep up, the stream is
+ * closed with RESOURCE_EXHAUSTED, so the client resumes the stream from the last update it received.
+ */
+@Slf4j
+class GrpcUpdateStream<T, R> {
+
+    static final int MAX_QUEUED_REPLIES = 1000;
+
+    interface SnapshotReplyFactory<T, R> {
+        R toReply(List<T> items, String logId, long sequenceNumber);
+    }
+
+    private final ServerCallStreamObserver<R> responseObserver;
+    private final Deque<R> queuedReplies = new ArrayDeque<>();
+    private UpdateLog.Subscription subscription;
+    private boolean isClosed;
+
+    /**
+     * @param responseObserver - observer of the server streaming call
+     * @param subscribe - adds the listener to the update log
+     * @param toSnapshotReply - converts the items, log id and sequence number of a snapshot to a reply
+     * @param toChangeReply - converts a change to a reply
+     */
+    static <T, R> void start(StreamObserver<R> responseObserver,
+                             Function<UpdateLog.Listener<T>, UpdateLog.Subscription> subscribe,
+                             SnapshotReplyFactory<T, R> toSnapshotReply,
+                             Function<UpdateLog.Change<T>, R> toChangeReply) {
+        GrpcUpdateStream<T, R> stream = new GrpcUpdateStream<>((ServerCallStreamObserver<R>) responseObserver);
+        UpdateLog.Subscription subscription = subscribe.apply(new UpdateLog.Listener<>() {
+            @Override
+            public void onSnapshot(List<T> items, String logId, long sequenceNumber) {
+                stream.send(toSnapshotReply.toReply(items, logId, sequenceNumber));
+            }
+
+            @Override
+            public void onChange(UpdateLog.Change<T> change) {
+                stream.send(toChangeReply.apply(change));
+            }
+        });
+        stream.setSubscription(subscription);
+
+        // No onCompleted, as the response observer should be kept open
+    }
+
+    private GrpcUpdateStream(ServerCallStreamObserver<R> responseObserver) {
+        this.responseObserver = responseObserver;
+        responseObserver.setOnCancelHandler(this::close);
+        responseObserver.setOnReadyHandler(this::sendQueuedReplies);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private synchronized void setSubscription(UpdateLog.Subscription subscription) {
+        this.subscription = subscription;
+
+        // closed before the listener was added
+        if (isClosed) subscription.cancel();
+    }
+
+    private synchronized void send(R reply) {
+        if (isClosed) return;
+        if (queuedReplies.size() >= MAX_QUEUED_REPLIES) {
+            log.warn("Closing update stream as the client does not keep up with {} queued replies", queuedReplies.size());
+            close();
+            responseObserver.onError(RESOURCE_EXHAUSTED
+                    .withDescription("client does not keep up with the updates, resume the stream from the last update")
+                    .asRuntimeException());
+            return;
+        }
+        queuedReplies.addLast(reply);
+        sendQueuedReplies();
+    }
+
+    private synchronized void sendQueuedReplies() {
+        while (!isClosed && !queuedReplies.isEmpty() && responseObserver.isReady()) {
+            responseObserver.onNext(queuedReplies.pollFirst());
+        }
+    }
+
+    private synchronized void close() {
+        isClosed = true;
+        queuedReplies.clear();
+        if (subscription != null) subscription.cancel();
+    }
+}
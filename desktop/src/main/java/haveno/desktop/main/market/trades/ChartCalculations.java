@@ -23,26 +23,23 @@ import haveno.core.locale.CurrencyUtil;
 import haveno.core.monetary.CryptoMoney;
 import haveno.core.monetary.TraditionalMoney;
 import haveno.core.trade.statistics.TradeStatistics3;
+import haveno.core.trade.statistics.TradeStatisticsIndex;
 import haveno.desktop.main.market.trades.charts.CandleData;
 import haveno.desktop.util.DisplayUtils;
 import javafx.scene.chart.XYChart;
-import javafx.util.Pair;
 import lombok.Getter;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import static haveno.desktop.main.market.trades.TradesChartsViewModel.MAX_TICKS;
@@ -55,68 +52,55 @@ public class ChartCalculations {
     // Async
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    static CompletableFuture<Map<TradesChartsViewModel.TickUnit, Map<Long, Long>>> getUsdAveragePriceMapsPerTickUnit(Set<TradeStatistics3> tradeStatisticsSet) {
+    static CompletableFuture<Map<TradesChartsViewModel.TickUnit, Map<Long, Long>>> getUsdAveragePriceMapsPerTickUnit(TradeStatisticsIndex tradeStatisticsIndex) {
         return CompletableFuture.supplyAsync(() -> {
             Map<TradesChartsViewModel.TickUnit, Map<Long, Long>> usdAveragePriceMapsPerTickUnit = new HashMap<>();
-            Map<TradesChartsViewModel.TickUnit, Map<Long, List<TradeStatistics3>>> dateMapsPerTickUnit = new HashMap<>();
             for (TradesChartsViewModel.TickUnit tick : TradesChartsViewModel.TickUnit.values()) {
-                dateMapsPerTickUnit.put(tick, new HashMap<>());
-            }
-
-            tradeStatisticsSet.stream()
-                    .filter(e -> e.getCurrency().equals("USD"))
-                    .forEach(tradeStatistics -> {
-                        for (TradesChartsViewModel.TickUnit tick : TradesChartsViewModel.TickUnit.values()) {
-                            long time = roundToTick(tradeStatistics.getLocalDateTime(), tick).getTime();
-                            Map<Long, List<TradeStatistics3>> map = dateMapsPerTickUnit.get(tick);
-                            map.putIfAbsent(time, new ArrayList<>());
-                            map.get(time).add(tradeStatistics);
-                        }
-                    });
-
-            dateMapsPerTickUnit.forEach((tick, map) -> {
-                HashMap<Long, Long> priceMap = new HashMap<>();
-                map.forEach((date, tradeStatisticsList) -> priceMap.put(date, getAveragePrice(tradeStatisticsList)));
+                Map<Long, Long> priceMap = new HashMap<>();
+                tradeStatisticsIndex.getCandles("USD", getTickBoundaries(getTickStartDates(tick)))
+                        .forEach(candle -> priceMap.put(candle.getStartDate(), getAveragePrice(candle)));
                 usdAveragePriceMapsPerTickUnit.put(tick, priceMap);
-            });
+            }
             return usdAveragePriceMapsPerTickUnit;
         });
     }
 
     static CompletableFuture<List<TradeStatistics3>> getTradeStatisticsForCurrency(Set<TradeStatistics3> tradeStatisticsSet,
+                                                                                   TradeStatisticsIndex tradeStatisticsIndex,
                                                                                    String currencyCode,
                                                                                    boolean showAllTradeCurrencies) {
         return CompletableFuture.supplyAsync(() -> {
-            return tradeStatisticsSet.stream()
-                    .filter(e -> showAllTradeCurrencies || e.getCurrency().equals(currencyCode))
-                    .collect(Collectors.toList());
+            if (!showAllTradeCurrencies) return tradeStatisticsIndex.getTradeStatistics(currencyCode);
+            return new ArrayList<>(tradeStatisticsSet);
         });
     }
 
-    static CompletableFuture<UpdateChartResult> getUpdateChartResult(List<TradeStatistics3> tradeStatisticsByCurrency,
+    static CompletableFuture<UpdateChartResult> getUpdateChartResult(TradeStatisticsIndex tradeStatisticsIndex,
                                                                      TradesChartsViewModel.TickUnit tickUnit,
                                                                      Map<TradesChartsViewModel.TickUnit, Map<Long, Long>> usdAveragePriceMapsPerTickUnit,
-                                                                     String currencyCode) {
+                                                                     String currencyCode,
+                                                                     boolean showAllTradeCurrencies) {
         return CompletableFuture.supplyAsync(() -> {
-            // Generate date range and create sets for all ticks
-            Map<Long, Pair<Date, Set<TradeStatistics3>>> itemsPerInterval = getItemsPerInterval(tradeStatisticsByCurrency, tickUnit);
+            // Generate date range for all ticks
+            Map<Long, Date> tickStartDates = getTickStartDates(tickUnit);
+            Map<Long, Long> ticksByStartDate = new HashMap<>();
+            tickStartDates.forEach((tick, date) -> ticksByStartDate.put(date.getTime(), tick));
+            Collection<String> currencies = showAllTradeCurrencies ? tradeStatisticsIndex.getCurrencies() : List.of(currencyCode);
 
             Map<Long, Long> usdAveragePriceMap = usdAveragePriceMapsPerTickUnit.get(tickUnit);
-            AtomicLong averageUsdPrice = new AtomicLong(0);
-
-            // create CandleData for defined time interval
-            List<CandleData> candleDataList = itemsPerInterval.entrySet().stream()
-                    .filter(entry -> entry.getKey() >= 0 && !entry.getValue().getValue().isEmpty())
-                    .map(entry -> {
-                        long tickStartDate = entry.getValue().getKey().getTime();
-                        // If we don't have a price we take the previous one
-                        if (usdAveragePriceMap.containsKey(tickStartDate)) {
-                            averageUsdPrice.set(usdAveragePriceMap.get(tickStartDate));
-                        }
-                        return getCandleData(entry.getKey(), entry.getValue().getValue(), averageUsdPrice.get(), tickUnit, currencyCode, itemsPerInterval);
-                    })
-                    .sorted(Comparator.comparingLong(o -> o.tick))
-                    .collect(Collectors.toList());
+            long averageUsdPrice = 0;
+
+            // create CandleData for defined time interval from the aggregated buckets
+            List<CandleData> candleDataList = new ArrayList<>();
+            for (TradeStatisticsIndex.Candle candle : tradeStatisticsIndex.getCandles(currencies, getTickBoundaries(tickStartDates))) {
+                // If we don't have a price we take the previous one
+                if (usdAveragePriceMap.containsKey(candle.getStartDate())) {
+                    averageUsdPrice = usdAveragePriceMap.get(candle.getStartDate());
+                }
+                long medianPrice = tradeStatisticsIndex.getMedianPrice(currencies, candle.getStartDate(), candle.getEndDate());
+                candleDataList.add(getCandleData(ticksByStartDate.get(candle.getStartDate()), candle, medianPrice,
+                        averageUsdPrice, tickUnit, currencyCode, tickStartDates));
+            }
 
             List<XYChart.Data<Number, Number>> priceItems = candleDataList.stream()
                     .map(e -> new XYChart.Data<Number, Number>(e.tick, e.open, e))
@@ -130,23 +114,23 @@ public class ChartCalculations {
                     .map(candleData -> new XYChart.Data<Number, Number>(candleData.tick, candleData.volumeInUsd, candleData))
                     .collect(Collectors.toList());
 
-            return new UpdateChartResult(itemsPerInterval, priceItems, volumeItems, volumeInUsdItems);
+            return new UpdateChartResult(tickStartDates, priceItems, volumeItems, volumeInUsdItems);
         });
     }
 
     @Getter
     static class UpdateChartResult {
-        private final Map<Long, Pair<Date, Set<TradeStatistics3>>> itemsPerInterval;
+        private final Map<Long, Date> tickStartDates;
         private final List<XYChart.Data<Number, Number>> priceItems;
         private final List<XYChart.Data<Number, Number>> volumeItems;
         private final List<XYChart.Data<Number, Number>> volumeInUsdItems;
 
-        public UpdateChartResult(Map<Long, Pair<Date, Set<TradeStatistics3>>> itemsPerInterval,
+        public UpdateChartResult(Map<Long, Date> tickStartDates,
                                  List<XYChart.Data<Number, Number>> priceItems,
                                  List<XYChart.Data<Number, Number>> volumeItems,
                                  List<XYChart.Data<Number, Number>> volumeInUsdItems) {
 
-            this.itemsPerInterval = itemsPerInterval;
+            this.tickStartDates = tickStartDates;
             this.priceItems = priceItems;
             this.volumeItems = volumeItems;
             this.volumeInUsdItems = volumeInUsdItems;
@@ -158,32 +142,26 @@ public class ChartCalculations {
     // Private
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    static Map<Long, Pair<Date, Set<TradeStatistics3>>> getItemsPerInterval(List<TradeStatistics3> tradeStatisticsByCurrency,
-                                                                            TradesChartsViewModel.TickUnit tickUnit) {
-        // Generate date range and create sets for all ticks
-        Map<Long, Pair<Date, Set<TradeStatistics3>>> itemsPerInterval = new HashMap<>();
+    static Map<Long, Date> getTickStartDates(TradesChartsViewModel.TickUnit tickUnit) {
+        // Generate date range for all ticks
+        Map<Long, Date> tickStartDates = new HashMap<>();
         Date time = new Date();
         for (long i = MAX_TICKS + 1; i >= 0; --i) {
-            Pair<Date, Set<TradeStatistics3>> pair = new Pair<>((Date) time.clone(), new HashSet<>());
-            itemsPerInterval.put(i, pair);
+            tickStartDates.put(i, (Date) time.clone());
             // We adjust the time for the next iteration
             time.setTime(time.getTime() - 1);
             time = roundToTick(time, tickUnit);
         }
-
-        // Get all entries for the defined time interval
-        tradeStatisticsByCurrency.forEach(tradeStatistics -> {
-            for (long i = MAX_TICKS; i > 0; --i) {
-                Pair<Date, Set<TradeStatistics3>> pair = itemsPerInterval.get(i);
-                if (tradeStatistics.getDate().after(pair.getKey())) {
-                    pair.getValue().add(tradeStatistics);
-                    break;
-                }
-            }
-        });
-        return itemsPerInterval;
+        return tickStartDates;
     }
 
+    // Trades from the start of the first tick are charted, trades after the start of the last tick belong to it
+    private static long[] getTickBoundaries(Map<Long, Date> tickStartDates) {
+        long[] boundaries = new long[MAX_TICKS + 1];
+        for (int i = 1; i <= MAX_TICKS; i++) boundaries[i - 1] = tickStartDates.get((long) i).getTime();
+        boundaries[MAX_TICKS] = Long.MAX_VALUE;
+        return boundaries;
+    }
 
     static Date roundToTick(LocalDateTime localDate, TradesChartsViewModel.TickUnit tickUnit) {
         switch (tickUnit) {
@@ -210,55 +188,27 @@ public class ChartCalculations {
         return roundToTick(time.toInstant().atZone(ChartCalculations.ZONE_ID).toLocalDateTime(), tickUnit);
     }
 
-    private static long getAveragePrice(List<TradeStatistics3> tradeStatisticsList) {
-        long accumulatedAmount = 0; // TODO: use BigInteger
-        long accumulatedVolume = 0;
-        for (TradeStatistics3 tradeStatistics : tradeStatisticsList) {
-            accumulatedAmount += tradeStatistics.getAmount();
-            accumulatedVolume += tradeStatistics.getTradeVolume().getValue();
-        }
-
-        double accumulatedVolumeAsDouble = MathUtils.scaleUpByPowerOf10((double) accumulatedVolume, 4 + TraditionalMoney.SMALLEST_UNIT_EXPONENT);
-        return MathUtils.roundDoubleToLong(accumulatedVolumeAsDouble / accumulatedAmount);
+    private static long getAveragePrice(TradeStatisticsIndex.Candle candle) {
+        double accumulatedVolumeAsDouble = MathUtils.scaleUpByPowerOf10((double) candle.getVolume(), 4 + TraditionalMoney.SMALLEST_UNIT_EXPONENT);
+        return MathUtils.roundDoubleToLong(accumulatedVolumeAsDouble / candle.getAmount());
     }
 
     @VisibleForTesting
-    static CandleData getCandleData(long tick, Set<TradeStatistics3> set,
+    static CandleData getCandleData(long tick, TradeStatisticsIndex.Candle candle,
+                                    long medianPrice,
                                     long averageUsdPrice,
                                     TradesChartsViewModel.TickUnit tickUnit,
                                     String currencyCode,
-                                    Map<Long, Pair<Date, Set<TradeStatistics3>>> itemsPerInterval) {
-        long open = 0;
-        long close = 0;
-        long high = 0;
-        long low = 0;
-        long accumulatedVolume = 0; // TODO: use BigInteger
-        long accumulatedAmount = 0;
-        long numTrades = set.size();
-        List<Long> tradePrices = new ArrayList<>();
-        for (TradeStatistics3 item : set) {
-            long tradePriceAsLong = item.getTradePrice().getValue();
-            // Previously a check was done which inverted the low and high for cryptocurrencies.
-            low = (low != 0) ? Math.min(low, tradePriceAsLong) : tradePriceAsLong;
-            high = (high != 0) ? Math.max(high, tradePriceAsLong) : tradePriceAsLong;
-
-            accumulatedVolume += item.getTradeVolume().getValue();
-            accumulatedAmount += item.getTradeAmount().longValueExact();
-            tradePrices.add(tradePriceAsLong);
-        }
-        Collections.sort(tradePrices);
-
-        List<TradeStatistics3> list = new ArrayList<>(set);
-        list.sort(Comparator.comparingLong(TradeStatistics3::getDateAsLong));
-        if (list.size() > 0) {
-            open = list.get(0).getTradePrice().getValue();
-            close = list.get(list.size() - 1).getTradePrice().getValue();
-        }
+                                    Map<Long, Date> tickStartDates) {
+        long open = candle.getOpen();
+        long close = candle.getClose();
+        long high = candle.getHigh();
+        long low = candle.getLow();
+        long accumulatedVolume = candle.getVolume(); // TODO: use BigInteger
+        long accumulatedAmount = candle.getAmount();
+        long numTrades = candle.getNumTrades();
 
         long averagePrice;
-        Long[] prices = new Long[tradePrices.size()];
-        tradePrices.toArray(prices);
-        long medianPrice = MathUtils.getMedian(prices);
         boolean isBullish;
         if (CurrencyUtil.isCryptoCurrency(currencyCode)) {
             isBullish = close < open;
@@ -270,8 +220,8 @@ public class ChartCalculations {
             averagePrice = MathUtils.roundDoubleToLong(accumulatedVolumeAsDouble / accumulatedAmount);
         }
 
-        Date dateFrom = new Date(getTimeFromTickIndex(tick, itemsPerInterval));
-        Date dateTo = new Date(getTimeFromTickIndex(tick + 1, itemsPerInterval));
+        Date dateFrom = new Date(getTimeFromTickIndex(tick, tickStartDates));
+        Date dateTo = new Date(getTimeFromTickIndex(tick + 1, tickStartDates));
         String dateString = tickUnit.ordinal() > TradesChartsViewModel.TickUnit.DAY.ordinal() ?
                 DisplayUtils.formatDateTimeSpan(dateFrom, dateTo) :
                 DisplayUtils.formatDate(dateFrom) + " - " + DisplayUtils.formatDate(dateTo);
@@ -285,11 +235,11 @@ public class ChartCalculations {
                 numTrades, isBullish, dateString, volumeInUsd);
     }
 
-    static long getTimeFromTickIndex(long tick, Map<Long, Pair<Date, Set<TradeStatistics3>>> itemsPerInterval) {
+    static long getTimeFromTickIndex(long tick, Map<Long, Date> tickStartDates) {
         if (tick > MAX_TICKS + 1 ||
-                itemsPerInterval.get(tick) == null) {
+                tickStartDates.get(tick) == null) {
             return 0;
         }
-        return itemsPerInterval.get(tick).getKey().getTime();
+        return tickStartDates.get(tick).getTime();
     }
 }
@@ -44,7 +44,6 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.collections.SetChangeListener;
 import javafx.scene.chart.XYChart;
-import javafx.util.Pair;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
@@ -53,7 +52,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
@@ -88,7 +86,7 @@ class TradesChartsViewModel extends ActivatableViewModel {
     final ObservableList<XYChart.Data<Number, Number>> priceItems = FXCollections.observableArrayList();
     final ObservableList<XYChart.Data<Number, Number>> volumeItems = FXCollections.observableArrayList();
     final ObservableList<XYChart.Data<Number, Number>> volumeInUsdItems = FXCollections.observableArrayList();
-    private final Map<Long, Pair<Date, Set<TradeStatistics3>>> itemsPerInterval = new HashMap<>();
+    private final Map<Long, Date> tickStartDates = new HashMap<>();
 
     TickUnit tickUnit;
     private int selectedTabIndex;
@@ -189,7 +187,7 @@ class TradesChartsViewModel extends ActivatableViewModel {
             priceItems.clear();
             volumeItems.clear();
             volumeInUsdItems.clear();
-            itemsPerInterval.clear();
+            tickStartDates.clear();
         });
     }
 
@@ -200,7 +198,7 @@ class TradesChartsViewModel extends ActivatableViewModel {
 
     private void applyAsyncUsdAveragePriceMapsPerTickUnit(CompletableFuture<Boolean> completeFuture) {
         long ts = System.currentTimeMillis();
-        ChartCalculations.getUsdAveragePriceMapsPerTickUnit(tradeStatisticsManager.getObservableTradeStatisticsSet())
+        ChartCalculations.getUsdAveragePriceMapsPerTickUnit(tradeStatisticsManager.getTradeStatisticsIndex())
                 .whenComplete((usdAveragePriceMapsPerTickUnit, throwable) -> {
                     if (deactivateCalled) {
                         return;
@@ -228,6 +226,7 @@ class TradesChartsViewModel extends ActivatableViewModel {
         CompletableFuture<Boolean> future = new CompletableFuture<>();
         long ts = System.currentTimeMillis();
         ChartCalculations.getTradeStatisticsForCurrency(tradeStatisticsManager.getObservableTradeStatisticsSet(),
+                tradeStatisticsManager.getTradeStatisticsIndex(),
                 currencyCode,
                 showAllTradeCurrenciesProperty.get())
                 .whenComplete((list, throwable) -> {
@@ -256,10 +255,11 @@ class TradesChartsViewModel extends ActivatableViewModel {
 
     private void applyAsyncChartData() {
         long ts = System.currentTimeMillis();
-        ChartCalculations.getUpdateChartResult(new ArrayList<>(tradeStatisticsByCurrency),
+        ChartCalculations.getUpdateChartResult(tradeStatisticsManager.getTradeStatisticsIndex(),
                 tickUnit,
                 usdAveragePriceMapsPerTickUnit,
-                getCurrencyCode())
+                getCurrencyCode(),
+                showAllTradeCurrenciesProperty.get())
                 .whenComplete((updateChartResult, throwable) -> {
                     if (deactivateCalled) {
                         return;
@@ -269,8 +269,8 @@ class TradesChartsViewModel extends ActivatableViewModel {
                         return;
                     }
                     UserThread.execute(() -> {
-                        itemsPerInterval.clear();
-                        itemsPerInterval.putAll(updateChartResult.getItemsPerInterval());
+                        tickStartDates.clear();
+                        tickStartDates.putAll(updateChartResult.getTickStartDates());
 
                         priceItems.setAll(updateChartResult.getPriceItems());
                         volumeItems.setAll(updateChartResult.getVolumeItems());
@@ -349,7 +349,7 @@ class TradesChartsViewModel extends ActivatableViewModel {
     }
 
     long getTimeFromTickIndex(long tick) {
-        return ChartCalculations.getTimeFromTickIndex(tick, itemsPerInterval);
+        return ChartCalculations.getTimeFromTickIndex(tick, tickStartDates);
     }
 
 
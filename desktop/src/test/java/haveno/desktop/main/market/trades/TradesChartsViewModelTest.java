@@ -25,13 +25,13 @@ import haveno.core.payment.payload.PaymentMethod;
 import haveno.core.provider.price.PriceFeedService;
 import haveno.core.trade.HavenoUtils;
 import haveno.core.trade.statistics.TradeStatistics3;
+import haveno.core.trade.statistics.TradeStatisticsIndex;
 import haveno.core.trade.statistics.TradeStatisticsManager;
 import haveno.core.user.Preferences;
 import haveno.desktop.Navigation;
 import haveno.desktop.main.market.trades.charts.CandleData;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableSet;
-import javafx.util.Pair;
 import org.bitcoinj.core.Coin;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
@@ -44,9 +44,12 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.mock;
@@ -161,13 +164,20 @@ public class TradesChartsViewModelTest {
                 null,
                 null));
 
-        Map<Long, Pair<Date, Set<TradeStatistics3>>> itemsPerInterval = null;
+        TradeStatisticsIndex index = new TradeStatisticsIndex();
+        index.addAll(set);
+        long[] boundaries = new long[]{now.getTime() - TimeUnit.DAYS.toMillis(1), Long.MAX_VALUE};
+        TradeStatisticsIndex.Candle candle = index.getCandles(currencyCode, boundaries).get(0);
+        long medianPrice = index.getMedianPrice(List.of(currencyCode), boundaries[0], boundaries[1]);
+
+        Map<Long, Date> tickStartDates = new HashMap<>();
         long tick = ChartCalculations.roundToTick(now, TradesChartsViewModel.TickUnit.DAY).getTime();
         CandleData candleData = ChartCalculations.getCandleData(tick,
-                set,
+                candle,
+                medianPrice,
                 0,
                 TradesChartsViewModel.TickUnit.DAY, currencyCode,
-                itemsPerInterval);
+                tickStartDates);
         assertEquals(open, candleData.open);
         assertEquals(close, candleData.close);
         assertEquals(high, candleData.high);
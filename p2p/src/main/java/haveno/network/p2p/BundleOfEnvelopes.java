@@ -35,7 +35,8 @@ import java.util.stream.Collectors;
 
 @EqualsAndHashCode(callSuper = true)
 @Value
-public final class BundleOfEnvelopes extends BroadcastMessage implements ExtendedDataSizePermission, CapabilityRequiringPayload {
+public final class BundleOfEnvelopes extends BroadcastMessage implements ExtendedDataSizePermission, CompressionPermission,
+        CapabilityRequiringPayload {
 
     private final List<NetworkEnvelope> envelopes;
 
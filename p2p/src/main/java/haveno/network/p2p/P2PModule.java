@@ -28,6 +28,9 @@ import static haveno.common.config.Config.MAX_CONNECTIONS;
 import static haveno.common.config.Config.NODE_PORT;
 import static haveno.common.config.Config.HIDDEN_SERVICE_ADDRESS;
 import static haveno.common.config.Config.REPUBLISH_MAILBOX_ENTRIES;
+import static haveno.common.config.Config.SEND_MSG_REFILL_INTERVAL;
+import static haveno.common.config.Config.SEND_MSG_THROTTLE_SLEEP;
+import static haveno.common.config.Config.SEND_MSG_THROTTLE_TRIGGER;
 import static haveno.common.config.Config.SOCKS_5_PROXY_HTTP_ADDRESS;
 import static haveno.common.config.Config.SOCKS_5_PROXY_XMR_ADDRESS;
 import static haveno.common.config.Config.TORRC_FILE;
@@ -57,7 +60,9 @@ import haveno.network.p2p.storage.persistence.ResourceDataStoreService;
 import java.io.File;
 import java.time.Clock;
 import java.util.List;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 public class P2PModule extends AppModule {
 
     public P2PModule(Config config) {
@@ -82,6 +87,12 @@ public class P2PModule extends AppModule {
         bind(HttpClient.class).to(HttpClientImpl.class);
 
         requestStaticInjection(Connection.class);
+        if (config.sendMsgThrottleTriggerOptionSetExplicitly) {
+            log.warn("The {} option is deprecated and ignored, outbound messages are paced by {}", SEND_MSG_THROTTLE_TRIGGER, SEND_MSG_REFILL_INTERVAL);
+        }
+        if (config.sendMsgThrottleSleepOptionSetExplicitly) {
+            log.warn("The {} option is deprecated and ignored, outbound messages are paced by {}", SEND_MSG_THROTTLE_SLEEP, SEND_MSG_REFILL_INTERVAL);
+        }
 
         bindConstant().annotatedWith(named(USE_LOCALHOST_FOR_P2P)).to(config.useLocalhostForP2P);
 
@@ -18,6 +18,7 @@
 package haveno.network.p2p;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.MoreExecutors;
@@ -47,6 +48,7 @@ import haveno.network.p2p.peers.peerexchange.PeerExchangeManager;
 import haveno.network.p2p.storage.HashMapChangedListener;
 import haveno.network.p2p.storage.P2PDataStorage;
 import haveno.network.p2p.storage.messages.RefreshOfferMessage;
+import haveno.network.p2p.storage.messages.RefreshOffersMessage;
 import haveno.network.p2p.storage.payload.PersistableNetworkPayload;
 import haveno.network.p2p.storage.payload.ProtectedStorageEntry;
 import haveno.network.p2p.storage.payload.ProtectedStoragePayload;
@@ -67,6 +69,8 @@ import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -484,6 +488,33 @@ public class P2PService implements SetupListener, MessageListener, ConnectionLis
         }
     }
 
+    /**
+     * Refreshes the TTL of the given payloads with one RefreshOffersMessage per
+     * {@link RefreshOffersMessage#MAX_REFRESH_OFFER_MESSAGES} payloads.
+     *
+     * @return true if the TTL of all payloads was refreshed
+     */
+    public boolean refreshTTL(List<? extends ProtectedStoragePayload> protectedStoragePayloads) {
+        if (isBootstrapped()) {
+            try {
+                boolean result = true;
+                for (List<? extends ProtectedStoragePayload> batch : Lists.partition(protectedStoragePayloads, RefreshOffersMessage.MAX_REFRESH_OFFER_MESSAGES)) {
+                    List<RefreshOfferMessage> refreshTTLMessages = new ArrayList<>();
+                    for (ProtectedStoragePayload protectedStoragePayload : batch) {
+                        refreshTTLMessages.add(p2PDataStorage.getRefreshTTLMessage(protectedStoragePayload, keyRing.getSignatureKeyPair()));
+                    }
+                    result &= p2PDataStorage.refreshTTL(new RefreshOffersMessage(refreshTTLMessages), networkNode.getNodeAddress());
+                }
+                return result;
+            } catch (CryptoException e) {
+                log.error("Signing at getDataWithSignedSeqNr failed. That should never happen.");
+                return false;
+            }
+        } else {
+            throw new NetworkNotReadyException();
+        }
+    }
+
     public boolean removeData(ProtectedStoragePayload protectedStoragePayload) {
         if (isBootstrapped()) {
             try {
@@ -439,7 +439,7 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
     }
 
     // We run the batch processing of all mailbox messages we have received at startup in a thread to not block the UI.
-    // For about 1000 messages decryption takes about 1 sec.
+    // For about 1000 messages decryption takes about 1 sec. We only decrypt the messages addressed to us.
     private void threadedBatchProcessMailboxEntries(Collection<ProtectedMailboxStorageEntry> protectedMailboxStorageEntries) {
         long ts = System.currentTimeMillis();
         SettableFuture<Set<MailboxItem>> future = SettableFuture.create();
@@ -484,6 +484,11 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
                 .getPrefixedSealedAndSignedMessage();
         SealedAndSigned sealedAndSigned = prefixedSealedAndSignedMessage.getSealedAndSigned();
         String uid = prefixedSealedAndSignedMessage.getUid();
+        if (!isAddressedToMe(protectedMailboxStorageEntry)) {
+            // The receiver's storage key is part of every mailbox entry, so we don't need to try to decrypt
+            // messages for other receivers
+            return new MailboxItem(protectedMailboxStorageEntry, null);
+        }
         if (ignoredMailboxService.isIgnored(uid)) {
             // We had persisted a past failed decryption attempt on that message so we don't try again and return early
             return new MailboxItem(protectedMailboxStorageEntry, null);
@@ -503,6 +508,12 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
         return new MailboxItem(protectedMailboxStorageEntry, null);
     }
 
+    // The sender adds the entry with our signature pub key as receiver, which the payload owner has to match.
+    // Only the receiver can remove the entry, so the key cannot be changed without breaking the entry.
+    private boolean isAddressedToMe(ProtectedMailboxStorageEntry protectedMailboxStorageEntry) {
+        return keyRing.getSignatureKeyPair().getPublic().equals(protectedMailboxStorageEntry.getReceiversPubKey());
+    }
+
     private void handleMailboxItems(Set<MailboxItem> mailboxItems) {
 
         // sort mailbox items
@@ -36,12 +36,14 @@ package haveno.network.p2p.network;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.Uninterruptibles;
 import com.google.inject.Inject;
 import com.google.protobuf.InvalidProtocolBufferException;
 import haveno.common.Proto;
 import haveno.common.ThreadUtils;
 import haveno.common.app.Capabilities;
+import haveno.common.app.Capability;
 import haveno.common.app.HasCapabilities;
 import haveno.common.app.Version;
 import haveno.common.config.Config;
@@ -52,6 +54,7 @@ import haveno.common.util.SingleThreadExecutorUtils;
 import haveno.common.util.Utilities;
 import haveno.network.p2p.BundleOfEnvelopes;
 import haveno.network.p2p.CloseConnectionMessage;
+import haveno.network.p2p.CompressionPermission;
 import haveno.network.p2p.ExtendedDataSizePermission;
 import haveno.network.p2p.NodeAddress;
 import haveno.network.p2p.SendersNodeAddressMessage;
@@ -60,6 +63,7 @@ import haveno.network.p2p.peers.keepalive.messages.KeepAliveMessage;
 import haveno.network.p2p.storage.P2PDataStorage;
 import haveno.network.p2p.storage.messages.AddDataMessage;
 import haveno.network.p2p.storage.messages.AddPersistableNetworkPayloadMessage;
+import haveno.network.p2p.storage.messages.BroadcastMessage;
 import haveno.network.p2p.storage.messages.RemoveDataMessage;
 import haveno.network.p2p.storage.payload.CapabilityRequiringPayload;
 import haveno.network.p2p.storage.payload.PersistableNetworkPayload;
@@ -89,6 +93,7 @@ import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
@@ -116,6 +121,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
     //TODO decrease limits again after testing
     private static final int SOCKET_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(240);
     private static final int SHUTDOWN_TIMEOUT = 100;
+    private static final int SEND_MSG_BURST_SIZE = 10;
     private static final String THREAD_ID = Connection.class.getSimpleName();
 
     public static int getPermittedMessageSize() {
@@ -130,6 +136,19 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
         return SHUTDOWN_TIMEOUT;
     }
 
+    @Nullable
+    private static Boolean useVirtualThreads;
+
+    static boolean isUseVirtualThreads() {
+        if (useVirtualThreads != null) return useVirtualThreads;
+        return config != null && config.useVirtualThreads;
+    }
+
+    @VisibleForTesting
+    static void setUseVirtualThreads(@Nullable Boolean useVirtualThreads) {
+        Connection.useVirtualThreads = useVirtualThreads;
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Class fields
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -141,6 +160,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
     @Getter
     private final String uid;
     private final ExecutorService executorService;
+    private final boolean virtualThreads;
     @Getter
     private final Statistic statistic;
     @Getter
@@ -150,6 +170,8 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
 
     // set in init
     private ProtoOutputStream protoOutputStream;
+    @Getter(AccessLevel.PACKAGE)
+    private OutboundQueue outboundQueue;
 
     // mutable data, set from other threads but not changed internally.
     @Getter
@@ -161,7 +183,6 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
     private final ObjectProperty<NodeAddress> peersNodeAddressProperty = new SimpleObjectProperty<>();
     private final List<Long> messageTimeStamps = new ArrayList<>();
     private final CopyOnWriteArraySet<MessageListener> messageListeners = new CopyOnWriteArraySet<>();
-    private volatile long lastSendTimeStamp = 0;
     // We use a weak reference here to ensure that no connection causes a memory leak in case it get closed without
     // the shutDown being called.
     private final CopyOnWriteArraySet<WeakReference<SupportedCapabilitiesListener>> capabilitiesListeners = new CopyOnWriteArraySet<>();
@@ -196,7 +217,13 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
         this.banFilter = banFilter;
 
         this.uid = UUID.randomUUID().toString();
-        this.executorService = SingleThreadExecutorUtils.getSingleThreadExecutor("Executor service for connection with uid " + uid);
+        this.virtualThreads = isUseVirtualThreads();
+        if (virtualThreads) {
+            // The connection owns the virtual thread of its reader, and stops it at shut down
+            this.executorService = Utilities.getVirtualThreadExecutorService("Connection-" + uid);
+        } else {
+            this.executorService = SingleThreadExecutorUtils.getSingleThreadExecutor("Executor service for connection with uid " + uid);
+        }
 
         statistic = new Statistic();
 
@@ -217,6 +244,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
             // the associated ObjectOutputStream on the other end of the connection has written.
             // It will not return until that header has been read.
             protoOutputStream = new ProtoOutputStream(socket.getOutputStream(), statistic);
+            outboundQueue = new OutboundQueue(protoOutputStream, getSendMsgRefillInterval(), SEND_MSG_BURST_SIZE);
             protoInputStream = socket.getInputStream();
             // We create a thread for handling inputStream data
             executorService.submit(this);
@@ -263,26 +291,27 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
             log.debug("Capability for networkEnvelope is required but not supported");
             return;
         }
-        int networkEnvelopeSize = networkEnvelope.toProtoNetworkEnvelope().getSerializedSize();
         try {
-            // Throttle outbound network_messages
-            long now = System.currentTimeMillis();
-            long elapsed = now - lastSendTimeStamp;
-            if (elapsed < getSendMsgThrottleTrigger()) {
-                log.debug("We got 2 sendMessage requests in less than {} ms. We set the thread to sleep " +
-                                "for {} ms to avoid flooding our peer. lastSendTimeStamp={}, now={}, elapsed={}, networkEnvelope={}",
-                        getSendMsgThrottleTrigger(), getSendMsgThrottleSleep(), lastSendTimeStamp, now, elapsed,
-                        networkEnvelope.getClass().getSimpleName());
-
-                Thread.sleep(getSendMsgThrottleSleep());
+            protobuf.NetworkEnvelope proto = networkEnvelope.toProtoNetworkEnvelope();
+            if (networkEnvelope instanceof CompressionPermission && capabilities.contains(Capability.COMPRESSED_ENVELOPES)) {
+                long startCompress = System.nanoTime();
+                protobuf.NetworkEnvelope compressed = networkEnvelope instanceof BroadcastMessage ?
+                        EnvelopeCompression.compressBroadcast(proto) :
+                        EnvelopeCompression.compress(proto);
+                long compressNanos = System.nanoTime() - startCompress;
+                if (compressed != null) {
+                    int uncompressedSize = proto.getSerializedSize();
+                    int compressedSize = compressed.getSerializedSize();
+                    dispatch(() -> connectionStatistics.addCompressionMetrics(uncompressedSize, compressedSize, compressNanos));
+                    proto = compressed;
+                }
             }
 
-            lastSendTimeStamp = now;
-
-            if (!stopped) {
-                protoOutputStream.writeEnvelope(networkEnvelope);
-                ThreadUtils.execute(() -> messageListeners.forEach(e -> e.onMessageSent(networkEnvelope, this)), THREAD_ID);
-                ThreadUtils.execute(() -> connectionStatistics.addSendMsgMetrics(System.currentTimeMillis() - ts, networkEnvelopeSize), THREAD_ID);
+            // Outbound messages are throttled by the queue, which lets control messages pass first
+            int networkEnvelopeSize = outboundQueue.send(networkEnvelope, proto);
+            if (networkEnvelopeSize >= 0) {
+                dispatch(() -> messageListeners.forEach(e -> e.onMessageSent(networkEnvelope, this)));
+                dispatch(() -> connectionStatistics.addSendMsgMetrics(System.currentTimeMillis() - ts, networkEnvelopeSize));
             }
         } catch (Throwable t) {
             handleException(t);
@@ -375,12 +404,18 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
         return config != null ? config.msgThrottlePer10Sec : 1000;
     }
 
-    private int getSendMsgThrottleSleep() {
-        return config != null ? config.sendMsgThrottleSleep : 50;
+    private int getSendMsgRefillInterval() {
+        return config != null ? config.sendMsgRefillInterval : 20;
     }
 
-    private int getSendMsgThrottleTrigger() {
-        return config != null ? config.sendMsgThrottleTrigger : 20;
+    // Callbacks of all connections run on one shared thread, also if the connections use virtual threads, as the
+    // message listeners are not thread safe.
+    private void dispatch(Runnable callback) {
+        ThreadUtils.execute(callback, THREAD_ID);
+    }
+
+    private Thread.Builder getThreadBuilder() {
+        return virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform();
     }
 
     private boolean violatesThrottleLimit(long now, int seconds, int messageCountLimit) {
@@ -411,7 +446,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
         if (networkEnvelope instanceof BundleOfEnvelopes) {
             onBundleOfEnvelopes((BundleOfEnvelopes) networkEnvelope, connection);
         } else {
-            ThreadUtils.execute(() -> messageListeners.forEach(e -> e.onMessage(networkEnvelope, connection)), THREAD_ID);
+            dispatch(() -> messageListeners.forEach(e -> e.onMessage(networkEnvelope, connection)));
         }
     }
 
@@ -447,9 +482,9 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                 envelopesToProcess.add(networkEnvelope);
             }
         }
-        envelopesToProcess.forEach(envelope -> ThreadUtils.execute(() -> {
+        envelopesToProcess.forEach(envelope -> dispatch(() -> {
                 messageListeners.forEach(listener -> listener.onMessage(envelope, connection));
-        }, THREAD_ID));
+        }));
     }
 
 
@@ -505,7 +540,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                     + "\n%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%\n");
 
             if (closeConnectionReason.sendCloseMessage) {
-                new Thread(() -> {
+                getThreadBuilder().name("Connection:SendCloseConnectionMessage-" + this.uid).start(() -> {
                     try {
                         String reason = closeConnectionReason == CloseConnectionReason.RULE_VIOLATION ?
                                 getRuleViolation().name() : closeConnectionReason.name();
@@ -520,7 +555,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                         stopped = true;
                         ThreadUtils.execute(() -> doShutDown(closeConnectionReason, shutDownCompleteHandler), THREAD_ID);
                     }
-                }, "Connection:SendCloseConnectionMessage-" + this.uid).start();
+                });
             } else {
                 stopped = true;
                 doShutDown(closeConnectionReason, shutDownCompleteHandler);
@@ -535,6 +570,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
     private void doShutDown(CloseConnectionReason closeConnectionReason, @Nullable Runnable shutDownCompleteHandler) {
         ThreadUtils.execute(() -> connectionListener.onDisconnect(closeConnectionReason, this), THREAD_ID);
         try {
+            if (outboundQueue != null) outboundQueue.shutDown();
             protoOutputStream.onConnectionShutdown();
             socket.close();
         } catch (SocketException e) {
@@ -774,6 +810,16 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                         return;
                     }
 
+                    // Large envelopes might arrive compressed if we announced the COMPRESSED_ENVELOPES capability
+                    int wireSize = proto.getSerializedSize();
+                    if (proto.hasCompressedEnvelope()) {
+                        long startDecompress = System.nanoTime();
+                        proto = EnvelopeCompression.decompress(proto.getCompressedEnvelope(), PERMITTED_MESSAGE_SIZE, MAX_PERMITTED_MESSAGE_SIZE);
+                        long decompressNanos = System.nanoTime() - startDecompress;
+                        int uncompressedSize = proto.getSerializedSize();
+                        dispatch(() -> connectionStatistics.addDecompressionMetrics(wireSize, uncompressedSize, decompressNanos));
+                    }
+
                     if (banFilter != null &&
                             peersNodeAddressOptional.isPresent() &&
                             banFilter.isPeerBanned(peersNodeAddressOptional.get())) {
@@ -798,7 +844,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                     int size = proto.getSerializedSize();
 
                     // We want to track the size of each object even if it is invalid data
-                    statistic.addReceivedBytes(size);
+                    statistic.addReceivedBytes(wireSize);
 
                     // We want to track the network_messages also before the checks, so do it early...
                     statistic.addReceivedMessage(networkEnvelope);
@@ -872,8 +918,8 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                             log.info("We got a {} from a peer with yet unknown address on connection with uid={}", networkEnvelope.getClass().getSimpleName(), uid);
                         }
 
-                        ThreadUtils.execute(() -> onMessage(networkEnvelope, this), THREAD_ID);
-                        ThreadUtils.execute(() -> connectionStatistics.addReceivedMsgMetrics(System.currentTimeMillis() - ts, size), THREAD_ID);
+                        dispatch(() -> onMessage(networkEnvelope, this));
+                        dispatch(() -> connectionStatistics.addReceivedMsgMetrics(System.currentTimeMillis() - ts, wireSize));
                     }
                 } catch (InvalidClassException e) {
                     reportInvalidRequest(RuleViolation.INVALID_CLASS, e.getMessage());
@@ -919,7 +965,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
         capabilitiesListeners.forEach(weakListener -> {
             SupportedCapabilitiesListener supportedCapabilitiesListener = weakListener.get();
             if (supportedCapabilitiesListener != null) {
-                ThreadUtils.execute(() -> supportedCapabilitiesListener.onChanged(supportedCapabilities), THREAD_ID);
+                dispatch(() -> supportedCapabilitiesListener.onChanged(supportedCapabilities));
             }
         });
         return false;
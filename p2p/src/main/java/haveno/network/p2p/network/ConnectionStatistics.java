@@ -28,6 +28,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -49,6 +50,16 @@ public class ConnectionStatistics implements MessageListener {
     private int sentBytes = 0;
     @Getter
     private int receivedBytes = 0;
+    @Getter
+    private int numCompressedSent = 0;
+    private long uncompressedBytesSent = 0;
+    private long compressedBytesSent = 0;
+    private long compressNanos = 0;
+    @Getter
+    private int numCompressedReceived = 0;
+    private long uncompressedBytesReceived = 0;
+    private long compressedBytesReceived = 0;
+    private long decompressNanos = 0;
 
     public ConnectionStatistics(Connection connection, ConnectionState connectionState) {
         this.connection = connection;
@@ -94,6 +105,16 @@ public class ConnectionStatistics implements MessageListener {
             rrt = "Time for response: " + rrt + ls;
         }
         boolean seedNode = connectionState.isSeedNode();
+        OutboundQueue outboundQueue = connection.getOutboundQueue();
+        String outboundQueueInfo = outboundQueue == null ? "" : "Outbound queue: " + outboundQueue.getQueueDepth() +
+                " (max " + outboundQueue.getMaxQueueDepth() + "); " + outboundQueue.getNumWritten() +
+                " messages in " + outboundQueue.getNumFlushes() + " flushes" + ls;
+        String compressionInfo = numCompressedSent == 0 && numCompressedReceived == 0 ? "" : "Compression: sent " +
+                numCompressedSent + " messages, " + Utilities.readableFileSize(uncompressedBytesSent) + " -> " +
+                Utilities.readableFileSize(compressedBytesSent) + " in " + TimeUnit.NANOSECONDS.toMillis(compressNanos) +
+                " ms; received " + numCompressedReceived + " messages, " + Utilities.readableFileSize(compressedBytesReceived) +
+                " -> " + Utilities.readableFileSize(uncompressedBytesReceived) + " in " +
+                TimeUnit.NANOSECONDS.toMillis(decompressNanos) + " ms" + ls;
         return String.format(
                 "Age: %s" + ls +
                         "Peer: %s%s " + ls +
@@ -104,6 +125,8 @@ public class ConnectionStatistics implements MessageListener {
                         "%s" +
                         "Sent data: %s; %s" + ls +
                         "Received data: %s; %s" + ls +
+                        "%s" +
+                        "%s" +
                         "CPU time spent on sending messages: %s" + ls +
                         "CPU time spent on receiving messages: %s",
                 age,
@@ -115,6 +138,8 @@ public class ConnectionStatistics implements MessageListener {
                 rrt,
                 Utilities.readableFileSize(sentBytes), sentDataMap.toString(),
                 Utilities.readableFileSize(receivedBytes), receivedDataMap.toString(),
+                outboundQueueInfo,
+                compressionInfo,
                 Utilities.formatDurationAsWords(timeOnSendMsg),
                 Utilities.formatDurationAsWords(timeOnReceivedMsg));
     }
@@ -168,4 +193,18 @@ public class ConnectionStatistics implements MessageListener {
         this.timeOnReceivedMsg += timeSpent;
         this.receivedBytes += bytes;
     }
+
+    public void addCompressionMetrics(int uncompressedBytes, int compressedBytes, long nanosSpent) {
+        this.numCompressedSent++;
+        this.uncompressedBytesSent += uncompressedBytes;
+        this.compressedBytesSent += compressedBytes;
+        this.compressNanos += nanosSpent;
+    }
+
+    public void addDecompressionMetrics(int compressedBytes, int uncompressedBytes, long nanosSpent) {
+        this.numCompressedReceived++;
+        this.compressedBytesReceived += compressedBytes;
+        this.uncompressedBytesReceived += uncompressedBytes;
+        this.decompressNanos += nanosSpent;
+    }
 }
@@ -0,0 +1,195 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.network;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Wraps large envelopes in a deflate compressed CompressedEnvelope. Offer payloads, storage entries and pub keys
+ * repeat a lot in data responses and bundles, so these shrink well, which matters on slow Tor circuits.
+ */
+class EnvelopeCompression {
+    // Smaller envelopes are sent as they are, as the gain would not be worth the CPU time
+    static final int COMPRESSION_THRESHOLD = 8 * 1024;
+
+    // Compressible envelopes which are permitted to exceed the regular message size, see ExtendedDataSizePermission
+    private static final Set<Integer> EXTENDED_DATA_SIZE_FIELD_NUMBERS = Set.of(
+            protobuf.NetworkEnvelope.GET_DATA_RESPONSE_FIELD_NUMBER,
+            protobuf.NetworkEnvelope.BUNDLE_OF_ENVELOPES_FIELD_NUMBER);
+
+    // The output buffer grows as the data inflates, so a peer announcing a large size cannot make us allocate it
+    private static final int INITIAL_INFLATE_BUFFER_SIZE = 16 * 1024;
+
+    // Broadcast envelopes are sent to many peers, so the recently compressed ones are reused
+    private static final long MAX_CACHED_BYTES = 16 * 1024 * 1024;
+    private static final Cache<ByteString, ByteString> COMPRESSED_BROADCAST_CACHE = CacheBuilder.newBuilder()
+            .maximumWeight(MAX_CACHED_BYTES)
+            .weigher((ByteString uncompressed, ByteString compressed) -> uncompressed.size() + compressed.size())
+            .expireAfterAccess(1, TimeUnit.MINUTES)
+            .build();
+
+    /**
+     * @return the compressed envelope, or null if the envelope is below the threshold or does not get smaller
+     */
+    @Nullable
+    static protobuf.NetworkEnvelope compress(protobuf.NetworkEnvelope proto) {
+        int size = proto.getSerializedSize();
+        if (size < COMPRESSION_THRESHOLD || proto.hasCompressedEnvelope()) return null;
+        return toCompressedEnvelope(proto, deflate(proto.toByteString()));
+    }
+
+    /**
+     * Like {@link #compress}, but reuses the result for an envelope with the same content which was compressed
+     * recently, e.g. for another peer.
+     */
+    @Nullable
+    static protobuf.NetworkEnvelope compressBroadcast(protobuf.NetworkEnvelope proto) {
+        int size = proto.getSerializedSize();
+        if (size < COMPRESSION_THRESHOLD || proto.hasCompressedEnvelope()) return null;
+        ByteString uncompressed = proto.toByteString();
+        ByteString compressed = COMPRESSED_BROADCAST_CACHE.getIfPresent(uncompressed);
+        if (compressed == null) {
+            compressed = deflate(uncompressed);
+            COMPRESSED_BROADCAST_CACHE.put(uncompressed, compressed == null ? ByteString.EMPTY : compressed);
+        }
+        return toCompressedEnvelope(proto, compressed == null || compressed.isEmpty() ? null : compressed);
+    }
+
+    /**
+     * Decompresses the envelope. The data is inflated into a growing buffer, and the uncompressed size is checked
+     * against the permitted size of the message type once the first part is inflated, so a peer cannot make us
+     * allocate more than the size permitted for the message it sends.
+     *
+     * @param permittedSize - permitted size of a message
+     * @param maxPermittedSize - permitted size of a message with ExtendedDataSizePermission
+     */
+    static protobuf.NetworkEnvelope decompress(protobuf.CompressedEnvelope compressedEnvelope,
+                                               int permittedSize,
+                                               int maxPermittedSize) throws InvalidProtocolBufferException {
+        int size = compressedEnvelope.getUncompressedSize();
+        if (size <= 0 || size > maxPermittedSize)
+            throw new InvalidProtocolBufferException("Invalid uncompressed size of compressed envelope. size=" + size);
+
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressedEnvelope.getCompressedNetworkEnvelope().asReadOnlyByteBuffer());
+            byte[] bytes = new byte[Math.min(size, INITIAL_INFLATE_BUFFER_SIZE)];
+            boolean isMessageTypeKnown = false;
+            int offset = 0;
+            while (!inflater.finished()) {
+                if (offset == bytes.length) {
+                    if (offset == size) break; // more data than the uncompressed size
+                    bytes = Arrays.copyOf(bytes, (int) Math.min(size, 2L * bytes.length));
+                }
+                int length = inflater.inflate(bytes, offset, bytes.length - offset);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                offset += length;
+
+                // the message type is known once the first buffer is inflated
+                if (!isMessageTypeKnown && (offset == bytes.length || inflater.finished())) {
+                    isMessageTypeKnown = true;
+                    if (size > getPermittedSize(bytes, offset, permittedSize, maxPermittedSize))
+                        throw new InvalidProtocolBufferException("Compressed envelope exceeds the permitted size of its message type. size=" + size);
+                }
+            }
+            if (offset != size || !inflater.finished())
+                throw new InvalidProtocolBufferException("Compressed envelope does not match its uncompressed size");
+
+            protobuf.NetworkEnvelope proto = protobuf.NetworkEnvelope.parseFrom(bytes);
+            if (proto.hasCompressedEnvelope())
+                throw new InvalidProtocolBufferException("Nested compressed envelopes are not allowed");
+            return proto;
+        } catch (DataFormatException e) {
+            throw new InvalidProtocolBufferException("Invalid data in compressed envelope: " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @return the compressed data, or null if it does not get smaller
+     */
+    @Nullable
+    private static ByteString deflate(ByteString uncompressed) {
+        int size = uncompressed.size();
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(uncompressed.asReadOnlyByteBuffer());
+            deflater.finish();
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(size / 4);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                outputStream.write(buffer, 0, length);
+                if (outputStream.size() >= size) return null; // not worth it
+            }
+            return ByteString.copyFrom(outputStream.toByteArray());
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Nullable
+    private static protobuf.NetworkEnvelope toCompressedEnvelope(protobuf.NetworkEnvelope proto, @Nullable ByteString compressed) {
+        if (compressed == null) return null;
+        return protobuf.NetworkEnvelope.newBuilder()
+                .setMessageVersion(proto.getMessageVersion())
+                .setCompressedEnvelope(protobuf.CompressedEnvelope.newBuilder()
+                        .setCompressedNetworkEnvelope(compressed)
+                        .setUncompressedSize(proto.getSerializedSize()))
+                .build();
+    }
+
+    // The message version is serialized first, followed by the message, whose field number tells its type
+    private static int getPermittedSize(byte[] bytes, int length, int permittedSize, int maxPermittedSize)
+            throws InvalidProtocolBufferException {
+        try {
+            CodedInputStream input = CodedInputStream.newInstance(bytes, 0, length);
+            int tag = input.readTag();
+            if (WireFormat.getTagFieldNumber(tag) == protobuf.NetworkEnvelope.MESSAGE_VERSION_FIELD_NUMBER) {
+                input.skipField(tag);
+                tag = input.readTag();
+            }
+            return EXTENDED_DATA_SIZE_FIELD_NUMBERS.contains(WireFormat.getTagFieldNumber(tag)) ? maxPermittedSize : permittedSize;
+        } catch (InvalidProtocolBufferException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new InvalidProtocolBufferException(e.getMessage());
+        }
+    }
+}
@@ -101,16 +101,21 @@ public abstract class NetworkNode implements MessageListener {
         this.networkProtoResolver = networkProtoResolver;
         this.banFilter = banFilter;
 
-        connectionExecutor = Utilities.getListeningExecutorService("NetworkNode.connection",
-                maxConnections * 2,
-                maxConnections * 3,
-                30,
-                30);
-        sendMessageExecutor = Utilities.getListeningExecutorService("NetworkNode.sendMessage",
-                maxConnections * 2,
-                maxConnections * 3,
-                30,
-                30);
+        if (Connection.isUseVirtualThreads()) {
+            connectionExecutor = Utilities.getVirtualThreadListeningExecutorService("NetworkNode.connection");
+            sendMessageExecutor = Utilities.getVirtualThreadListeningExecutorService("NetworkNode.sendMessage");
+        } else {
+            connectionExecutor = Utilities.getListeningExecutorService("NetworkNode.connection",
+                    maxConnections * 2,
+                    maxConnections * 3,
+                    30,
+                    30);
+            sendMessageExecutor = Utilities.getListeningExecutorService("NetworkNode.sendMessage",
+                    maxConnections * 2,
+                    maxConnections * 3,
+                    30,
+                    30);
+        }
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -0,0 +1,253 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.network;
+
+import haveno.common.proto.network.NetworkEnvelope;
+import haveno.network.p2p.AckMessage;
+import haveno.network.p2p.CloseConnectionMessage;
+import haveno.network.p2p.peers.keepalive.messages.KeepAliveMessage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.Nullable;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Queue of the envelopes sent over a connection, written to the socket by the sending threads in turn, so no thread is
+ * dedicated to writing.
+ *
+ * Envelopes are serialized once by the sending thread, which waits until its envelope is written. While no other
+ * thread writes, it becomes the writer: it takes control messages (acks, keep alive and close connection messages)
+ * before bulk data, paces bulk data with a token bucket, and writes all envelopes it takes at once with a single flush.
+ * Once its own envelope is written, it hands the queue over to the next waiting sender.
+ *
+ * Senders wait on a lock instead of a monitor, so they do not pin their carrier threads if they run on virtual threads.
+ */
+@Slf4j
+class OutboundQueue {
+    static final int MAX_COALESCED_BYTES = 64 * 1024;
+
+    @Getter
+    static class OutboundEnvelope {
+        private final NetworkEnvelope envelope;
+        private final byte[] bytes; // length delimited
+        private final int serializedSize;
+        private final boolean isControl;
+        private final CompletableFuture<Boolean> written = new CompletableFuture<>();
+
+        private OutboundEnvelope(NetworkEnvelope envelope, protobuf.NetworkEnvelope proto) throws IOException {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(proto.getSerializedSize() + 5);
+            proto.writeDelimitedTo(outputStream);
+            this.envelope = envelope;
+            this.bytes = outputStream.toByteArray();
+            this.serializedSize = proto.getSerializedSize();
+            this.isControl = isControlMessage(envelope);
+        }
+    }
+
+    private final ProtoOutputStream protoOutputStream;
+    private final TokenBucket tokenBucket;
+    private final Deque<OutboundEnvelope> controlQueue = new ArrayDeque<>();
+    private final Deque<OutboundEnvelope> bulkQueue = new ArrayDeque<>();
+    private final Lock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private boolean isWriting;
+    private boolean stopped;
+
+    // metrics
+    private int maxQueueDepth;
+    private long numWritten;
+    private long numFlushes;
+
+    /**
+     * @param refillIntervalMs - interval in which the token bucket for bulk data gains a token
+     * @param burstSize - number of bulk envelopes which can be written without waiting for tokens
+     */
+    OutboundQueue(ProtoOutputStream protoOutputStream, long refillIntervalMs, int burstSize) {
+        this.protoOutputStream = protoOutputStream;
+        this.tokenBucket = new TokenBucket(TimeUnit.MILLISECONDS.toNanos(Math.max(1, refillIntervalMs)), burstSize, System.nanoTime());
+    }
+
+    int send(NetworkEnvelope envelope) throws IOException {
+        return send(envelope, envelope.toProtoNetworkEnvelope());
+    }
+
+    /**
+     * Queues the envelope and waits until it is written.
+     *
+     * @param proto - the proto written for the envelope, which can be a compressed form of it
+     * @return the serialized size of the proto, or -1 if the queue was shut down before writing it
+     */
+    int send(NetworkEnvelope envelope, protobuf.NetworkEnvelope proto) throws IOException {
+        OutboundEnvelope outboundEnvelope = new OutboundEnvelope(envelope, proto);
+        boolean interrupted = false;
+        lock.lock();
+        try {
+            if (stopped) return -1;
+            (outboundEnvelope.isControl ? controlQueue : bulkQueue).addLast(outboundEnvelope);
+            maxQueueDepth = Math.max(maxQueueDepth, controlQueue.size() + bulkQueue.size());
+            changed.signalAll();
+
+            // write until our envelope is written, unless another sender is writing
+            while (!outboundEnvelope.written.isDone() && !stopped) {
+                try {
+                    if (isWriting) {
+                        changed.await();
+                        continue;
+                    }
+                    isWriting = true;
+                    try {
+                        writeBatch();
+                    } finally {
+                        isWriting = false;
+                        changed.signalAll();
+                    }
+                } catch (InterruptedException e) {
+                    // the envelope is queued anyway, so it is written before the interrupt is restored
+                    interrupted = true;
+                }
+            }
+        } finally {
+            lock.unlock();
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+        try {
+            return outboundEnvelope.written.join() ? outboundEnvelope.serializedSize : -1;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw e;
+        }
+    }
+
+    int getQueueDepth() {
+        lock.lock();
+        try {
+            return controlQueue.size() + bulkQueue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getMaxQueueDepth() {
+        lock.lock();
+        try {
+            return maxQueueDepth;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long getNumWritten() {
+        lock.lock();
+        try {
+            return numWritten;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long getNumFlushes() {
+        lock.lock();
+        try {
+            return numFlushes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void shutDown() {
+        List<OutboundEnvelope> dropped = new ArrayList<>();
+        lock.lock();
+        try {
+            stopped = true;
+            dropped.addAll(controlQueue);
+            dropped.addAll(bulkQueue);
+            controlQueue.clear();
+            bulkQueue.clear();
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        dropped.forEach(outboundEnvelope -> outboundEnvelope.written.complete(false));
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private static boolean isControlMessage(NetworkEnvelope envelope) {
+        return envelope instanceof AckMessage ||
+                envelope instanceof KeepAliveMessage ||
+                envelope instanceof CloseConnectionMessage;
+    }
+
+    // Called holding the lock, which is released while waiting for tokens and while writing
+    private void writeBatch() throws InterruptedException {
+        List<OutboundEnvelope> batch = takeBatch();
+        if (batch == null) return;
+        lock.unlock();
+        try {
+            boolean written = protoOutputStream.writeEnvelopes(batch);
+            batch.forEach(outboundEnvelope -> outboundEnvelope.written.complete(written));
+        } catch (Throwable t) {
+            // complete the envelopes on any failure, so the senders waiting for them are never stuck
+            batch.forEach(outboundEnvelope -> outboundEnvelope.written.completeExceptionally(t));
+            if (t instanceof Error) throw (Error) t;
+        } finally {
+            lock.lock();
+        }
+        numWritten += batch.size();
+        numFlushes++;
+    }
+
+    // Control messages first, then bulk data as far as tokens are available, up to the coalesce limit
+    @Nullable
+    private List<OutboundEnvelope> takeBatch() throws InterruptedException {
+        while (true) {
+            if (stopped || (controlQueue.isEmpty() && bulkQueue.isEmpty())) return null;
+            List<OutboundEnvelope> batch = new ArrayList<>();
+            int numBytes = 0;
+            while (!controlQueue.isEmpty() && (batch.isEmpty() || numBytes + controlQueue.peekFirst().bytes.length <= MAX_COALESCED_BYTES)) {
+                numBytes += controlQueue.peekFirst().bytes.length;
+                batch.add(controlQueue.removeFirst());
+            }
+            long nowNanos = System.nanoTime();
+            while (!bulkQueue.isEmpty() && (batch.isEmpty() || numBytes + bulkQueue.peekFirst().bytes.length <= MAX_COALESCED_BYTES)) {
+                if (!tokenBucket.tryAcquire(nowNanos)) break;
+                numBytes += bulkQueue.peekFirst().bytes.length;
+                batch.add(bulkQueue.removeFirst());
+            }
+            if (!batch.isEmpty()) return batch;
+
+            // wait for the next token or for a control message
+            changed.awaitNanos(Math.max(1, tokenBucket.getNanosUntilToken(nowNanos)));
+        }
+    }
+}
@@ -19,11 +19,10 @@ package haveno.network.p2p.network;
 
 import haveno.network.p2p.peers.keepalive.messages.KeepAliveMessage;
 
-import haveno.common.proto.network.NetworkEnvelope;
-
 import java.io.IOException;
 import java.io.OutputStream;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
@@ -49,19 +48,25 @@ class ProtoOutputStream {
         this.statistic = statistic;
     }
 
-    void writeEnvelope(NetworkEnvelope envelope) {
+    /**
+     * Writes the serialized envelopes with a single write and flush.
+     *
+     * @return false if the connection was closed by us before the envelopes could be written
+     */
+    boolean writeEnvelopes(List<OutboundQueue.OutboundEnvelope> envelopes) {
         lock.lock();
 
         try {
-            writeEnvelopeOrThrow(envelope);
+            writeEnvelopesOrThrow(envelopes);
+            return true;
         } catch (IOException e) {
             if (!isConnectionActive.get()) {
                 // Connection was closed by us.
-                return;
+                return false;
             }
 
-            log.error("Failed to write envelope", e);
-            throw new HavenoRuntimeException("Failed to write envelope", e);
+            log.error("Failed to write envelopes", e);
+            throw new HavenoRuntimeException("Failed to write envelopes", e);
 
         } finally {
             lock.unlock();
@@ -86,20 +91,32 @@ class ProtoOutputStream {
         }
     }
 
-    private void writeEnvelopeOrThrow(NetworkEnvelope envelope) throws IOException {
+    private void writeEnvelopesOrThrow(List<OutboundQueue.OutboundEnvelope> envelopes) throws IOException {
         long ts = System.currentTimeMillis();
-        protobuf.NetworkEnvelope proto = envelope.toProtoNetworkEnvelope();
-        proto.writeDelimitedTo(outputStream);
+        if (envelopes.size() == 1) {
+            outputStream.write(envelopes.get(0).getBytes());
+        } else {
+            int length = 0;
+            for (OutboundQueue.OutboundEnvelope envelope : envelopes) length += envelope.getBytes().length;
+            byte[] bytes = new byte[length];
+            int offset = 0;
+            for (OutboundQueue.OutboundEnvelope envelope : envelopes) {
+                System.arraycopy(envelope.getBytes(), 0, bytes, offset, envelope.getBytes().length);
+                offset += envelope.getBytes().length;
+            }
+            outputStream.write(bytes);
+        }
         outputStream.flush();
         long duration = System.currentTimeMillis() - ts;
         if (duration > 10000) {
-            log.info("Sending {} to peer took {} sec.", envelope.getClass().getSimpleName(), duration / 1000d);
+            log.info("Sending {} envelopes to peer took {} sec.", envelopes.size(), duration / 1000d);
         }
-        statistic.addSentBytes(proto.getSerializedSize());
-        statistic.addSentMessage(envelope);
-
-        if (!(envelope instanceof KeepAliveMessage)) {
-            statistic.updateLastActivityTimestamp();
+        for (OutboundQueue.OutboundEnvelope envelope : envelopes) {
+            statistic.addSentBytes(envelope.getSerializedSize());
+            statistic.addSentMessage(envelope.getEnvelope());
+            if (!(envelope.getEnvelope() instanceof KeepAliveMessage)) {
+                statistic.updateLastActivityTimestamp();
+            }
         }
     }
 
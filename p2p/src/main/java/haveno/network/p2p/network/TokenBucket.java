@@ -0,0 +1,60 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.network;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Allows bursts of up to the capacity and refills one token per interval. Callers pass the time, so the bucket can be
+ * used without a clock of its own.
+ */
+@NotThreadSafe
+class TokenBucket {
+    private final long refillIntervalNanos;
+    private final int capacity;
+    private double tokens;
+    private long lastRefillNanos;
+
+    TokenBucket(long refillIntervalNanos, int capacity, long nowNanos) {
+        if (refillIntervalNanos <= 0 || capacity <= 0)
+            throw new IllegalArgumentException("refillIntervalNanos and capacity must be positive");
+        this.refillIntervalNanos = refillIntervalNanos;
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.lastRefillNanos = nowNanos;
+    }
+
+    boolean tryAcquire(long nowNanos) {
+        refill(nowNanos);
+        if (tokens < 1) return false;
+        tokens--;
+        return true;
+    }
+
+    long getNanosUntilToken(long nowNanos) {
+        refill(nowNanos);
+        return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) * refillIntervalNanos);
+    }
+
+    private void refill(long nowNanos) {
+        long elapsedNanos = nowNanos - lastRefillNanos;
+        if (elapsedNanos <= 0) return;
+        tokens = Math.min(capacity, tokens + (double) elapsedNanos / refillIntervalNanos);
+        lastRefillNanos = nowNanos;
+    }
+}
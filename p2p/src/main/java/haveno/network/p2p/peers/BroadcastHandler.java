@@ -22,6 +22,7 @@ import haveno.network.p2p.NodeAddress;
 import haveno.network.p2p.network.Connection;
 import haveno.network.p2p.network.NetworkNode;
 import haveno.network.p2p.storage.messages.BroadcastMessage;
+import haveno.network.p2p.storage.messages.RefreshOffersMessage;
 
 import haveno.common.Timer;
 import haveno.common.UserThread;
@@ -245,13 +246,14 @@ public class BroadcastHandler implements PeerManager.Listener {
 
     // We exclude the requests containing a message we received from that connection
     // Also we filter out messages which requires a capability but peer does not
-    // support it.
+    // support it, unless we can send the contained messages instead.
     private List<Broadcaster.BroadcastRequest> getBroadcastRequestsForConnection(Connection connection,
             List<Broadcaster.BroadcastRequest> broadcastRequests) {
         return broadcastRequests.stream()
                 .filter(broadcastRequest -> !connection.getPeersNodeAddressOptional().isPresent() ||
                         !connection.getPeersNodeAddressOptional().get().equals(broadcastRequest.getSender()))
-                .filter(broadcastRequest -> connection.testCapability(broadcastRequest.getMessage()))
+                .filter(broadcastRequest -> broadcastRequest.getMessage() instanceof RefreshOffersMessage ||
+                        connection.testCapability(broadcastRequest.getMessage()))
                 .collect(Collectors.toList());
     }
 
@@ -259,7 +261,7 @@ public class BroadcastHandler implements PeerManager.Listener {
             List<Broadcaster.BroadcastRequest> broadcastRequestsForConnection,
             ListeningExecutorService executor) {
         // Can be BundleOfEnvelopes or a single BroadcastMessage
-        BroadcastMessage broadcastMessage = getMessage(broadcastRequestsForConnection);
+        BroadcastMessage broadcastMessage = getMessage(connection, broadcastRequestsForConnection);
         SettableFuture<Connection> future = networkNode.sendMessage(connection, broadcastMessage, executor);
         sendMessageFutures.add(future);
         Futures.addCallback(future, new FutureCallback<>() {
@@ -290,14 +292,23 @@ public class BroadcastHandler implements PeerManager.Listener {
         }, MoreExecutors.directExecutor());
     }
 
-    private BroadcastMessage getMessage(List<Broadcaster.BroadcastRequest> broadcastRequests) {
-        if (broadcastRequests.size() == 1) {
+    private BroadcastMessage getMessage(Connection connection, List<Broadcaster.BroadcastRequest> broadcastRequests) {
+        List<BroadcastMessage> messages = new ArrayList<>();
+        for (Broadcaster.BroadcastRequest broadcastRequest : broadcastRequests) {
+            BroadcastMessage message = broadcastRequest.getMessage();
+            if (message instanceof RefreshOffersMessage && !connection.testCapability(message)) {
+                // Peers without the REFRESH_OFFERS capability get the single refreshes
+                messages.addAll(((RefreshOffersMessage) message).getRefreshOfferMessages());
+            } else {
+                messages.add(message);
+            }
+        }
+
+        if (messages.size() == 1) {
             // If we only have 1 message we avoid the overhead of the BundleOfEnvelopes and send the message directly
-            return broadcastRequests.get(0).getMessage();
+            return messages.get(0);
         } else {
-            return new BundleOfEnvelopes(broadcastRequests.stream()
-                    .map(Broadcaster.BroadcastRequest::getMessage)
-                    .collect(Collectors.toList()));
+            return new BundleOfEnvelopes(new ArrayList<>(messages));
         }
     }
 
@@ -0,0 +1,307 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.peers.getdata;
+
+import haveno.common.crypto.Hash;
+import haveno.common.proto.network.NetworkPayload;
+import haveno.network.p2p.storage.P2PDataStorage;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import javax.annotation.Nullable;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Value;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Invertible Bloom lookup table over the payload hashes of a node. Used as compact replacement for the excluded keys
+ * of a GetDataRequest: The requester sends its table, the responder subtracts it from the table of its own keys and
+ * decodes the difference. The size of the table only depends on the expected size of the difference, not on the
+ * number of keys.
+ *
+ * Keys are reduced to 32 bytes (shorter keys get zero padded, longer keys get hashed). Each key is added to one cell
+ * in each of the {@link #NUM_SUBTABLES} subtables. A cell holds the number of keys, the XOR of the reduced keys and the
+ * XOR of their checksums.
+ */
+@EqualsAndHashCode
+public final class InvertibleBloomLookupTable implements NetworkPayload {
+    public static final int KEY_LENGTH = 32;
+    public static final int NUM_SUBTABLES = 3;
+    // Protects against tables which would be more expensive to process than the legacy list of excluded keys
+    public static final int MAX_CELLS = 1 << 18;
+
+    private static final int LONGS_PER_KEY = KEY_LENGTH / Long.BYTES;
+    private static final long CHECKSUM_SEED = 0x5A3C_97E1_B2D4_6F08L;
+    private static final long INDEX_SEED = 0x1F83_D9AB_5BE0_CD19L;
+
+    @Getter
+    private final int cellsPerSubtable;
+    private final int[] counts;
+    private final long[] keySums;
+    private final long[] checksums;
+
+    @Value
+    public static class Difference {
+        // Reduced keys which are only in the table we subtracted from
+        Set<P2PDataStorage.ByteArray> localOnly;
+        // Reduced keys which are only in the subtracted table
+        Set<P2PDataStorage.ByteArray> remoteOnly;
+    }
+
+    public InvertibleBloomLookupTable(int cellsPerSubtable) {
+        this(cellsPerSubtable,
+                new int[cellsPerSubtable * NUM_SUBTABLES],
+                new long[cellsPerSubtable * NUM_SUBTABLES * LONGS_PER_KEY],
+                new long[cellsPerSubtable * NUM_SUBTABLES]);
+    }
+
+    private InvertibleBloomLookupTable(int cellsPerSubtable, int[] counts, long[] keySums, long[] checksums) {
+        checkArgument(cellsPerSubtable > 0 && cellsPerSubtable * NUM_SUBTABLES <= MAX_CELLS,
+                "Invalid number of cells per subtable: %s", cellsPerSubtable);
+        this.cellsPerSubtable = cellsPerSubtable;
+        this.counts = counts;
+        this.keySums = keySums;
+        this.checksums = checksums;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // PROTO BUFFER
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public protobuf.InvertibleBloomLookupTable toProtoMessage() {
+        protobuf.InvertibleBloomLookupTable.Builder builder = protobuf.InvertibleBloomLookupTable.newBuilder();
+        Arrays.stream(counts).forEach(builder::addCounts);
+        Arrays.stream(keySums).forEach(builder::addKeySums);
+        Arrays.stream(checksums).forEach(builder::addChecksums);
+        return builder.build();
+    }
+
+    @Nullable
+    public static InvertibleBloomLookupTable fromProto(protobuf.InvertibleBloomLookupTable proto) {
+        int numCells = proto.getCountsCount();
+        if (numCells == 0) {
+            return null;
+        }
+        checkArgument(numCells % NUM_SUBTABLES == 0 &&
+                        numCells <= MAX_CELLS &&
+                        proto.getKeySumsCount() == numCells * LONGS_PER_KEY &&
+                        proto.getChecksumsCount() == numCells,
+                "Invalid InvertibleBloomLookupTable with %s cells", numCells);
+        return new InvertibleBloomLookupTable(numCells / NUM_SUBTABLES,
+                proto.getCountsList().stream().mapToInt(Integer::intValue).toArray(),
+                proto.getKeySumsList().stream().mapToLong(Long::longValue).toArray(),
+                proto.getChecksumsList().stream().mapToLong(Long::longValue).toArray());
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @return The reduced form of the key as it is used in the table and returned by {@link #decode()}.
+     */
+    public static P2PDataStorage.ByteArray reduce(byte[] key) {
+        if (key.length == KEY_LENGTH) {
+            return new P2PDataStorage.ByteArray(key);
+        } else if (key.length < KEY_LENGTH) {
+            return new P2PDataStorage.ByteArray(Arrays.copyOf(key, KEY_LENGTH));
+        } else {
+            return new P2PDataStorage.ByteArray(Hash.getSha256Hash(key));
+        }
+    }
+
+    /**
+     * @return The number of cells per subtable we use for a table which is expected to decode a difference of the
+     * given size. We allocate 1.5 times as many cells as the difference has keys, which leaves some margin above
+     * the about 1.3 times at which decoding succeeds with high probability.
+     */
+    public static int getCellsPerSubtable(int expectedDifference) {
+        return Math.min(MAX_CELLS / NUM_SUBTABLES, Math.max(16, (int) (expectedDifference * 1.5) / NUM_SUBTABLES + 1));
+    }
+
+    public void add(byte[] key) {
+        update(reduce(key).bytes, 1);
+    }
+
+    /**
+     * @return A new table containing the keys of this table which are not in the other table and (with negative
+     * count) the keys of the other table which are not in this table.
+     */
+    public InvertibleBloomLookupTable subtract(InvertibleBloomLookupTable other) {
+        checkArgument(cellsPerSubtable == other.cellsPerSubtable, "Tables have a different size");
+        int[] resultCounts = new int[counts.length];
+        long[] resultKeySums = new long[keySums.length];
+        long[] resultChecksums = new long[checksums.length];
+        for (int i = 0; i < counts.length; i++) {
+            resultCounts[i] = counts[i] - other.counts[i];
+            resultChecksums[i] = checksums[i] ^ other.checksums[i];
+        }
+        for (int i = 0; i < keySums.length; i++) {
+            resultKeySums[i] = keySums[i] ^ other.keySums[i];
+        }
+        return new InvertibleBloomLookupTable(cellsPerSubtable, resultCounts, resultKeySums, resultChecksums);
+    }
+
+    /**
+     * Lists the keys of a table resulting from {@link #subtract(InvertibleBloomLookupTable)}.
+     *
+     * @return The difference or null if the table is too small for the difference to be decoded.
+     */
+    @Nullable
+    public Difference decode() {
+        int[] counts = this.counts.clone();
+        long[] keySums = this.keySums.clone();
+        long[] checksums = this.checksums.clone();
+        Set<P2PDataStorage.ByteArray> localOnly = new HashSet<>();
+        Set<P2PDataStorage.ByteArray> remoteOnly = new HashSet<>();
+
+        Deque<Integer> pureCells = new ArrayDeque<>();
+        for (int cell = 0; cell < counts.length; cell++) {
+            if (isPure(cell, counts, keySums, checksums)) {
+                pureCells.add(cell);
+            }
+        }
+
+        long[] key = new long[LONGS_PER_KEY];
+        int[] cells = new int[NUM_SUBTABLES];
+        while (!pureCells.isEmpty()) {
+            int pureCell = pureCells.poll();
+            if (!isPure(pureCell, counts, keySums, checksums)) {
+                continue;
+            }
+            int count = counts[pureCell];
+            System.arraycopy(keySums, pureCell * LONGS_PER_KEY, key, 0, LONGS_PER_KEY);
+            P2PDataStorage.ByteArray decodedKey = toByteArray(key);
+            if (!(count > 0 ? localOnly : remoteOnly).add(decodedKey)) {
+                // A key can only be decoded once unless the tables are inconsistent
+                return null;
+            }
+
+            long checksum = checksum(key);
+            getCells(key, cells);
+            for (int cell : cells) {
+                counts[cell] -= count;
+                checksums[cell] ^= checksum;
+                for (int i = 0; i < LONGS_PER_KEY; i++) {
+                    keySums[cell * LONGS_PER_KEY + i] ^= key[i];
+                }
+                if (isPure(cell, counts, keySums, checksums)) {
+                    pureCells.add(cell);
+                }
+            }
+        }
+
+        for (int cell = 0; cell < counts.length; cell++) {
+            if (counts[cell] != 0 || checksums[cell] != 0) {
+                return null;
+            }
+        }
+        return new Difference(localOnly, remoteOnly);
+    }
+
+    public int getNumCells() {
+        return counts.length;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void update(byte[] reducedKey, int count) {
+        long[] key = toLongs(reducedKey);
+        long checksum = checksum(key);
+        int[] cells = new int[NUM_SUBTABLES];
+        getCells(key, cells);
+        for (int cell : cells) {
+            counts[cell] += count;
+            checksums[cell] ^= checksum;
+            for (int i = 0; i < LONGS_PER_KEY; i++) {
+                keySums[cell * LONGS_PER_KEY + i] ^= key[i];
+            }
+        }
+    }
+
+    private boolean isPure(int cell, int[] counts, long[] keySums, long[] checksums) {
+        int count = counts[cell];
+        if (count != 1 && count != -1) {
+            return false;
+        }
+        long[] key = Arrays.copyOfRange(keySums, cell * LONGS_PER_KEY, (cell + 1) * LONGS_PER_KEY);
+        return checksums[cell] == checksum(key) && isInCell(key, cell);
+    }
+
+    private boolean isInCell(long[] key, int cell) {
+        int[] cells = new int[NUM_SUBTABLES];
+        getCells(key, cells);
+        return cells[cell / cellsPerSubtable] == cell;
+    }
+
+    // Each key maps to exactly one cell of each subtable
+    private void getCells(long[] key, int[] cells) {
+        long hash = hash(key, INDEX_SEED);
+        for (int i = 0; i < NUM_SUBTABLES; i++) {
+            long subtableHash = mix(hash + (i + 1) * 0x9E37_79B9_7F4A_7C15L);
+            cells[i] = i * cellsPerSubtable + (int) Long.remainderUnsigned(subtableHash, cellsPerSubtable);
+        }
+    }
+
+    private static long checksum(long[] key) {
+        return hash(key, CHECKSUM_SEED);
+    }
+
+    private static long hash(long[] key, long seed) {
+        long hash = seed;
+        for (long value : key) {
+            hash = mix(hash ^ value);
+        }
+        return hash;
+    }
+
+    // Finalizer of the SplitMix64 generator
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58_476D_1CE4_E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D0_49BB_1331_11EBL;
+        return value ^ (value >>> 31);
+    }
+
+    private static long[] toLongs(byte[] reducedKey) {
+        ByteBuffer buffer = ByteBuffer.wrap(reducedKey);
+        long[] key = new long[LONGS_PER_KEY];
+        for (int i = 0; i < LONGS_PER_KEY; i++) {
+            key[i] = buffer.getLong();
+        }
+        return key;
+    }
+
+    private static P2PDataStorage.ByteArray toByteArray(long[] key) {
+        ByteBuffer buffer = ByteBuffer.allocate(KEY_LENGTH);
+        for (long value : key) {
+            buffer.putLong(value);
+        }
+        return new P2PDataStorage.ByteArray(buffer.array());
+    }
+}
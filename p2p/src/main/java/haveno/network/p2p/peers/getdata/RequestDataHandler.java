@@ -23,6 +23,7 @@ import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.SettableFuture;
 import haveno.common.Timer;
 import haveno.common.UserThread;
+import haveno.common.app.Capability;
 import haveno.common.proto.network.NetworkEnvelope;
 import haveno.common.proto.network.NetworkPayload;
 import haveno.common.util.Tuple2;
@@ -87,6 +88,9 @@ class RequestDataHandler implements MessageListener {
     private Timer timeoutTimer;
     private final int nonce = new Random().nextInt();
     private boolean stopped;
+    private boolean isPreliminaryDataRequest;
+    // Set if the peer could not decode the difference to our excludedKeysTable
+    private boolean excludedKeysTableNotDecodable;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -114,13 +118,16 @@ class RequestDataHandler implements MessageListener {
 
     void requestData(NodeAddress nodeAddress, boolean isPreliminaryDataRequest) {
         peersNodeAddress = nodeAddress;
+        this.isPreliminaryDataRequest = isPreliminaryDataRequest;
         if (!stopped) {
             GetDataRequest getDataRequest;
+            boolean useExcludedKeysTable = !excludedKeysTableNotDecodable &&
+                    peerManager.peerHasCapability(nodeAddress, Capability.SET_RECONCILIATION);
 
             if (isPreliminaryDataRequest)
-                getDataRequest = dataStorage.buildPreliminaryGetDataRequest(nonce);
+                getDataRequest = dataStorage.buildPreliminaryGetDataRequest(nonce, useExcludedKeysTable);
             else
-                getDataRequest = dataStorage.buildGetUpdatedDataRequest(networkNode.getNodeAddress(), nonce);
+                getDataRequest = dataStorage.buildGetUpdatedDataRequest(networkNode.getNodeAddress(), nonce, useExcludedKeysTable);
 
             if (timeoutTimer == null) {
                 timeoutTimer = UserThread.runAfter(() -> {  // setup before sending to avoid race conditions
@@ -192,6 +199,14 @@ class RequestDataHandler implements MessageListener {
                     logContents(getDataResponse);
                     if (getDataResponse.getRequestNonce() == nonce) {
                         stopTimeoutTimer();
+                        if (getDataResponse.isExcludedKeysTableNotDecodable() && !excludedKeysTableNotDecodable) {
+                            log.info("Peer {} could not decode our excludedKeysTable. We repeat the request with " +
+                                    "the excluded keys.", peersNodeAddress);
+                            excludedKeysTableNotDecodable = true;
+                            networkNode.removeMessageListener(this);
+                            requestData(peersNodeAddress, isPreliminaryDataRequest);
+                            return;
+                        }
                         if (!connection.getPeersNodeAddressOptional().isPresent()) {
                             log.error("RequestDataHandler.onMessage: connection.getPeersNodeAddressOptional() must be present " +
                                     "at that moment");
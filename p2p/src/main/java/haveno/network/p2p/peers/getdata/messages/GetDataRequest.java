@@ -20,6 +20,7 @@ package haveno.network.p2p.peers.getdata.messages;
 import haveno.common.proto.network.NetworkEnvelope;
 import haveno.network.p2p.ExtendedDataSizePermission;
 import haveno.network.p2p.InitialDataRequest;
+import haveno.network.p2p.peers.getdata.InvertibleBloomLookupTable;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
@@ -41,13 +42,20 @@ public abstract class GetDataRequest extends NetworkEnvelope implements Extended
     @Nullable
     protected final String version;
 
+    // Replaces the excludedKeys if the peer has the SET_RECONCILIATION capability. The responder subtracts it from
+    // the table of its own keys and sends the decoded difference.
+    @Nullable
+    protected final InvertibleBloomLookupTable excludedKeysTable;
+
     public GetDataRequest(String messageVersion,
                           int nonce,
                           Set<byte[]> excludedKeys,
-                          @Nullable String version) {
+                          @Nullable String version,
+                          @Nullable InvertibleBloomLookupTable excludedKeysTable) {
         super(messageVersion);
         this.nonce = nonce;
         this.excludedKeys = excludedKeys;
         this.version = version;
+        this.excludedKeysTable = excludedKeysTable;
     }
 }
@@ -22,6 +22,7 @@ import haveno.common.app.Version;
 import haveno.common.proto.network.NetworkEnvelope;
 import haveno.common.proto.network.NetworkProtoResolver;
 import haveno.common.util.Utilities;
+import haveno.network.p2p.CompressionPermission;
 import haveno.network.p2p.ExtendedDataSizePermission;
 import haveno.network.p2p.InitialDataRequest;
 import haveno.network.p2p.InitialDataResponse;
@@ -41,7 +42,7 @@ import java.util.stream.Collectors;
 @EqualsAndHashCode(callSuper = true)
 @Value
 public final class GetDataResponse extends NetworkEnvelope implements SupportedCapabilitiesMessage,
-        ExtendedDataSizePermission, InitialDataResponse {
+        ExtendedDataSizePermission, CompressionPermission, InitialDataResponse {
     // Set of ProtectedStorageEntry objects
     private final Set<ProtectedStorageEntry> dataSet;
 
@@ -56,6 +57,10 @@ public final class GetDataResponse extends NetworkEnvelope implements SupportedC
     // Added at v1.9.6
     private final boolean wasTruncated;
 
+    // If set the responder could not decode the difference to the excludedKeysTable of the request. The requester
+    // has to repeat the request with the excluded keys.
+    private final boolean excludedKeysTableNotDecodable;
+
     public GetDataResponse(@NotNull Set<ProtectedStorageEntry> dataSet,
                            @NotNull Set<PersistableNetworkPayload> persistableNetworkPayloadSet,
                            int requestNonce,
@@ -66,6 +71,21 @@ public final class GetDataResponse extends NetworkEnvelope implements SupportedC
                 requestNonce,
                 isGetUpdatedDataResponse,
                 wasTruncated,
+                false);
+    }
+
+    public GetDataResponse(@NotNull Set<ProtectedStorageEntry> dataSet,
+                           @NotNull Set<PersistableNetworkPayload> persistableNetworkPayloadSet,
+                           int requestNonce,
+                           boolean isGetUpdatedDataResponse,
+                           boolean wasTruncated,
+                           boolean excludedKeysTableNotDecodable) {
+        this(dataSet,
+                persistableNetworkPayloadSet,
+                requestNonce,
+                isGetUpdatedDataResponse,
+                wasTruncated,
+                excludedKeysTableNotDecodable,
                 Capabilities.app,
                 Version.getP2PMessageVersion());
     }
@@ -79,6 +99,7 @@ public final class GetDataResponse extends NetworkEnvelope implements SupportedC
                             int requestNonce,
                             boolean isGetUpdatedDataResponse,
                             boolean wasTruncated,
+                            boolean excludedKeysTableNotDecodable,
                             @NotNull Capabilities supportedCapabilities,
                             String messageVersion) {
         super(messageVersion);
@@ -88,6 +109,7 @@ public final class GetDataResponse extends NetworkEnvelope implements SupportedC
         this.requestNonce = requestNonce;
         this.isGetUpdatedDataResponse = isGetUpdatedDataResponse;
         this.wasTruncated = wasTruncated;
+        this.excludedKeysTableNotDecodable = excludedKeysTableNotDecodable;
         this.supportedCapabilities = supportedCapabilities;
     }
 
@@ -110,6 +132,7 @@ public final class GetDataResponse extends NetworkEnvelope implements SupportedC
                 .setRequestNonce(requestNonce)
                 .setIsGetUpdatedDataResponse(isGetUpdatedDataResponse)
                 .setWasTruncated(wasTruncated)
+                .setExcludedKeysTableNotDecodable(excludedKeysTableNotDecodable)
                 .addAllSupportedCapabilities(Capabilities.toIntList(supportedCapabilities));
 
         protobuf.NetworkEnvelope proto = getNetworkEnvelopeBuilder()
@@ -135,6 +158,7 @@ public final class GetDataResponse extends NetworkEnvelope implements SupportedC
                 proto.getRequestNonce(),
                 proto.getIsGetUpdatedDataResponse(),
                 wasTruncated,
+                proto.getExcludedKeysTableNotDecodable(),
                 Capabilities.fromIntList(proto.getSupportedCapabilitiesList()),
                 messageVersion);
     }
@@ -22,6 +22,7 @@ import haveno.common.app.Version;
 import haveno.common.proto.ProtoUtil;
 import haveno.network.p2p.NodeAddress;
 import haveno.network.p2p.SendersNodeAddressMessage;
+import haveno.network.p2p.peers.getdata.InvertibleBloomLookupTable;
 import lombok.EqualsAndHashCode;
 import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
@@ -41,10 +42,18 @@ public final class GetUpdatedDataRequest extends GetDataRequest implements Sende
     public GetUpdatedDataRequest(NodeAddress senderNodeAddress,
                                  int nonce,
                                  Set<byte[]> excludedKeys) {
+        this(senderNodeAddress, nonce, excludedKeys, null);
+    }
+
+    public GetUpdatedDataRequest(NodeAddress senderNodeAddress,
+                                 int nonce,
+                                 Set<byte[]> excludedKeys,
+                                 @Nullable InvertibleBloomLookupTable excludedKeysTable) {
         this(senderNodeAddress,
                 nonce,
                 excludedKeys,
                 Version.VERSION,
+                excludedKeysTable,
                 Version.getP2PMessageVersion());
     }
 
@@ -57,11 +66,13 @@ public final class GetUpdatedDataRequest extends GetDataRequest implements Sende
                                   int nonce,
                                   Set<byte[]> excludedKeys,
                                   @Nullable String version,
+                                  @Nullable InvertibleBloomLookupTable excludedKeysTable,
                                   String messageVersion) {
         super(messageVersion,
                 nonce,
                 excludedKeys,
-                version);
+                version,
+                excludedKeysTable);
         this.senderNodeAddress = senderNodeAddress;
     }
 
@@ -74,23 +85,29 @@ public final class GetUpdatedDataRequest extends GetDataRequest implements Sende
                         .map(ByteString::copyFrom)
                         .collect(Collectors.toList()));
         Optional.ofNullable(version).ifPresent(builder::setVersion);
+        Optional.ofNullable(excludedKeysTable).ifPresent(table -> builder.setExcludedKeysTable(table.toProtoMessage()));
         NetworkEnvelope proto = getNetworkEnvelopeBuilder()
                 .setGetUpdatedDataRequest(builder)
                 .build();
-        log.info("Sending a GetUpdatedDataRequest with {} kB and {} excluded key entries. Requesters version={}",
-                proto.getSerializedSize() / 1000d, excludedKeys.size(), version);
+        log.info("Sending a GetUpdatedDataRequest with {} kB, {} excluded key entries and {} excluded key table cells. Requesters version={}",
+                proto.getSerializedSize() / 1000d, excludedKeys.size(),
+                excludedKeysTable != null ? excludedKeysTable.getNumCells() : 0, version);
         return proto;
     }
 
     public static GetUpdatedDataRequest fromProto(protobuf.GetUpdatedDataRequest proto, String messageVersion) {
         Set<byte[]> excludedKeys = ProtoUtil.byteSetFromProtoByteStringList(proto.getExcludedKeysList());
         String requestersVersion = ProtoUtil.stringOrNullFromProto(proto.getVersion());
-        log.info("Received a GetUpdatedDataRequest with {} kB and {} excluded key entries. Requesters version={}",
-                proto.getSerializedSize() / 1000d, excludedKeys.size(), requestersVersion);
+        InvertibleBloomLookupTable excludedKeysTable = proto.hasExcludedKeysTable() ?
+                InvertibleBloomLookupTable.fromProto(proto.getExcludedKeysTable()) : null;
+        log.info("Received a GetUpdatedDataRequest with {} kB, {} excluded key entries and {} excluded key table cells. Requesters version={}",
+                proto.getSerializedSize() / 1000d, excludedKeys.size(),
+                excludedKeysTable != null ? excludedKeysTable.getNumCells() : 0, requestersVersion);
         return new GetUpdatedDataRequest(NodeAddress.fromProto(proto.getSenderNodeAddress()),
                 proto.getNonce(),
                 excludedKeys,
                 requestersVersion,
+                excludedKeysTable,
                 messageVersion);
     }
 }
@@ -23,6 +23,7 @@ import haveno.common.app.Version;
 import haveno.common.proto.ProtoUtil;
 import haveno.network.p2p.AnonymousMessage;
 import haveno.network.p2p.SupportedCapabilitiesMessage;
+import haveno.network.p2p.peers.getdata.InvertibleBloomLookupTable;
 import lombok.EqualsAndHashCode;
 import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
@@ -40,9 +41,16 @@ public final class PreliminaryGetDataRequest extends GetDataRequest implements A
     private final Capabilities supportedCapabilities;
 
     public PreliminaryGetDataRequest(int nonce, Set<byte[]> excludedKeys) {
+        this(nonce, excludedKeys, null);
+    }
+
+    public PreliminaryGetDataRequest(int nonce,
+                                     Set<byte[]> excludedKeys,
+                                     @Nullable InvertibleBloomLookupTable excludedKeysTable) {
         this(nonce,
                 excludedKeys,
                 Version.VERSION,
+                excludedKeysTable,
                 Capabilities.app,
                 Version.getP2PMessageVersion());
     }
@@ -55,9 +63,10 @@ public final class PreliminaryGetDataRequest extends GetDataRequest implements A
     private PreliminaryGetDataRequest(int nonce,
                                       Set<byte[]> excludedKeys,
                                       @Nullable String version,
+                                      @Nullable InvertibleBloomLookupTable excludedKeysTable,
                                       Capabilities supportedCapabilities,
                                       String messageVersion) {
-        super(messageVersion, nonce, excludedKeys, version);
+        super(messageVersion, nonce, excludedKeys, version, excludedKeysTable);
 
         this.supportedCapabilities = supportedCapabilities;
     }
@@ -71,22 +80,28 @@ public final class PreliminaryGetDataRequest extends GetDataRequest implements A
                         .map(ByteString::copyFrom)
                         .collect(Collectors.toList()));
         Optional.ofNullable(version).ifPresent(builder::setVersion);
+        Optional.ofNullable(excludedKeysTable).ifPresent(table -> builder.setExcludedKeysTable(table.toProtoMessage()));
         NetworkEnvelope proto = getNetworkEnvelopeBuilder()
                 .setPreliminaryGetDataRequest(builder)
                 .build();
-        log.info("Sending a PreliminaryGetDataRequest with {} kB and {} excluded key entries. Requesters version={}",
-                proto.getSerializedSize() / 1000d, excludedKeys.size(), version);
+        log.info("Sending a PreliminaryGetDataRequest with {} kB, {} excluded key entries and {} excluded key table cells. Requesters version={}",
+                proto.getSerializedSize() / 1000d, excludedKeys.size(),
+                excludedKeysTable != null ? excludedKeysTable.getNumCells() : 0, version);
         return proto;
     }
 
     public static PreliminaryGetDataRequest fromProto(protobuf.PreliminaryGetDataRequest proto, String messageVersion) {
         Set<byte[]> excludedKeys = ProtoUtil.byteSetFromProtoByteStringList(proto.getExcludedKeysList());
         String requestersVersion = ProtoUtil.stringOrNullFromProto(proto.getVersion());
-        log.info("Received a PreliminaryGetDataRequest with {} kB and {} excluded key entries. Requesters version={}",
-                proto.getSerializedSize() / 1000d, excludedKeys.size(), requestersVersion);
+        InvertibleBloomLookupTable excludedKeysTable = proto.hasExcludedKeysTable() ?
+                InvertibleBloomLookupTable.fromProto(proto.getExcludedKeysTable()) : null;
+        log.info("Received a PreliminaryGetDataRequest with {} kB, {} excluded key entries and {} excluded key table cells. Requesters version={}",
+                proto.getSerializedSize() / 1000d, excludedKeys.size(),
+                excludedKeysTable != null ? excludedKeysTable.getNumCells() : 0, requestersVersion);
         return new PreliminaryGetDataRequest(proto.getNonce(),
                 excludedKeys,
                 requestersVersion,
+                excludedKeysTable,
                 Capabilities.fromIntList(proto.getSupportedCapabilitiesList()),
                 messageVersion);
     }
@@ -18,7 +18,10 @@
 package haveno.network.p2p.storage;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Maps;
+import com.google.common.math.LongMath;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
 import com.google.protobuf.ByteString;
@@ -45,6 +48,7 @@ import haveno.network.p2p.network.MessageListener;
 import haveno.network.p2p.network.NetworkNode;
 import haveno.network.p2p.peers.BroadcastHandler;
 import haveno.network.p2p.peers.Broadcaster;
+import haveno.network.p2p.peers.getdata.InvertibleBloomLookupTable;
 import haveno.network.p2p.peers.getdata.messages.GetDataRequest;
 import haveno.network.p2p.peers.getdata.messages.GetDataResponse;
 import haveno.network.p2p.peers.getdata.messages.GetUpdatedDataRequest;
@@ -54,11 +58,13 @@ import haveno.network.p2p.storage.messages.AddOncePayload;
 import haveno.network.p2p.storage.messages.AddPersistableNetworkPayloadMessage;
 import haveno.network.p2p.storage.messages.BroadcastMessage;
 import haveno.network.p2p.storage.messages.RefreshOfferMessage;
+import haveno.network.p2p.storage.messages.RefreshOffersMessage;
 import haveno.network.p2p.storage.messages.RemoveDataMessage;
 import haveno.network.p2p.storage.messages.RemoveMailboxDataMessage;
 import haveno.network.p2p.storage.payload.CapabilityRequiringPayload;
 import haveno.network.p2p.storage.payload.DateSortedTruncatablePayload;
 import haveno.network.p2p.storage.payload.DateTolerantPayload;
+import haveno.network.p2p.storage.payload.ExpirablePayload;
 import haveno.network.p2p.storage.payload.MailboxStoragePayload;
 import haveno.network.p2p.storage.payload.PersistableNetworkPayload;
 import haveno.network.p2p.storage.payload.ProcessOncePersistableNetworkPayload;
@@ -97,6 +103,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javax.annotation.Nullable;
@@ -119,6 +126,17 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     @VisibleForTesting
     public static final int CHECK_TTL_INTERVAL_SEC = 60;
 
+    // Min. number of differing payloads the excludedKeysTable of a GetDataRequest is able to decode
+    private static final int MIN_EXPECTED_DIFFERENCE = 200;
+
+    // Hashes of the payloads we have added to our map, so we do not serialize and hash them again at each lookup,
+    // refresh or remove. Weak keys are compared by identity, so equal payloads of other instances (e.g. received
+    // again from the network) are not affected. Payloads which can be changed in place (e.g. an offer which gets
+    // signed again) have to call invalidate32ByteHash on each change.
+    private static final Cache<ProtectedStoragePayload, ByteArray> PAYLOAD_HASH_CACHE = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build();
+
     private boolean initialRequestApplied = false;
 
     private final Broadcaster broadcaster;
@@ -131,11 +149,15 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     private final Map<ByteArray, ProtectedStorageEntry> map = new ConcurrentHashMap<>();
     private final Set<HashMapChangedListener> hashMapChangedListeners = new CopyOnWriteArraySet<>();
     private Timer removeExpiredEntriesTimer;
+    // Hashes of the entries with an ExpirablePayload ordered by the time they expire
+    private final TimestampIndex<ByteArray> expirationIndex = new TimestampIndex<>();
 
     private final PersistenceManager<SequenceNumberMap> persistenceManager;
 
     @VisibleForTesting
     final SequenceNumberMap sequenceNumberMap = new SequenceNumberMap();
+    // Hashes of the sequenceNumberMap ordered by the timestamp of their MapValue
+    private final TimestampIndex<ByteArray> sequenceNumberIndex = new TimestampIndex<>();
 
     private final Set<AppendOnlyDataStoreListener> appendOnlyDataStoreListeners = new CopyOnWriteArraySet<>();
     private final RemovedPayloadsService removedPayloadsService;
@@ -188,7 +210,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     public void readPersisted(Runnable completeHandler) {
         persistenceManager.readPersisted(persisted -> {
             synchronized (persisted.getMap()) {
-                sequenceNumberMap.setMap(getPurgedSequenceNumberMap(persisted.getMap()));
+                setSequenceNumberMap(getPurgedSequenceNumberMap(persisted.getMap()));
             }
             completeHandler.run();
         },
@@ -201,7 +223,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         SequenceNumberMap persisted = persistenceManager.getPersisted();
         if (persisted != null) {
             synchronized (persisted.getMap()) {
-                sequenceNumberMap.setMap(getPurgedSequenceNumberMap(persisted.getMap()));
+                setSequenceNumberMap(getPurgedSequenceNumberMap(persisted.getMap()));
             }
         }
     }
@@ -225,7 +247,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         appendOnlyDataStoreService.readFromResources(postFix, () -> appendOnlyDataStoreServiceReady.set(true));
         protectedDataStoreService.readFromResources(postFix, () -> {
             synchronized (map) {
-                map.putAll(protectedDataStoreService.getMap());
+                putAllToMap(protectedDataStoreService.getMap());
                 protectedDataStoreServiceReady.set(true);
             }
         });
@@ -240,7 +262,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             protectedDataStoreService.readFromResourcesSync(postFix);
             resourceDataStoreService.readFromResourcesSync(postFix);
 
-            map.putAll(protectedDataStoreService.getMap());
+            putAllToMap(protectedDataStoreService.getMap());
         }
     }
 
@@ -250,7 +272,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         synchronized (map) {
             ProtectedStoragePayload protectedStoragePayload = protectedStorageEntry.getProtectedStoragePayload();
             ByteArray hashOfPayload = get32ByteHashAsByteArray(protectedStoragePayload);
-            map.put(hashOfPayload, protectedStorageEntry);
+            putToMap(hashOfPayload, protectedStorageEntry);
             //log.trace("## addProtectedMailboxStorageEntryToMap hashOfPayload={}, map={}", hashOfPayload, printMap());
         }
     }
@@ -263,14 +285,50 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
      * Returns a PreliminaryGetDataRequest that can be sent to a peer node to request missing Payload data.
      */
     public PreliminaryGetDataRequest buildPreliminaryGetDataRequest(int nonce) {
-        return new PreliminaryGetDataRequest(nonce, getKnownPayloadHashes());
+        return buildPreliminaryGetDataRequest(nonce, false);
+    }
+
+    /**
+     * Returns a PreliminaryGetDataRequest that can be sent to a peer node to request missing Payload data.
+     *
+     * @param useExcludedKeysTable If true and if it is smaller we send an InvertibleBloomLookupTable of the known
+     *                             payload hashes instead of the hashes. The peer needs the SET_RECONCILIATION capability.
+     */
+    public PreliminaryGetDataRequest buildPreliminaryGetDataRequest(int nonce, boolean useExcludedKeysTable) {
+        Set<byte[]> knownPayloadHashes = getKnownPayloadHashes();
+        // After startup we expect to miss the data published while we were offline. If that was more than expected
+        // the peer cannot decode the difference and we repeat the request with the hashes.
+        int expectedDifference = Math.max(MIN_EXPECTED_DIFFERENCE, knownPayloadHashes.size() / 16);
+        InvertibleBloomLookupTable excludedKeysTable = useExcludedKeysTable ?
+                buildExcludedKeysTable(knownPayloadHashes, expectedDifference) : null;
+        return excludedKeysTable != null ?
+                new PreliminaryGetDataRequest(nonce, new HashSet<>(), excludedKeysTable) :
+                new PreliminaryGetDataRequest(nonce, knownPayloadHashes);
     }
 
     /**
      * Returns a GetUpdatedDataRequest that can be sent to a peer node to request missing Payload data.
      */
     public GetUpdatedDataRequest buildGetUpdatedDataRequest(NodeAddress senderNodeAddress, int nonce) {
-        return new GetUpdatedDataRequest(senderNodeAddress, nonce, getKnownPayloadHashes());
+        return buildGetUpdatedDataRequest(senderNodeAddress, nonce, false);
+    }
+
+    /**
+     * Returns a GetUpdatedDataRequest that can be sent to a peer node to request missing Payload data.
+     *
+     * @param useExcludedKeysTable If true and if it is smaller we send an InvertibleBloomLookupTable of the known
+     *                             payload hashes instead of the hashes. The peer needs the SET_RECONCILIATION capability.
+     */
+    public GetUpdatedDataRequest buildGetUpdatedDataRequest(NodeAddress senderNodeAddress,
+                                                            int nonce,
+                                                            boolean useExcludedKeysTable) {
+        Set<byte[]> knownPayloadHashes = getKnownPayloadHashes();
+        // We have requested the data shortly before, so we only expect to miss recently published data
+        InvertibleBloomLookupTable excludedKeysTable = useExcludedKeysTable ?
+                buildExcludedKeysTable(knownPayloadHashes, MIN_EXPECTED_DIFFERENCE) : null;
+        return excludedKeysTable != null ?
+                new GetUpdatedDataRequest(senderNodeAddress, nonce, new HashSet<>(), excludedKeysTable) :
+                new GetUpdatedDataRequest(senderNodeAddress, nonce, knownPayloadHashes);
     }
 
     /**
@@ -288,6 +346,24 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         return excludedKeys;
     }
 
+    /**
+     * Returns a table of the known payload hashes which is able to decode a difference of expectedDifference
+     * payloads to the data of a peer, or null if the table would not be smaller than the hashes.
+     */
+    @Nullable
+    private InvertibleBloomLookupTable buildExcludedKeysTable(Set<byte[]> knownPayloadHashes, int expectedDifference) {
+        int cellsPerSubtable = InvertibleBloomLookupTable.getCellsPerSubtable(expectedDifference);
+        long tableSize = (long) cellsPerSubtable * InvertibleBloomLookupTable.NUM_SUBTABLES *
+                (InvertibleBloomLookupTable.KEY_LENGTH + 8 + 2);
+        if (tableSize >= (long) knownPayloadHashes.size() * InvertibleBloomLookupTable.KEY_LENGTH) {
+            return null;
+        }
+
+        InvertibleBloomLookupTable table = new InvertibleBloomLookupTable(cellsPerSubtable);
+        knownPayloadHashes.forEach(table::add);
+        return table;
+    }
+
     /**
      * Returns a GetDataResponse object that contains the Payloads known locally, but not remotely.
      */
@@ -306,6 +382,27 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         // mapForDataResponse contains the filtered by version data from HistoricalDataStoreService as well as all other
         // maps of the remaining appendOnlyDataStoreServices.
         Map<ByteArray, PersistableNetworkPayload> mapForDataResponse = getMapForDataResponse(getDataRequest.getVersion());
+        Map<ByteArray, ProtectedStorageEntry> mapOfProtectedStorageEntries = map;
+
+        InvertibleBloomLookupTable excludedKeysTable = getDataRequest.getExcludedKeysTable();
+        if (excludedKeysTable != null) {
+            // We only keep the entries the requester does not have, so the filtering below only has to deal with the
+            // difference.
+            Set<ByteArray> missingKeys = decodeMissingKeys(excludedKeysTable, mapForDataResponse, map);
+            if (missingKeys == null) {
+                log.info("We could not decode the excludedKeysTable with {} cells. The requester has to repeat the " +
+                        "request with the excluded keys.", excludedKeysTable.getNumCells());
+                return new GetDataResponse(new HashSet<>(),
+                        new HashSet<>(),
+                        getDataRequest.getNonce(),
+                        getDataRequest instanceof GetUpdatedDataRequest,
+                        false,
+                        true);
+            }
+            mapForDataResponse = getSubMap(mapForDataResponse, missingKeys);
+            mapOfProtectedStorageEntries = getSubMap(map, missingKeys);
+            log.info("The requester misses {} of our entries", missingKeys.size());
+        }
 
         // Give a bit of tolerance for message overhead
         double maxSize = Connection.getMaxPermittedMessageSize() * 0.6;
@@ -324,15 +421,17 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         log.info("{} PersistableNetworkPayload entries remained after filtered by excluded keys. " +
                 "Original map had {} entries.",
                 filteredPersistableNetworkPayloads.size(), mapForDataResponse.size());
-        log.trace("## buildGetDataResponse filteredPersistableNetworkPayloadHashes={}",
-                filteredPersistableNetworkPayloads.stream()
-                        .map(e -> Utilities.encodeToHex(e.getHash()))
-                        .toArray());
+        if (log.isTraceEnabled()) {
+            log.trace("## buildGetDataResponse filteredPersistableNetworkPayloadHashes={}",
+                    filteredPersistableNetworkPayloads.stream()
+                            .map(e -> Utilities.encodeToHex(e.getHash()))
+                            .toArray());
+        }
 
         // We give 75% space to ProtectedStorageEntries as they contain MailBoxMessages and those can be larger.
         limit = Math.round(maxSize * 0.75);
         Set<ProtectedStorageEntry> filteredProtectedStorageEntries = filterKnownHashes(
-                map,
+                mapOfProtectedStorageEntries,
                 ProtectedStorageEntry::getProtectedStoragePayload,
                 excludedKeysAsByteArray,
                 peerCapabilities,
@@ -342,11 +441,13 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                 false);
         log.info("{} ProtectedStorageEntry entries remained after filtered by excluded keys. " +
                         "Original map had {} entries.",
-                filteredProtectedStorageEntries.size(), map.size());
-        log.trace("## buildGetDataResponse filteredProtectedStorageEntryHashes={}",
-                filteredProtectedStorageEntries.stream()
-                        .map(e -> get32ByteHashAsByteArray((e.getProtectedStoragePayload())))
-                        .toArray());
+                filteredProtectedStorageEntries.size(), mapOfProtectedStorageEntries.size());
+        if (log.isTraceEnabled()) {
+            log.trace("## buildGetDataResponse filteredProtectedStorageEntryHashes={}",
+                    filteredProtectedStorageEntries.stream()
+                            .map(e -> get32ByteHashAsByteArray((e.getProtectedStoragePayload())))
+                            .toArray());
+        }
 
         boolean wasTruncated = wasPersistableNetworkPayloadsTruncated.get() || wasProtectedStorageEntriesTruncated.get();
         return new GetDataResponse(
@@ -357,6 +458,50 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                 wasTruncated);
     }
 
+    /**
+     * Returns the keys of our entries which are not in the requesters table or null if the difference cannot be decoded.
+     */
+    @Nullable
+    private static Set<ByteArray> decodeMissingKeys(InvertibleBloomLookupTable requestersTable,
+                                                    Map<ByteArray, PersistableNetworkPayload> mapForDataResponse,
+                                                    Map<ByteArray, ProtectedStorageEntry> mapOfProtectedStorageEntries) {
+        InvertibleBloomLookupTable table = new InvertibleBloomLookupTable(requestersTable.getCellsPerSubtable());
+        Map<ByteArray, ByteArray> keysByReducedKey = new HashMap<>();
+        Stream.concat(mapForDataResponse.keySet().stream(), mapOfProtectedStorageEntries.keySet().stream())
+                .forEach(key -> {
+                    if (keysByReducedKey.putIfAbsent(InvertibleBloomLookupTable.reduce(key.bytes), key) == null) {
+                        table.add(key.bytes);
+                    }
+                });
+
+        InvertibleBloomLookupTable.Difference difference = table.subtract(requestersTable).decode();
+        if (difference == null) {
+            return null;
+        }
+        // Keys only the requester has are not of interest for the response
+        Set<ByteArray> missingKeys = new HashSet<>();
+        for (ByteArray reducedKey : difference.getLocalOnly()) {
+            ByteArray key = keysByReducedKey.get(reducedKey);
+            if (key == null) {
+                // Decoded a key we never added, so the decoding is not trustworthy
+                return null;
+            }
+            missingKeys.add(key);
+        }
+        return missingKeys;
+    }
+
+    private static <T> Map<ByteArray, T> getSubMap(Map<ByteArray, T> map, Set<ByteArray> keys) {
+        Map<ByteArray, T> subMap = new HashMap<>();
+        keys.forEach(key -> {
+            T value = map.get(key);
+            if (value != null) {
+                subMap.put(key, value);
+            }
+        });
+        return subMap;
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Utils for collecting the exclude hashes
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -631,9 +776,18 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             // object when we get it sent from new peers, we don’t remove the sequence number from the map.
             // That way an ADD message for an already expired data will fail because the sequence number
             // is equal and not larger as expected.
-            ArrayList<Map.Entry<ByteArray, ProtectedStorageEntry>> toRemoveList = map.entrySet().stream()
-                    .filter(entry -> entry.getValue().isExpired(this.clock))
-                    .collect(Collectors.toCollection(ArrayList::new));
+            // We only look at the entries which are expired according to the expirationIndex.
+            ArrayList<Map.Entry<ByteArray, ProtectedStorageEntry>> toRemoveList = new ArrayList<>();
+            expirationIndex.pollBefore(this.clock.millis()).forEach(hashOfPayload -> {
+                ProtectedStorageEntry protectedStorageEntry = map.get(hashOfPayload);
+                if (protectedStorageEntry == null)
+                    return;
+
+                if (protectedStorageEntry.isExpired(this.clock))
+                    toRemoveList.add(Maps.immutableEntry(hashOfPayload, protectedStorageEntry));
+                else
+                    indexExpiration(hashOfPayload, protectedStorageEntry);
+            });
 
             // Batch processing can cause performance issues, so do all of the removes first, then update the listeners
             // to let them know about the removes.
@@ -647,7 +801,9 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
 
             synchronized (sequenceNumberMap.getMap()) {
                 if (sequenceNumberMap.size() > this.maxSequenceNumberMapSizeBeforePurge) {
-                    sequenceNumberMap.setMap(getPurgedSequenceNumberMap(sequenceNumberMap.getMap()));
+                    // Same rule as getPurgedSequenceNumberMap: We keep entries with a timeStamp > maxAgeTs
+                    long maxAgeTs = this.clock.millis() - TimeUnit.DAYS.toMillis(PURGE_AGE_DAYS);
+                    sequenceNumberIndex.pollBefore(maxAgeTs + 1).forEach(sequenceNumberMap::remove);
                     requestPersistence();
                 }
             }
@@ -674,6 +830,8 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                     remove(((RemoveMailboxDataMessage) networkEnvelope).getProtectedMailboxStorageEntry(), peersNodeAddress);
                 } else if (networkEnvelope instanceof RefreshOfferMessage) {
                     refreshTTL((RefreshOfferMessage) networkEnvelope, peersNodeAddress);
+                } else if (networkEnvelope instanceof RefreshOffersMessage) {
+                    refreshTTL((RefreshOffersMessage) networkEnvelope, peersNodeAddress);
                 } else if (networkEnvelope instanceof AddPersistableNetworkPayloadMessage) {
                     addPersistableNetworkPayload(((AddPersistableNetworkPayloadMessage) networkEnvelope).getPersistableNetworkPayload(),
                             peersNodeAddress, true, false, true);
@@ -702,10 +860,11 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
 
         // Backdate all the eligible payloads based on the node that disconnected
         synchronized (map) {
-            map.values().stream()
-            .filter(protectedStorageEntry -> protectedStorageEntry.getProtectedStoragePayload() instanceof RequiresOwnerIsOnlinePayload)
-            .filter(protectedStorageEntry -> ((RequiresOwnerIsOnlinePayload) protectedStorageEntry.getProtectedStoragePayload()).getOwnerNodeAddress().equals(peersNodeAddress))
-            .forEach(protectedStorageEntry -> {
+            map.forEach((hashOfPayload, protectedStorageEntry) -> {
+                if (!(protectedStorageEntry.getProtectedStoragePayload() instanceof RequiresOwnerIsOnlinePayload) ||
+                        !((RequiresOwnerIsOnlinePayload) protectedStorageEntry.getProtectedStoragePayload()).getOwnerNodeAddress().equals(peersNodeAddress))
+                    return;
+
                 // We only set the data back by half of the TTL and remove the data only if is has
                 // expired after that back dating.
                 // We might get connection drops which are not caused by the node going offline, so
@@ -717,6 +876,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                 // Usually the are: SOCKET_TIMEOUT ,TERMINATED (EOFException)
                 log.debug("Backdating {} due to closeConnectionReason={}", protectedStorageEntry, closeConnectionReason);
                 protectedStorageEntry.backDate();
+                indexExpiration(hashOfPayload, protectedStorageEntry);
             });
         }
     }
@@ -879,11 +1039,11 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             }
 
             // This is an updated entry. Record it and signal listeners.
-            map.put(hashOfPayload, protectedStorageEntry);
+            putToMap(hashOfPayload, protectedStorageEntry);
             hashMapChangedListeners.forEach(e -> e.onAdded(Collections.singletonList(protectedStorageEntry)));
 
             // Record the updated sequence number and persist it. Higher delay so we can batch more items.
-            sequenceNumberMap.put(hashOfPayload, new MapValue(protectedStorageEntry.getSequenceNumber(), this.clock.millis()));
+            putSequenceNumber(hashOfPayload, protectedStorageEntry.getSequenceNumber());
             requestPersistence();
 
             //log.trace("## ProtectedStorageEntry added to map. hash={}, map={}", hashOfPayload, printMap());
@@ -942,49 +1102,90 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     public boolean refreshTTL(RefreshOfferMessage refreshTTLMessage,
                               @Nullable NodeAddress sender) {
         synchronized (map) {
-            try {
-                ByteArray hashOfPayload = new ByteArray(refreshTTLMessage.getHashOfPayload());
-                ProtectedStorageEntry storedData = map.get(hashOfPayload);
-
-                if (storedData == null) {
-                    log.debug("We don't have data for that refresh message in our map. That is expected if we missed the data publishing.");
+            if (!updateTTL(refreshTTLMessage))
+                return false;
 
-                    return false;
-                }
+            requestPersistence();
 
-                ProtectedStorageEntry storedEntry = map.get(hashOfPayload);
-                ProtectedStorageEntry updatedEntry = new ProtectedStorageEntry(
-                        storedEntry.getProtectedStoragePayload(),
-                        storedEntry.getOwnerPubKey(),
-                        refreshTTLMessage.getSequenceNumber(),
-                        refreshTTLMessage.getSignature(),
-                        this.clock);
+            // Always broadcast refreshes
+            broadcaster.broadcast(refreshTTLMessage, sender);
+            return true;
+        }
+    }
 
+    /**
+     * Updates the TTL of many RefreshOffers at once and broadcasts the accepted refreshes in one message.
+     *
+     * @param refreshOffersMessage refreshOffersMessage containing the updates
+     * @param sender local NodeAddress, if available
+     * @return <code>true</code> if all RefreshOffers were successfully updated and changes broadcast
+     */
+    public boolean refreshTTL(RefreshOffersMessage refreshOffersMessage,
+                              @Nullable NodeAddress sender) {
+        List<RefreshOfferMessage> refreshTTLMessages = refreshOffersMessage.getRefreshOfferMessages();
+        if (refreshTTLMessages.size() > RefreshOffersMessage.MAX_REFRESH_OFFER_MESSAGES) {
+            log.warn("Ignoring RefreshOffersMessage with {} refreshes, the maximum is {}",
+                    refreshTTLMessages.size(), RefreshOffersMessage.MAX_REFRESH_OFFER_MESSAGES);
+            return false;
+        }
 
-                // If we have seen a more recent operation for this payload, we ignore the current one
-                if (!hasSequenceNrIncreased(updatedEntry.getSequenceNumber(), hashOfPayload))
-                    return false;
+        synchronized (map) {
+            List<RefreshOfferMessage> updatedMessages = new ArrayList<>();
+            for (RefreshOfferMessage refreshTTLMessage : refreshTTLMessages) {
+                if (updateTTL(refreshTTLMessage))
+                    updatedMessages.add(refreshTTLMessage);
+            }
+            if (updatedMessages.isEmpty())
+                return false;
 
-                // Verify the updated ProtectedStorageEntry is well formed and valid for update
-                if (!updatedEntry.isValidForAddOperation())
-                    return false;
+            requestPersistence();
 
-                // Update the hash map with the updated entry
-                map.put(hashOfPayload, updatedEntry);
+            // Only forward the refreshes we accepted
+            broadcaster.broadcast(updatedMessages.size() == refreshTTLMessages.size() ?
+                    refreshOffersMessage :
+                    new RefreshOffersMessage(updatedMessages), sender);
+            return updatedMessages.size() == refreshTTLMessages.size();
+        }
+    }
 
-                // Record the latest sequence number and persist it
-                sequenceNumberMap.put(hashOfPayload, new MapValue(updatedEntry.getSequenceNumber(), this.clock.millis()));
-                requestPersistence();
+    // Called while synchronized on the map. Caller requests persistence and broadcasts the refresh.
+    private boolean updateTTL(RefreshOfferMessage refreshTTLMessage) {
+        try {
+            ByteArray hashOfPayload = new ByteArray(refreshTTLMessage.getHashOfPayload());
+            ProtectedStorageEntry storedEntry = map.get(hashOfPayload);
 
-                // Always broadcast refreshes
-                broadcaster.broadcast(refreshTTLMessage, sender);
+            if (storedEntry == null) {
+                log.debug("We don't have data for that refresh message in our map. That is expected if we missed the data publishing.");
 
-            } catch (IllegalArgumentException e) {
-                log.error("refreshTTL failed, missing data: {}\n", e.toString(), e);
                 return false;
             }
-            return true;
+
+            ProtectedStorageEntry updatedEntry = new ProtectedStorageEntry(
+                    storedEntry.getProtectedStoragePayload(),
+                    storedEntry.getOwnerPubKey(),
+                    refreshTTLMessage.getSequenceNumber(),
+                    refreshTTLMessage.getSignature(),
+                    this.clock);
+
+
+            // If we have seen a more recent operation for this payload, we ignore the current one
+            if (!hasSequenceNrIncreased(updatedEntry.getSequenceNumber(), hashOfPayload))
+                return false;
+
+            // Verify the updated ProtectedStorageEntry is well formed and valid for update
+            if (!updatedEntry.isValidForAddOperation())
+                return false;
+
+            // Update the hash map with the updated entry
+            putToMap(hashOfPayload, updatedEntry);
+
+            // Record the latest sequence number
+            putSequenceNumber(hashOfPayload, updatedEntry.getSequenceNumber());
+        } catch (IllegalArgumentException e) {
+            log.error("refreshTTL failed, missing data: {}\n", e.toString(), e);
+            return false;
         }
+        return true;
     }
 
     /**
@@ -1015,7 +1216,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                 return false;
 
             // Record the latest sequence number and persist it
-            sequenceNumberMap.put(hashOfPayload, new MapValue(protectedStorageEntry.getSequenceNumber(), this.clock.millis()));
+            putSequenceNumber(hashOfPayload, protectedStorageEntry.getSequenceNumber());
             requestPersistence();
 
             // Update that we have seen this AddOncePayload so the next time it is seen it fails verification
@@ -1126,6 +1327,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
 
                 //log.trace("## removeFromMapAndDataStore: hashOfPayload={}, map before remove={}", hashOfPayload, printMap());
                 map.remove(hashOfPayload);
+                expirationIndex.remove(hashOfPayload);
                 //log.trace("## removeFromMapAndDataStore: map after remove={}", printMap());
 
                 // We inform listeners even the entry was not found in our map
@@ -1174,8 +1376,58 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         persistenceManager.requestPersistence();
     }
 
+    private void putToMap(ByteArray hashOfPayload, ProtectedStorageEntry protectedStorageEntry) {
+        map.put(hashOfPayload, protectedStorageEntry);
+        cache32ByteHash(protectedStorageEntry.getProtectedStoragePayload(), hashOfPayload);
+        indexExpiration(hashOfPayload, protectedStorageEntry);
+    }
+
+    private void indexExpiration(ByteArray hashOfPayload, ProtectedStorageEntry protectedStorageEntry) {
+        ProtectedStoragePayload protectedStoragePayload = protectedStorageEntry.getProtectedStoragePayload();
+        if (protectedStoragePayload instanceof ExpirablePayload) {
+            long ttl = ((ExpirablePayload) protectedStoragePayload).getTTL();
+            expirationIndex.put(hashOfPayload, LongMath.saturatedAdd(protectedStorageEntry.getCreationTimeStamp(), ttl));
+        } else {
+            expirationIndex.remove(hashOfPayload);
+        }
+    }
+
+    private void putSequenceNumber(ByteArray hashOfPayload, int sequenceNumber) {
+        long timeStamp = this.clock.millis();
+        sequenceNumberMap.put(hashOfPayload, new MapValue(sequenceNumber, timeStamp));
+        sequenceNumberIndex.put(hashOfPayload, timeStamp);
+    }
+
+    private void setSequenceNumberMap(Map<ByteArray, MapValue> map) {
+        sequenceNumberMap.setMap(map);
+        sequenceNumberIndex.clear();
+        map.forEach((hashOfPayload, mapValue) -> sequenceNumberIndex.put(hashOfPayload, mapValue.timeStamp));
+    }
+
+    @VisibleForTesting
+    public static void cache32ByteHash(ProtectedStoragePayload protectedStoragePayload, ByteArray hashOfPayload) {
+        PAYLOAD_HASH_CACHE.put(protectedStoragePayload, hashOfPayload);
+    }
+
+    /**
+     * Removes the cached hash of a payload which got changed in place, so the hash is computed from its new content.
+     */
+    public static void invalidate32ByteHash(ProtectedStoragePayload protectedStoragePayload) {
+        PAYLOAD_HASH_CACHE.invalidate(protectedStoragePayload);
+    }
+
+    private void putAllToMap(Map<ByteArray, ProtectedStorageEntry> entries) {
+        entries.forEach(this::putToMap);
+    }
+
     public static ByteArray get32ByteHashAsByteArray(NetworkPayload data) {
-        return new ByteArray(P2PDataStorage.get32ByteHash(data));
+        if (data instanceof ProtectedStoragePayload) {
+            ByteArray hashOfPayload = PAYLOAD_HASH_CACHE.getIfPresent(data);
+            if (hashOfPayload != null) {
+                return hashOfPayload;
+            }
+        }
+        return new ByteArray(hash(data));
     }
 
     // Get a new map with entries older than PURGE_AGE_DAYS purged from the given map.
@@ -1239,6 +1491,10 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
      * @return Hash of data
      */
     public static byte[] get32ByteHash(NetworkPayload data) {
+        return get32ByteHashAsByteArray(data).bytes.clone();
+    }
+
+    private static byte[] hash(NetworkPayload data) {
         return Hash.getSha256Hash(data.toProtoMessage().toByteArray());
     }
 
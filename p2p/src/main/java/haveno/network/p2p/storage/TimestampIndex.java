@@ -0,0 +1,85 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.storage;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Keys ordered by a timestamp, so the keys with a timestamp before a given time can be polled in O(k log n) instead
+ * of scanning all keys. Each key has at most one timestamp, putting a key again replaces its timestamp.
+ */
+class TimestampIndex<K> {
+    private static class Node<K> {
+        private final K key;
+        private final long timestamp;
+        private final long insertionOrder;
+
+        private Node(K key, long timestamp, long insertionOrder) {
+            this.key = key;
+            this.timestamp = timestamp;
+            this.insertionOrder = insertionOrder;
+        }
+    }
+
+    private final TreeSet<Node<K>> nodes = new TreeSet<>(Comparator
+            .<Node<K>>comparingLong(node -> node.timestamp)
+            .thenComparingLong(node -> node.insertionOrder));
+    private final Map<K, Node<K>> nodesByKey = new HashMap<>();
+    private long insertionOrder;
+
+    synchronized void put(K key, long timestamp) {
+        remove(key);
+        Node<K> node = new Node<>(key, timestamp, insertionOrder++);
+        nodesByKey.put(key, node);
+        nodes.add(node);
+    }
+
+    synchronized void remove(K key) {
+        Node<K> node = nodesByKey.remove(key);
+        if (node != null) {
+            nodes.remove(node);
+        }
+    }
+
+    /**
+     * Removes and returns the keys with a timestamp before the given time, ordered by timestamp.
+     */
+    synchronized List<K> pollBefore(long time) {
+        List<K> result = new ArrayList<>();
+        while (!nodes.isEmpty() && nodes.first().timestamp < time) {
+            Node<K> node = nodes.pollFirst();
+            nodesByKey.remove(node.key);
+            result.add(node.key);
+        }
+        return result;
+    }
+
+    synchronized void clear() {
+        nodes.clear();
+        nodesByKey.clear();
+    }
+
+    synchronized int size() {
+        return nodesByKey.size();
+    }
+}
@@ -20,6 +20,7 @@ package haveno.network.p2p.storage.messages;
 import com.google.protobuf.Message;
 import haveno.common.app.Version;
 import haveno.common.proto.network.NetworkProtoResolver;
+import haveno.network.p2p.CompressionPermission;
 import haveno.network.p2p.storage.payload.ProtectedMailboxStorageEntry;
 import haveno.network.p2p.storage.payload.ProtectedStorageEntry;
 import lombok.EqualsAndHashCode;
@@ -27,7 +28,7 @@ import lombok.Value;
 
 @EqualsAndHashCode(callSuper = true)
 @Value
-public final class AddDataMessage extends BroadcastMessage {
+public final class AddDataMessage extends BroadcastMessage implements CompressionPermission {
     private final ProtectedStorageEntry protectedStorageEntry;
 
     public AddDataMessage(ProtectedStorageEntry protectedStorageEntry) {
@@ -0,0 +1,81 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.storage.messages;
+
+import haveno.common.app.Capabilities;
+import haveno.common.app.Capability;
+import haveno.common.app.Version;
+import haveno.network.p2p.storage.payload.CapabilityRequiringPayload;
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Refreshes the TTL of many offers at once. Peers without the REFRESH_OFFERS capability get the contained
+ * RefreshOfferMessages instead.
+ */
+@EqualsAndHashCode(callSuper = true)
+@Value
+public final class RefreshOffersMessage extends BroadcastMessage implements CapabilityRequiringPayload {
+    public static final int MAX_REFRESH_OFFER_MESSAGES = 500;
+
+    private final List<RefreshOfferMessage> refreshOfferMessages;
+
+    public RefreshOffersMessage(List<RefreshOfferMessage> refreshOfferMessages) {
+        this(refreshOfferMessages, Version.getP2PMessageVersion());
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // PROTO BUFFER
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private RefreshOffersMessage(List<RefreshOfferMessage> refreshOfferMessages, String messageVersion) {
+        super(messageVersion);
+        this.refreshOfferMessages = refreshOfferMessages;
+    }
+
+    @Override
+    public protobuf.NetworkEnvelope toProtoNetworkEnvelope() {
+        return getNetworkEnvelopeBuilder()
+                .setRefreshOffersMessage(protobuf.RefreshOffersMessage.newBuilder()
+                        .addAllRefreshOfferMessages(refreshOfferMessages.stream()
+                                .map(RefreshOfferMessage::toProtoMessage)
+                                .collect(Collectors.toList())))
+                .build();
+    }
+
+    public static RefreshOffersMessage fromProto(protobuf.RefreshOffersMessage proto, String messageVersion) {
+        return new RefreshOffersMessage(proto.getRefreshOfferMessagesList().stream()
+                .map(refreshOfferMessage -> RefreshOfferMessage.fromProto(refreshOfferMessage, messageVersion))
+                .collect(Collectors.toList()),
+                messageVersion);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // CapabilityRequiringPayload
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public Capabilities getRequiredCapabilities() {
+        return new Capabilities(Capability.REFRESH_OFFERS);
+    }
+}
@@ -17,17 +17,25 @@
 
 package haveno.network.p2p.storage.persistence;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterators;
 import haveno.common.app.DevEnv;
 import haveno.common.app.Version;
 import haveno.common.persistence.PersistenceManager;
+import haveno.common.proto.persistable.PersistenceProtoResolver;
 import haveno.network.p2p.storage.P2PDataStorage;
 import haveno.network.p2p.storage.payload.PersistableNetworkPayload;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.File;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -35,20 +43,27 @@ import java.util.concurrent.atomic.AtomicInteger;
  * New data is added to the default map in the store (live data). Historical data is created from resource files.
  * For initial data requests we only use the live data as the users version is sent with the
  * request so the responding (seed)node can figure out if we miss any of the historical data.
+ *
+ * Historical stores are immutable, so after reading one the first time we convert it to a {@link MappedPayloadStore}.
+ * At later starts the historical data is served from the memory-mapped files and is not loaded into the heap.
  */
 @Slf4j
 public abstract class HistoricalDataStoreService<T extends PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> extends MapStoreService<T, PersistableNetworkPayload> {
-    private ImmutableMap<String, PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> storesByVersion;
-    // Cache to avoid that we have to recreate the historical data at each request
-    private ImmutableMap<P2PDataStorage.ByteArray, PersistableNetworkPayload> allHistoricalPayloads;
+    private final PersistenceProtoResolver persistenceProtoResolver;
+    private ImmutableMap<String, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> storesByVersion;
+    // The maps of all historical stores. Keys are disjoint to the live data as we prune the live data at startup.
+    private ImmutableList<Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> historicalMaps = ImmutableList.of();
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Constructor
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    public HistoricalDataStoreService(File storageDir, PersistenceManager<T> persistenceManager) {
+    public HistoricalDataStoreService(File storageDir,
+                                      PersistenceManager<T> persistenceManager,
+                                      PersistenceProtoResolver persistenceProtoResolver) {
         super(storageDir, persistenceManager);
+        this.persistenceProtoResolver = persistenceProtoResolver;
     }
 
 
@@ -83,7 +98,7 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
                             requestersVersion, storeVersion, details);
                     return newVersion;
                 })
-                .map(e -> e.getValue().getMap())
+                .map(Map.Entry::getValue)
                 .forEach(result::putAll);
 
         log.info("We found {} entries since requesters version {}",
@@ -95,10 +110,13 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
         return store.getMap();
     }
 
+    // Returns an unmodifiable view on the live data and all historical data. The view does not copy the data.
+    // Use put, putIfAbsent and remove of the service to change the live data.
     public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMapOfAllData() {
-        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> result = new HashMap<>(getMapOfLiveData());
-        result.putAll(allHistoricalPayloads);
-        return result;
+        return new AllDataView(ImmutableList.<Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>>builder()
+                .add(getMapOfLiveData())
+                .addAll(historicalMaps)
+                .build());
     }
 
 
@@ -113,6 +131,7 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
         return getMapOfAllData();
     }
 
+    // The map is the unmodifiable view of getMapOfAllData, so we override all methods of MapStoreService which change it.
     @Override
     protected void put(P2PDataStorage.ByteArray hash, PersistableNetworkPayload payload) {
         if (anyMapContainsKey(hash)) {
@@ -137,6 +156,14 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
         return null;
     }
 
+    // Historical data is immutable, so we only remove live data.
+    @Override
+    PersistableNetworkPayload remove(P2PDataStorage.ByteArray hash) {
+        PersistableNetworkPayload result = getMapOfLiveData().remove(hash);
+        requestPersistence();
+        return result;
+    }
+
 
     @Override
     protected void readFromResources(String postFix, Runnable completeHandler) {
@@ -145,17 +172,15 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
                     getFileName(), getMapOfLiveData().size());
 
             // Now we add our historical data stores.
-            Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> allHistoricalPayloads = new HashMap<>();
-            Map<String, PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> storesByVersion = new HashMap<>();
+            Map<String, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> storesByVersion = new HashMap<>();
             AtomicInteger numFiles = new AtomicInteger(Version.HISTORICAL_RESOURCE_FILE_VERSION_TAGS.size());
             Version.HISTORICAL_RESOURCE_FILE_VERSION_TAGS.forEach(version -> readHistoricalStoreFromResources(version,
                     postFix,
-                    allHistoricalPayloads,
                     storesByVersion,
                     () -> {
                         if (numFiles.decrementAndGet() == 0) {
                             // At last iteration we set the immutable map
-                            this.allHistoricalPayloads = ImmutableMap.copyOf(allHistoricalPayloads);
+                            this.historicalMaps = ImmutableList.copyOf(storesByVersion.values());
                             this.storesByVersion = ImmutableMap.copyOf(storesByVersion);
                             completeHandler.run();
                         }
@@ -170,29 +195,54 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
 
     private void readHistoricalStoreFromResources(String version,
                                                   String postFix,
-                                                  Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> allHistoricalPayloads,
-                                                  Map<String, PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> storesByVersion,
+                                                  Map<String, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> storesByVersion,
                                                   Runnable completeHandler) {
 
         String fileName = getFileName() + "_" + version;
-        boolean wasCreatedFromResources = makeFileFromResourceFile(fileName, postFix);
+        makeFileFromResourceFile(fileName, postFix);
+        File sourceFile = new File(absolutePathOfStorageDir, fileName);
+        File mappedFile = new File(absolutePathOfStorageDir, fileName + MappedPayloadStore.FILE_SUFFIX);
+
+        MappedPayloadStore mappedPayloadStore = MappedPayloadStore.open(mappedFile, sourceFile, persistenceProtoResolver);
+        if (mappedPayloadStore != null) {
+            storesByVersion.put(version, mappedPayloadStore);
+            log.debug("We have opened {} with {} historical items.", mappedFile.getName(), mappedPayloadStore.size());
+            pruneStore(mappedPayloadStore, version);
+            completeHandler.run();
+            return;
+        }
 
         // If resource file does not exist we do not create a new store as it would never get filled.
         persistenceManager.readPersisted(fileName, persisted -> {
-                    storesByVersion.put(version, persisted);
-                    allHistoricalPayloads.putAll(persisted.getMap());
+                    storesByVersion.put(version, persisted.getMap());
                     log.debug("We have read from {} {} historical items.", fileName, persisted.getMap().size());
-                    pruneStore(persisted, version);
+                    pruneStore(persisted.getMap(), version);
+                    writeMappedPayloadStore(mappedFile, sourceFile, persisted.getMap());
                     completeHandler.run();
                 },
                 completeHandler::run);
     }
 
-    private void pruneStore(PersistableNetworkPayloadStore<? extends PersistableNetworkPayload> historicalStore,
+    // We keep the heap copy for the current session and use the mapped store from the next start on.
+    private void writeMappedPayloadStore(File mappedFile,
+                                         File sourceFile,
+                                         Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map) {
+        persistenceManager.executeOnWriteToDiskThread(() -> {
+            try {
+                if (MappedPayloadStore.write(mappedFile, sourceFile, map)) {
+                    log.info("We have written {} with {} historical items.", mappedFile.getName(), map.size());
+                }
+            } catch (Throwable t) {
+                log.warn("Could not write {}. {}", mappedFile.getName(), t.toString());
+            }
+        });
+    }
+
+    private void pruneStore(Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> historicalMap,
                             String version) {
         Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> mapOfLiveData = getMapOfLiveData();
         int preLive = mapOfLiveData.size();
-        mapOfLiveData.keySet().removeAll(historicalStore.getMap().keySet());
+        mapOfLiveData.keySet().removeIf(historicalMap::containsKey);
         int postLive = mapOfLiveData.size();
         if (preLive > postLive) {
             log.debug("We pruned data from our live data store which are already contained in the historical data store with version {}. " +
@@ -205,6 +255,85 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
     }
 
     private boolean anyMapContainsKey(P2PDataStorage.ByteArray hash) {
-        return getMapOfLiveData().containsKey(hash) || allHistoricalPayloads.containsKey(hash);
+        return getMapOfLiveData().containsKey(hash) || historicalMaps.stream().anyMatch(map -> map.containsKey(hash));
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // AllDataView
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Unmodifiable view on a list of maps with disjoint keys. All modifying methods throw an
+     * UnsupportedOperationException.
+     */
+    private static class AllDataView extends AbstractMap<P2PDataStorage.ByteArray, PersistableNetworkPayload> {
+        private final List<Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> maps;
+
+        AllDataView(List<Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> maps) {
+            this.maps = maps;
+        }
+
+        @Override
+        public int size() {
+            return maps.stream().mapToInt(Map::size).sum();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return maps.stream().anyMatch(map -> map.containsKey(key));
+        }
+
+        @Override
+        public PersistableNetworkPayload get(Object key) {
+            for (Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map : maps) {
+                PersistableNetworkPayload payload = map.get(key);
+                if (payload != null) {
+                    return payload;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public PersistableNetworkPayload remove(Object key) {
+            throw new UnsupportedOperationException("The view on all data is read-only. " +
+                    "Live data gets removed by HistoricalDataStoreService.remove and historical data is immutable.");
+        }
+
+        @Override
+        public Set<P2PDataStorage.ByteArray> keySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<P2PDataStorage.ByteArray> iterator() {
+                    return Iterators.unmodifiableIterator(Iterators.concat(maps.stream().map(map -> map.keySet().iterator()).iterator()));
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return containsKey(o);
+                }
+
+                @Override
+                public int size() {
+                    return AllDataView.this.size();
+                }
+            };
+        }
+
+        @Override
+        public Set<Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> iterator() {
+                    return Iterators.unmodifiableIterator(Iterators.concat(maps.stream().map(map -> map.entrySet().iterator()).iterator()));
+                }
+
+                @Override
+                public int size() {
+                    return AllDataView.this.size();
+                }
+            };
+        }
     }
 }
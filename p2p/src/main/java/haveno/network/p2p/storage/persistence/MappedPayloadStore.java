@@ -0,0 +1,374 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.storage.persistence;
+
+import haveno.common.file.FileUtil;
+import haveno.common.proto.ProtoResolver;
+import haveno.network.p2p.storage.P2PDataStorage;
+import haveno.network.p2p.storage.payload.PersistableNetworkPayload;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import javax.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Read-only, memory-mapped view of an immutable store of PersistableNetworkPayloads (the historical data stores).
+ *
+ * The file contains a header, an index of all payload hashes sorted in unsigned lexicographic order together with the
+ * offset and length of the serialized payload, followed by the serialized payloads. The file gets mapped at first
+ * access, lookups are binary searches on the index and payloads are only deserialized when they get accessed. The last
+ * MAX_CACHED_PAYLOADS decoded payloads are cached, so repeated lookups do not parse the same payload again while the
+ * store still does not occupy more heap memory than the cache and the payloads the caller keeps a reference to.
+ *
+ * Callers iterating over all payloads repeatedly should keep their own copy, as iterating over more payloads than the
+ * cache holds parses them again on every iteration.
+ *
+ * The header carries length and last modification date of the source file the store was created from. If the source
+ * file changed the store is considered outdated and has to be recreated. It also carries the length of the payload
+ * data, so a truncated or extended file is detected before it gets mapped.
+ */
+@Slf4j
+public class MappedPayloadStore extends AbstractMap<P2PDataStorage.ByteArray, PersistableNetworkPayload> {
+    public static final String FILE_SUFFIX = ".mapped";
+
+    private static final int MAGIC = 0x48564D50;
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4 + 4 + 8;
+    static final int MAX_CACHED_PAYLOADS = 10_000;
+
+    private final File file;
+    private final ProtoResolver protoResolver;
+    private final int hashLength;
+    private final int size;
+    private final int indexEntrySize;
+    private final long dataStart;
+    private final long fileLength;
+    @Nullable
+    private volatile MappedByteBuffer buffer;
+    // Decoded payloads by index in least recently accessed order
+    private final Map<Integer, PersistableNetworkPayload> cachedPayloads = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, PersistableNetworkPayload> eldest) {
+                    return size() > MAX_CACHED_PAYLOADS;
+                }
+            });
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Static
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Opens the store if the file exists and was created from the given source file. Only the header is read, the
+     * file gets mapped at the first access.
+     *
+     * @return The store or null if the file does not exist, is corrupted or outdated.
+     */
+    @Nullable
+    public static MappedPayloadStore open(File file, File sourceFile, ProtoResolver protoResolver) {
+        if (!file.exists() || !sourceFile.exists()) {
+            return null;
+        }
+
+        try (DataInputStream inputStream = new DataInputStream(new FileInputStream(file))) {
+            if (inputStream.readInt() != MAGIC || inputStream.readInt() != FORMAT_VERSION) {
+                log.warn("{} has an unknown format", file.getName());
+                return null;
+            }
+            if (inputStream.readLong() != sourceFile.length() || inputStream.readLong() != sourceFile.lastModified()) {
+                log.info("{} is outdated", file.getName());
+                return null;
+            }
+            int hashLength = inputStream.readInt();
+            int size = inputStream.readInt();
+            long dataLength = inputStream.readLong();
+            if (hashLength <= 0 || size < 0 || dataLength < 0 ||
+                    file.length() != HEADER_SIZE + (long) size * (hashLength + 8 + 4) + dataLength ||
+                    file.length() > Integer.MAX_VALUE) {
+                log.warn("{} is corrupted", file.getName());
+                return null;
+            }
+            return new MappedPayloadStore(file, protoResolver, hashLength, size, file.length());
+        } catch (IOException e) {
+            log.warn("Could not open {}. {}", file.getName(), e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Writes the given payloads to a new store file.
+     *
+     * @return True if the store was written, false if the payloads cannot be stored in that format.
+     */
+    public static boolean write(File file, File sourceFile, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map)
+            throws IOException {
+        List<P2PDataStorage.ByteArray> hashes = new ArrayList<>(map.keySet());
+        if (hashes.isEmpty()) {
+            return false;
+        }
+        int hashLength = hashes.get(0).bytes.length;
+        if (hashes.stream().anyMatch(hash -> hash.bytes.length != hashLength)) {
+            log.warn("Payloads of {} have different hash lengths, we cannot create a mapped store", sourceFile.getName());
+            return false;
+        }
+        hashes.sort((o1, o2) -> Arrays.compareUnsigned(o1.bytes, o2.bytes));
+
+        List<byte[]> serializedPayloads = new ArrayList<>(hashes.size());
+        for (P2PDataStorage.ByteArray hash : hashes) {
+            serializedPayloads.add(map.get(hash).toProtoMessage().toByteArray());
+        }
+
+        long dataLength = 0;
+        for (byte[] serializedPayload : serializedPayloads) {
+            dataLength += serializedPayload.length;
+        }
+
+        File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (FileOutputStream fileOutputStream = new FileOutputStream(tempFile);
+             DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(fileOutputStream))) {
+            outputStream.writeInt(MAGIC);
+            outputStream.writeInt(FORMAT_VERSION);
+            outputStream.writeLong(sourceFile.length());
+            outputStream.writeLong(sourceFile.lastModified());
+            outputStream.writeInt(hashLength);
+            outputStream.writeInt(hashes.size());
+            outputStream.writeLong(dataLength);
+
+            long offset = 0;
+            for (int i = 0; i < hashes.size(); i++) {
+                outputStream.write(hashes.get(i).bytes);
+                outputStream.writeLong(offset);
+                outputStream.writeInt(serializedPayloads.get(i).length);
+                offset += serializedPayloads.get(i).length;
+            }
+            for (byte[] serializedPayload : serializedPayloads) {
+                outputStream.write(serializedPayload);
+            }
+
+            // Make sure the data is on disk before the rename, otherwise a crash could leave a truncated store
+            outputStream.flush();
+            fileOutputStream.getChannel().force(true);
+        }
+        FileUtil.renameFile(tempFile, file);
+        return true;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private MappedPayloadStore(File file, ProtoResolver protoResolver, int hashLength, int size, long fileLength) {
+        this.file = file;
+        this.protoResolver = protoResolver;
+        this.hashLength = hashLength;
+        this.size = size;
+        this.fileLength = fileLength;
+        indexEntrySize = hashLength + 8 + 4;
+        dataStart = HEADER_SIZE + (long) size * indexEntrySize;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Map
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof P2PDataStorage.ByteArray && indexOf(((P2PDataStorage.ByteArray) key).bytes) >= 0;
+    }
+
+    @Override
+    public PersistableNetworkPayload get(Object key) {
+        if (!(key instanceof P2PDataStorage.ByteArray)) {
+            return null;
+        }
+        int index = indexOf(((P2PDataStorage.ByteArray) key).bytes);
+        return index >= 0 ? getPayload(index) : null;
+    }
+
+    @Override
+    public Set<P2PDataStorage.ByteArray> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<P2PDataStorage.ByteArray> iterator() {
+                return new IndexIterator<>() {
+                    @Override
+                    P2PDataStorage.ByteArray get(int index) {
+                        return getHash(index);
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> iterator() {
+                return new IndexIterator<>() {
+                    @Override
+                    Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload> get(int index) {
+                        return new SimpleImmutableEntry<>(getHash(index), getPayload(index));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private MappedByteBuffer getBuffer() {
+        MappedByteBuffer result = buffer;
+        if (result == null) {
+            synchronized (this) {
+                result = buffer;
+                if (result == null) {
+                    try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+                         FileChannel channel = randomAccessFile.getChannel()) {
+                        if (channel.size() != fileLength) {
+                            throw new IOException("File length changed from " + fileLength + " to " + channel.size());
+                        }
+                        result = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                        buffer = result;
+                    } catch (IOException e) {
+                        throw new RuntimeException("Could not map " + file.getName(), e);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private int indexOf(byte[] hash) {
+        if (hash.length != hashLength) {
+            return -1;
+        }
+        MappedByteBuffer buffer = getBuffer();
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int position = HEADER_SIZE + mid * indexEntrySize;
+            int comparison = 0;
+            for (int i = 0; i < hashLength && comparison == 0; i++) {
+                comparison = Integer.compare(buffer.get(position + i) & 0xff, hash[i] & 0xff);
+            }
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private P2PDataStorage.ByteArray getHash(int index) {
+        byte[] hash = new byte[hashLength];
+        getBuffer().get(HEADER_SIZE + index * indexEntrySize, hash);
+        return new P2PDataStorage.ByteArray(hash);
+    }
+
+    private PersistableNetworkPayload getPayload(int index) {
+        PersistableNetworkPayload payload = cachedPayloads.get(index);
+        if (payload == null) {
+            payload = parsePayload(index);
+            cachedPayloads.put(index, payload);
+        }
+        return payload;
+    }
+
+    private PersistableNetworkPayload parsePayload(int index) {
+        MappedByteBuffer buffer = getBuffer();
+        int position = HEADER_SIZE + index * indexEntrySize + hashLength;
+        long offset = buffer.getLong(position);
+        int length = buffer.getInt(position + 8);
+        byte[] bytes = new byte[length];
+        buffer.get((int) (dataStart + offset), bytes);
+        try {
+            return (PersistableNetworkPayload) protoResolver.fromProto(protobuf.PersistableNetworkPayload.parseFrom(bytes));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not parse payload at index " + index + " of " + file.getName(), e);
+        }
+    }
+
+    private abstract class IndexIterator<E> implements Iterator<E> {
+        private int index;
+
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return get(index++);
+        }
+
+        abstract E get(int index);
+    }
+}
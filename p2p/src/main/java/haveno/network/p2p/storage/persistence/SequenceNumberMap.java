@@ -110,4 +110,10 @@ public class SequenceNumberMap implements PersistableEnvelope {
             map.put(key, value);
         }
     }
+
+    public void remove(P2PDataStorage.ByteArray key) {
+        synchronized (map) {
+            map.remove(key);
+        }
+    }
 }
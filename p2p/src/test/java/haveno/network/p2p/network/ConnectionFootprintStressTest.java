@@ -0,0 +1,184 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.network;
+
+import haveno.common.Payload;
+import haveno.common.app.Version;
+import haveno.common.proto.network.NetworkEnvelope;
+import haveno.common.proto.network.NetworkPayload;
+import haveno.common.proto.network.NetworkProtoResolver;
+import haveno.common.proto.persistable.PersistablePayload;
+import haveno.network.p2p.CloseConnectionMessage;
+import haveno.network.p2p.NodeAddress;
+import haveno.network.p2p.peers.keepalive.messages.Ping;
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Opens thousands of localhost connections to one node and logs the platform threads and heap they take, with and
+ * without virtual threads. Needs a file descriptor limit of at least 4 * NUM_CONNECTIONS.
+ */
+@Disabled
+public class ConnectionFootprintStressTest {
+    private static final Logger log = LoggerFactory.getLogger(ConnectionFootprintStressTest.class);
+    private static final int NUM_CONNECTIONS = 2000;
+    private static final int PORT = 9101;
+    private static final int MAX_PENDING_CONNECTIONS = 25; // below the backlog of the server socket
+    private static final NetworkProtoResolver PING_RESOLVER = new NetworkProtoResolver() {
+        @Override
+        public Payload fromProto(protobuf.PaymentAccountPayload proto) {
+            return null;
+        }
+
+        @Override
+        public PersistablePayload fromProto(protobuf.PersistableNetworkPayload persistable) {
+            return null;
+        }
+
+        @Override
+        public NetworkEnvelope fromProto(protobuf.NetworkEnvelope envelope) {
+            return envelope.hasPing() ?
+                    Ping.fromProto(envelope.getPing(), envelope.getMessageVersion()) :
+                    CloseConnectionMessage.fromProto(envelope.getCloseConnectionMessage(), envelope.getMessageVersion());
+        }
+
+        @Override
+        public NetworkPayload fromProto(protobuf.StoragePayload proto) {
+            return null;
+        }
+
+        @Override
+        public NetworkPayload fromProto(protobuf.StorageEntryWrapper proto) {
+            return null;
+        }
+
+        @Override
+        public Clock getClock() {
+            return Clock.systemDefaultZone();
+        }
+    };
+
+    @BeforeEach
+    public void setUp() {
+        Version.setBaseCryptoNetworkId(1);
+        LocalhostNetworkNode.setSimulateTorDelayTorNode(0);
+        LocalhostNetworkNode.setSimulateTorDelayHiddenService(0);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Connection.setUseVirtualThreads(null);
+    }
+
+    @Test
+    public void testPlatformThreads() throws InterruptedException {
+        Footprint footprint = measure(false);
+        assertTrue(footprint.numThreads >= NUM_CONNECTIONS); // at least one reader per connection
+        // a reader at both ends and a connecting thread per client, but no writer, as the senders write in turn
+        assertTrue(footprint.numThreads < 4 * NUM_CONNECTIONS);
+    }
+
+    @Test
+    public void testVirtualThreads() throws InterruptedException {
+        Footprint footprint = measure(true);
+        assertTrue(footprint.numThreads < NUM_CONNECTIONS / 10);
+    }
+
+    private static class Footprint {
+        private final long numThreads;
+        private final long heapBytes;
+
+        private Footprint(long numThreads, long heapBytes) {
+            this.numThreads = numThreads;
+            this.heapBytes = heapBytes;
+        }
+    }
+
+    private Footprint measure(boolean useVirtualThreads) throws InterruptedException {
+        Connection.setUseVirtualThreads(useVirtualThreads);
+        long numThreadsBefore = ManagementFactory.getThreadMXBean().getTotalStartedThreadCount(); // platform threads only
+        long heapBefore = getUsedHeap();
+
+        // all connections are inbound connections of the hub and outbound connections of the clients
+        int port = useVirtualThreads ? PORT + 1 : PORT;
+        LocalhostNetworkNode hub = new LocalhostNetworkNode(port, PING_RESOLVER, null, NUM_CONNECTIONS);
+        CountDownLatch receivedLatch = new CountDownLatch(NUM_CONNECTIONS);
+        hub.addMessageListener((networkEnvelope, connection) -> receivedLatch.countDown());
+        CountDownLatch startupLatch = new CountDownLatch(1);
+        hub.start(new SetupListener() {
+            @Override
+            public void onTorNodeReady() {
+            }
+
+            @Override
+            public void onHiddenServicePublished() {
+                startupLatch.countDown();
+            }
+
+            @Override
+            public void onSetupFailed(Throwable throwable) {
+            }
+
+            @Override
+            public void onRequestCustomBridges() {
+            }
+        });
+        assertTrue(startupLatch.await(10, TimeUnit.SECONDS));
+
+        long ts = System.currentTimeMillis();
+        NodeAddress hubAddress = new NodeAddress("localhost", port);
+        List<LocalhostNetworkNode> clients = new ArrayList<>();
+        for (int i = 0; i < NUM_CONNECTIONS; i++) {
+            while (NUM_CONNECTIONS - receivedLatch.getCount() < i - MAX_PENDING_CONNECTIONS) Thread.sleep(1);
+            LocalhostNetworkNode client = new LocalhostNetworkNode(port + 2 + i, PING_RESOLVER, null, 1); // not started
+            client.sendMessage(hubAddress, new Ping(i, 0));
+            clients.add(client);
+        }
+        assertTrue(receivedLatch.await(2, TimeUnit.MINUTES));
+
+        Footprint footprint = new Footprint(ManagementFactory.getThreadMXBean().getTotalStartedThreadCount() - numThreadsBefore,
+                getUsedHeap() - heapBefore);
+        log.info("{} connections with {} threads: {} platform threads started, {} KB heap, connected in {} ms",
+                NUM_CONNECTIONS * 2, useVirtualThreads ? "virtual" : "platform", footprint.numThreads,
+                footprint.heapBytes / 1024, System.currentTimeMillis() - ts);
+
+        CountDownLatch shutDownLatch = new CountDownLatch(NUM_CONNECTIONS + 1);
+        clients.forEach(client -> client.shutDown(shutDownLatch::countDown));
+        hub.shutDown(shutDownLatch::countDown);
+        shutDownLatch.await(1, TimeUnit.MINUTES);
+        return footprint;
+    }
+
+    private static long getUsedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.network;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import haveno.common.app.Capabilities;
+import haveno.common.app.Capability;
+import haveno.common.app.Version;
+import haveno.network.p2p.BundleOfEnvelopes;
+import haveno.network.p2p.NodeAddress;
+import haveno.network.p2p.peers.keepalive.messages.Ping;
+import haveno.network.p2p.peers.peerexchange.Peer;
+import haveno.network.p2p.peers.peerexchange.messages.GetPeersResponse;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EnvelopeCompressionTest {
+    private static final int PERMITTED_SIZE = 200 * 1024;
+    private static final int MAX_SIZE = 10 * 1024 * 1024;
+
+    @BeforeEach
+    public void setUp() {
+        Version.setBaseCryptoNetworkId(1);
+    }
+
+    @Test
+    public void testSmallEnvelopeNotCompressed() {
+        assertNull(EnvelopeCompression.compress(new Ping(1, 2).toProtoNetworkEnvelope()));
+    }
+
+    @Test
+    public void testRoundTrip() throws InvalidProtocolBufferException {
+        protobuf.NetworkEnvelope proto = getLargeEnvelope();
+        assertTrue(proto.getSerializedSize() > EnvelopeCompression.COMPRESSION_THRESHOLD);
+
+        protobuf.NetworkEnvelope compressed = EnvelopeCompression.compress(proto);
+        assertNotNull(compressed);
+        assertTrue(compressed.hasCompressedEnvelope());
+        assertEquals(proto.getMessageVersion(), compressed.getMessageVersion());
+        assertTrue(compressed.getSerializedSize() < proto.getSerializedSize() / 2);
+        assertNull(EnvelopeCompression.compress(compressed));
+
+        assertEquals(proto, EnvelopeCompression.decompress(compressed.getCompressedEnvelope(), PERMITTED_SIZE, MAX_SIZE));
+    }
+
+    @Test
+    public void testDecompressRejectsInvalidData() {
+        protobuf.NetworkEnvelope proto = getLargeEnvelope();
+        protobuf.CompressedEnvelope compressed = EnvelopeCompression.compress(proto).getCompressedEnvelope();
+
+        // exceeds the permitted size
+        assertThrows(InvalidProtocolBufferException.class,
+                () -> EnvelopeCompression.decompress(compressed, PERMITTED_SIZE, proto.getSerializedSize() - 1));
+
+        // exceeds the permitted size of its message type, which has no extended data size permission
+        assertThrows(InvalidProtocolBufferException.class,
+                () -> EnvelopeCompression.decompress(compressed, proto.getSerializedSize() - 1, MAX_SIZE));
+
+        // uncompressed size does not match
+        assertThrows(InvalidProtocolBufferException.class,
+                () -> EnvelopeCompression.decompress(compressed.toBuilder().setUncompressedSize(compressed.getUncompressedSize() + 1).build(), PERMITTED_SIZE, MAX_SIZE));
+        assertThrows(InvalidProtocolBufferException.class,
+                () -> EnvelopeCompression.decompress(compressed.toBuilder().setUncompressedSize(compressed.getUncompressedSize() - 1).build(), PERMITTED_SIZE, MAX_SIZE));
+
+        // corrupted data
+        byte[] bytes = compressed.getCompressedNetworkEnvelope().toByteArray();
+        for (int i = 0; i < 16; i++) bytes[i] ^= (byte) 0xff;
+        assertThrows(InvalidProtocolBufferException.class,
+                () -> EnvelopeCompression.decompress(compressed.toBuilder().setCompressedNetworkEnvelope(ByteString.copyFrom(bytes)).build(), PERMITTED_SIZE, MAX_SIZE));
+    }
+
+    @Test
+    public void testExtendedDataSizePermission() throws InvalidProtocolBufferException {
+        protobuf.NetworkEnvelope proto = new BundleOfEnvelopes(new ArrayList<>(List.of(new GetPeersResponse(1, getPeers()))))
+                .toProtoNetworkEnvelope();
+        protobuf.CompressedEnvelope compressed = EnvelopeCompression.compress(proto).getCompressedEnvelope();
+        assertEquals(proto, EnvelopeCompression.decompress(compressed, proto.getSerializedSize() - 1, MAX_SIZE));
+    }
+
+    @Test
+    public void testCompressBroadcastReusesResult() throws InvalidProtocolBufferException {
+        protobuf.NetworkEnvelope proto = getLargeEnvelope();
+        protobuf.NetworkEnvelope compressed = EnvelopeCompression.compressBroadcast(proto);
+        assertEquals(EnvelopeCompression.compress(proto), compressed);
+
+        // same content, other instance
+        protobuf.NetworkEnvelope cached = EnvelopeCompression.compressBroadcast(protobuf.NetworkEnvelope.parseFrom(proto.toByteArray()));
+        assertSame(compressed.getCompressedEnvelope().getCompressedNetworkEnvelope(),
+                cached.getCompressedEnvelope().getCompressedNetworkEnvelope());
+        assertNull(EnvelopeCompression.compressBroadcast(new Ping(1, 2).toProtoNetworkEnvelope()));
+    }
+
+    private static protobuf.NetworkEnvelope getLargeEnvelope() {
+        return new GetPeersResponse(1, getPeers()).toProtoNetworkEnvelope();
+    }
+
+    private static Set<Peer> getPeers() {
+        Set<Peer> peers = new HashSet<>();
+        for (int i = 0; i < 300; i++) {
+            peers.add(new Peer(new NodeAddress("peer" + i + "abcdefghijklmnopqrstuvwxyzabcdefghijklmnopqrstu.onion", 9999),
+                    new Capabilities(Capability.TRADE_STATISTICS_3, Capability.REFRESH_OFFERS)));
+        }
+        return peers;
+    }
+}
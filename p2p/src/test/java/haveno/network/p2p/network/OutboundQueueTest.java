@@ -0,0 +1,164 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.network;
+
+import haveno.common.app.Version;
+import haveno.common.proto.network.NetworkEnvelope;
+import haveno.network.p2p.peers.keepalive.messages.Pong;
+import haveno.network.p2p.peers.peerexchange.messages.GetPeersResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OutboundQueueTest {
+
+    @BeforeEach
+    public void setUp() {
+        Version.setBaseCryptoNetworkId(1);
+    }
+
+    @Test
+    public void testTokenBucket() {
+        TokenBucket tokenBucket = new TokenBucket(10, 2, 0);
+        assertTrue(tokenBucket.tryAcquire(0));
+        assertTrue(tokenBucket.tryAcquire(0));
+        assertFalse(tokenBucket.tryAcquire(0));
+        assertEquals(5, tokenBucket.getNanosUntilToken(5));
+        assertTrue(tokenBucket.tryAcquire(10));
+        assertTrue(tokenBucket.tryAcquire(1000));
+        assertTrue(tokenBucket.tryAcquire(1000));
+        assertFalse(tokenBucket.tryAcquire(1000)); // capacity limits the burst
+    }
+
+    @Test
+    public void testControlMessagesFirstAndCoalesced() throws Exception {
+        BlockingOutputStream outputStream = new BlockingOutputStream();
+        OutboundQueue outboundQueue = new OutboundQueue(new ProtoOutputStream(outputStream, new Statistic()), 1, 100);
+
+        // first write blocks until the other envelopes are queued
+        List<CompletableFuture<Integer>> sent = new ArrayList<>();
+        sent.add(sendAsync(outboundQueue, new GetPeersResponse(0, new HashSet<>())));
+        assertTrue(outputStream.writing.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i <= 3; i++) {
+            sent.add(sendAsync(outboundQueue, new GetPeersResponse(i, new HashSet<>())));
+            while (outboundQueue.getQueueDepth() < i) Thread.sleep(10);
+        }
+        sent.add(sendAsync(outboundQueue, new Pong(4)));
+        while (outboundQueue.getQueueDepth() < 4) Thread.sleep(10);
+        outputStream.release.countDown();
+        for (CompletableFuture<Integer> future : sent) assertTrue(future.get(5, TimeUnit.SECONDS) > 0);
+
+        assertEquals(2, outputStream.numFlushes);
+        assertEquals(5, outboundQueue.getNumWritten());
+        assertEquals(4, outboundQueue.getMaxQueueDepth());
+
+        List<Integer> nonces = new ArrayList<>();
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(outputStream.toByteArray());
+        protobuf.NetworkEnvelope proto;
+        while ((proto = protobuf.NetworkEnvelope.parseDelimitedFrom(inputStream)) != null) {
+            nonces.add(proto.hasPong() ? proto.getPong().getRequestNonce() : proto.getGetPeersResponse().getRequestNonce());
+        }
+        assertEquals(List.of(0, 4, 1, 2, 3), nonces);
+        outboundQueue.shutDown();
+    }
+
+    @Test
+    public void testShutDownDropsQueuedEnvelopes() throws Exception {
+        BlockingOutputStream outputStream = new BlockingOutputStream();
+        OutboundQueue outboundQueue = new OutboundQueue(new ProtoOutputStream(outputStream, new Statistic()), 1, 100);
+        CompletableFuture<Integer> first = sendAsync(outboundQueue, new GetPeersResponse(0, new HashSet<>()));
+        assertTrue(outputStream.writing.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Integer> second = sendAsync(outboundQueue, new GetPeersResponse(1, new HashSet<>()));
+        while (outboundQueue.getQueueDepth() < 1) Thread.sleep(10);
+
+        outboundQueue.shutDown();
+        assertEquals(-1, second.get(5, TimeUnit.SECONDS));
+        outputStream.release.countDown();
+        assertTrue(first.get(5, TimeUnit.SECONDS) > 0);
+        assertEquals(-1, outboundQueue.send(new GetPeersResponse(2, new HashSet<>())));
+    }
+
+    @Test
+    public void testFailedWriteCompletesAllSenders() throws Exception {
+        Error error = new Error("write failed");
+        BlockingOutputStream outputStream = new BlockingOutputStream();
+        outputStream.errorAfterFirstWrite = error;
+        OutboundQueue outboundQueue = new OutboundQueue(new ProtoOutputStream(outputStream, new Statistic()), 1, 100);
+        CompletableFuture<Integer> first = sendAsync(outboundQueue, new GetPeersResponse(0, new HashSet<>()));
+        assertTrue(outputStream.writing.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Integer> second = sendAsync(outboundQueue, new GetPeersResponse(1, new HashSet<>()));
+        CompletableFuture<Integer> third = sendAsync(outboundQueue, new GetPeersResponse(2, new HashSet<>()));
+        while (outboundQueue.getQueueDepth() < 2) Thread.sleep(10);
+
+        // the second batch fails with an error, which completes the sender writing it and the one waiting for it
+        outputStream.release.countDown();
+        assertTrue(first.get(5, TimeUnit.SECONDS) > 0);
+        assertSame(error, assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS)).getCause());
+        assertSame(error, assertThrows(ExecutionException.class, () -> third.get(5, TimeUnit.SECONDS)).getCause());
+        outboundQueue.shutDown();
+    }
+
+    private static CompletableFuture<Integer> sendAsync(OutboundQueue outboundQueue, NetworkEnvelope envelope) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return outboundQueue.send(envelope);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }, Thread::startVirtualThread);
+    }
+
+    private static class BlockingOutputStream extends ByteArrayOutputStream {
+        private final CountDownLatch writing = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private int numFlushes;
+        private Error errorAfterFirstWrite;
+
+        @Override
+        public void write(byte[] b) throws IOException {
+            if (errorAfterFirstWrite != null && writing.getCount() == 0) throw errorAfterFirstWrite;
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            super.write(b);
+        }
+
+        @Override
+        public void flush() {
+            numFlushes++;
+        }
+    }
+}
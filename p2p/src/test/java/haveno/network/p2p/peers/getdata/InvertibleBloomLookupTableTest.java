@@ -0,0 +1,92 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.peers.getdata;
+
+import haveno.common.crypto.Hash;
+import haveno.network.p2p.storage.P2PDataStorage;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InvertibleBloomLookupTableTest {
+
+    private static byte[] key(int i) {
+        return Hash.getSha256Hash(i);
+    }
+
+    @Test
+    public void testDecodeDifference() {
+        int cellsPerSubtable = InvertibleBloomLookupTable.getCellsPerSubtable(100);
+        InvertibleBloomLookupTable local = new InvertibleBloomLookupTable(cellsPerSubtable);
+        InvertibleBloomLookupTable remote = new InvertibleBloomLookupTable(cellsPerSubtable);
+        Set<P2PDataStorage.ByteArray> localOnly = new HashSet<>();
+        Set<P2PDataStorage.ByteArray> remoteOnly = new HashSet<>();
+        for (int i = 0; i < 10000; i++) {
+            local.add(key(i));
+            remote.add(key(i));
+        }
+        for (int i = 10000; i < 10060; i++) {
+            local.add(key(i));
+            localOnly.add(InvertibleBloomLookupTable.reduce(key(i)));
+        }
+        // Account age witness hashes have 20 bytes
+        for (int i = 10060; i < 10100; i++) {
+            byte[] shortKey = Hash.getRipemd160hash(key(i));
+            remote.add(shortKey);
+            remoteOnly.add(InvertibleBloomLookupTable.reduce(shortKey));
+        }
+
+        InvertibleBloomLookupTable received = InvertibleBloomLookupTable.fromProto(remote.toProtoMessage());
+        assertEquals(remote, received);
+
+        InvertibleBloomLookupTable.Difference difference = local.subtract(received).decode();
+        assertNotNull(difference);
+        assertEquals(localOnly, difference.getLocalOnly());
+        assertEquals(remoteOnly, difference.getRemoteOnly());
+    }
+
+    @Test
+    public void testDifferenceTooLargeToDecode() {
+        int cellsPerSubtable = InvertibleBloomLookupTable.getCellsPerSubtable(20);
+        InvertibleBloomLookupTable local = new InvertibleBloomLookupTable(cellsPerSubtable);
+        InvertibleBloomLookupTable remote = new InvertibleBloomLookupTable(cellsPerSubtable);
+        for (int i = 0; i < 1000; i++) {
+            local.add(key(i));
+        }
+        assertNull(local.subtract(remote).decode());
+    }
+
+    @Test
+    public void testEqualSets() {
+        InvertibleBloomLookupTable local = new InvertibleBloomLookupTable(16);
+        InvertibleBloomLookupTable remote = new InvertibleBloomLookupTable(16);
+        for (int i = 0; i < 1000; i++) {
+            local.add(key(i));
+            remote.add(key(999 - i));
+        }
+        InvertibleBloomLookupTable.Difference difference = local.subtract(remote).decode();
+        assertNotNull(difference);
+        assertTrue(difference.getLocalOnly().isEmpty());
+        assertTrue(difference.getRemoteOnly().isEmpty());
+    }
+}
@@ -19,10 +19,12 @@ package haveno.network.p2p.storage;
 
 import haveno.common.app.Version;
 import haveno.common.crypto.CryptoException;
+import haveno.network.p2p.NodeAddress;
 import haveno.network.p2p.TestUtils;
 import haveno.network.p2p.network.Connection;
 import haveno.network.p2p.storage.messages.AddDataMessage;
 import haveno.network.p2p.storage.messages.RefreshOfferMessage;
+import haveno.network.p2p.storage.messages.RefreshOffersMessage;
 import haveno.network.p2p.storage.mocks.ExpirableProtectedStoragePayloadStub;
 import haveno.network.p2p.storage.payload.MailboxStoragePayload;
 import haveno.network.p2p.storage.payload.ProtectedMailboxStorageEntry;
@@ -33,12 +35,19 @@ import org.junit.jupiter.api.Test;
 
 import java.security.KeyPair;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import static haveno.network.p2p.storage.TestState.SavedTestState;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -171,6 +180,59 @@ public class P2PDataStorageClientAPITest {
         this.testState.verifyRefreshTTL(beforeState, refreshOfferMessage, true);
     }
 
+    // TESTCASE: Updating many entries with one RefreshOffersMessage "refreshes" them and broadcasts the message
+    @Test
+    public void refreshTTL_Bulk() throws NoSuchAlgorithmException, CryptoException {
+        List<RefreshOfferMessage> refreshOfferMessages = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            KeyPair ownerKeys = TestUtils.generateKeyPair();
+            ProtectedStoragePayload protectedStoragePayload = new ExpirableProtectedStoragePayloadStub(ownerKeys.getPublic());
+            ProtectedStorageEntry protectedStorageEntry = this.testState.mockedStorage.getProtectedStorageEntry(protectedStoragePayload, ownerKeys);
+            this.testState.mockedStorage.addProtectedStorageEntry(protectedStorageEntry, TestState.getTestNodeAddress(), null);
+            refreshOfferMessages.add(this.testState.mockedStorage.getRefreshTTLMessage(protectedStoragePayload, ownerKeys));
+        }
+        RefreshOffersMessage refreshOffersMessage = new RefreshOffersMessage(refreshOfferMessages);
+
+        this.testState.incrementClock();
+
+        SavedTestState beforeState = this.testState.saveTestState(refreshOfferMessages.get(0));
+        assertTrue(this.testState.mockedStorage.refreshTTL(refreshOffersMessage, TestState.getTestNodeAddress()));
+
+        for (RefreshOfferMessage refreshOfferMessage : refreshOfferMessages) {
+            ProtectedStorageEntry entryAfterRefresh = this.testState.mockedStorage.getMap().get(new P2PDataStorage.ByteArray(refreshOfferMessage.getHashOfPayload()));
+            assertEquals(refreshOfferMessage.getSequenceNumber(), entryAfterRefresh.getSequenceNumber());
+            assertTrue(entryAfterRefresh.getCreationTimeStamp() > beforeState.creationTimestampBeforeUpdate);
+        }
+        verify(this.testState.mockBroadcaster).broadcast(eq(refreshOffersMessage), nullable(NodeAddress.class));
+    }
+
+    // TESTCASE: Only the valid refreshes of a RefreshOffersMessage are applied and broadcast
+    @Test
+    public void refreshTTL_BulkPartiallyInvalid() throws NoSuchAlgorithmException, CryptoException {
+        KeyPair ownerKeys = TestUtils.generateKeyPair();
+
+        ProtectedStoragePayload protectedStoragePayload = new ExpirableProtectedStoragePayloadStub(ownerKeys.getPublic());
+        ProtectedStorageEntry protectedStorageEntry = this.testState.mockedStorage.getProtectedStorageEntry(protectedStoragePayload, ownerKeys);
+        this.testState.mockedStorage.addProtectedStorageEntry(protectedStorageEntry, TestState.getTestNodeAddress(), null);
+        RefreshOfferMessage validRefresh = this.testState.mockedStorage.getRefreshTTLMessage(protectedStoragePayload, ownerKeys);
+
+        // Refresh of an entry we have not seen
+        KeyPair unknownOwnerKeys = TestUtils.generateKeyPair();
+        ProtectedStoragePayload unknownPayload = new ExpirableProtectedStoragePayloadStub(unknownOwnerKeys.getPublic());
+        RefreshOfferMessage unknownRefresh = this.testState.mockedStorage.getRefreshTTLMessage(unknownPayload, unknownOwnerKeys);
+
+        this.testState.incrementClock();
+
+        SavedTestState beforeState = this.testState.saveTestState(validRefresh);
+        assertFalse(this.testState.mockedStorage.refreshTTL(new RefreshOffersMessage(List.of(unknownRefresh, validRefresh)), TestState.getTestNodeAddress()));
+
+        assertNull(this.testState.mockedStorage.getMap().get(new P2PDataStorage.ByteArray(unknownRefresh.getHashOfPayload())));
+        ProtectedStorageEntry entryAfterRefresh = this.testState.mockedStorage.getMap().get(new P2PDataStorage.ByteArray(validRefresh.getHashOfPayload()));
+        assertEquals(validRefresh.getSequenceNumber(), entryAfterRefresh.getSequenceNumber());
+        assertTrue(entryAfterRefresh.getCreationTimeStamp() > beforeState.creationTimestampBeforeUpdate);
+        verify(this.testState.mockBroadcaster).broadcast(eq(new RefreshOffersMessage(List.of(validRefresh))), nullable(NodeAddress.class));
+    }
+
     // TESTCASE: Removing a non-existent mailbox entry from the getMailboxDataWithSignedSeqNr API
     @Test
     public void getMailboxDataWithSignedSeqNr_RemoveNoExist() throws NoSuchAlgorithmException, CryptoException {
@@ -0,0 +1,143 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.storage;
+
+import com.google.protobuf.ByteString;
+import haveno.common.crypto.Hash;
+import haveno.network.p2p.storage.payload.ProtectedStoragePayload;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares hashing all payloads of an offer book of 5000 offers with and without the payload hash cache of
+ * P2PDataStorage. Run with ./gradlew :p2p:jmh --args="PayloadHashBenchmark".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadHashBenchmark {
+    private static final int NUM_OFFERS = 5000;
+
+    private final List<OfferPayloadStub> offerBook = new ArrayList<>();
+
+    // Builds the proto message at each call like the real payloads do
+    private static class OfferPayloadStub implements ProtectedStoragePayload {
+        private final int index;
+
+        OfferPayloadStub(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public protobuf.StoragePayload toProtoMessage() {
+            protobuf.OfferPayload.Builder builder = protobuf.OfferPayload.newBuilder()
+                    .setId("offer-" + index)
+                    .setDate(1700000000000L + index)
+                    .setOwnerNodeAddress(protobuf.NodeAddress.newBuilder()
+                            .setHostName("abcdefghijklmnopqrstuvwxyzabcdefghijklmnopqrstuvwxyzab.onion")
+                            .setPort(9999))
+                    .setPubKeyRing(protobuf.PubKeyRing.newBuilder()
+                            .setSignaturePubKeyBytes(ByteString.copyFrom(Hash.getSha256Hash(index)))
+                            .setEncryptionPubKeyBytes(ByteString.copyFrom(Hash.getSha256Hash(-index))))
+                    .setDirection(index % 2 == 0 ? protobuf.OfferDirection.BUY : protobuf.OfferDirection.SELL)
+                    .setPrice(1000000L + index)
+                    .setAmount(100000000L)
+                    .setMinAmount(10000000L)
+                    .setBaseCurrencyCode("XMR")
+                    .setCounterCurrencyCode("EUR")
+                    .setPaymentMethodId("SEPA")
+                    .setMakerPaymentAccountId("payment-account-" + index)
+                    .setCountryCode("DE")
+                    .addAllAcceptedCountryCodes(List.of("AT", "BE", "DE", "ES", "FI", "FR", "IT", "NL", "PT"))
+                    .setVersionNr("1.0.0")
+                    .setMaxTradeLimit(2000000000000L)
+                    .setMaxTradePeriod(TimeUnit.DAYS.toMillis(6))
+                    .putAllExtraData(Map.of("accountAgeWitnessHash", "0123456789abcdef0123456789abcdef01234567"))
+                    .setProtocolVersion(1)
+                    .setArbitratorSignature(ByteString.copyFrom(new byte[72]))
+                    .addAllReserveTxKeyImages(List.of(
+                            "5f2e8d4c3b2a19087f6e5d4c3b2a19087f6e5d4c3b2a19087f6e5d4c3b2a1908",
+                            "6a5b4c3d2e1f0a9b8c7d6e5f4a3b2c1d0e9f8a7b6c5d4e3f2a1b0c9d8e7f6a5b"));
+            return protobuf.StoragePayload.newBuilder().setOfferPayload(builder).build();
+        }
+
+        @Override
+        public PublicKey getOwnerPubKey() {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public Map<String, String> getExtraDataMap() {
+            return null;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < NUM_OFFERS; i++) {
+            OfferPayloadStub payload = new OfferPayloadStub(i);
+            offerBook.add(payload);
+            // Done by P2PDataStorage when the payload gets added to its map
+            P2PDataStorage.cache32ByteHash(payload,
+                    new P2PDataStorage.ByteArray(Hash.getSha256Hash(payload.toProtoMessage().toByteArray())));
+        }
+    }
+
+    @Benchmark
+    public void hashWithoutCache(Blackhole blackhole) {
+        for (OfferPayloadStub payload : offerBook) {
+            blackhole.consume(Hash.getSha256Hash(payload.toProtoMessage().toByteArray()));
+        }
+    }
+
+    @Benchmark
+    public void hashWithCache(Blackhole blackhole) {
+        for (OfferPayloadStub payload : offerBook) {
+            blackhole.consume(P2PDataStorage.get32ByteHashAsByteArray(payload));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PayloadHashBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
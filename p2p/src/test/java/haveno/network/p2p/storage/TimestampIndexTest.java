@@ -0,0 +1,92 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.storage;
+
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TimestampIndexTest {
+    private TimestampIndex<String> index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new TimestampIndex<>();
+    }
+
+    @Test
+    public void testPollBefore() {
+        index.put("c", 30);
+        index.put("a", 10);
+        index.put("b", 20);
+
+        assertTrue(index.pollBefore(10).isEmpty()); // the time itself is excluded
+        assertEquals(List.of("a", "b"), index.pollBefore(21));
+        assertEquals(1, index.size());
+        assertTrue(index.pollBefore(21).isEmpty());
+        assertEquals(List.of("c"), index.pollBefore(Long.MAX_VALUE));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testPutReplacesTimestamp() {
+        index.put("a", 10);
+        index.put("b", 20);
+        index.put("a", 30);
+
+        assertEquals(2, index.size());
+        assertEquals(List.of("b"), index.pollBefore(30));
+        assertEquals(List.of("a"), index.pollBefore(31));
+    }
+
+    @Test
+    public void testRemove() {
+        index.put("a", 10);
+        index.put("b", 20);
+        index.remove("a");
+        index.remove("unknown");
+
+        assertEquals(1, index.size());
+        assertEquals(List.of("b"), index.pollBefore(Long.MAX_VALUE));
+
+        index.put("a", 10);
+        index.clear();
+        assertEquals(0, index.size());
+        assertTrue(index.pollBefore(Long.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    public void testEqualTimestamps() {
+        index.put("c", 10);
+        index.put("a", 10);
+        index.put("b", 10);
+        index.put("d", 5);
+
+        // keys with the same timestamp are all kept and polled in insertion order
+        assertEquals(4, index.size());
+        assertEquals(List.of("d", "c", "a", "b"), index.pollBefore(11));
+
+        index.put("a", 10);
+        index.put("b", 10);
+        index.remove("a");
+        assertEquals(List.of("b"), index.pollBefore(11));
+    }
+}
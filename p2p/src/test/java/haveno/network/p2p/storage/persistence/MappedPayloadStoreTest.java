@@ -0,0 +1,172 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.storage.persistence;
+
+import com.google.protobuf.ByteString;
+import haveno.common.Payload;
+import haveno.common.crypto.Hash;
+import haveno.common.proto.ProtoResolver;
+import haveno.common.proto.persistable.PersistablePayload;
+import haveno.network.p2p.storage.P2PDataStorage;
+import haveno.network.p2p.storage.payload.PersistableNetworkPayload;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MappedPayloadStoreTest {
+
+    @TempDir
+    File dir;
+
+    private static class TestPayload implements PersistableNetworkPayload {
+        private final byte[] hash;
+        private final long date;
+
+        TestPayload(byte[] hash, long date) {
+            this.hash = hash;
+            this.date = date;
+        }
+
+        @Override
+        public protobuf.PersistableNetworkPayload toProtoMessage() {
+            return protobuf.PersistableNetworkPayload.newBuilder()
+                    .setAccountAgeWitness(protobuf.AccountAgeWitness.newBuilder()
+                            .setHash(ByteString.copyFrom(hash))
+                            .setDate(date))
+                    .build();
+        }
+
+        @Override
+        public byte[] getHash() {
+            return hash;
+        }
+
+        @Override
+        public boolean verifyHashSize() {
+            return true;
+        }
+    }
+
+    private static final ProtoResolver PROTO_RESOLVER = new ProtoResolver() {
+        @Override
+        public Payload fromProto(protobuf.PaymentAccountPayload proto) {
+            return null;
+        }
+
+        @Override
+        public PersistablePayload fromProto(protobuf.PersistableNetworkPayload proto) {
+            return new TestPayload(proto.getAccountAgeWitness().getHash().toByteArray(), proto.getAccountAgeWitness().getDate());
+        }
+    };
+
+    @Test
+    public void testWriteAndOpen() throws Exception {
+        File sourceFile = new File(dir, "AccountAgeWitnessStore_0.0.1");
+        Files.write(sourceFile.toPath(), new byte[]{1, 2, 3});
+        File file = new File(dir, sourceFile.getName() + MappedPayloadStore.FILE_SUFFIX);
+
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map = new HashMap<>();
+        for (int i = 0; i < 500; i++) {
+            TestPayload payload = new TestPayload(Hash.getSha256Hash(i), i);
+            map.put(new P2PDataStorage.ByteArray(payload.getHash()), payload);
+        }
+        assertTrue(MappedPayloadStore.write(file, sourceFile, map));
+
+        MappedPayloadStore store = MappedPayloadStore.open(file, sourceFile, PROTO_RESOLVER);
+        assertNotNull(store);
+        assertEquals(map.size(), store.size());
+        assertEquals(map.keySet(), new HashSet<>(store.keySet()));
+        map.forEach((hash, payload) -> {
+            assertTrue(store.containsKey(hash));
+            assertEquals(((TestPayload) payload).date, ((TestPayload) store.get(hash)).date);
+        });
+        assertFalse(store.containsKey(new P2PDataStorage.ByteArray(Hash.getSha256Hash(-1))));
+        assertNull(store.get(new P2PDataStorage.ByteArray(new byte[]{1})));
+        assertEquals(map.size(), store.values().stream().count());
+    }
+
+    @Test
+    public void testDecodedPayloadsAreCached() throws Exception {
+        File sourceFile = new File(dir, "AccountAgeWitnessStore_0.0.1");
+        Files.write(sourceFile.toPath(), new byte[]{1, 2, 3});
+        File file = new File(dir, sourceFile.getName() + MappedPayloadStore.FILE_SUFFIX);
+
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map = new HashMap<>();
+        for (int i = 0; i <= MappedPayloadStore.MAX_CACHED_PAYLOADS; i++) {
+            TestPayload payload = new TestPayload(Hash.getSha256Hash(i), i);
+            map.put(new P2PDataStorage.ByteArray(payload.getHash()), payload);
+        }
+        assertTrue(MappedPayloadStore.write(file, sourceFile, map));
+        MappedPayloadStore store = MappedPayloadStore.open(file, sourceFile, PROTO_RESOLVER);
+        assertNotNull(store);
+
+        // repeated lookups and iterations return the decoded payload
+        P2PDataStorage.ByteArray hash = store.keySet().iterator().next();
+        PersistableNetworkPayload payload = store.get(hash);
+        assertSame(payload, store.get(hash));
+        assertTrue(store.values().stream().anyMatch(value -> value == payload));
+
+        // the cache is bounded, so iterating over more payloads than it holds evicts the first payload
+        store.values().forEach(value -> { });
+        PersistableNetworkPayload reparsedPayload = store.get(hash);
+        assertNotSame(payload, reparsedPayload);
+        assertEquals(((TestPayload) payload).date, ((TestPayload) reparsedPayload).date);
+    }
+
+    @Test
+    public void testOutdatedStoreIsNotOpened() throws Exception {
+        File sourceFile = new File(dir, "AccountAgeWitnessStore_0.0.1");
+        Files.write(sourceFile.toPath(), new byte[]{1, 2, 3});
+        File file = new File(dir, sourceFile.getName() + MappedPayloadStore.FILE_SUFFIX);
+        TestPayload payload = new TestPayload(Hash.getSha256Hash(1), 1);
+        assertTrue(MappedPayloadStore.write(file, sourceFile, Map.of(new P2PDataStorage.ByteArray(payload.getHash()), payload)));
+
+        Files.write(sourceFile.toPath(), new byte[]{1, 2, 3, 4});
+        assertNull(MappedPayloadStore.open(file, sourceFile, PROTO_RESOLVER));
+    }
+
+    @Test
+    public void testStoreWithUnexpectedLengthIsNotOpened() throws Exception {
+        File sourceFile = new File(dir, "AccountAgeWitnessStore_0.0.1");
+        Files.write(sourceFile.toPath(), new byte[]{1, 2, 3});
+        File file = new File(dir, sourceFile.getName() + MappedPayloadStore.FILE_SUFFIX);
+        TestPayload payload = new TestPayload(Hash.getSha256Hash(1), 1);
+        assertTrue(MappedPayloadStore.write(file, sourceFile, Map.of(new P2PDataStorage.ByteArray(payload.getHash()), payload)));
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        assertNotNull(MappedPayloadStore.open(file, sourceFile, PROTO_RESOLVER));
+
+        Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 1));
+        assertNull(MappedPayloadStore.open(file, sourceFile, PROTO_RESOLVER));
+
+        Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length + 1));
+        assertNull(MappedPayloadStore.open(file, sourceFile, PROTO_RESOLVER));
+    }
+}
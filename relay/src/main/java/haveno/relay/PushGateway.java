@@ -0,0 +1,43 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.relay;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends push notifications to the push providers without blocking the caller.
+ *
+ * The futures complete with SUCCESS or, if the push provider rejected the notification, an error message starting with
+ * "Error: ", as returned to the Haveno app. Provider and transport failures complete the futures exceptionally.
+ */
+interface PushGateway {
+    // Used in Haveno app to check for success state. We won't want a code dependency just for that string so we keep it
+    // duplicated in core and here. Must not be changed.
+    String SUCCESS = "success";
+
+    CompletableFuture<String> sendAppleMessage(boolean isProduction,
+                                               boolean isContentAvailable,
+                                               String apsTokenHex,
+                                               String encryptedMessage,
+                                               boolean useSound);
+
+    CompletableFuture<String> sendAndroidMessage(String apsTokenHex, String encryptedMessage, boolean useSound);
+
+    // Releases the connections to the push providers, after the pending notifications are completed
+    void shutDown();
+}
@@ -26,14 +26,18 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 import static spark.Spark.get;
 import static spark.Spark.port;
+import static spark.Spark.stop;
 
 public class RelayMain {
     private static final Logger log = LoggerFactory.getLogger(RelayMain.class);
     private static final String VERSION = "0.1.0";
-    private static RelayService relayService;
+    private static PushGateway pushGateway;
+    private static RelayQueue relayQueue; // null if requests are relayed synchronously
 
     static {
         // Need to set default locale initially otherwise we get problems at non-English OS
@@ -41,6 +45,10 @@ public class RelayMain {
     }
 
     /**
+     * Set the system property relay.async to queue the notifications instead of waiting for the push providers, with
+     * relay.queueCapacity, relay.batchSize and relay.maxInFlight to size the queue. Set relay.stub to replace the push
+     * providers by a local stub answering after relay.stubLatencyMs, e.g. for load tests.
+     *
      * @param args      Pass port as program argument if other port than default port 8080 is wanted.
      */
     public static void main(String[] args) {
@@ -52,28 +60,32 @@ public class RelayMain {
         Utilities.printSysInfo();
 
 
-        String appleCertPwPath;
+        // Options of the non-blocking relay mode and of load tests, e.g. -Drelay.async=true
+        boolean isAsync = Boolean.getBoolean("relay.async");
+        boolean useStub = Boolean.getBoolean("relay.stub");
+
+        String appleCertPwPath = null;
         if (args.length > 0)
             appleCertPwPath = args[0];
-        else
+        else if (!useStub)
             throw new RuntimeException("You need to set the path to the password text file for the Apple push certificate as first argument.");
 
-        String appleCertPath;
+        String appleCertPath = null;
         if (args.length > 1)
             appleCertPath = args[1];
-        else
+        else if (!useStub)
             throw new RuntimeException("You need to set the path to the Apple push certificate as second argument.");
 
-        String appleBundleId;
+        String appleBundleId = null;
         if (args.length > 2)
             appleBundleId = args[2];
-        else
+        else if (!useStub)
             throw new RuntimeException("You need to set the Apple bundle ID as third argument.");
 
-        String androidCertPath;
+        String androidCertPath = null;
         if (args.length > 3)
             androidCertPath = args[3];
-        else
+        else if (!useStub)
             throw new RuntimeException("You need to set the Android certificate path as 4th argument.");
 
 
@@ -83,10 +95,27 @@ public class RelayMain {
 
         port(port);
 
-        relayService = new RelayService(appleCertPwPath, appleCertPath, appleBundleId, androidCertPath);
+        if (useStub) {
+            long stubLatencyMs = Long.getLong("relay.stubLatencyMs", 100);
+            log.info("Using stub push providers with a latency of {} ms", stubLatencyMs);
+            pushGateway = new StubPushGateway(stubLatencyMs);
+        } else {
+            pushGateway = new RelayService(appleCertPwPath, appleCertPath, appleBundleId, androidCertPath);
+        }
+
+        if (isAsync) {
+            relayQueue = new RelayQueue(pushGateway,
+                Integer.getInteger("relay.queueCapacity", 10000),
+                Integer.getInteger("relay.batchSize", 100),
+                Integer.getInteger("relay.maxInFlight", 1000));
+            relayQueue.start();
+            log.info("Relay requests are queued");
+        }
 
         handleRelay();
+        handleMetrics();
 
+        Runtime.getRuntime().addShutdownHook(new Thread(RelayMain::shutDown, "RelayMain.shutDown"));
         keepRunning();
     }
 
@@ -99,16 +128,45 @@ public class RelayMain {
             String encryptedMessage = new String(Hex.decodeHex(request.queryParams("msg").toCharArray()), "UTF-8");
             log.info("isAndroid={}\nuseSound={}\napsTokenHex={}\nencryptedMessage={}", isAndroid, useSound, token,
                 encryptedMessage);
+            Function<PushGateway, CompletableFuture<String>> send;
             if (isAndroid) {
-                return relayService.sendAndroidMessage(token, encryptedMessage, useSound);
+                send = gateway -> gateway.sendAndroidMessage(token, encryptedMessage, useSound);
             } else {
                 boolean isProduction = request.queryParams("isProduction").equalsIgnoreCase("true");
                 boolean isContentAvailable = request.queryParams("isContentAvailable").equalsIgnoreCase("true");
-                return relayService.sendAppleMessage(isProduction, isContentAvailable, token, encryptedMessage, useSound);
+                send = gateway -> gateway.sendAppleMessage(isProduction, isContentAvailable, token, encryptedMessage, useSound);
             }
+
+            if (relayQueue == null) {
+                return send.apply(pushGateway).exceptionally(throwable -> "Error: " + throwable.toString()).join();
+            }
+
+            // The app only learns whether the notification was queued
+            if (relayQueue.submit(send)) {
+                return PushGateway.SUCCESS;
+            }
+            log.warn("Relay queue is full, rejecting request");
+            response.status(503);
+            response.header("Retry-After", "1");
+            return "Error: Relay queue is full";
+        });
+    }
+
+    private static void handleMetrics() {
+        get("/relay/metrics", (request, response) -> {
+            response.type("text/plain");
+            return relayQueue == null ? "Relay queue is not enabled" : relayQueue.getMetrics().toString();
         });
     }
 
+    // The queue gets shut down first, so the notifications in flight are completed by the push gateway
+    private static void shutDown() {
+        stop();
+        if (relayQueue != null)
+            relayQueue.shutDown();
+        pushGateway.shutDown();
+    }
+
     private static void keepRunning() {
         //noinspection InfiniteLoopStatement
         while (true) {
@@ -0,0 +1,250 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.relay;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded queue of push notifications which are sent to the push providers by a dispatcher thread, so relay requests
+ * do not wait for the push providers.
+ *
+ * The dispatcher drains the queue in batches and sends all notifications of a batch without waiting for the responses,
+ * limited by the number of notifications in flight. If the providers are slower than the incoming requests the queue
+ * fills up and new notifications are rejected, so the clients can retry later.
+ */
+class RelayQueue {
+    private static final Logger log = LoggerFactory.getLogger(RelayQueue.class);
+    private static final long SHUT_DOWN_TIMEOUT_MS = 5000;
+
+    static class Metrics {
+        private final long numAccepted;
+        private final long numDropped;
+        private final long numDelivered;
+        private final long numRejected;
+        private final long numFailed;
+        private final long numBatches;
+        private final long totalLatencyMs;
+        private final int queueDepth;
+        private final int numInFlight;
+
+        private Metrics(long numAccepted, long numDropped, long numDelivered, long numRejected, long numFailed,
+                        long numBatches, long totalLatencyMs, int queueDepth, int numInFlight) {
+            this.numAccepted = numAccepted;
+            this.numDropped = numDropped;
+            this.numDelivered = numDelivered;
+            this.numRejected = numRejected;
+            this.numFailed = numFailed;
+            this.numBatches = numBatches;
+            this.totalLatencyMs = totalLatencyMs;
+            this.queueDepth = queueDepth;
+            this.numInFlight = numInFlight;
+        }
+
+        // Queued notifications
+        long getNumAccepted() {
+            return numAccepted;
+        }
+
+        // Notifications not queued as the queue was full
+        long getNumDropped() {
+            return numDropped;
+        }
+
+        long getNumDelivered() {
+            return numDelivered;
+        }
+
+        // Notifications refused by the push provider
+        long getNumRejected() {
+            return numRejected;
+        }
+
+        // Notifications which could not be sent
+        long getNumFailed() {
+            return numFailed;
+        }
+
+        long getNumBatches() {
+            return numBatches;
+        }
+
+        int getQueueDepth() {
+            return queueDepth;
+        }
+
+        int getNumInFlight() {
+            return numInFlight;
+        }
+
+        // From queueing to the response of the push provider
+        long getAverageLatencyMs() {
+            long numCompleted = numDelivered + numRejected + numFailed;
+            return numCompleted == 0 ? 0 : totalLatencyMs / numCompleted;
+        }
+
+        @Override
+        public String toString() {
+            return "accepted=" + numAccepted +
+                "\ndropped=" + numDropped +
+                "\ndelivered=" + numDelivered +
+                "\nrejected=" + numRejected +
+                "\nfailed=" + numFailed +
+                "\nbatches=" + numBatches +
+                "\naverageLatencyMs=" + getAverageLatencyMs() +
+                "\nqueueDepth=" + queueDepth +
+                "\ninFlight=" + numInFlight;
+        }
+    }
+
+    private static class Request {
+        private final Function<PushGateway, CompletableFuture<String>> send;
+        private final long queuedAt;
+
+        private Request(Function<PushGateway, CompletableFuture<String>> send) {
+            this.send = send;
+            this.queuedAt = System.currentTimeMillis();
+        }
+    }
+
+    private final PushGateway pushGateway;
+    private final BlockingQueue<Request> queue;
+    private final int batchSize;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final Thread dispatcher;
+
+    private final AtomicLong numAccepted = new AtomicLong();
+    private final AtomicLong numDropped = new AtomicLong();
+    private final AtomicLong numDelivered = new AtomicLong();
+    private final AtomicLong numRejected = new AtomicLong();
+    private final AtomicLong numFailed = new AtomicLong();
+    private final AtomicLong numBatches = new AtomicLong();
+    private final AtomicLong totalLatencyMs = new AtomicLong();
+
+    /**
+     * @param pushGateway - sends the notifications to the push providers
+     * @param capacity - maximum number of queued notifications
+     * @param batchSize - maximum number of notifications taken from the queue at once
+     * @param maxInFlight - maximum number of notifications waiting for the response of a push provider
+     */
+    RelayQueue(PushGateway pushGateway, int capacity, int batchSize, int maxInFlight) {
+        if (capacity <= 0 || batchSize <= 0 || maxInFlight <= 0)
+            throw new IllegalArgumentException("capacity, batchSize and maxInFlight must be positive");
+        this.pushGateway = pushGateway;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.dispatcher = new Thread(this::dispatch, "RelayQueue");
+        this.dispatcher.setDaemon(true);
+    }
+
+    void start() {
+        dispatcher.start();
+    }
+
+    /**
+     * Stops the dispatcher and waits until the notifications in flight are completed, so the push gateway can be shut
+     * down afterwards. Notifications which are still queued are not sent anymore.
+     */
+    void shutDown() {
+        dispatcher.interrupt();
+        try {
+            dispatcher.join(SHUT_DOWN_TIMEOUT_MS);
+            if (inFlight.tryAcquire(maxInFlight, SHUT_DOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS))
+                inFlight.release(maxInFlight);
+            else
+                log.warn("RelayQueue shut down with {} notifications in flight", maxInFlight - inFlight.availablePermits());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @param send - sends the notification with the given push gateway
+     * @return false if the queue is full
+     */
+    boolean submit(Function<PushGateway, CompletableFuture<String>> send) {
+        if (queue.offer(new Request(send))) {
+            numAccepted.incrementAndGet();
+            return true;
+        }
+        numDropped.incrementAndGet();
+        return false;
+    }
+
+    Metrics getMetrics() {
+        return new Metrics(numAccepted.get(), numDropped.get(), numDelivered.get(), numRejected.get(), numFailed.get(),
+            numBatches.get(), totalLatencyMs.get(), queue.size(), maxInFlight - inFlight.availablePermits());
+    }
+
+    private void dispatch() {
+        List<Request> batch = new ArrayList<>(batchSize);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                numBatches.incrementAndGet();
+                for (Request request : batch) {
+                    inFlight.acquire();
+                    send(request);
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("RelayQueue shut down with {} queued notifications", queue.size());
+    }
+
+    private void send(Request request) {
+        CompletableFuture<String> future;
+        try {
+            future = request.send.apply(pushGateway);
+        } catch (RuntimeException e) {
+            log.error("Failed to send notification: " + e);
+            onCompleted(request, numFailed);
+            return;
+        }
+        future.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                log.error("Failed to send notification: " + throwable);
+                onCompleted(request, numFailed);
+            } else {
+                onCompleted(request, PushGateway.SUCCESS.equals(result) ? numDelivered : numRejected);
+            }
+        });
+    }
+
+    private void onCompleted(Request request, AtomicLong counter) {
+        counter.incrementAndGet();
+        totalLatencyMs.addAndGet(System.currentTimeMillis() - request.queuedAt);
+        inFlight.release(); // after the metrics are updated, so they are complete once all permits are released
+    }
+}
@@ -17,6 +17,8 @@
 
 package haveno.relay;
 
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
@@ -38,15 +40,14 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Scanner;
-import java.util.concurrent.ExecutionException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
-class RelayService {
+class RelayService implements PushGateway {
     private static final Logger log = LoggerFactory.getLogger(RelayMain.class);
     private static final String ANDROID_DATABASE_URL = "https://havenonotifications.firebaseio.com";
-    // Used in Haveno app to check for success state. We won't want a code dependency just for that string so we keep it
-    // duplicated in core and here. Must not be changed.
-    private static final String SUCCESS = "success";
-
+    // Error codes of Firebase for notifications which will never be delivered, as opposed to provider or transport failures
+    private static final Set<String> FIREBASE_REJECTION_CODES = Set.of("registration-token-not-registered", "invalid-argument");
     private final String appleBundleId;
 
     private ApnsClient productionApnsClient;
@@ -92,7 +93,8 @@ class RelayService {
         }
     }
 
-    String sendAppleMessage(boolean isProduction, boolean isContentAvailable, String apsTokenHex, String encryptedMessage, boolean useSound) {
+    @Override
+    public CompletableFuture<String> sendAppleMessage(boolean isProduction, boolean isContentAvailable, String apsTokenHex, String encryptedMessage, boolean useSound) {
         ApnsPayloadBuilder payloadBuilder = new ApnsPayloadBuilder();
         if (useSound)
             payloadBuilder.setSoundFileName("default");
@@ -103,14 +105,21 @@ class RelayService {
         log.info("payload " + payload);
         SimpleApnsPushNotification simpleApnsPushNotification = new SimpleApnsPushNotification(apsTokenHex, appleBundleId, payload);
 
+        // Notifications are multiplexed as streams over the HTTP/2 connection of the client
         ApnsClient apnsClient = isProduction ? productionApnsClient : devApnsClient;
         PushNotificationFuture<SimpleApnsPushNotification, PushNotificationResponse<SimpleApnsPushNotification>>
             notificationFuture = apnsClient.sendNotification(simpleApnsPushNotification);
-        try {
-            PushNotificationResponse<SimpleApnsPushNotification> pushNotificationResponse = notificationFuture.get();
+        CompletableFuture<String> result = new CompletableFuture<>();
+        notificationFuture.addListener(future -> {
+            if (!notificationFuture.isSuccess()) {
+                log.error(notificationFuture.cause().toString());
+                result.completeExceptionally(notificationFuture.cause());
+                return;
+            }
+            PushNotificationResponse<SimpleApnsPushNotification> pushNotificationResponse = notificationFuture.getNow();
             if (pushNotificationResponse.isAccepted()) {
                 log.info("Push notification accepted by APNs gateway.");
-                return SUCCESS;
+                result.complete(SUCCESS);
             } else {
                 String msg1 = "Notification rejected by the APNs gateway: " +
                     pushNotificationResponse.getRejectionReason();
@@ -120,16 +129,14 @@ class RelayService {
                         pushNotificationResponse.getTokenInvalidationTimestamp();
 
                 log.info(msg1 + msg2);
-                return "Error: " + msg1 + msg2;
+                result.complete("Error: " + msg1 + msg2);
             }
-        } catch (InterruptedException | ExecutionException e) {
-            log.error(e.toString());
-            e.printStackTrace();
-            return "Error: " + e.toString();
-        }
+        });
+        return result;
     }
 
-    String sendAndroidMessage(String apsTokenHex, String encryptedMessage, boolean useSound) {
+    @Override
+    public CompletableFuture<String> sendAndroidMessage(String apsTokenHex, String encryptedMessage, boolean useSound) {
         Message.Builder messageBuilder = Message.builder();
         Notification notification = new Notification("Haveno", "Notification");
         messageBuilder.setNotification(notification);
@@ -138,14 +145,39 @@ class RelayService {
         if (useSound)
             messageBuilder.putData("sound", "default");
         Message message = messageBuilder.build();
-        try {
-            FirebaseMessaging firebaseMessaging = FirebaseMessaging.getInstance();
-            firebaseMessaging.send(message);
-            return SUCCESS;
-        } catch (FirebaseMessagingException e) {
-            log.error(e.toString());
-            e.printStackTrace();
-            return "Error: " + e.toString();
-        }
+        CompletableFuture<String> result = new CompletableFuture<>();
+        FirebaseMessaging firebaseMessaging = FirebaseMessaging.getInstance();
+        ApiFutures.addCallback(firebaseMessaging.sendAsync(message), new ApiFutureCallback<>() {
+            @Override
+            public void onSuccess(String messageId) {
+                result.complete(SUCCESS);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                log.error(t.toString());
+                if (isRejection(t)) {
+                    result.complete("Error: " + t.toString());
+                } else {
+                    result.completeExceptionally(t);
+                }
+            }
+        });
+        return result;
+    }
+
+    private static boolean isRejection(Throwable t) {
+        return t instanceof FirebaseMessagingException &&
+            FIREBASE_REJECTION_CODES.contains(((FirebaseMessagingException) t).getErrorCode());
+    }
+
+    @Override
+    public void shutDown() {
+        if (productionApnsClient != null)
+            productionApnsClient.close().awaitUninterruptibly();
+        if (devApnsClient != null)
+            devApnsClient.close().awaitUninterruptibly();
+        FirebaseApp.getApps().forEach(FirebaseApp::delete);
+        log.info("RelayService shut down");
     }
 }
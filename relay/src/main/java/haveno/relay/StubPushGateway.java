@@ -0,0 +1,61 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.relay;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local replacement of the push providers which accepts every notification after a fixed latency, so the relay can be
+ * load tested offline and without credentials.
+ */
+class StubPushGateway implements PushGateway {
+    private final long latencyMs;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "StubPushGateway");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    StubPushGateway(long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    @Override
+    public CompletableFuture<String> sendAppleMessage(boolean isProduction, boolean isContentAvailable, String apsTokenHex, String encryptedMessage, boolean useSound) {
+        return send();
+    }
+
+    @Override
+    public CompletableFuture<String> sendAndroidMessage(String apsTokenHex, String encryptedMessage, boolean useSound) {
+        return send();
+    }
+
+    @Override
+    public void shutDown() {
+        executor.shutdownNow();
+    }
+
+    private CompletableFuture<String> send() {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        executor.schedule(() -> result.complete(SUCCESS), latencyMs, TimeUnit.MILLISECONDS);
+        return result;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.relay;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RelayQueueTest {
+    private static final long TIMEOUT_MS = 5000;
+
+    private final PushGateway pushGateway = new StubPushGateway(0);
+    private RelayQueue queue;
+
+    @AfterEach
+    public void tearDown() {
+        if (queue != null)
+            queue.shutDown();
+        pushGateway.shutDown();
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new RelayQueue(pushGateway, 0, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new RelayQueue(pushGateway, 1, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new RelayQueue(pushGateway, 1, 1, 0));
+    }
+
+    @Test
+    public void testFullQueueRejectsUntilDrained() throws InterruptedException {
+        queue = new RelayQueue(pushGateway, 2, 10, 10);
+        assertTrue(queue.submit(gateway -> CompletableFuture.completedFuture(PushGateway.SUCCESS)));
+        assertTrue(queue.submit(gateway -> CompletableFuture.completedFuture(PushGateway.SUCCESS)));
+        assertFalse(queue.submit(gateway -> CompletableFuture.completedFuture(PushGateway.SUCCESS)));
+        assertEquals(2, queue.getMetrics().getNumAccepted());
+        assertEquals(1, queue.getMetrics().getNumDropped());
+        assertEquals(2, queue.getMetrics().getQueueDepth());
+
+        // the client retries after the queue was drained
+        queue.start();
+        waitUntil(() -> queue.getMetrics().getNumDelivered() == 2);
+        assertTrue(queue.submit(gateway -> CompletableFuture.completedFuture(PushGateway.SUCCESS)));
+        waitUntil(() -> queue.getMetrics().getNumDelivered() == 3);
+        assertEquals(0, queue.getMetrics().getQueueDepth());
+    }
+
+    @Test
+    public void testOutcomes() throws InterruptedException {
+        queue = new RelayQueue(pushGateway, 10, 10, 10);
+        queue.submit(gateway -> gateway.sendAndroidMessage("token", "message", false));
+        queue.submit(gateway -> CompletableFuture.completedFuture("Error: invalid token"));
+        queue.submit(gateway -> CompletableFuture.failedFuture(new RuntimeException("connection lost")));
+        queue.submit(gateway -> {
+            throw new IllegalStateException("not connected");
+        });
+        queue.start();
+
+        waitUntil(() -> queue.getMetrics().getNumFailed() == 2);
+        waitUntil(() -> queue.getMetrics().getNumDelivered() == 1);
+        RelayQueue.Metrics metrics = queue.getMetrics();
+        assertEquals(1, metrics.getNumRejected());
+        assertEquals(0, metrics.getNumInFlight());
+        assertTrue(metrics.getNumBatches() >= 1);
+    }
+
+    @Test
+    public void testMaxInFlight() throws InterruptedException {
+        queue = new RelayQueue(pushGateway, 10, 1, 2);
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            CompletableFuture<String> future = new CompletableFuture<>();
+            futures.add(future);
+            queue.submit(gateway -> future);
+        }
+        queue.start();
+
+        // the dispatcher waits for a response before it sends the third notification
+        waitUntil(() -> queue.getMetrics().getNumInFlight() == 2 && queue.getMetrics().getQueueDepth() == 2);
+        futures.get(0).complete(PushGateway.SUCCESS);
+        waitUntil(() -> queue.getMetrics().getQueueDepth() == 1);
+        assertEquals(2, queue.getMetrics().getNumInFlight());
+
+        futures.forEach(future -> future.complete(PushGateway.SUCCESS));
+        waitUntil(() -> queue.getMetrics().getNumDelivered() == 5);
+        assertEquals(0, queue.getMetrics().getNumInFlight());
+    }
+
+    @Test
+    public void testShutDownWaitsForNotificationsInFlight() throws InterruptedException {
+        queue = new RelayQueue(pushGateway, 10, 10, 10);
+        CompletableFuture<String> future = new CompletableFuture<>();
+        queue.submit(gateway -> future);
+        queue.start();
+        waitUntil(() -> queue.getMetrics().getNumInFlight() == 1);
+
+        CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS)
+                .execute(() -> future.complete(PushGateway.SUCCESS));
+        queue.shutDown();
+        assertEquals(1, queue.getMetrics().getNumDelivered());
+        assertEquals(0, queue.getMetrics().getNumInFlight());
+
+        // notifications queued after the shut down are not sent anymore
+        assertTrue(queue.submit(gateway -> CompletableFuture.completedFuture(PushGateway.SUCCESS)));
+        Thread.sleep(100);
+        assertEquals(1, queue.getMetrics().getQueueDepth());
+        assertEquals(1, queue.getMetrics().getNumDelivered());
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out");
+            Thread.sleep(10);
+        }
+    }
+}